@@ -0,0 +1,284 @@
+package com.can.cluster;
+
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Asenkron birincil-yedek replikasyonu yürütür. İstemci yazması birincil
+ * replikaya uygulandıktan sonra yedeklere giden kayıtlar her yedek için ayrı
+ * bir {@link ReplicationLog} içine sıra numarasıyla eklenir ve istemci
+ * beklemeden onaylanır. Her yedek için bir sanal iş parçacığı günlüğü
+ * partiler halinde {@link ReplicationStream} üzerinden gönderir; onay
+ * beklemeden yolda tutulan parti sayısı yapılandırılabilir. Bağlantı koparsa
+ * akış yeniden açılır ve son onaylanan numaradan itibaren yeniden gönderilir;
+ * yedek tarafı zaten uyguladığı numaraları atlar.
+ * <p>
+ * Yedek başına onaylanmamış kayıt sayısı ve en eski kaydın yaşı gecikme
+ * göstergesi olarak yayımlanır. Halkadan çıkan yedeğin göndericisi
+ * {@link #forget(String)} ile durdurulur; göstergeleri kaldırılır ve
+ * onaylanmamış kayıtları ipucu olarak saklanmak üzere çağırana verilir.
+ */
+public final class AsyncReplicator implements AutoCloseable
+{
+    private static final Logger LOG = Logger.getLogger(AsyncReplicator.class);
+    private static final long IDLE_WAIT_MILLIS = 1_000L;
+    private static final long MIN_BACKOFF_MILLIS = 100L;
+    private static final long MAX_BACKOFF_MILLIS = 5_000L;
+
+    private final String localNodeId;
+    private final int logCapacity;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final StreamOpener opener;
+    private final MetricsRegistry metrics;
+    private final long session = ThreadLocalRandom.current().nextLong();
+    private final Map<String, Shipper> shippers = new ConcurrentHashMap<>();
+    private final Counter shipped;
+    private final Counter overflows;
+    private final Counter streamFailures;
+    private volatile boolean running = true;
+
+    public AsyncReplicator(String localNodeId,
+                           int logCapacity,
+                           int batchSize,
+                           int maxInFlight,
+                           StreamOpener opener,
+                           MetricsRegistry metrics)
+    {
+        this.localNodeId = Objects.requireNonNull(localNodeId, "localNodeId");
+        this.logCapacity = Math.max(1, logCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.opener = Objects.requireNonNull(opener, "opener");
+        this.metrics = metrics;
+        if (metrics != null) {
+            this.shipped = metrics.counter("replication_async_shipped_total");
+            this.overflows = metrics.counter("replication_async_overflow_total");
+            this.streamFailures = metrics.counter("replication_async_stream_failures_total");
+        } else {
+            this.shipped = null;
+            this.overflows = null;
+            this.streamFailures = null;
+        }
+    }
+
+    /**
+     * Kaydı yedek düğüme gönderilmek üzere sıraya alır. Yerel düğüm için kayıt
+     * hemen uygulanır. Yedeğin günlüğü doluysa {@code false} döner; çağıran
+     * yazmayı ipucu olarak saklamalıdır.
+     */
+    public boolean replicate(Node<String, String> node, Mutation<String, String> mutation)
+    {
+        Objects.requireNonNull(node, "node");
+        Objects.requireNonNull(mutation, "mutation");
+        if (node.id().equals(localNodeId)) {
+            node.applyBatch(List.of(mutation));
+            return true;
+        }
+        if (!running) {
+            return false;
+        }
+        Shipper shipper = shippers.computeIfAbsent(node.id(), this::startShipper);
+        shipper.target = node;
+        if (shipper.log.append(mutation) < 0L) {
+            if (overflows != null) {
+                overflows.inc();
+            }
+            return false;
+        }
+        // Gönderici bu arada durdurulduysa kayıt devredilen listede olmayabilir; çağıran ipucu yazar.
+        return !shipper.stopped;
+    }
+
+    /**
+     * Halkadan çıkan yedeğin göndericisini durdurur ve göstergelerini kaldırır.
+     * Onaylanmamış kayıtlar sırasıyla döndürülür; çağıran bunları ipucu olarak
+     * saklamalıdır. Yolda olan partiler de listede yer alır, bu yüzden bazı
+     * kayıtlar yedeğe iki kez ulaşabilir.
+     */
+    public List<Mutation<String, String>> forget(String nodeId)
+    {
+        Shipper shipper = shippers.remove(nodeId);
+        if (shipper == null) {
+            return List.of();
+        }
+        shipper.stopped = true;
+        if (shipper.thread != null) {
+            shipper.thread.interrupt();
+        }
+        if (metrics != null) {
+            String label = "{node=" + nodeId + "}";
+            metrics.removeGauge("replication_log_lag_entries" + label);
+            metrics.removeGauge("replication_log_lag_millis" + label);
+        }
+        List<ReplicationLog.Entry> pending = shipper.log.read(shipper.log.ackedSeq() + 1, Integer.MAX_VALUE);
+        List<Mutation<String, String>> mutations = new ArrayList<>(pending.size());
+        for (ReplicationLog.Entry entry : pending) {
+            mutations.add(entry.mutation());
+        }
+        if (!mutations.isEmpty()) {
+            LOG.infof("Stopped replication to departed node %s, handing %d entries to hints", nodeId, mutations.size());
+        }
+        return mutations;
+    }
+
+    /** Tüm yedekler için toplam onaylanmamış kayıt ve en büyük gecikme süresi. */
+    public ReplicationLag lag()
+    {
+        long now = System.currentTimeMillis();
+        long entries = 0L;
+        long millis = 0L;
+        for (Shipper shipper : shippers.values()) {
+            entries += shipper.log.lagEntries();
+            millis = Math.max(millis, shipper.log.lagMillis(now));
+        }
+        return new ReplicationLag(entries, millis);
+    }
+
+    public Map<String, ReplicationLag> lagByNode()
+    {
+        long now = System.currentTimeMillis();
+        Map<String, ReplicationLag> result = new LinkedHashMap<>();
+        shippers.forEach((id, shipper) ->
+                result.put(id, new ReplicationLag(shipper.log.lagEntries(), shipper.log.lagMillis(now))));
+        return result;
+    }
+
+    private Shipper startShipper(String nodeId)
+    {
+        Shipper shipper = new Shipper(nodeId, new ReplicationLog(logCapacity));
+        if (metrics != null) {
+            String label = "{node=" + nodeId + "}";
+            metrics.gauge("replication_log_lag_entries" + label, shipper.log::lagEntries);
+            metrics.gauge("replication_log_lag_millis" + label,
+                    () -> shipper.log.lagMillis(System.currentTimeMillis()));
+        }
+        shipper.thread = Thread.ofVirtual().name("replication-shipper-" + nodeId).start(shipper::run);
+        return shipper;
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        for (Shipper shipper : shippers.values()) {
+            if (shipper.thread != null) {
+                shipper.thread.interrupt();
+            }
+        }
+    }
+
+    /** Yedek düğüme sıralı bir replikasyon akışı açar. */
+    @FunctionalInterface
+    public interface StreamOpener
+    {
+        ReplicationStream open(Node<String, String> node, String primaryId, long session) throws IOException;
+    }
+
+    /** Onaylanmamış kayıt sayısı ve en eski kaydın milisaniye cinsinden yaşı. */
+    public record ReplicationLag(long entries, long millis)
+    {
+    }
+
+    private final class Shipper
+    {
+        private final String nodeId;
+        private final ReplicationLog log;
+        private volatile Node<String, String> target;
+        private volatile boolean stopped;
+        private Thread thread;
+
+        private Shipper(String nodeId, ReplicationLog log)
+        {
+            this.nodeId = nodeId;
+            this.log = log;
+        }
+
+        private void run()
+        {
+            long backoff = MIN_BACKOFF_MILLIS;
+            while (running && !stopped) {
+                try {
+                    if (!log.awaitAfter(log.ackedSeq(), IDLE_WAIT_MILLIS)) {
+                        continue;
+                    }
+                    Node<String, String> node = target;
+                    try (ReplicationStream stream = opener.open(node, localNodeId, session)) {
+                        pump(stream, node);
+                    }
+                    backoff = MIN_BACKOFF_MILLIS;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    if (!running || stopped) {
+                        return;
+                    }
+                    if (streamFailures != null) {
+                        streamFailures.inc();
+                    }
+                    LOG.debugf(e, "Replication stream to %s failed, %d entries pending", nodeId, log.lagEntries());
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+                }
+            }
+        }
+
+        /**
+         * Akış sağlıklı ve hedef değişmediği sürece günlüğü gönderir. Pencere
+         * doluysa ya da gönderilecek kayıt kalmadıysa sıradaki onayı bekler.
+         * Günlük tamamen onaylanıp boşta kalındığında akış kapatılır.
+         */
+        private void pump(ReplicationStream stream, Node<String, String> node) throws IOException, InterruptedException
+        {
+            long sentSeq = log.ackedSeq();
+            int inFlight = 0;
+            while (running && !stopped && target == node) {
+                if (inFlight < maxInFlight && log.lastSeq() > sentSeq) {
+                    List<ReplicationLog.Entry> batch = log.read(sentSeq + 1, batchSize);
+                    if (batch.isEmpty()) {
+                        // Onaylanmamış kayıtlar başka bir akışta gitmiş olabilir; onaydan devam ediyoruz.
+                        sentSeq = Math.max(sentSeq, log.ackedSeq());
+                        continue;
+                    }
+                    List<Mutation<String, String>> mutations = new ArrayList<>(batch.size());
+                    for (ReplicationLog.Entry entry : batch) {
+                        mutations.add(entry.mutation());
+                    }
+                    stream.send(batch.get(0).seq(), mutations);
+                    sentSeq = batch.get(batch.size() - 1).seq();
+                    inFlight++;
+                    continue;
+                }
+                if (inFlight > 0) {
+                    long before = log.ackedSeq();
+                    long acked = stream.readAck();
+                    log.ack(acked);
+                    inFlight--;
+                    if (shipped != null && acked > before) {
+                        shipped.add(acked - before);
+                    }
+                    continue;
+                }
+                if (!log.awaitAfter(sentSeq, IDLE_WAIT_MILLIS)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,57 @@
 package com.can.cluster;
 
+import com.can.cluster.handoff.Hint;
 import com.can.codec.Codec;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Tutarlı hash halkası üzerinden anahtarları ilgili düğümlere yönlendirerek
  * yazma/okuma işlemlerini gerçekleştiren istemci katmanıdır. Lider izleme
  * yaklaşımıyla ilk düğüm lider kabul edilir, çoğunluk onayı alındığında işlem
  * başarılı sayılır. Uzak düğümler geçici olarak ulaşılamadığında ipucu-handoff
- * mekanizması devreye girer.
+ * mekanizması devreye girer. Okumalarda ilk replika gecikirse {@link HedgedReadPolicy}
+ * bütçesi dahilinde sıradaki replikaya spekülatif istek gönderilir ve ilk gelen
+ * yanıt kullanılır. {@link NodeHealthTracker} okuma replikalarını sağlık skoruna
+ * göre sıralar; devresi açık düğümlere yazma gönderilmez, doğrudan ipucu
+ * kuyruğuna alınır.
+ * <p>
+ * {@link AsyncReplicator} verildiğinde yazmalar asenkron modda yürütülür: sıradaki
+ * ilk erişilebilir replika birincil kabul edilir ve yalnızca onun yanıtı
+ * beklenir, diğer replikalar replikasyon günlüğü üzerinden arkadan güncellenir.
+ * Başarılı CAS yedeklere düz SET olarak taşınır; günlüğü dolan yedekler için
+ * yazma ipucu olarak saklanır.
+ * <p>
+ * Senkron yazmalarda ve {@link ConsistencyLevel#ONE} üzerindeki okumalarda
+ * beklenecek replika sayısı {@link ConsistencyPolicy} ile anahtar önekine göre
+ * ya da istek başına verilen {@link ConsistencyLevel} ile belirlenir. Paralel
+ * dağıtım açıksa istek tüm replikalara aynı anda gönderilir ve istenen seviye
+ * sağlandığı anda dönülür; geride kalan replikalar arkada tamamlanır ve hata
+ * verenler ipucu kuyruğuna alınır.
+ * <p>
+ * Birden fazla replikanın beklendiği okumalarda yanıtlar {@link ValueVersioning}
+ * ile karşılaştırılır ve en yeni sürüm döndürülür. Daha eski sürümle yanıt veren
+ * replikalar arkada en yeni değerle onarılır. Silmeler iz bırakmadığından boş
+ * yanıt veren replikalar onarılmaz; aksi halde silinmiş bir değer geri gelebilirdi.
  */
-public final class ClusterClient
+public final class ClusterClient implements AutoCloseable
 {
     private static final Logger LOG = Logger.getLogger(ClusterClient.class);
 
@@ -23,16 +59,111 @@ public final class ClusterClient
     private final int replicationFactor;
     private final Codec<String> keyCodec;
     private final HintedHandoffService hintedHandoffService;
+    private final HedgedReadPolicy hedgedReads;
+    private final NodeHealthTracker health;
+    private final AsyncReplicator asyncReplicator;
+    private final ConsistencyPolicy consistency;
+    private final ValueVersioning<String> versioning;
+    private final ExecutorService readExecutor;
+    private final ExecutorService fanOutExecutor;
+    // Asenkron yazmada aynı anahtara gelen yazmalar birbirinin tamamlanmasını sırayla bekler.
+    private final Map<String, CompletableFuture<Void>> writeOrder = new ConcurrentHashMap<>();
+    private final Counter hedgedReadCount;
+    private final Counter hedgedReadWins;
+    private final Counter hedgeBudgetExhausted;
+    private final Counter readRepairs;
 
     public ClusterClient(ConsistentHashRing<Node<String, String>> ring,
                          int replicationFactor,
                          Codec<String> keyCodec,
                          HintedHandoffService hintedHandoffService)
+    {
+        this(ring, replicationFactor, keyCodec, hintedHandoffService, HedgedReadPolicy.disabled(),
+                NodeHealthTracker.disabled(), null);
+    }
+
+    public ClusterClient(ConsistentHashRing<Node<String, String>> ring,
+                         int replicationFactor,
+                         Codec<String> keyCodec,
+                         HintedHandoffService hintedHandoffService,
+                         HedgedReadPolicy hedgedReads,
+                         NodeHealthTracker health,
+                         MetricsRegistry metrics)
+    {
+        this(ring, replicationFactor, keyCodec, hintedHandoffService, hedgedReads, health, metrics, null);
+    }
+
+    public ClusterClient(ConsistentHashRing<Node<String, String>> ring,
+                         int replicationFactor,
+                         Codec<String> keyCodec,
+                         HintedHandoffService hintedHandoffService,
+                         HedgedReadPolicy hedgedReads,
+                         NodeHealthTracker health,
+                         MetricsRegistry metrics,
+                         AsyncReplicator asyncReplicator)
+    {
+        this(ring, replicationFactor, keyCodec, hintedHandoffService, hedgedReads, health, metrics, asyncReplicator,
+                ConsistencyPolicy.defaults(asyncReplicator != null ? ReplicationMode.ASYNC : ReplicationMode.SYNC), false);
+    }
+
+    /**
+     * {@code parallelFanOut} kapalıysa replikalar çağıran iş parçacığında sırayla
+     * dolaşılır ve tüm yanıtlar alındıktan sonra karar verilir.
+     */
+    public ClusterClient(ConsistentHashRing<Node<String, String>> ring,
+                         int replicationFactor,
+                         Codec<String> keyCodec,
+                         HintedHandoffService hintedHandoffService,
+                         HedgedReadPolicy hedgedReads,
+                         NodeHealthTracker health,
+                         MetricsRegistry metrics,
+                         AsyncReplicator asyncReplicator,
+                         ConsistencyPolicy consistency,
+                         boolean parallelFanOut)
+    {
+        this(ring, replicationFactor, keyCodec, hintedHandoffService, hedgedReads, health, metrics, asyncReplicator,
+                consistency, parallelFanOut, ValueVersioning.none());
+    }
+
+    /** {@code versioning}, çoğunluk okumalarında replika yanıtlarından en yenisini seçmek için kullanılır. */
+    public ClusterClient(ConsistentHashRing<Node<String, String>> ring,
+                         int replicationFactor,
+                         Codec<String> keyCodec,
+                         HintedHandoffService hintedHandoffService,
+                         HedgedReadPolicy hedgedReads,
+                         NodeHealthTracker health,
+                         MetricsRegistry metrics,
+                         AsyncReplicator asyncReplicator,
+                         ConsistencyPolicy consistency,
+                         boolean parallelFanOut,
+                         ValueVersioning<String> versioning)
     {
         this.ring = Objects.requireNonNull(ring, "ring");
         this.replicationFactor = Math.max(1, replicationFactor);
         this.keyCodec = Objects.requireNonNull(keyCodec, "keyCodec");
         this.hintedHandoffService = Objects.requireNonNull(hintedHandoffService, "hintedHandoffService");
+        this.hedgedReads = Objects.requireNonNull(hedgedReads, "hedgedReads");
+        this.health = Objects.requireNonNull(health, "health");
+        this.asyncReplicator = asyncReplicator;
+        this.consistency = Objects.requireNonNull(consistency, "consistency");
+        this.versioning = Objects.requireNonNull(versioning, "versioning");
+        this.fanOutExecutor = parallelFanOut
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-replica-", 0).factory())
+                : null;
+        this.readExecutor = hedgedReads.enabled()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-read-", 0).factory())
+                : null;
+        if (metrics != null) {
+            this.hedgedReadCount = metrics.counter("cluster_hedged_reads_total");
+            this.hedgedReadWins = metrics.counter("cluster_hedged_read_wins_total");
+            this.hedgeBudgetExhausted = metrics.counter("cluster_hedge_budget_exhausted_total");
+            this.readRepairs = metrics.counter("cluster_read_repairs_total");
+        } else {
+            this.hedgedReadCount = null;
+            this.hedgedReadWins = null;
+            this.hedgeBudgetExhausted = null;
+            this.readRepairs = null;
+        }
     }
 
     private List<Node<String, String>> replicas(String key)
@@ -40,122 +171,497 @@ public final class ClusterClient
         return new ArrayList<>(ring.getReplicas(keyCodec.encode(key), replicationFactor));
     }
 
-    private int majority(int nodes)
+    private <T> T invoke(Node<String, String> node, Function<Node<String, String>, T> operation)
     {
-        return (nodes / 2) + 1;
+        String nodeId = node.id();
+        if (!health.allowRequest(nodeId)) {
+            throw new CircuitOpenException(nodeId);
+        }
+        long start = health.begin(nodeId);
+        try {
+            T result = operation.apply(node);
+            health.onSuccess(nodeId, start);
+            return result;
+        } catch (RuntimeException e) {
+            health.onFailure(nodeId, start);
+            throw e;
+        }
     }
 
-    public boolean set(String key, String value, Duration ttl)
+    /**
+     * Asenkron modda yazmayı sıradaki ilk erişilebilir replikaya uygular ve
+     * başarılıysa kalan replikalara {@code replicated} kaydını günlük üzerinden
+     * gönderir. Birincile ulaşılamayan replikalar ve günlüğü dolan yedekler
+     * {@code hint} ile ipucu kuyruğuna alınır. Hiçbir replika yanıt vermezse
+     * replikalar {@code failureHint} ile işaretlenir; seviye {@link ConsistencyLevel#ANY}
+     * ise ipucu yeterli sayılır, değilse {@code rethrow} ile ilk hata fırlatılır.
+     * <p>
+     * Aynı anahtara bu düğüm üzerinden gelen yazmalar sıraya girer: her yazma,
+     * önceki yazma birincile uygulanıp yedek günlüklerine eklenene kadar bekler.
+     * Böylece yedekler kayıtları birincilin uyguladığı sırayla alır. Sıra kilitle
+     * değil anahtar başına tamamlanma zinciriyle tutulur; uzak çağrı sürerken
+     * hiçbir kilit tutulmaz ve farklı anahtarlar birbirini beklemez.
+     */
+    private boolean writeAsync(List<Node<String, String>> nodes,
+                               ConsistencyLevel level,
+                               Function<Node<String, String>, Boolean> operation,
+                               Mutation<String, String> replicated,
+                               Consumer<String> hint,
+                               Consumer<String> failureHint,
+                               boolean rethrow)
     {
-        List<Node<String, String>> nodes = replicas(key);
-        if (nodes.isEmpty()) {
-            return false;
+        String key = replicated.key();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = writeOrder.put(key, done);
+        try {
+            if (previous != null) {
+                previous.join();
+            }
+            return writeAsyncOrdered(nodes, level, operation, replicated, hint, failureHint, rethrow);
+        } finally {
+            done.complete(null);
+            writeOrder.remove(key, done);
         }
-        int quorum = majority(nodes.size());
-        int successes = 0;
-        RuntimeException leaderFailure = null;
+    }
 
+    private boolean writeAsyncOrdered(List<Node<String, String>> nodes,
+                                      ConsistencyLevel level,
+                                      Function<Node<String, String>, Boolean> operation,
+                                      Mutation<String, String> replicated,
+                                      Consumer<String> hint,
+                                      Consumer<String> failureHint,
+                                      boolean rethrow)
+    {
+        List<Node<String, String>> unreachable = new ArrayList<>();
+        RuntimeException firstFailure = null;
+        int primary = -1;
+        boolean result = false;
         for (int i = 0; i < nodes.size(); i++) {
             Node<String, String> node = nodes.get(i);
-            boolean ok;
             try {
-                ok = node.set(key, value, ttl);
+                result = invoke(node, operation);
+                primary = i;
+                break;
             } catch (RuntimeException e) {
-                LOG.debugf(e, "Failed to write key %s on node %s", key, node.id());
-                hintedHandoffService.recordSet(node.id(), key, value, ttl);
-                if (i == 0) {
-                    leaderFailure = e;
+                LOG.debugf(e, "Failed to write key %s on node %s", replicated.key(), node.id());
+                unreachable.add(node);
+                if (firstFailure == null) {
+                    firstFailure = e;
                 }
-                continue;
             }
+        }
 
-            if (ok) {
-                successes++;
-            } else if (i > 0) {
-                hintedHandoffService.recordSet(node.id(), key, value, ttl);
+        if (primary < 0) {
+            for (Node<String, String> node : unreachable) {
+                failureHint.accept(node.id());
             }
+            if (level == ConsistencyLevel.ANY && !unreachable.isEmpty()) {
+                return true;
+            }
+            if (rethrow && firstFailure != null) {
+                throw firstFailure;
+            }
+            return false;
+        }
+        if (!result) {
+            return false;
+        }
+        for (Node<String, String> node : unreachable) {
+            hint.accept(node.id());
+        }
+        for (int i = primary + 1; i < nodes.size(); i++) {
+            Node<String, String> node = nodes.get(i);
+            if (!asyncReplicator.replicate(node, replicated)) {
+                hint.accept(node.id());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Asenkron mod yalnızca birincili beklediği için daha güçlü seviyeler
+     * istendiğinde yazma senkron yoldan yürütülür.
+     */
+    private boolean useAsync(ConsistencyLevel level)
+    {
+        return asyncReplicator != null && (level == ConsistencyLevel.ONE || level == ConsistencyLevel.ANY);
+    }
+
+    /**
+     * Yazmayı tüm replikalara dağıtır ve {@code level} için gereken onay sayısına
+     * ulaşıldığı anda döner. Hata veren replikalar {@code failureHint}, lider
+     * dışında işlemi reddeden replikalar ise verilmişse {@code rejectHint} ile
+     * ipucu kuyruğuna alınır; bu kayıt geride kalan replikalar için dönüşten
+     * sonra da yapılır. Seviye sağlanamazsa lider hata verdiyse ve
+     * {@code rethrow} açıksa liderin hatası fırlatılır.
+     */
+    private boolean writeWithLevel(List<Node<String, String>> nodes,
+                                   ConsistencyLevel level,
+                                   String key,
+                                   Function<Node<String, String>, Boolean> operation,
+                                   Consumer<String> failureHint,
+                                   Consumer<String> rejectHint,
+                                   boolean rethrow)
+    {
+        int required = level.required(nodes.size());
+        BlockingQueue<WriteOutcome> outcomes = new LinkedBlockingQueue<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            int index = i;
+            Node<String, String> node = nodes.get(i);
+            dispatch(() -> {
+                try {
+                    boolean ok = invoke(node, operation);
+                    if (!ok && index > 0 && rejectHint != null) {
+                        rejectHint.accept(node.id());
+                    }
+                    outcomes.add(new WriteOutcome(index, ok, null));
+                } catch (RuntimeException e) {
+                    LOG.debugf(e, "Failed to write key %s on node %s", key, node.id());
+                    failureHint.accept(node.id());
+                    outcomes.add(new WriteOutcome(index, false, e));
+                }
+            }, e -> outcomes.add(new WriteOutcome(index, false, e)));
         }
 
-        if (successes >= quorum) {
+        int successes = 0;
+        int failures = 0;
+        int received = 0;
+        RuntimeException leaderFailure = null;
+        try {
+            while (received < nodes.size()) {
+                WriteOutcome outcome = outcomes.take();
+                received++;
+                if (outcome.failure() != null) {
+                    failures++;
+                    if (outcome.index() == 0) {
+                        leaderFailure = outcome.failure();
+                    }
+                } else if (outcome.ok()) {
+                    successes++;
+                }
+                if (successes >= required) {
+                    return true;
+                }
+                if (successes + (nodes.size() - received) < required) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing key " + key, e);
+        }
+
+        // Seviye artık sağlanamaz; hazır bekleyen yanıtlarda liderin hatası olabilir.
+        WriteOutcome pending;
+        while ((pending = outcomes.poll()) != null) {
+            if (pending.failure() != null) {
+                failures++;
+                if (pending.index() == 0) {
+                    leaderFailure = pending.failure();
+                }
+            }
+        }
+        if (level == ConsistencyLevel.ANY && failures > 0) {
             return true;
         }
-        if (leaderFailure != null) {
+        if (rethrow && leaderFailure != null) {
             throw leaderFailure;
         }
         return false;
     }
 
-    public String get(String key)
+    private void dispatch(Runnable task, Consumer<RuntimeException> onRejected)
     {
-        List<Node<String, String>> nodes = replicas(key);
-        for (Node<String, String> node : nodes) {
-            String value = node.get(key);
-            if (value != null) {
-                return value;
-            }
+        if (fanOutExecutor == null) {
+            task.run();
+            return;
+        }
+        try {
+            fanOutExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            onRejected.accept(e);
         }
-        return null;
     }
 
-    public boolean delete(String key)
+    public boolean set(String key, String value, Duration ttl)
+    {
+        return set(key, value, ttl, null);
+    }
+
+    /** {@code level} boşsa anahtarın önekine göre politikadaki seviye kullanılır. */
+    public boolean set(String key, String value, Duration ttl, ConsistencyLevel level)
     {
         List<Node<String, String>> nodes = replicas(key);
         if (nodes.isEmpty()) {
             return false;
         }
-        int quorum = majority(nodes.size());
-        int successes = 0;
+        ConsistencyLevel effective = level != null ? level : consistency.writeLevel(key);
+        Consumer<String> hint = nodeId -> hintedHandoffService.recordSet(nodeId, key, value, ttl);
+        if (useAsync(effective)) {
+            Mutation<String, String> replicated = Mutation.set(key, value, Hint.expireAtFor(ttl, System.currentTimeMillis()));
+            return writeAsync(nodes, effective, n -> n.set(key, value, ttl), replicated, hint, hint, true);
+        }
+        return writeWithLevel(nodes, effective, key, n -> n.set(key, value, ttl), hint, hint, true);
+    }
+
+    public String get(String key)
+    {
+        return get(key, null);
+    }
+
+    /**
+     * {@link ConsistencyLevel#QUORUM} ve {@link ConsistencyLevel#ALL} okumalarında
+     * istenen sayıda replika yanıt verene kadar beklenir ve yanıt verenler
+     * arasında sürümü en yeni olan dolu değer döndürülür; eski sürümle yanıt
+     * veren replikalar arkada onarılır. Daha zayıf
+     * seviyelerde ilk dolu yanıt yeterlidir ve hedging uygulanabilir.
+     */
+    public String get(String key, ConsistencyLevel level)
+    {
+        List<Node<String, String>> nodes = health.orderForRead(replicas(key));
+        ConsistencyLevel effective = level != null ? level : consistency.readLevel(key);
+        int required = effective.required(nodes.size());
+        if (required > 1) {
+            return readWithLevel(key, nodes, effective, required);
+        }
+        if (readExecutor == null || nodes.size() < 2) {
+            for (Node<String, String> node : nodes) {
+                String value;
+                try {
+                    value = timedGet(node, key);
+                } catch (CircuitOpenException e) {
+                    continue;
+                }
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+        return hedgedGet(key, nodes);
+    }
+
+    private String readWithLevel(String key, List<Node<String, String>> nodes, ConsistencyLevel level, int required)
+    {
+        BlockingQueue<ReplicaRead> outcomes = new LinkedBlockingQueue<>();
         for (int i = 0; i < nodes.size(); i++) {
+            int index = i;
             Node<String, String> node = nodes.get(i);
-            try {
-                if (node.delete(key)) {
-                    successes++;
-                } else if (i > 0) {
-                    hintedHandoffService.recordDelete(node.id(), key);
+            dispatch(() -> {
+                try {
+                    outcomes.add(new ReplicaRead(index, timedGet(node, key), null));
+                } catch (RuntimeException e) {
+                    outcomes.add(new ReplicaRead(index, null, e));
+                }
+            }, e -> outcomes.add(new ReplicaRead(index, null, e)));
+        }
+
+        String[] values = new String[nodes.size()];
+        int responses = 0;
+        int received = 0;
+        RuntimeException firstFailure = null;
+        try {
+            while (received < nodes.size()) {
+                ReplicaRead outcome = outcomes.take();
+                received++;
+                if (outcome.failure() != null) {
+                    LOG.debugf(outcome.failure(), "Failed to read key %s", key);
+                    if (firstFailure == null) {
+                        firstFailure = outcome.failure();
+                    }
+                } else {
+                    values[outcome.index()] = outcome.value();
+                    responses++;
+                }
+                if (responses >= required) {
+                    return newest(key, nodes, values);
+                }
+                if (responses + (nodes.size() - received) < required) {
+                    break;
                 }
-            } catch (RuntimeException e) {
-                LOG.debugf(e, "Failed to delete key %s on node %s", key, node.id());
-                hintedHandoffService.recordDelete(node.id(), key);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading key " + key, e);
         }
-        return successes >= quorum;
+        throw new IllegalStateException("Read consistency " + level + " not met for key " + key
+                + " (" + responses + "/" + required + " replicas)", firstFailure);
     }
 
-    public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
+    /**
+     * Yanıtlar arasından sürümü en yüksek dolu değeri seçer; eşitlikte okuma
+     * sırası korunur. Daha eski sürüm döndüren replikalar için onarım başlatılır.
+     */
+    private String newest(String key, List<Node<String, String>> nodes, String[] values)
     {
-        List<Node<String, String>> nodes = replicas(key);
-        if (nodes.isEmpty()) {
-            return false;
+        String newest = null;
+        long newestVersion = Long.MIN_VALUE;
+        for (String value : values) {
+            if (value != null && (newest == null || versioning.version(value) > newestVersion)) {
+                newest = value;
+                newestVersion = versioning.version(value);
+            }
         }
-        int quorum = majority(nodes.size());
-        int successes = 0;
-        RuntimeException leaderFailure = null;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && versioning.version(values[i]) < newestVersion) {
+                repair(nodes.get(i), key, newest, newestVersion);
+            }
+        }
+        return newest;
+    }
 
-        for (int i = 0; i < nodes.size(); i++) {
-            Node<String, String> node = nodes.get(i);
-            boolean ok;
+    /**
+     * Eski sürümle yanıt veren replikaya en yeni değeri yazar. Arada daha yeni
+     * bir yazma gelmişse ezmemek için replika yazmadan hemen önce yeniden okunur.
+     */
+    private void repair(Node<String, String> node, String key, String value, long version)
+    {
+        dispatch(() -> {
             try {
-                ok = node.compareAndSwap(key, value, expectedCas, ttl);
-            } catch (RuntimeException e) {
-                LOG.debugf(e, "Failed to CAS key %s on node %s", key, node.id());
-                hintedHandoffService.recordCas(node.id(), key, value, expectedCas, ttl);
-                if (i == 0) {
-                    leaderFailure = e;
+                String current = invoke(node, n -> n.get(key));
+                if (current == null || versioning.version(current) >= version) {
+                    return;
                 }
-                continue;
+                Duration ttl = Mutation.set(key, value, versioning.expireAtMillis(value)).ttl(System.currentTimeMillis());
+                if (invoke(node, n -> n.set(key, value, ttl)) && readRepairs != null) {
+                    readRepairs.inc();
+                }
+            } catch (RuntimeException e) {
+                LOG.debugf(e, "Read repair of key %s on %s failed", key, node.id());
             }
-            if (ok) {
-                successes++;
+        }, e -> LOG.debugf(e, "Read repair of key %s on %s rejected", key, node.id()));
+    }
+
+    private String timedGet(Node<String, String> node, String key)
+    {
+        long start = System.nanoTime();
+        String value = invoke(node, n -> n.get(key));
+        hedgedReads.recordLatency(node.id(), System.nanoTime() - start);
+        return value;
+    }
+
+    private String hedgedGet(String key, List<Node<String, String>> nodes)
+    {
+        hedgedReads.onPrimaryRead();
+        BlockingQueue<ReadOutcome> outcomes = new LinkedBlockingQueue<>();
+        int next = 0;
+        int outstanding = 0;
+        RuntimeException firstFailure = null;
+
+        launchRead(nodes.get(next++), key, false, outcomes);
+        outstanding++;
+
+        try {
+            while (outstanding > 0) {
+                ReadOutcome outcome;
+                if (next < nodes.size()) {
+                    long delay = hedgedReads.hedgeDelayNanos(nodes.get(next - 1).id());
+                    outcome = outcomes.poll(delay, TimeUnit.NANOSECONDS);
+                    if (outcome == null) {
+                        if (hedgedReads.tryAcquireHedge()) {
+                            if (hedgedReadCount != null) {
+                                hedgedReadCount.inc();
+                            }
+                            launchRead(nodes.get(next++), key, true, outcomes);
+                            outstanding++;
+                            continue;
+                        }
+                        if (hedgeBudgetExhausted != null) {
+                            hedgeBudgetExhausted.inc();
+                        }
+                        outcome = outcomes.take();
+                    }
+                } else {
+                    outcome = outcomes.take();
+                }
+                outstanding--;
+
+                if (outcome.failure() != null) {
+                    LOG.debugf(outcome.failure(), "Failed to read key %s", key);
+                    if (firstFailure == null) {
+                        firstFailure = outcome.failure();
+                    }
+                } else if (outcome.value() != null) {
+                    if (outcome.hedged() && hedgedReadWins != null) {
+                        hedgedReadWins.inc();
+                    }
+                    return outcome.value();
+                }
+
+                // Iskalama ya da hata: bekleyen istek kalmadıysa sıradaki replikaya hemen geç.
+                if (outstanding == 0 && next < nodes.size()) {
+                    launchRead(nodes.get(next++), key, false, outcomes);
+                    outstanding++;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading key " + key, e);
         }
 
-        if (successes >= quorum) {
-            return true;
+        if (firstFailure != null) {
+            throw firstFailure;
         }
-        if (leaderFailure != null) {
-            throw leaderFailure;
+        return null;
+    }
+
+    private void launchRead(Node<String, String> node, String key, boolean hedged, BlockingQueue<ReadOutcome> outcomes)
+    {
+        try {
+            readExecutor.execute(() -> {
+                try {
+                    outcomes.add(new ReadOutcome(timedGet(node, key), null, hedged));
+                } catch (CircuitOpenException e) {
+                    outcomes.add(new ReadOutcome(null, null, hedged));
+                } catch (RuntimeException e) {
+                    outcomes.add(new ReadOutcome(null, e, hedged));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            outcomes.add(new ReadOutcome(null, e, hedged));
         }
-        return false;
+    }
+
+    public boolean delete(String key)
+    {
+        return delete(key, null);
+    }
+
+    public boolean delete(String key, ConsistencyLevel level)
+    {
+        List<Node<String, String>> nodes = replicas(key);
+        if (nodes.isEmpty()) {
+            return false;
+        }
+        ConsistencyLevel effective = level != null ? level : consistency.writeLevel(key);
+        Consumer<String> hint = nodeId -> hintedHandoffService.recordDelete(nodeId, key);
+        if (useAsync(effective)) {
+            return writeAsync(nodes, effective, n -> n.delete(key), Mutation.delete(key), hint, hint, false);
+        }
+        return writeWithLevel(nodes, effective, key, n -> n.delete(key), hint, hint, false);
+    }
+
+    public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
+    {
+        return compareAndSwap(key, value, expectedCas, ttl, null);
+    }
+
+    public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl, ConsistencyLevel level)
+    {
+        List<Node<String, String>> nodes = replicas(key);
+        if (nodes.isEmpty()) {
+            return false;
+        }
+        ConsistencyLevel effective = level != null ? level : consistency.writeLevel(key);
+        Consumer<String> casHint = nodeId -> hintedHandoffService.recordCas(nodeId, key, value, expectedCas, ttl);
+        if (useAsync(effective)) {
+            // CAS kararı birincilde verilir; yedekler sonucu düz SET olarak alır.
+            Mutation<String, String> replicated = Mutation.set(key, value, Hint.expireAtFor(ttl, System.currentTimeMillis()));
+            return writeAsync(nodes, effective, n -> n.compareAndSwap(key, value, expectedCas, ttl), replicated,
+                    nodeId -> hintedHandoffService.recordSet(nodeId, key, value, ttl), casHint, true);
+        }
+        return writeWithLevel(nodes, effective, key, n -> n.compareAndSwap(key, value, expectedCas, ttl),
+                casHint, null, true);
     }
 
     public void clear()
@@ -168,4 +674,36 @@ public final class ClusterClient
             }
         }
     }
+
+    /**
+     * Okuma ve paralel dağıtım için açılan executor'ları kapatır; süren işler
+     * arkada tamamlanır. Kapatıldıktan sonra bu executor'lara düşen istekler
+     * reddedilmiş sayılır.
+     */
+    @Override
+    public void close()
+    {
+        if (readExecutor != null) {
+            readExecutor.shutdown();
+        }
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    private record ReadOutcome(String value, RuntimeException failure, boolean hedged) {}
+
+    private record ReplicaRead(int index, String value, RuntimeException failure) {}
+
+    private record WriteOutcome(int index, boolean ok, RuntimeException failure) {}
+
+    private static final class CircuitOpenException extends IllegalStateException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private CircuitOpenException(String nodeId)
+        {
+            super("Circuit breaker is open for node " + nodeId);
+        }
+    }
 }
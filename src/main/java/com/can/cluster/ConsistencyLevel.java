@@ -0,0 +1,41 @@
+package com.can.cluster;
+
+import java.util.Locale;
+
+/**
+ * Bir okuma ya da yazmanın başarılı sayılması için kaç replikadan yanıt
+ * beklenmesi gerektiğini belirler. {@link #ANY} yalnızca yazmalarda anlamlıdır:
+ * hiçbir replika onay vermese bile yazma ipucu olarak saklandıysa başarılı
+ * kabul edilir. Okumalarda {@link #ANY} ile {@link #ONE} aynı davranır.
+ */
+public enum ConsistencyLevel
+{
+    ANY,
+    ONE,
+    QUORUM,
+    ALL;
+
+    /** Verilen replika sayısı için beklenmesi gereken onay sayısı. */
+    public int required(int replicas)
+    {
+        if (replicas <= 0) {
+            return 0;
+        }
+        return switch (this) {
+            case ANY, ONE -> 1;
+            case QUORUM -> (replicas / 2) + 1;
+            case ALL -> replicas;
+        };
+    }
+
+    public static ConsistencyLevel fromConfig(String value, ConsistencyLevel defaultLevel)
+    {
+        if (value == null || value.isBlank()) return defaultLevel;
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return ConsistencyLevel.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown consistency level: " + value, ex);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.can.cluster;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Anahtar önekine göre okuma ve yazma tutarlılık seviyesini seçen politikadır.
+ * Kurallar {@code önek=okuma/yazma} biçiminde tanımlanır (ör.
+ * {@code session:=one/any}); bir anahtara en uzun eşleşen önekin kuralı
+ * uygulanır, eşleşme yoksa varsayılan seviyeler kullanılır. Okuma tarafında
+ * {@link ConsistencyLevel#ANY} kabul edilmez.
+ */
+public final class ConsistencyPolicy
+{
+    private final ConsistencyLevel defaultRead;
+    private final ConsistencyLevel defaultWrite;
+    private final List<Rule> rules;
+
+    public ConsistencyPolicy(ConsistencyLevel defaultRead, ConsistencyLevel defaultWrite, List<Rule> rules)
+    {
+        this.defaultRead = requireReadable(Objects.requireNonNull(defaultRead, "defaultRead"));
+        this.defaultWrite = Objects.requireNonNull(defaultWrite, "defaultWrite");
+        List<Rule> sorted = new ArrayList<>(Objects.requireNonNull(rules, "rules"));
+        for (Rule rule : sorted) {
+            requireReadable(rule.read());
+        }
+        // En uzun önek önce denenir ki daha özel kural kazansın.
+        sorted.sort(Comparator.comparingInt((Rule rule) -> rule.prefix().length()).reversed());
+        this.rules = List.copyOf(sorted);
+    }
+
+    /** Okumada ilk yanıt, yazmada çoğunluk beklenen önceki davranış. */
+    public static ConsistencyPolicy defaults()
+    {
+        return defaults(ReplicationMode.SYNC);
+    }
+
+    /** Asenkron modda yazmalar yalnızca birincili bekler. */
+    public static ConsistencyPolicy defaults(ReplicationMode mode)
+    {
+        return new ConsistencyPolicy(ConsistencyLevel.ONE, defaultWrite(mode), List.of());
+    }
+
+    public static ConsistencyLevel defaultWrite(ReplicationMode mode)
+    {
+        return mode == ReplicationMode.ASYNC ? ConsistencyLevel.ONE : ConsistencyLevel.QUORUM;
+    }
+
+    /**
+     * Yapılandırma değerlerinden politika üretir. Kurallar
+     * {@code önek=okuma/yazma} biçiminde olmalıdır; seviyelerden biri boş
+     * bırakılırsa varsayılan kullanılır.
+     */
+    public static ConsistencyPolicy fromConfig(String read, String write, ConsistencyLevel defaultWrite, List<String> rules)
+    {
+        ConsistencyLevel readLevel = ConsistencyLevel.fromConfig(read, ConsistencyLevel.ONE);
+        ConsistencyLevel writeLevel = ConsistencyLevel.fromConfig(write, defaultWrite);
+        List<Rule> parsed = new ArrayList<>();
+        if (rules != null) {
+            for (String rule : rules) {
+                if (rule == null || rule.isBlank()) {
+                    continue;
+                }
+                parsed.add(parseRule(rule.trim(), readLevel, writeLevel));
+            }
+        }
+        return new ConsistencyPolicy(readLevel, writeLevel, parsed);
+    }
+
+    private static Rule parseRule(String rule, ConsistencyLevel readLevel, ConsistencyLevel writeLevel)
+    {
+        int eq = rule.lastIndexOf('=');
+        if (eq <= 0) {
+            throw new IllegalArgumentException("Invalid consistency rule: " + rule);
+        }
+        String prefix = rule.substring(0, eq);
+        String levels = rule.substring(eq + 1);
+        int slash = levels.indexOf('/');
+        String read = slash < 0 ? levels : levels.substring(0, slash);
+        String write = slash < 0 ? "" : levels.substring(slash + 1);
+        return new Rule(prefix,
+                ConsistencyLevel.fromConfig(read, readLevel),
+                ConsistencyLevel.fromConfig(write, writeLevel));
+    }
+
+    private static ConsistencyLevel requireReadable(ConsistencyLevel level)
+    {
+        if (level == ConsistencyLevel.ANY) {
+            throw new IllegalArgumentException("Consistency level ANY is only valid for writes");
+        }
+        return level;
+    }
+
+    public ConsistencyLevel readLevel(String key)
+    {
+        Rule rule = match(key);
+        return rule != null ? rule.read() : defaultRead;
+    }
+
+    public ConsistencyLevel writeLevel(String key)
+    {
+        Rule rule = match(key);
+        return rule != null ? rule.write() : defaultWrite;
+    }
+
+    private Rule match(String key)
+    {
+        if (key == null || rules.isEmpty()) {
+            return null;
+        }
+        for (Rule rule : rules) {
+            if (key.startsWith(rule.prefix())) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    public record Rule(String prefix, ConsistencyLevel read, ConsistencyLevel write)
+    {
+        public Rule
+        {
+            Objects.requireNonNull(prefix, "prefix");
+            Objects.requireNonNull(read, "read");
+            Objects.requireNonNull(write, "write");
+        }
+    }
+}
@@ -25,6 +25,13 @@ public final class ConsistentHashRing<N>
         this.vnodes = Math.max(1, virtualNodes);
     }
 
+    /** Halkanın o anki sanal düğüm yerleşiminin bağımsız bir kopyasını döndürür. */
+    public synchronized ConsistentHashRing<N> copy() {
+        ConsistentHashRing<N> copy = new ConsistentHashRing<>(hash, vnodes);
+        copy.ring.putAll(ring);
+        return copy;
+    }
+
     public synchronized void addNode(N node, byte[] idBytes) {
         for (int i = 0; i < vnodes; i++)
             ring.put(hash.hash(join(idBytes, i)), node);
@@ -58,6 +65,53 @@ public final class ConsistentHashRing<N>
         return out;
     }
 
+    /** Anahtarın halka üzerindeki konumunu işaretsiz 32 bitlik jeton olarak döndürür. */
+    public long token(byte[] key) {
+        return Integer.toUnsignedLong(hash.hash(key));
+    }
+
+    /**
+     * Düğümün replika olarak sorumlu olduğu jeton aralıklarını döndürür. Her
+     * sanal düğüm, kendinden önceki sanal düğümden sonraki konumdan kendi
+     * konumuna kadar olan yayın sahibidir; bu yay için seçilen ilk {@code rf}
+     * farklı düğüm arasında verilen düğüm varsa yay sonuca eklenir. Sonuç
+     * sıralı ve birleştirilmiştir.
+     */
+    public synchronized List<TokenRange> ownedRanges(N node, int rf) {
+        List<TokenRange> out = new ArrayList<>();
+        if (rf <= 0 || ring.isEmpty()) return out;
+
+        List<Integer> positions = new ArrayList<>(ring.keySet());
+        List<N> owners = new ArrayList<>(ring.values());
+        int size = positions.size();
+        for (int i = 0; i < size; i++) {
+            Set<N> replicas = new LinkedHashSet<>();
+            for (int j = 0; j < size && replicas.size() < rf; j++) {
+                replicas.add(owners.get((i + j) % size));
+            }
+            if (!replicas.contains(node)) continue;
+
+            long from = Integer.toUnsignedLong(positions.get((i - 1 + size) % size));
+            long to = Integer.toUnsignedLong(positions.get(i));
+            addArc(out, from, to);
+        }
+        return TokenRange.coalesce(out);
+    }
+
+    // (from, to] yayını jeton uzayına ekler; yay uzayın sonundan taşarsa ikiye bölünür.
+    private static void addArc(List<TokenRange> out, long fromExclusive, long toInclusive) {
+        long start = (fromExclusive + 1) % TokenRange.TOKEN_SPACE;
+        long end = toInclusive + 1;
+        if (fromExclusive == toInclusive) {
+            out.add(TokenRange.full());
+        } else if (start < end) {
+            out.add(new TokenRange(start, end));
+        } else {
+            out.add(new TokenRange(start, TokenRange.TOKEN_SPACE));
+            out.add(new TokenRange(0L, end));
+        }
+    }
+
     public synchronized List<N> nodes() {
         return new ArrayList<>(new LinkedHashSet<>(ring.values()));
     }
@@ -0,0 +1,132 @@
+package com.can.cluster;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Okuma isteklerinde ikinci (spekülatif) isteğin ne zaman gönderileceğine karar
+ * veren politikadır. Her replika için gözlemlenen gecikmelerden p95 değerini
+ * kestirir; sabit bir gecikme yapılandırılmışsa onu kullanır. Ek isteklerin
+ * toplam okuma trafiğine oranı jeton kovası mantığıyla bütçelenir, böylece
+ * yavaşlayan bir replika kümeye ekstra yük bindiremez.
+ */
+public final class HedgedReadPolicy
+{
+    private static final int SAMPLE_WINDOW = 256;
+    private static final int MIN_SAMPLES = 16;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final double MAX_BURST_TOKENS = 10.0d;
+
+    private final boolean enabled;
+    private final long fixedDelayNanos;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double tokensPerRead;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private double tokens;
+
+    public HedgedReadPolicy(boolean enabled,
+                            long delayMillis,
+                            long minDelayMillis,
+                            long maxDelayMillis,
+                            double budgetPercent)
+    {
+        this.enabled = enabled && budgetPercent > 0.0d;
+        this.fixedDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMillis));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, minDelayMillis));
+        this.maxDelayNanos = Math.max(this.minDelayNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(1L, maxDelayMillis)));
+        this.tokensPerRead = Math.min(1.0d, Math.max(0.0d, budgetPercent) / 100.0d);
+    }
+
+    public static HedgedReadPolicy disabled()
+    {
+        return new HedgedReadPolicy(false, 0L, 0L, 1L, 0.0d);
+    }
+
+    public boolean enabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Verilen replikaya gönderilen isteğin ne kadar bekleneceğini döndürür. Sabit
+     * gecikme tanımlıysa o kullanılır, aksi halde replikanın p95 gecikmesi alt/üst
+     * sınırlar içinde kullanılır. Yeterli örnek yoksa üst sınır uygulanır.
+     */
+    public long hedgeDelayNanos(String nodeId)
+    {
+        if (fixedDelayNanos > 0L) {
+            return fixedDelayNanos;
+        }
+        LatencyWindow window = latencies.get(nodeId);
+        long p95 = window == null ? -1L : window.p95();
+        if (p95 < 0L) {
+            return maxDelayNanos;
+        }
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, p95));
+    }
+
+    public void recordLatency(String nodeId, long durationNanos)
+    {
+        if (nodeId == null || durationNanos < 0L) {
+            return;
+        }
+        latencies.computeIfAbsent(nodeId, ignored -> new LatencyWindow()).record(durationNanos);
+    }
+
+    /** Her birincil okuma bütçeye yapılandırılan oranda jeton ekler. */
+    public synchronized void onPrimaryRead()
+    {
+        tokens = Math.min(MAX_BURST_TOKENS, tokens + tokensPerRead);
+    }
+
+    /** Bütçede yer varsa bir spekülatif istek hakkı tüketir. */
+    public synchronized boolean tryAcquireHedge()
+    {
+        if (!enabled || tokens < 1.0d) {
+            return false;
+        }
+        tokens -= 1.0d;
+        return true;
+    }
+
+    private static final class LatencyWindow
+    {
+        private final long[] samples = new long[SAMPLE_WINDOW];
+        private int index;
+        private int count;
+        private int sinceRecompute;
+        private long cachedP95 = -1L;
+
+        synchronized void record(long durationNanos)
+        {
+            samples[index] = durationNanos;
+            index = (index + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            if (++sinceRecompute >= RECOMPUTE_EVERY || cachedP95 < 0L) {
+                recompute();
+            }
+        }
+
+        synchronized long p95()
+        {
+            return cachedP95;
+        }
+
+        private void recompute()
+        {
+            sinceRecompute = 0;
+            if (count < MIN_SAMPLES) {
+                cachedP95 = -1L;
+                return;
+            }
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            cachedP95 = copy[(int) (0.95d * (copy.length - 1))];
+        }
+    }
+}
@@ -3,36 +3,91 @@ package com.can.cluster;
 import com.can.cluster.handoff.CasHint;
 import com.can.cluster.handoff.DeleteHint;
 import com.can.cluster.handoff.Hint;
+import com.can.cluster.handoff.HintStore;
+import com.can.cluster.handoff.MemoryHintStore;
 import com.can.cluster.handoff.SetHint;
 import com.can.metric.Counter;
 import com.can.metric.MetricsRegistry;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Uzak düğümlere gönderilemeyen yazma işlemlerini kuyrukta tutarak düğüm geri
- * geldiğinde yeniden oynatılmasını sağlayan basit ipucu-handoff hizmetidir.
+ * Uzak düğümlere gönderilemeyen yazma işlemlerini bir {@link HintStore} içinde
+ * tutarak düğüm geri geldiğinde yeniden oynatılmasını sağlayan ipucu-handoff
+ * hizmetidir. Oynatma depodan partiler halinde okunur; her parti
+ * {@link Node#applyBatch(List)} ile gönderilen çerçevelere bölünür ve birden
+ * fazla çerçeve aynı anda yolda olabilir. Gönderim {@link RateLimiter} ile
+ * işlem/sn ve bayt/sn bütçesi içinde tutulur. Depo yalnızca baştan itibaren
+ * kesintisiz tamamlanan çerçeveler kadar ilerler; başarısız çerçeve ve
+ * sonrasındaki ipuçları kuyrukta kalır. Kuyruk derinliği, bayt miktarı ve
+ * düğüm başına ilerleme gösterge olarak yayımlanır.
  */
-public final class HintedHandoffService
+public final class HintedHandoffService implements AutoCloseable
 {
     private static final Logger LOG = Logger.getLogger(HintedHandoffService.class);
+    private static final long DEFAULT_MAX_BYTES_PER_NODE = 64L * 1024 * 1024;
+    private static final int DEFAULT_REPLAY_BATCH_SIZE = 256;
 
-    private final Map<String, ConcurrentLinkedDeque<Hint>> hints = new ConcurrentHashMap<>();
+    private final HintStore store;
+    private final int replayBatchSize;
+    private final int frameSize;
+    private final int maxInFlight;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService sendExecutor;
+    private final MetricsRegistry metrics;
+    private final Map<String, ReplayStats> stats = new ConcurrentHashMap<>();
     private final Counter enqueued;
     private final Counter replayed;
     private final Counter replayFailures;
 
     public HintedHandoffService(MetricsRegistry metrics)
     {
+        this(new MemoryHintStore(DEFAULT_MAX_BYTES_PER_NODE, 0L, metrics), DEFAULT_REPLAY_BATCH_SIZE, metrics);
+    }
+
+    public HintedHandoffService(HintStore store, int replayBatchSize, MetricsRegistry metrics)
+    {
+        this(store, replayBatchSize, replayBatchSize, 1, RateLimiter.unlimited(), metrics);
+    }
+
+    public HintedHandoffService(HintStore store,
+                                int replayBatchSize,
+                                int frameSize,
+                                int maxInFlight,
+                                RateLimiter rateLimiter,
+                                MetricsRegistry metrics)
+    {
+        this.store = Objects.requireNonNull(store, "store");
+        this.replayBatchSize = Math.max(1, replayBatchSize);
+        this.frameSize = Math.max(1, Math.min(this.replayBatchSize, frameSize));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+        this.sendExecutor = this.maxInFlight > 1
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hint-replay-", 0).factory())
+                : null;
+        this.metrics = metrics;
         if (metrics != null) {
             this.enqueued = metrics.counter("hinted_handoff_enqueued_total");
             this.replayed = metrics.counter("hinted_handoff_replayed_total");
             this.replayFailures = metrics.counter("hinted_handoff_failures_total");
+            metrics.gauge("hinted_handoff_queue_depth", store::totalPending);
+            metrics.gauge("hinted_handoff_queue_bytes", store::totalBytes);
         } else {
             this.enqueued = null;
             this.replayed = null;
@@ -42,7 +97,7 @@ public final class HintedHandoffService
 
     public void recordSet(String nodeId, String key, String value, Duration ttl)
     {
-        enqueue(nodeId, new SetHint(key, value, ttl));
+        enqueue(nodeId, new SetHint(key, value, Hint.expireAtFor(ttl, System.currentTimeMillis())));
     }
 
     public void recordDelete(String nodeId, String key)
@@ -52,14 +107,26 @@ public final class HintedHandoffService
 
     public void recordCas(String nodeId, String key, String value, long expectedCas, Duration ttl)
     {
-        enqueue(nodeId, new CasHint(key, value, expectedCas, ttl));
+        enqueue(nodeId, new CasHint(key, value, expectedCas, Hint.expireAtFor(ttl, System.currentTimeMillis())));
+    }
+
+    /** Yedeğe gönderilemeyen mutasyonu ipucu olarak saklar; bitiş zamanı aynen korunur. */
+    public void record(String nodeId, Mutation<String, String> mutation)
+    {
+        switch (mutation.type()) {
+            case SET -> enqueue(nodeId, new SetHint(mutation.key(), mutation.value(), mutation.expireAtMillis()));
+            case DELETE -> enqueue(nodeId, new DeleteHint(mutation.key()));
+            case CAS -> enqueue(nodeId, new CasHint(mutation.key(), mutation.value(), mutation.expectedCas(),
+                    mutation.expireAtMillis()));
+        }
     }
 
     private void enqueue(String nodeId, Hint hint)
     {
         Objects.requireNonNull(nodeId, "nodeId");
         Objects.requireNonNull(hint, "hint");
-        hints.computeIfAbsent(nodeId, ignored -> new ConcurrentLinkedDeque<>()).add(hint);
+        store.append(nodeId, hint);
+        statsFor(nodeId);
         if (enqueued != null) {
             enqueued.inc();
         }
@@ -67,46 +134,217 @@ public final class HintedHandoffService
 
     public int pendingFor(String nodeId)
     {
-        var queue = hints.get(nodeId);
-        return queue == null ? 0 : queue.size();
+        return store.pending(nodeId);
+    }
+
+    public long pendingBytesFor(String nodeId)
+    {
+        return store.pendingBytes(nodeId);
+    }
+
+    /** Düğüm için oynatma ilerlemesinin anlık görüntüsünü döndürür. */
+    public ReplayProgress progressFor(String nodeId)
+    {
+        ReplayStats nodeStats = stats.get(nodeId);
+        if (nodeStats == null) {
+            return new ReplayProgress(store.pending(nodeId), store.pendingBytes(nodeId), 0L, 0L, 0, 0L);
+        }
+        return nodeStats.snapshot();
     }
 
     public void replay(String nodeId, com.can.cluster.Node<String, String> node)
     {
         Objects.requireNonNull(nodeId, "nodeId");
         Objects.requireNonNull(node, "node");
-        var queue = hints.get(nodeId);
-        if (queue == null || queue.isEmpty()) {
+        if (store.pending(nodeId) == 0) {
             return;
         }
 
-        int replayedCount = 0;
-        while (true) {
-            Hint hint = queue.poll();
-            if (hint == null) {
-                break;
+        ReplayStats nodeStats = statsFor(nodeId);
+        long before = nodeStats.replayed.get();
+        store.replay(nodeId, replayBatchSize, batch -> sendBatch(nodeId, node, batch, nodeStats));
+        nodeStats.lastReplayAt = System.currentTimeMillis();
+        long sent = nodeStats.replayed.get() - before;
+        if (sent > 0) {
+            LOG.infof("Replayed %d hints to node %s (%d pending)", sent, nodeId, store.pending(nodeId));
+        }
+    }
+
+    /**
+     * Partiyi çerçevelere bölerek gönderir ve baştan itibaren kesintisiz
+     * tamamlanan ipucu sayısını döndürür. Bir anahtarın bekleyen yazmasından
+     * sonra sıralı CAS ipuçları gelebildiğinden parti bir anahtarı birden fazla
+     * kez içeriyorsa çerçeveler tek tek gönderilir; aksi halde paralel
+     * uygulanmaları sırayı bozmaz.
+     */
+    private int sendBatch(String nodeId, Node<String, String> node, List<Hint> batch, ReplayStats nodeStats)
+    {
+        int windowSize = maxInFlight > 1 && repeatsKey(batch) ? 1 : maxInFlight;
+        Deque<Frame> window = new ArrayDeque<>();
+        int completed = 0;
+        boolean failed = false;
+        for (int start = 0; start < batch.size() && !failed; start += frameSize) {
+            List<Hint> hints = batch.subList(start, Math.min(batch.size(), start + frameSize));
+            long bytes = 0L;
+            List<Mutation<String, String>> mutations = new ArrayList<>(hints.size());
+            for (Hint hint : hints) {
+                mutations.add(hint.toMutation());
+                bytes += hint.estimatedBytes();
             }
             try {
-                if (hint.replay(node)) {
-                    replayedCount++;
+                rateLimiter.acquire(mutations.size(), bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed = true;
+                break;
+            }
+            window.addLast(submit(node, mutations, nodeStats));
+            if (window.size() >= windowSize) {
+                int applied = await(nodeId, window.pollFirst(), nodeStats);
+                if (applied < 0) {
+                    failed = true;
                 } else {
-                    LOG.debugf("Hint replay returned false for %s on node %s", hint, nodeId);
+                    completed += applied;
                 }
+            }
+        }
+        while (!window.isEmpty()) {
+            int applied = await(nodeId, window.pollFirst(), nodeStats);
+            if (applied < 0) {
+                failed = true;
+            } else if (!failed) {
+                completed += applied;
+            }
+        }
+        return completed;
+    }
+
+    private static boolean repeatsKey(List<Hint> batch)
+    {
+        Set<String> keys = new HashSet<>(batch.size() * 2);
+        for (Hint hint : batch) {
+            if (!keys.add(hint.key())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Frame submit(Node<String, String> node, List<Mutation<String, String>> mutations, ReplayStats nodeStats)
+    {
+        nodeStats.inFlight.incrementAndGet();
+        if (sendExecutor == null) {
+            try {
+                return new Frame(mutations.size(), null, node.applyBatch(mutations), null);
             } catch (RuntimeException e) {
-                queue.addFirst(hint);
+                return new Frame(mutations.size(), null, null, e);
+            }
+        }
+        return new Frame(mutations.size(), sendExecutor.submit(() -> node.applyBatch(mutations)), null, null);
+    }
+
+    /** Çerçevenin sonucunu bekler; başarısızsa -1, aksi halde ipucu sayısını döndürür. */
+    private int await(String nodeId, Frame frame, ReplayStats nodeStats)
+    {
+        try {
+            boolean[] results = frame.results();
+            Throwable failure = frame.failure();
+            if (frame.future() != null) {
+                try {
+                    results = frame.future().get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                nodeStats.failed.incrementAndGet();
                 if (replayFailures != null) {
                     replayFailures.inc();
                 }
-                LOG.debugf(e, "Failed to replay hint %s for node %s", hint, nodeId);
-                break;
+                LOG.debugf(failure, "Failed to replay %d hints for node %s", frame.size(), nodeId);
+                return -1;
+            }
+            int accepted = 0;
+            for (boolean result : results) {
+                if (result) {
+                    accepted++;
+                }
             }
+            if (accepted < results.length) {
+                LOG.debugf("Node %s rejected %d of %d replayed hints", nodeId, results.length - accepted, results.length);
+            }
+            if (replayed != null && accepted > 0) {
+                replayed.add(accepted);
+            }
+            nodeStats.replayed.addAndGet(frame.size());
+            return frame.size();
+        } finally {
+            nodeStats.inFlight.decrementAndGet();
         }
+    }
 
-        if (queue.isEmpty()) {
-            hints.remove(nodeId, queue);
+    private ReplayStats statsFor(String nodeId)
+    {
+        return stats.computeIfAbsent(nodeId, id -> {
+            ReplayStats created = new ReplayStats(id);
+            if (metrics != null) {
+                String label = "{node=" + id + "}";
+                metrics.gauge("hinted_handoff_pending" + label, () -> store.pending(id));
+                metrics.gauge("hinted_handoff_pending_bytes" + label, () -> store.pendingBytes(id));
+                metrics.gauge("hinted_handoff_replayed" + label, created.replayed::get);
+                metrics.gauge("hinted_handoff_inflight" + label, created.inFlight::get);
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public void close()
+    {
+        if (sendExecutor != null) {
+            sendExecutor.shutdownNow();
+        }
+        store.close();
+    }
+
+    /**
+     * Bir hedef düğüm için oynatma ilerlemesi: bekleyen ipucu ve bayt sayısı,
+     * şimdiye kadar gönderilen ipucu, başarısız çerçeve, yoldaki çerçeve sayısı
+     * ve son oynatma zamanı.
+     */
+    public record ReplayProgress(long pending,
+                                 long pendingBytes,
+                                 long replayed,
+                                 long failedFrames,
+                                 int inFlight,
+                                 long lastReplayAtMillis)
+    {
+    }
+
+    private record Frame(int size, Future<boolean[]> future, boolean[] results, Throwable failure)
+    {
+    }
+
+    private final class ReplayStats
+    {
+        private final String nodeId;
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastReplayAt;
+
+        private ReplayStats(String nodeId)
+        {
+            this.nodeId = nodeId;
         }
-        if (replayed != null && replayedCount > 0) {
-            replayed.add(replayedCount);
+
+        ReplayProgress snapshot()
+        {
+            return new ReplayProgress(store.pending(nodeId), store.pendingBytes(nodeId), replayed.get(),
+                    failed.get(), inFlight.get(), lastReplayAt);
         }
     }
 }
@@ -0,0 +1,44 @@
+package com.can.cluster;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Toplu olarak bir düğüme uygulanacak tek bir yazma işlemini tarif eder. Son
+ * kullanma zamanı mutlak milisaniye olarak taşınır; 0 TTL olmadığını belirtir.
+ * CAS dışındaki türlerde {@code expectedCas} kullanılmaz, silmede değer boştur.
+ */
+public record Mutation<K, V>(Type type, K key, V value, long expireAtMillis, long expectedCas)
+{
+    public enum Type { SET, DELETE, CAS }
+
+    public Mutation
+    {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(key, "key");
+    }
+
+    public static <K, V> Mutation<K, V> set(K key, V value, long expireAtMillis)
+    {
+        return new Mutation<>(Type.SET, key, value, expireAtMillis, 0L);
+    }
+
+    public static <K, V> Mutation<K, V> delete(K key)
+    {
+        return new Mutation<>(Type.DELETE, key, null, 0L, 0L);
+    }
+
+    public static <K, V> Mutation<K, V> cas(K key, V value, long expectedCas, long expireAtMillis)
+    {
+        return new Mutation<>(Type.CAS, key, value, expireAtMillis, expectedCas);
+    }
+
+    /** Verilen ana göre kalan TTL süresini döndürür; TTL yoksa {@code null}. */
+    public Duration ttl(long now)
+    {
+        if (expireAtMillis <= 0L || expireAtMillis == Long.MAX_VALUE) {
+            return null;
+        }
+        return Duration.ofMillis(Math.max(1L, expireAtMillis - now));
+    }
+}
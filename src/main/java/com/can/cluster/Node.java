@@ -1,11 +1,14 @@
 package com.can.cluster;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Kümedeki her fiziksel veya mantıksal düğümün sunması gereken temel önbellek
  * operasyonlarını tarif eder. İstemci katmanı bu arayüzü kullanarak değer
  * yazma, okuma, silme ve düğüm kimliğini öğrenme işlemlerini soyutlar.
+ * Toplu yazmayı destekleyen düğümler {@link #applyBatch(List)} metodunu tek bir
+ * ağ çerçevesiyle gerçekleştirebilir.
  */
 public interface Node<K,V>
 {
@@ -15,4 +18,24 @@ public interface Node<K,V>
     boolean compareAndSwap(K key, V value, long expectedCas, Duration ttl);
     void clear();
     String id();
+
+    /**
+     * İşlemleri sırayla uygular ve her biri için sonucu döndürür. Varsayılan
+     * uygulama tekil çağrılara düşer; bir çağrı istisna fırlatırsa parti
+     * başarısız sayılır.
+     */
+    default boolean[] applyBatch(List<Mutation<K, V>> mutations)
+    {
+        boolean[] results = new boolean[mutations.size()];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < results.length; i++) {
+            Mutation<K, V> mutation = mutations.get(i);
+            results[i] = switch (mutation.type()) {
+                case SET -> set(mutation.key(), mutation.value(), mutation.ttl(now));
+                case DELETE -> delete(mutation.key());
+                case CAS -> compareAndSwap(mutation.key(), mutation.value(), mutation.expectedCas(), mutation.ttl(now));
+            };
+        }
+        return results;
+    }
 }
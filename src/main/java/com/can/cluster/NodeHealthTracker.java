@@ -0,0 +1,263 @@
+package com.can.cluster;
+
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Küme düğümlerinin sağlık durumunu izleyen bileşendir. Her düğüm için gecikme
+ * ve hata oranının üstel hareketli ortalaması (EWMA) ile o anda süren istek
+ * sayısından bir skor üretir. Skor okuma replikalarının sıralanmasında
+ * kullanılır; ardışık hatalar ya da yüksek hata oranı ise düğüm için devre
+ * kesiciyi açarak isteklerin zaman aşımı beklemeden hızlıca başarısız olmasını
+ * sağlar. Açık devre belirli bir süre sonra tek bir deneme isteğine izin verir.
+ * {@link PhiAccrualFailureDetector} tarafından şüpheli bulunan düğümler de
+ * açık devre gibi ele alınır; düğüm halkadan çıkarılmadan önce istek almayı
+ * bırakır.
+ */
+public final class NodeHealthTracker
+{
+    private static final int MIN_REQUESTS_FOR_ERROR_RATE = 20;
+    private static final double ERROR_PENALTY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final double alpha;
+    private final int failureThreshold;
+    private final double errorRateThreshold;
+    private final long openNanos;
+    private final Map<String, NodeHealth> nodes = new ConcurrentHashMap<>();
+    private final PhiAccrualFailureDetector failureDetector;
+    private final Counter circuitOpened;
+    private final Counter fastFailures;
+    private final Counter suspectedSkips;
+
+    public NodeHealthTracker(boolean enabled,
+                             double ewmaAlpha,
+                             int failureThreshold,
+                             double errorRateThreshold,
+                             long openMillis,
+                             MetricsRegistry metrics)
+    {
+        this(enabled, ewmaAlpha, failureThreshold, errorRateThreshold, openMillis,
+                PhiAccrualFailureDetector.disabled(), metrics);
+    }
+
+    public NodeHealthTracker(boolean enabled,
+                             double ewmaAlpha,
+                             int failureThreshold,
+                             double errorRateThreshold,
+                             long openMillis,
+                             PhiAccrualFailureDetector failureDetector,
+                             MetricsRegistry metrics)
+    {
+        this.failureDetector = failureDetector == null ? PhiAccrualFailureDetector.disabled() : failureDetector;
+        this.enabled = enabled;
+        this.alpha = Math.min(1.0d, Math.max(0.01d, ewmaAlpha));
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.errorRateThreshold = Math.min(1.0d, Math.max(0.0d, errorRateThreshold));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, openMillis));
+        if (metrics != null) {
+            this.circuitOpened = metrics.counter("cluster_circuit_opened_total");
+            this.fastFailures = metrics.counter("cluster_circuit_fast_fail_total");
+            this.suspectedSkips = metrics.counter("cluster_suspected_skips_total");
+        } else {
+            this.circuitOpened = null;
+            this.fastFailures = null;
+            this.suspectedSkips = null;
+        }
+    }
+
+    public static NodeHealthTracker disabled()
+    {
+        return new NodeHealthTracker(false, 0.2d, Integer.MAX_VALUE, 1.0d, 1L, null);
+    }
+
+    /**
+     * Düğüme istek gönderilip gönderilemeyeceğini söyler. Devre açıksa ve bekleme
+     * süresi dolmamışsa {@code false} döner; süre dolduysa yalnızca tek bir deneme
+     * isteğine izin verilir. Hata dedektörünün şüpheli bulduğu düğümlere hiç
+     * istek gönderilmez.
+     */
+    public boolean allowRequest(String nodeId)
+    {
+        if (failureDetector.isSuspected(nodeId)) {
+            if (suspectedSkips != null) {
+                suspectedSkips.inc();
+            }
+            return false;
+        }
+        if (!enabled) {
+            return true;
+        }
+        boolean allowed = health(nodeId).allowRequest(System.nanoTime());
+        if (!allowed && fastFailures != null) {
+            fastFailures.inc();
+        }
+        return allowed;
+    }
+
+    /** İsteğin başladığını kaydeder ve ölçüm için başlangıç zamanını döndürür. */
+    public long begin(String nodeId)
+    {
+        if (enabled) {
+            health(nodeId).inFlight.incrementAndGet();
+        }
+        return System.nanoTime();
+    }
+
+    public void onSuccess(String nodeId, long startNanos)
+    {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        health(nodeId).recordSuccess(now - startNanos);
+    }
+
+    public void onFailure(String nodeId, long startNanos)
+    {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (health(nodeId).recordFailure(now - startNanos, now) && circuitOpened != null) {
+            circuitOpened.inc();
+        }
+    }
+
+    public boolean isOpen(String nodeId)
+    {
+        if (!enabled) {
+            return false;
+        }
+        NodeHealth health = nodes.get(nodeId);
+        return health != null && health.isOpen(System.nanoTime());
+    }
+
+    /** Düşük skor daha sağlıklı düğümü ifade eder; hiç ölçüm yoksa 0 döner. */
+    public double score(String nodeId)
+    {
+        NodeHealth health = nodes.get(nodeId);
+        return health == null ? 0.0d : health.score();
+    }
+
+    /**
+     * Replikaları sağlık skoruna göre sıralar: devresi açık ya da şüpheli olanlar
+     * sona atılır, kalanlar en düşük skordan başlayarak dizilir. Eşit skorlarda
+     * halka sırası korunur.
+     */
+    public <N extends Node<String, String>> List<N> orderForRead(List<N> replicas)
+    {
+        if ((!enabled && !failureDetector.enabled()) || replicas.size() < 2) {
+            return replicas;
+        }
+        long now = System.nanoTime();
+        List<N> ordered = new ArrayList<>(replicas);
+        ordered.sort(Comparator.<N>comparingInt(node -> {
+                    if (failureDetector.isSuspected(node.id())) {
+                        return 1;
+                    }
+                    NodeHealth health = enabled ? nodes.get(node.id()) : null;
+                    return health != null && health.isOpen(now) ? 1 : 0;
+                })
+                .thenComparingDouble(node -> score(node.id())));
+        return ordered;
+    }
+
+    public void forget(String nodeId)
+    {
+        nodes.remove(nodeId);
+    }
+
+    private NodeHealth health(String nodeId)
+    {
+        return nodes.computeIfAbsent(nodeId, ignored -> new NodeHealth());
+    }
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final class NodeHealth
+    {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaLatencyNanos = -1.0d;
+        private double ewmaErrorRate;
+        private long requests;
+        private int consecutiveFailures;
+        private CircuitState state = CircuitState.CLOSED;
+        private long openedAt;
+
+        synchronized boolean allowRequest(long now)
+        {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> {
+                    if (now - openedAt >= openNanos) {
+                        state = CircuitState.HALF_OPEN;
+                        yield true;
+                    }
+                    yield false;
+                }
+                case HALF_OPEN -> false;
+            };
+        }
+
+        synchronized boolean isOpen(long now)
+        {
+            return state == CircuitState.OPEN && now - openedAt < openNanos;
+        }
+
+        synchronized void recordSuccess(long latencyNanos)
+        {
+            inFlight.updateAndGet(value -> Math.max(0, value - 1));
+            requests++;
+            updateLatency(latencyNanos);
+            ewmaErrorRate = (1.0d - alpha) * ewmaErrorRate;
+            consecutiveFailures = 0;
+            state = CircuitState.CLOSED;
+        }
+
+        synchronized boolean recordFailure(long latencyNanos, long now)
+        {
+            inFlight.updateAndGet(value -> Math.max(0, value - 1));
+            requests++;
+            updateLatency(latencyNanos);
+            ewmaErrorRate = (1.0d - alpha) * ewmaErrorRate + alpha;
+            consecutiveFailures++;
+
+            boolean shouldOpen = state == CircuitState.HALF_OPEN
+                    || consecutiveFailures >= failureThreshold
+                    || (requests >= MIN_REQUESTS_FOR_ERROR_RATE && ewmaErrorRate >= errorRateThreshold);
+            if (shouldOpen && state != CircuitState.OPEN) {
+                state = CircuitState.OPEN;
+                openedAt = now;
+                return true;
+            }
+            if (shouldOpen) {
+                openedAt = now;
+            }
+            return false;
+        }
+
+        synchronized double score()
+        {
+            double latency = ewmaLatencyNanos < 0.0d ? 0.0d : ewmaLatencyNanos;
+            return latency * (1 + inFlight.get()) + ewmaErrorRate * ERROR_PENALTY_NANOS;
+        }
+
+        private void updateLatency(long latencyNanos)
+        {
+            if (ewmaLatencyNanos < 0.0d) {
+                ewmaLatencyNanos = latencyNanos;
+            } else {
+                ewmaLatencyNanos = (1.0d - alpha) * ewmaLatencyNanos + alpha * latencyNanos;
+            }
+        }
+    }
+}
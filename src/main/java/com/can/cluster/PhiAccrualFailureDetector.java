@@ -0,0 +1,254 @@
+package com.can.cluster;
+
+import com.can.metric.MetricsRegistry;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phi-accrual hata dedektörü. Her düğüm için kalp atışları arasındaki süreleri
+ * kayan bir pencerede tutar ve son sinyalden bu yana geçen sürenin bu dağılıma
+ * göre ne kadar olağan dışı olduğunu {@code φ = -log10(1 - F(t))} ile ifade
+ * eder. Sabit zaman aşımı yerine gözlemlenen gecikme dağılımına uyum sağladığı
+ * için düzensiz ağlarda ve GC duraklamalarında yanlış alarm üretmeden, düzenli
+ * ağlarda ise hızlı tespit yapar. Kalp atışlarının yanı sıra düğümden alınan
+ * başarılı yanıtlar da canlılık sinyali sayılır.
+ * <p>
+ * İki eşik kullanılır: şüphe eşiğini aşan düğümlere istek yönlendirilmez,
+ * tahliye eşiğini aşan düğümler halkadan çıkarılır. Düğüm başına φ değeri ve
+ * şüpheli düğüm sayısı gösterge olarak yayımlanır.
+ * <p>
+ * SWIM gibi kendi yoklamalarıyla hata tespiti yapan üyelik protokolleri düzenli
+ * kalp atışı üretmez; bir düğümden doğrudan paket ancak birkaç turda bir
+ * geldiğinden φ sağlıklı düğümleri de şüpheli gösterir. Bu protokollerde şüphe
+ * {@link #reportSuspect(String)} ve {@link #reportAlive(String)} ile
+ * protokolün bildirdiği üye durumundan alınır.
+ */
+public final class PhiAccrualFailureDetector
+{
+    private static final double MAX_PHI = 100.0d;
+
+    private final boolean enabled;
+    private final double suspectThreshold;
+    private final double evictThreshold;
+    private final int windowSize;
+    private final double minStdDevMillis;
+    private final long acceptablePauseMillis;
+    private final long firstHeartbeatEstimateMillis;
+    private final MetricsRegistry metrics;
+    private final Map<String, HeartbeatHistory> histories = new ConcurrentHashMap<>();
+    private final Set<String> reportedSuspects = ConcurrentHashMap.newKeySet();
+
+    public PhiAccrualFailureDetector(boolean enabled,
+                                     double suspectThreshold,
+                                     double evictThreshold,
+                                     int windowSize,
+                                     long minStdDevMillis,
+                                     long acceptablePauseMillis,
+                                     long firstHeartbeatEstimateMillis,
+                                     MetricsRegistry metrics)
+    {
+        this.enabled = enabled;
+        this.suspectThreshold = Math.max(0.1d, suspectThreshold);
+        this.evictThreshold = Math.max(this.suspectThreshold, evictThreshold);
+        this.windowSize = Math.max(2, windowSize);
+        this.minStdDevMillis = Math.max(1L, minStdDevMillis);
+        this.acceptablePauseMillis = Math.max(0L, acceptablePauseMillis);
+        this.firstHeartbeatEstimateMillis = Math.max(1L, firstHeartbeatEstimateMillis);
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.gauge("cluster_suspected_nodes", this::suspectedCount);
+        }
+    }
+
+    public static PhiAccrualFailureDetector disabled()
+    {
+        return new PhiAccrualFailureDetector(false, 8.0d, 12.0d, 100, 500L, 0L, 1000L, null);
+    }
+
+    public boolean enabled()
+    {
+        return enabled;
+    }
+
+    /** Düğümden kalp atışı alındığını kaydeder ve varış aralığını dağılıma ekler. */
+    public void heartbeat(String nodeId)
+    {
+        if (!enabled || nodeId == null) {
+            return;
+        }
+        history(nodeId).record(System.currentTimeMillis());
+    }
+
+    /**
+     * Düğümden başarılı yanıt alındığını kaydeder. Yanıtlar istek trafiğine bağlı
+     * geldiğinden aralık dağılımını bozmamaları için yalnızca son sinyal zamanını
+     * ilerletir; hiç kalp atışı görülmemiş düğümler için etkisizdir.
+     */
+    public void onResponse(String nodeId)
+    {
+        if (!enabled || nodeId == null) {
+            return;
+        }
+        HeartbeatHistory history = histories.get(nodeId);
+        if (history != null) {
+            history.touch(System.currentTimeMillis());
+        }
+    }
+
+    /** Üyelik protokolü düğümü şüpheli ilan etti; düğüm canlı bildirilene kadar istek almaz. */
+    public void reportSuspect(String nodeId)
+    {
+        if (enabled && nodeId != null) {
+            reportedSuspects.add(nodeId);
+        }
+    }
+
+    /** Üyelik protokolü düğümü yeniden canlı bildirdi; bildirilmiş şüphe kaldırılır. */
+    public void reportAlive(String nodeId)
+    {
+        if (nodeId != null) {
+            reportedSuspects.remove(nodeId);
+        }
+    }
+
+    /** Düğüm için güncel φ değerini döndürür; hiç sinyal alınmamışsa 0 döner. */
+    public double phi(String nodeId)
+    {
+        return phi(nodeId, System.currentTimeMillis());
+    }
+
+    double phi(String nodeId, long nowMillis)
+    {
+        if (!enabled) {
+            return 0.0d;
+        }
+        HeartbeatHistory history = histories.get(nodeId);
+        return history == null ? 0.0d : history.phi(nowMillis);
+    }
+
+    /** Şüphe eşiği aşıldıysa ya da protokol şüphe bildirdiyse düğüme istek yönlendirilmemelidir. */
+    public boolean isSuspected(String nodeId)
+    {
+        return enabled && (reportedSuspects.contains(nodeId) || phi(nodeId) >= suspectThreshold);
+    }
+
+    /** Tahliye eşiği aşıldıysa düğüm halkadan çıkarılmalıdır. */
+    public boolean shouldEvict(String nodeId)
+    {
+        return enabled && phi(nodeId) >= evictThreshold;
+    }
+
+    /** Düğümün geçmişini, bildirilmiş şüphesini ve φ göstergesini kaldırır. */
+    public void forget(String nodeId)
+    {
+        reportedSuspects.remove(nodeId);
+        if (histories.remove(nodeId) != null && metrics != null) {
+            metrics.removeGauge(phiGaugeName(nodeId));
+        }
+    }
+
+    private long suspectedCount()
+    {
+        long now = System.currentTimeMillis();
+        long count = reportedSuspects.size();
+        for (Map.Entry<String, HeartbeatHistory> entry : histories.entrySet()) {
+            if (!reportedSuspects.contains(entry.getKey()) && entry.getValue().phi(now) >= suspectThreshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String phiGaugeName(String nodeId)
+    {
+        return "cluster_node_phi_milli{node=" + nodeId + "}";
+    }
+
+    private HeartbeatHistory history(String nodeId)
+    {
+        HeartbeatHistory existing = histories.get(nodeId);
+        if (existing != null) {
+            return existing;
+        }
+        return histories.computeIfAbsent(nodeId, id -> {
+            if (metrics != null) {
+                // Gösterge tamsayı taşıdığından φ binde bir hassasiyetle yayımlanır.
+                metrics.gauge(phiGaugeName(id), () -> Math.round(phi(id) * 1000.0d));
+            }
+            return new HeartbeatHistory();
+        });
+    }
+
+    /**
+     * Normal dağılımın kuyruk olasılığını lojistik yaklaşımla hesaplar ve
+     * φ değerine dönüştürür.
+     */
+    static double phi(long elapsedMillis, double meanMillis, double stdDevMillis)
+    {
+        double y = (elapsedMillis - meanMillis) / stdDevMillis;
+        double e = Math.exp(-y * (1.5976d + 0.070566d * y * y));
+        double pLater = elapsedMillis > meanMillis ? e / (1.0d + e) : 1.0d - 1.0d / (1.0d + e);
+        if (pLater <= 0.0d) {
+            return MAX_PHI;
+        }
+        return Math.min(MAX_PHI, -Math.log10(pLater));
+    }
+
+    private final class HeartbeatHistory
+    {
+        private final long[] intervals = new long[windowSize];
+        private int index;
+        private int count;
+        private double sum;
+        private double squaredSum;
+        private long lastHeartbeat = -1L;
+        private long lastSignal = -1L;
+
+        synchronized void record(long now)
+        {
+            if (lastHeartbeat < 0L) {
+                // İlk sinyalde dağılımı tahmini aralıkla başlatıyoruz ki erken φ değerleri anlamlı olsun.
+                long estimate = firstHeartbeatEstimateMillis;
+                add(estimate - estimate / 4);
+                add(estimate + estimate / 4);
+            } else {
+                add(Math.max(0L, now - lastHeartbeat));
+            }
+            lastHeartbeat = now;
+            lastSignal = Math.max(lastSignal, now);
+        }
+
+        synchronized void touch(long now)
+        {
+            lastSignal = Math.max(lastSignal, now);
+        }
+
+        synchronized double phi(long now)
+        {
+            if (lastHeartbeat < 0L || count == 0) {
+                return 0.0d;
+            }
+            double mean = sum / count;
+            double variance = Math.max(0.0d, squaredSum / count - mean * mean);
+            double stdDev = Math.max(minStdDevMillis, Math.sqrt(variance));
+            return PhiAccrualFailureDetector.phi(now - lastSignal, mean + acceptablePauseMillis, stdDev);
+        }
+
+        private void add(long interval)
+        {
+            if (count == intervals.length) {
+                long evicted = intervals[index];
+                sum -= evicted;
+                squaredSum -= (double) evicted * evicted;
+            } else {
+                count++;
+            }
+            intervals[index] = interval;
+            index = (index + 1) % intervals.length;
+            sum += interval;
+            squaredSum += (double) interval * interval;
+        }
+    }
+}
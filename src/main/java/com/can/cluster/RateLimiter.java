@@ -0,0 +1,92 @@
+package com.can.cluster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * İşlem ve bayt sayısını aynı anda sınırlayan jeton kovası tabanlı hız
+ * sınırlayıcıdır. Her iki kova saniyelik hızda dolar ve en fazla bir saniyelik
+ * birikime izin verir. Sınır 0 ise o boyut sınırlanmaz. Çağıran iş parçacığı
+ * yeterli jeton birikene kadar bekletilir; sanal thread'lerden çağrılmak üzere
+ * tasarlanmıştır.
+ */
+public final class RateLimiter
+{
+    private final double opsPerSecond;
+    private final double bytesPerSecond;
+    private double opTokens;
+    private double byteTokens;
+    private long lastRefillNanos;
+
+    public RateLimiter(long opsPerSecond, long bytesPerSecond)
+    {
+        this.opsPerSecond = Math.max(0L, opsPerSecond);
+        this.bytesPerSecond = Math.max(0L, bytesPerSecond);
+        this.opTokens = this.opsPerSecond;
+        this.byteTokens = this.bytesPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public static RateLimiter unlimited()
+    {
+        return new RateLimiter(0L, 0L);
+    }
+
+    public boolean limited()
+    {
+        return opsPerSecond > 0.0d || bytesPerSecond > 0.0d;
+    }
+
+    /**
+     * İstenen miktarda jeton tüketir; yetmiyorsa eksik jetonlar birikene kadar
+     * bekler. Kova kapasitesinden büyük talepler borç olarak kaydedilir, böylece
+     * tek bir büyük parti de ortalama hızı aşmaz.
+     *
+     * @throws InterruptedException bekleme sırasında kesilirse
+     */
+    public void acquire(long ops, long bytes) throws InterruptedException
+    {
+        if (!limited()) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            refill(System.nanoTime());
+            if (opsPerSecond > 0.0d) {
+                opTokens -= ops;
+            }
+            if (bytesPerSecond > 0.0d) {
+                byteTokens -= bytes;
+            }
+            waitNanos = Math.max(deficitNanos(opTokens, opsPerSecond), deficitNanos(byteTokens, bytesPerSecond));
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        while (waitNanos > 0L) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for rate limiter");
+            }
+            waitNanos = deadline - System.nanoTime();
+        }
+    }
+
+    private void refill(long now)
+    {
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRefillNanos = now;
+        if (opsPerSecond > 0.0d) {
+            opTokens = Math.min(opsPerSecond, opTokens + elapsedSeconds * opsPerSecond);
+        }
+        if (bytesPerSecond > 0.0d) {
+            byteTokens = Math.min(bytesPerSecond, byteTokens + elapsedSeconds * bytesPerSecond);
+        }
+    }
+
+    private static long deficitNanos(double tokens, double ratePerSecond)
+    {
+        if (ratePerSecond <= 0.0d || tokens >= 0.0d) {
+            return 0L;
+        }
+        return (long) (-tokens / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,126 @@
+package com.can.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asenkron replikasyonda tek bir yedek düğüme gönderilecek yazmaları sıra
+ * numarasıyla tutan sınırlı bellek içi günlüktür. Sıra numaraları 1'den
+ * başlayarak artar; yedek düğüm belirli bir numaraya kadar onay verdiğinde o
+ * numaraya kadarki kayıtlar günlükten düşülür. Kapasite dolduğunda yeni kayıt
+ * kabul edilmez, çağıran yazmayı ipucu kuyruğuna yönlendirir.
+ */
+public final class ReplicationLog
+{
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final int capacity;
+    // Onaylanmamış kayıtlar sıra numarasına göre ardışık tutulur; halka tampon
+    // sayesinde bir sıra numarasının konumu taramadan hesaplanır. Tampon
+    // kapasiteye kadar ihtiyaç oldukça büyür.
+    private Entry[] entries;
+    private int head;
+    private int size;
+    private long nextSeq = 1L;
+    private long ackedSeq;
+
+    public ReplicationLog(int capacity)
+    {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new Entry[Math.min(this.capacity, INITIAL_SLOTS)];
+    }
+
+    /** Kaydı günlüğe ekler ve sıra numarasını döndürür; günlük doluysa -1 döner. */
+    public synchronized long append(Mutation<String, String> mutation)
+    {
+        if (size >= capacity) {
+            return -1L;
+        }
+        if (size == entries.length) {
+            grow();
+        }
+        long seq = nextSeq++;
+        entries[(head + size) % entries.length] = new Entry(seq, mutation, System.currentTimeMillis());
+        size++;
+        notifyAll();
+        return seq;
+    }
+
+    private void grow()
+    {
+        Entry[] grown = new Entry[(int) Math.min(capacity, entries.length * 2L)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = entries[(head + i) % entries.length];
+        }
+        entries = grown;
+        head = 0;
+    }
+
+    /** Verilen sıra numarasından başlayarak en fazla {@code max} kaydı döndürür. */
+    public synchronized List<Entry> read(long fromSeq, int max)
+    {
+        long firstSeq = nextSeq - size;
+        long start = Math.max(fromSeq, firstSeq);
+        int offset = (int) Math.min(size, start - firstSeq);
+        int count = Math.max(0, Math.min(max, size - offset));
+        List<Entry> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(entries[(head + offset + i) % entries.length]);
+        }
+        return batch;
+    }
+
+    /** Yedek düğümün verilen numaraya kadar tüm kayıtları uyguladığını işaretler. */
+    public synchronized void ack(long seq)
+    {
+        if (seq <= ackedSeq) {
+            return;
+        }
+        ackedSeq = Math.min(seq, nextSeq - 1);
+        while (size > 0 && entries[head].seq() <= ackedSeq) {
+            entries[head] = null;
+            head = (head + 1) % entries.length;
+            size--;
+        }
+    }
+
+    /** Verilen numaradan sonra kayıt eklenene ya da süre dolana kadar bekler. */
+    public synchronized boolean awaitAfter(long seq, long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (nextSeq - 1 <= seq) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0L) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    public synchronized long lastSeq()
+    {
+        return nextSeq - 1;
+    }
+
+    public synchronized long ackedSeq()
+    {
+        return ackedSeq;
+    }
+
+    /** Henüz onaylanmamış kayıt sayısı. */
+    public synchronized long lagEntries()
+    {
+        return size;
+    }
+
+    /** Onaylanmamış en eski kaydın yaşı; günlük boşsa 0. */
+    public synchronized long lagMillis(long now)
+    {
+        return size == 0 ? 0L : Math.max(0L, now - entries[head].appendedAtMillis());
+    }
+
+    public record Entry(long seq, Mutation<String, String> mutation, long appendedAtMillis)
+    {
+    }
+}
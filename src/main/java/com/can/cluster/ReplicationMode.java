@@ -0,0 +1,25 @@
+package com.can.cluster;
+
+import java.util.Locale;
+
+/**
+ * Yazmaların replikalara nasıl taşınacağını belirler. {@link #SYNC} modunda
+ * istemci çoğunluk onayını bekler; {@link #ASYNC} modunda yalnızca birincil
+ * replika beklenir, yedekler replikasyon günlüğü üzerinden arkadan güncellenir.
+ */
+public enum ReplicationMode
+{
+    SYNC,
+    ASYNC;
+
+    public static ReplicationMode fromConfig(String value)
+    {
+        if (value == null || value.isBlank()) return SYNC;
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return ReplicationMode.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown replication mode: " + value, ex);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.can.cluster;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Asenkron replikasyonda bir yedek düğüme açılan sıralı akıştır. Gönderilen
+ * partiler karşı tarafta gönderim sırasıyla uygulanır; onay beklemeden birden
+ * fazla parti gönderilebilir. Her parti için gelen onay, yedeğin o ana kadar
+ * kesintisiz uyguladığı en büyük sıra numarasını taşır.
+ */
+public interface ReplicationStream extends AutoCloseable
+{
+    void send(long firstSeq, List<Mutation<String, String>> mutations) throws IOException;
+
+    /** Sıradaki partinin onayını bekler ve onaylanan sıra numarasını döndürür. */
+    long readAck() throws IOException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,158 @@
+package com.can.cluster;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hash halkasındaki işaretsiz 32 bitlik jeton uzayında yarı açık bir aralığı
+ * {@code [start, end)} temsil eder. Anti-entropy karşılaştırmalarında aralıklar
+ * eşit genişlikte alt aralıklara bölünür; bir jetonun hangi alt aralığa düştüğü
+ * {@link #bucketOf(long, int)} ile bölme sınırlarıyla tutarlı şekilde hesaplanır.
+ */
+public record TokenRange(long start, long end)
+{
+    public static final long TOKEN_SPACE = 1L << 32;
+
+    public TokenRange
+    {
+        if (start < 0L || end > TOKEN_SPACE || start > end) {
+            throw new IllegalArgumentException("Invalid token range [" + start + ", " + end + ")");
+        }
+    }
+
+    public static TokenRange full()
+    {
+        return new TokenRange(0L, TOKEN_SPACE);
+    }
+
+    public long width()
+    {
+        return end - start;
+    }
+
+    public boolean contains(long token)
+    {
+        return token >= start && token < end;
+    }
+
+    /**
+     * Aralığı {@code parts} parçaya böler. Genişlik parça sayısından küçükse
+     * bazı parçalar boş olabilir; sıralama ve indeksler {@link #bucketOf} ile
+     * birebir örtüşür.
+     */
+    public List<TokenRange> split(int parts)
+    {
+        List<TokenRange> out = new ArrayList<>(parts);
+        long width = width();
+        for (int i = 0; i < parts; i++) {
+            out.add(new TokenRange(boundary(width, i, parts), boundary(width, i + 1, parts)));
+        }
+        return out;
+    }
+
+    /** Aralık içindeki jetonun {@code parts} parçalı bölmede düştüğü indeksi döndürür. */
+    public int bucketOf(long token, int parts)
+    {
+        long width = width();
+        if (width == 0L) {
+            return 0;
+        }
+        return (int) ((token - start) * parts / width);
+    }
+
+    /**
+     * Başlangıca göre sıralı ve ayrık aralıklar içinde jetonu içeren aralığın
+     * indeksini ikili arama ile bulur; hiçbiri içermiyorsa -1 döner.
+     */
+    public static int indexOf(List<TokenRange> sorted, long token)
+    {
+        int low = 0;
+        int high = sorted.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            TokenRange range = sorted.get(mid);
+            if (token < range.start()) {
+                high = mid - 1;
+            } else if (token >= range.end()) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /** Aralıkları başlangıca göre sıralar, boş olanları atar ve bitişik ya da örtüşenleri birleştirir. */
+    public static List<TokenRange> coalesce(List<TokenRange> ranges)
+    {
+        List<TokenRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(TokenRange::start));
+        List<TokenRange> merged = new ArrayList<>(sorted.size());
+        for (TokenRange range : sorted) {
+            if (range.width() == 0L) {
+                continue;
+            }
+            int last = merged.size() - 1;
+            if (last >= 0 && merged.get(last).end() >= range.start()) {
+                TokenRange previous = merged.get(last);
+                merged.set(last, new TokenRange(previous.start(), Math.max(previous.end(), range.end())));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    /** Sıralı ve birleştirilmiş iki aralık listesinin kesişimini döndürür. */
+    public static List<TokenRange> intersect(List<TokenRange> a, List<TokenRange> b)
+    {
+        List<TokenRange> out = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            TokenRange left = a.get(i);
+            TokenRange right = b.get(j);
+            long start = Math.max(left.start(), right.start());
+            long end = Math.min(left.end(), right.end());
+            if (start < end) {
+                out.add(new TokenRange(start, end));
+            }
+            if (left.end() <= right.end()) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /** Sıralı ve birleştirilmiş {@code a} listesinden {@code b} ile örtüşen kısımları çıkarır. */
+    public static List<TokenRange> subtract(List<TokenRange> a, List<TokenRange> b)
+    {
+        List<TokenRange> out = new ArrayList<>();
+        int j = 0;
+        for (TokenRange range : a) {
+            long cursor = range.start();
+            while (j < b.size() && b.get(j).end() <= cursor) {
+                j++;
+            }
+            for (int k = j; k < b.size() && b.get(k).start() < range.end(); k++) {
+                TokenRange cut = b.get(k);
+                if (cut.start() > cursor) {
+                    out.add(new TokenRange(cursor, cut.start()));
+                }
+                cursor = Math.max(cursor, cut.end());
+            }
+            if (cursor < range.end()) {
+                out.add(new TokenRange(cursor, range.end()));
+            }
+        }
+        return out;
+    }
+
+    private long boundary(long width, int index, int parts)
+    {
+        return start + (width * index + parts - 1) / parts;
+    }
+}
@@ -0,0 +1,34 @@
+package com.can.cluster;
+
+/**
+ * Replikalardan okunan değerlerin hangisinin daha yeni olduğunu ve okuma
+ * onarımında yeniden yazılacak değerin ne zaman sona ereceğini belirler. Küme
+ * katmanı değer biçimini bilmediğinden bu bilgi değeri üreten katmandan alınır.
+ * Sürüm bilgisi olmayan değerler için {@link #none()} tüm yanıtları eşit sayar;
+ * bu durumda okuma sırasındaki ilk dolu yanıt kullanılır ve onarım yapılmaz.
+ */
+public interface ValueVersioning<V>
+{
+    /** Değerin sürümü; büyük olan daha yeni yazmayı ifade eder. */
+    long version(V value);
+
+    /** Değerin mutlak son kullanma zamanı (ms); süresizse 0. */
+    long expireAtMillis(V value);
+
+    static <V> ValueVersioning<V> none()
+    {
+        return new ValueVersioning<>() {
+            @Override
+            public long version(V value)
+            {
+                return 0L;
+            }
+
+            @Override
+            public long expireAtMillis(V value)
+            {
+                return 0L;
+            }
+        };
+    }
+}
@@ -1,35 +1,32 @@
 package com.can.cluster.coordination;
 
 import com.can.cluster.*;
+import com.can.codec.BlockCodec;
 import com.can.config.AppProperties;
 import com.can.constants.NodeProtocol;
 import com.can.core.CacheEngine;
+import com.can.metric.MetricsRegistry;
+import io.quarkus.runtime.ShutdownEvent;
 import io.vertx.core.Vertx;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.jboss.logging.Logger;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.MulticastSocket;
-import java.net.NetworkInterface;
-import java.net.SocketException;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,17 +37,18 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 
 /**
- * Multicast tabanlı hafif bir koordinasyon katmanı. Her düğüm belirli aralıklarla
- * kümedeki varlığını duyurur, gelen duyuruları dinleyerek {@link ConsistentHashRing}
- * üzerinde temsil ettiği düğümleri ekler veya çıkarır. Böylece yeni can-cache
- * örnekleri ayağa kalktığında diğer JVM'ler tarafından otomatik olarak keşfedilir
- * ve RAM'deki veriler replikasyon protokolü aracılığıyla senkronize edilir.
+ * Hafif bir koordinasyon katmanı. Yapılandırılan {@link MembershipProtocol}
+ * (multicast duyurular ya da SWIM tarzı gossip) üzerinden gelen canlılık,
+ * ayrılma ve ölüm olaylarını dinleyerek {@link ConsistentHashRing} üzerinde
+ * temsil ettiği düğümleri ekler veya çıkarır. Böylece yeni can-cache örnekleri
+ * ayağa kalktığında diğer JVM'ler tarafından otomatik olarak keşfedilir ve
+ * RAM'deki veriler replikasyon protokolü aracılığıyla senkronize edilir.
  */
 @Singleton
 public class CoordinationService implements AutoCloseable
 {
     private static final Logger LOG = Logger.getLogger(CoordinationService.class);
-    private static final int MAX_PACKET_SIZE = 1024;
+    private static final int STREAM_APPLY_BATCH = 512;
 
     private final ConsistentHashRing<Node<String, String>> ring;
     private final Node<String, String> localNode;
@@ -62,20 +60,32 @@ public class CoordinationService implements AutoCloseable
     private final int replicationFactor;
     private final long hintReplayIntervalMillis;
     private final long antiEntropyIntervalMillis;
+    private final int merkleFanout;
+    private final int merkleMaxDepth;
+    private final int merkleLeafEntries;
+    private final int merkleMaxRanges;
     private final Vertx vertx;
     private final ExecutorService taskExecutor;
+    private final Rebalancer rebalancer;
+    private final PhiAccrualFailureDetector failureDetector;
+    private final NodeHealthTracker healthTracker;
+    private final AsyncReplicator asyncReplicator;
+    private final long failureCheckIntervalMillis;
+    private final boolean decommissionOnShutdown;
+    private final long decommissionTimeoutMillis;
+    private final BlockCodec compressionCodec;
+    private final int compressionMinBytes;
+    private final MetricsRegistry metrics;
 
     private final Map<String, RemoteMember> members = new ConcurrentHashMap<>();
     private final Object membershipLock = new Object();
 
-    private MulticastSocket listenSocket;
-    private DatagramSocket sendSocket;
-    private InetAddress groupAddress;
-    private long heartbeatTimerId = -1L;
-    private long reapTimerId = -1L;
+    private MembershipProtocol membership;
     private long repairTimerId = -1L;
-    private Thread listenerThread;
+    private long evictionTimerId = -1L;
     private volatile boolean running;
+    private volatile boolean decommissioning;
+    private boolean decommissioned;
 
     @Inject
     public CoordinationService(ConsistentHashRing<Node<String, String>> ring,
@@ -84,7 +94,11 @@ public class CoordinationService implements AutoCloseable
                                HintedHandoffService hintedHandoffService,
                                CacheEngine<String, String> localEngine,
                                AppProperties properties,
-                               Vertx vertx) {
+                               Vertx vertx,
+                               PhiAccrualFailureDetector failureDetector,
+                               NodeHealthTracker healthTracker,
+                               AsyncReplicator asyncReplicator,
+                               MetricsRegistry metrics) {
         this.ring = ring;
         this.localNode = localNode;
         this.clusterState = clusterState;
@@ -97,136 +111,113 @@ public class CoordinationService implements AutoCloseable
         var coordination = cluster.coordination();
         this.hintReplayIntervalMillis = Math.max(0L, coordination.hintReplayIntervalMillis());
         this.antiEntropyIntervalMillis = Math.max(0L, coordination.antiEntropyIntervalMillis());
+        this.merkleFanout = Math.min(RangeDigests.MAX_FANOUT, Math.max(2, coordination.merkleFanout()));
+        this.merkleMaxDepth = Math.max(1, coordination.merkleMaxDepth());
+        this.merkleLeafEntries = Math.max(0, coordination.merkleLeafEntries());
+        this.merkleMaxRanges = Math.max(1, Math.min(coordination.merkleMaxRanges(),
+                RangeDigests.MAX_BUCKETS / this.merkleFanout));
         this.vertx = vertx;
+        this.failureDetector = failureDetector;
+        this.healthTracker = healthTracker;
+        this.asyncReplicator = asyncReplicator;
+        this.failureCheckIntervalMillis = Math.max(100L, cluster.failureDetector().checkIntervalMillis());
         ThreadFactory threadFactory = Thread.ofVirtual().name("coordination-task-", 0).factory();
         this.taskExecutor = Executors.newThreadPerTaskExecutor(threadFactory);
+        var rebalance = cluster.rebalance();
+        this.rebalancer = new Rebalancer(ring, localNode, localEngine, replicationFactor,
+                rebalance.maxConcurrentTransfers(), new RateLimiter(0L, rebalance.bytesPerSecond()),
+                rebalance.purgeDelayMillis(), this::fetchRanges, this::confirmRanges, vertx, metrics);
+        var decommission = cluster.decommission();
+        this.decommissionOnShutdown = decommission.onShutdown();
+        this.decommissionTimeoutMillis = Math.max(1L, decommission.timeoutMillis());
+        var compression = cluster.compression();
+        this.compressionCodec = BlockCodec.fromConfig(compression.codec());
+        this.compressionMinBytes = compression.minBytes();
+        this.metrics = metrics;
     }
 
     @PostConstruct
     void start() {
+        ring.addNode(localNode, localNode.id().getBytes(StandardCharsets.UTF_8));
+        running = true;
+        membership = createMembership();
         try {
-            setupSockets();
+            membership.start(new MembershipListener());
         }
         catch (IOException e)
         {
+            running = false;
             throw new IllegalStateException("Failed to initialise coordination sockets", e);
         }
 
-        ring.addNode(localNode, localNode.id().getBytes(StandardCharsets.UTF_8));
-        running = true;
-
-        listenerThread = new Thread(this::listenLoop, "coordination-listener");
-        listenerThread.setDaemon(true);
-        listenerThread.start();
-
         long heartbeat = Math.max(1000L, discoveryConfig.heartbeatIntervalMillis());
         long reapInterval = Math.max(heartbeat, discoveryConfig.failureTimeoutMillis() / 2);
-        broadcastHeartbeat();
-        heartbeatTimerId = vertx.setPeriodic(heartbeat, id -> broadcastHeartbeat());
-        reapTimerId = vertx.setPeriodic(reapInterval, id -> pruneDeadMembers());
         long repairInterval = Math.max(reapInterval, antiEntropyIntervalMillis);
         repairTimerId = vertx.setPeriodic(repairInterval, id -> submitAntiEntropyTask());
+        if (evictsBySuspicion()) {
+            evictionTimerId = vertx.setPeriodic(failureCheckIntervalMillis, id -> evictSuspectedMembers());
+        }
 
-        LOG.infof("Coordination service started for node %s, announcing %s:%d", localNode.id(),
-                advertisedHost(), replicationConfig.port());
+        LOG.infof("Coordination service started for node %s using %s discovery, announcing %s:%d", localNode.id(),
+                DiscoveryMode.fromConfig(discoveryConfig.mode()), advertisedHost(), replicationConfig.port());
     }
 
-    private void setupSockets() throws IOException
+    private MembershipProtocol createMembership()
     {
-        groupAddress = InetAddress.getByName(discoveryConfig.multicastGroup());
-        listenSocket = new MulticastSocket(discoveryConfig.multicastPort());
-        listenSocket.setReuseAddress(true);
-        NetworkInterface networkInterface = selectInterface();
-        listenSocket.joinGroup(new InetSocketAddress(groupAddress, discoveryConfig.multicastPort()), networkInterface);
-        sendSocket = new DatagramSocket();
-        sendSocket.setReuseAddress(true);
+        return switch (DiscoveryMode.fromConfig(discoveryConfig.mode())) {
+            case MULTICAST -> new MulticastMembership(localNode.id(), advertisedHost(), replicationConfig.port(),
+                    replicationConfig.bindHost(), discoveryConfig.multicastGroup(), discoveryConfig.multicastPort(),
+                    discoveryConfig.heartbeatIntervalMillis(),
+                    evictsBySuspicion() ? 0L : discoveryConfig.failureTimeoutMillis(),
+                    clusterState::currentEpoch, vertx);
+            case SWIM -> new SwimMembership(localNode.id(), advertisedHost(), replicationConfig.port(),
+                    replicationConfig.bindHost(), discoveryConfig.swimPort(),
+                    SwimMembership.parseSeeds(discoveryConfig.seeds().orElse(List.of()), discoveryConfig.swimPort()),
+                    discoveryConfig.probeIntervalMillis(), discoveryConfig.probeTimeoutMillis(),
+                    discoveryConfig.indirectProbes(), discoveryConfig.suspicionTimeoutMillis(),
+                    clusterState::currentEpoch);
+        };
     }
 
-    private NetworkInterface selectInterface() throws SocketException
+    /**
+     * Multicast keşifte sabit zaman aşımı yerine phi-accrual dedektörü tahliye
+     * kararını verir. SWIM kendi yoklamalarıyla ölü üyeleri tespit ettiğinden
+     * orada dedektör yalnızca SWIM'in şüphe durumunu yönlendirmeye yansıtır.
+     */
+    private boolean evictsBySuspicion()
     {
-        // Önce bind host'u deneyelim, değilse multicast destekleyen ilk arayüzü seçelim.
-        try {
-            InetAddress bindAddress = InetAddress.getByName(replicationConfig.bindHost());
-            NetworkInterface ni = NetworkInterface.getByInetAddress(bindAddress);
-            if (ni != null && ni.isUp() && ni.supportsMulticast()) {
-                return ni;
-            }
-        } catch (IOException ignored) {
-        }
-
-        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
-        while (interfaces.hasMoreElements()) {
-            NetworkInterface ni = interfaces.nextElement();
-            if (ni.isUp() && ni.supportsMulticast() && !ni.isLoopback()) {
-                return ni;
-            }
-        }
-        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
-        if (loopback != null) {
-            return loopback;
-        }
-        throw new SocketException("No multicast-capable network interface found");
+        return failureDetector.enabled() && DiscoveryMode.fromConfig(discoveryConfig.mode()) == DiscoveryMode.MULTICAST;
     }
 
-    private void listenLoop()
+    private void evictSuspectedMembers()
     {
-        byte[] buffer = new byte[MAX_PACKET_SIZE];
-        while (running) {
-            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-            try {
-                listenSocket.receive(packet);
-                handlePacket(packet.getData(), packet.getLength());
-            } catch (IOException e) {
-                if (running) {
-                    LOG.warn("Failed to receive coordination packet", e);
-                }
+        if (!running || decommissioning) {
+            return;
+        }
+        for (String nodeId : members.keySet()) {
+            if (failureDetector.shouldEvict(nodeId)) {
+                LOG.debugf("Member %s exceeded phi %.2f, evicting", nodeId, failureDetector.phi(nodeId));
+                dispatch(nodeId, () -> processDead(nodeId));
             }
         }
     }
 
-    private void handlePacket(byte[] data, int length)
+    private void dispatch(String nodeId, Runnable task)
     {
-        String message = new String(data, 0, length, StandardCharsets.UTF_8);
-        String[] parts = message.split("\\|");
-        if (parts.length < 4 || !Objects.equals(parts[0], "HELLO")) {
-            return;
-        }
-
-        String nodeId = parts[1];
         if (nodeId.equals(localNode.id())) {
             return;
         }
-
-        String host = parts[2];
-        int port;
-        try {
-            port = Integer.parseInt(parts[3]);
-        } catch (NumberFormatException e) {
-            LOG.debugf("Ignoring coordination packet with invalid port: %s", message);
-            return;
-        }
-
-        long remoteEpoch = 0L;
-        if (parts.length >= 5) {
-            try {
-                remoteEpoch = Long.parseLong(parts[4]);
-            } catch (NumberFormatException ignored) {
-                remoteEpoch = 0L;
-            }
-        }
-
         try {
-            final long lambdaRemoteEpoch = remoteEpoch;
-            taskExecutor.execute(() -> processMembershipPacket(nodeId, host, port, lambdaRemoteEpoch));
+            taskExecutor.execute(task);
         } catch (RejectedExecutionException e) {
             if (running) {
-                LOG.debugf("Coordination task rejected for %s:%d", nodeId, port);
+                LOG.debugf("Coordination task rejected for member %s", nodeId);
             }
         }
     }
 
     private void processMembershipPacket(String nodeId, String host, int port, long remoteEpoch) {
-        if (!running) {
+        if (!running || decommissioning) {
             return;
         }
 
@@ -278,19 +269,25 @@ public class CoordinationService implements AutoCloseable
         RemoteNode previousNode = pendingRemoval;
         boolean runBootstrap = false;
         long updateTime = System.currentTimeMillis();
+        ConsistentHashRing<Node<String, String>> ringBefore = null;
+        ConsistentHashRing<Node<String, String>> ringAfter = null;
 
         synchronized (membershipLock) {
             RemoteMember current = members.get(nodeId);
             if (current == null) {
+                ringBefore = ring.copy();
                 long previousEpoch = clusterState.currentEpoch();
                 runBootstrap = join.epoch() >= previousEpoch;
                 clusterState.bumpEpoch();
                 clusterState.observeEpoch(join.epoch());
 
-                RemoteNode remoteNode = new RemoteNode(nodeId, host, port, replicationConfig.connectTimeoutMillis(), vertx);
+                RemoteNode remoteNode = new RemoteNode(nodeId, host, port, replicationConfig.connectTimeoutMillis(), vertx,
+                        failureDetector::onResponse,
+                        new FrameCompressor(nodeId, join.codec(), compressionMinBytes, metrics));
                 RemoteMember newMember = new RemoteMember(remoteNode, idBytes, host, port, updateTime, join.epoch());
                 members.put(nodeId, newMember);
                 ring.addNode(remoteNode, idBytes);
+                ringAfter = ring.copy();
                 LOG.infof("Discovered new cluster member %s at %s:%d", nodeId, host, port);
 
                 memberForBootstrap = newMember;
@@ -303,7 +300,9 @@ public class CoordinationService implements AutoCloseable
                 clusterState.bumpEpoch();
                 clusterState.observeEpoch(join.epoch());
 
-                RemoteNode remoteNode = new RemoteNode(nodeId, host, port, replicationConfig.connectTimeoutMillis(), vertx);
+                RemoteNode remoteNode = new RemoteNode(nodeId, host, port, replicationConfig.connectTimeoutMillis(), vertx,
+                        failureDetector::onResponse,
+                        new FrameCompressor(nodeId, join.codec(), compressionMinBytes, metrics));
                 previousNode = current.node();
                 current.replace(remoteNode, idBytes, host, port, updateTime, join.epoch());
                 ring.addNode(remoteNode, idBytes);
@@ -324,6 +323,10 @@ public class CoordinationService implements AutoCloseable
             }
         }
 
+        if (ringBefore != null && ringAfter != null) {
+            rebalancer.onRingChange(ringBefore, ringAfter);
+        }
+
         if (memberForBootstrap != null && runBootstrap) {
             bootstrapFrom(memberForBootstrap, false);
         }
@@ -338,6 +341,136 @@ public class CoordinationService implements AutoCloseable
         }
     }
 
+    /**
+     * Ayrıldığını duyuran üyeyi zaman aşımını beklemeden halkadan çıkarır ve
+     * sahiplik değişikliğini yeniden dengeleyiciye bildirir.
+     */
+    private void processLeave(String nodeId)
+    {
+        if (!running) {
+            return;
+        }
+        ConsistentHashRing<Node<String, String>> ringBefore;
+        RemoteMember removed;
+        synchronized (membershipLock) {
+            removed = members.get(nodeId);
+            if (removed == null) {
+                return;
+            }
+            ringBefore = ring.copy();
+            members.remove(nodeId);
+            ring.removeNode(removed.node(), removed.idBytes());
+            clusterState.bumpEpoch();
+        }
+        failureDetector.forget(nodeId);
+        healthTracker.forget(nodeId);
+        handOffReplicationLog(nodeId);
+        LOG.infof("Cluster member %s (%s) announced leave", nodeId, removed.hostPort());
+        closeRemoteNode(removed.node());
+        rebalancer.onRingChange(ringBefore, ring.copy());
+    }
+
+    /**
+     * Halkadan çıkan üyenin asenkron replikasyon göndericisini durdurur ve
+     * gönderilmemiş kayıtlarını ipucu kuyruğuna aktarır; üye geri döndüğünde
+     * ipuçlarıyla birlikte uygulanırlar.
+     */
+    private void handOffReplicationLog(String nodeId)
+    {
+        for (Mutation<String, String> mutation : asyncReplicator.forget(nodeId)) {
+            hintedHandoffService.record(nodeId, mutation);
+        }
+    }
+
+    /** Üyelik protokolünün ölü ilan ettiği üyeyi halkadan çıkarır. */
+    private void processDead(String nodeId)
+    {
+        if (!running) {
+            return;
+        }
+        ConsistentHashRing<Node<String, String>> ringBefore;
+        RemoteMember removed;
+        synchronized (membershipLock) {
+            removed = members.get(nodeId);
+            if (removed == null) {
+                return;
+            }
+            ringBefore = ring.copy();
+            members.remove(nodeId);
+            ring.removeNode(removed.node(), removed.idBytes());
+            clusterState.bumpEpoch();
+        }
+        failureDetector.forget(nodeId);
+        healthTracker.forget(nodeId);
+        handOffReplicationLog(nodeId);
+        LOG.warnf("Cluster member %s (%s) timed out", nodeId, removed.hostPort());
+        closeRemoteNode(removed.node());
+        rebalancer.onRingChange(ringBefore, ring.copy());
+    }
+
+    /**
+     * Düğümü kümeden kontrollü şekilde çıkarır: heartbeat durdurulur ve ayrılma
+     * duyurulur, böylece eşler düğümü zaman aşımı beklemeden halkadan çıkarır.
+     * Ardından sahip olunan kayıtlar yeni sahiplerine paralel olarak devredilir
+     * ve bekleyen ipuçları hedeflerine boşaltılır. Tüm adımlar yapılandırılan
+     * süre içinde tamamlandıysa {@code true} döner; işlem yalnızca bir kez
+     * yürütülür.
+     */
+    public synchronized boolean decommission()
+    {
+        if (decommissioned || !running) {
+            return decommissioned;
+        }
+        decommissioning = true;
+        long started = System.currentTimeMillis();
+        long deadline = started + decommissionTimeoutMillis;
+
+        membership.leave();
+
+        Rebalancer.HandOffResult handOff = rebalancer.handOff(deadline - System.currentTimeMillis());
+        boolean hintsFlushed = flushHints(deadline);
+        decommissioned = true;
+
+        boolean complete = handOff.complete() && hintsFlushed;
+        LOG.infof("Decommission of %s %s in %d ms: handed off %d keys to %d nodes (%d failed), hints %s",
+                localNode.id(), complete ? "completed" : "finished incomplete", System.currentTimeMillis() - started,
+                handOff.accepted(), handOff.targets(), handOff.failedTargets(), hintsFlushed ? "flushed" : "pending");
+        return complete;
+    }
+
+    /** Bekleyen ipuçlarını süre dolana ya da ilerleme durana kadar hedeflerine oynatır. */
+    private boolean flushHints(long deadline)
+    {
+        List<RemoteMember> snapshot;
+        synchronized (membershipLock) {
+            snapshot = new ArrayList<>(members.values());
+        }
+        boolean flushed = true;
+        for (RemoteMember member : snapshot) {
+            String nodeId = member.node().id();
+            int pending = hintedHandoffService.pendingFor(nodeId);
+            while (pending > 0 && System.currentTimeMillis() < deadline) {
+                hintedHandoffService.replay(nodeId, member.node());
+                int remaining = hintedHandoffService.pendingFor(nodeId);
+                if (remaining >= pending) {
+                    break;
+                }
+                pending = remaining;
+            }
+            if (pending > 0) {
+                flushed = false;
+            }
+        }
+        return flushed;
+    }
+
+    void onShutdown(@Observes ShutdownEvent event)
+    {
+        if (decommissionOnShutdown) {
+            decommission();
+        }
+    }
+
     private JoinHandshakeResult performJoinHandshake(String nodeId, String host, int port) {
         try (Socket socket = new Socket()) {
             socket.connect(new InetSocketAddress(host, port), replicationConfig.connectTimeoutMillis());
@@ -350,12 +483,14 @@ public class CoordinationService implements AutoCloseable
             out.writeInt(idBytes.length);
             out.write(idBytes);
             out.writeLong(clusterState.currentEpoch());
+            out.writeByte(compressionCodec.id());
+            out.writeByte(BlockCodec.supportedMask());
             out.flush();
 
             byte response = in.readByte();
             if (response != NodeProtocol.RESP_ACCEPT) {
                 LOG.debugf("Join handshake rejected by %s:%d", host, port);
-                return new JoinHandshakeResult(0L, false);
+                return new JoinHandshakeResult(0L, false, BlockCodec.NONE);
             }
 
             int remoteIdLength = in.readInt();
@@ -364,12 +499,18 @@ public class CoordinationService implements AutoCloseable
                 throw new EOFException("Incomplete join response payload");
             }
             long remoteEpoch = in.readLong();
+            int codecId = in.readUnsignedByte();
+            BlockCodec codec = BlockCodec.fromId(codecId);
             String remoteId = new String(remoteIdBytes, StandardCharsets.UTF_8);
             if (!Objects.equals(remoteId, nodeId)) {
                 LOG.warnf("Join handshake id mismatch: expected %s but remote reported %s", nodeId, remoteId);
-                return new JoinHandshakeResult(0L, false);
+                return new JoinHandshakeResult(0L, false, BlockCodec.NONE);
+            }
+            if (codec == null) {
+                LOG.warnf("Node %s selected unknown frame codec %d, sending uncompressed", nodeId, codecId);
+                codec = BlockCodec.NONE;
             }
-            return new JoinHandshakeResult(remoteEpoch, true);
+            return new JoinHandshakeResult(remoteEpoch, true, codec);
         } catch (IOException e) {
             LOG.warnf(e, "Failed to perform join handshake with %s:%d", host, port);
             return null;
@@ -383,96 +524,344 @@ public class CoordinationService implements AutoCloseable
         }
 
         boolean success = false;
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(member.host(), member.port()), replicationConfig.connectTimeoutMillis());
-            socket.setTcpNoDelay(true);
-
-            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-
-            out.writeByte(NodeProtocol.CMD_STREAM);
-            out.flush();
+        try {
+            // Yalnızca bu üyenin yerel düğüm yüzünden kaybettiği aralıklar çekilir.
+            List<TokenRange> ranges = rebalancer.rangesToPullFrom(member.node());
+            int applied = rebalancer.pull(member.node(), ranges);
+            LOG.debugf("Bootstrapped %d keys in %d ranges from %s", applied, ranges.size(), member.hostPort());
+            success = true;
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to synchronise data from %s", member.hostPort());
+        } finally {
+            if (!force) {
+                member.completeBootstrap(success);
+            }
+        }
+    }
 
-            long now = System.currentTimeMillis();
-            while (true) {
-                byte marker;
-                try {
-                    marker = in.readByte();
-                } catch (EOFException eof) {
-                    break;
+    /**
+     * Akış yanıtındaki kayıtları okur ve {@code STREAM_APPLY_BATCH} büyüklüğündeki
+     * partiler halinde yerel motora toplu olarak yazar. Her parti yazılmadan önce
+     * hız sınırlayıcıdan bayt bütçesi alınır; okuma yavaşladıkça gönderen taraf
+     * TCP üzerinden geri basınç görür. Sıkıştırılmış bloklar açılarak içindeki
+     * kayıtlar aynı şekilde işlenir. Süresi dolmuş kayıtlar atlanır; saklanan
+     * kayıt sayısını döndürür.
+     */
+    private int readStream(DataInputStream in, RateLimiter rateLimiter, FrameCompressor compressor)
+            throws IOException
+    {
+        StreamBatch batch = new StreamBatch(rateLimiter);
+        while (true) {
+            byte marker;
+            try {
+                marker = in.readByte();
+            } catch (EOFException eof) {
+                break;
+            }
+            if (marker == NodeProtocol.STREAM_END_MARKER) {
+                break;
+            }
+            if (marker == NodeProtocol.STREAM_COMPRESSED_MARKER) {
+                int codecId = in.readUnsignedByte();
+                int rawLength = in.readInt();
+                int compressedLength = in.readInt();
+                if (rawLength < 0 || compressedLength < 0 || rawLength > FrameCompressor.MAX_FRAME_BYTES
+                        || compressedLength > FrameCompressor.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid compressed stream block: " + rawLength + "/" + compressedLength);
                 }
-                if (marker == NodeProtocol.STREAM_END_MARKER) {
-                    break;
+                byte[] compressed = in.readNBytes(compressedLength);
+                if (compressed.length != compressedLength) {
+                    throw new EOFException("Incomplete compressed stream block");
                 }
-                if (marker != NodeProtocol.STREAM_CHUNK_MARKER) {
-                    throw new IOException("Unexpected stream marker: " + marker);
+                byte[] raw = compressor.decompress(codecId, compressed, rawLength);
+                DataInputStream block = new DataInputStream(new ByteArrayInputStream(raw));
+                while (block.available() > 0) {
+                    if (block.readByte() != NodeProtocol.STREAM_CHUNK_MARKER) {
+                        throw new IOException("Unexpected marker inside compressed stream block");
+                    }
+                    readStreamEntry(block, batch);
                 }
+                continue;
+            }
+            if (marker != NodeProtocol.STREAM_CHUNK_MARKER) {
+                throw new IOException("Unexpected stream marker: " + marker);
+            }
+            readStreamEntry(in, batch);
+        }
+        return batch.finish();
+    }
 
-                int keyLen = in.readInt();
-                int valueLen = in.readInt();
-                long expireAt = in.readLong();
+    private void readStreamEntry(DataInputStream in, StreamBatch batch) throws IOException
+    {
+        int keyLen = in.readInt();
+        int valueLen = in.readInt();
+        long expireAt = in.readLong();
+        if (keyLen < 0 || valueLen < 0) {
+            throw new IOException("Negative stream entry length");
+        }
 
-                byte[] keyBytes = in.readNBytes(keyLen);
-                byte[] valueBytes = in.readNBytes(valueLen);
-                if (keyBytes.length != keyLen || valueBytes.length != valueLen) {
-                    throw new EOFException("Incomplete stream payload");
-                }
+        byte[] keyBytes = in.readNBytes(keyLen);
+        byte[] valueBytes = in.readNBytes(valueLen);
+        if (keyBytes.length != keyLen || valueBytes.length != valueLen) {
+            throw new EOFException("Incomplete stream payload");
+        }
+
+        if (expireAt > 0L && expireAt <= batch.now) {
+            return;
+        }
+        batch.add(new CacheEngine.BulkEntry<>(new String(keyBytes, StandardCharsets.UTF_8), valueBytes, expireAt),
+                keyLen + valueLen);
+    }
+
+    /**
+     * Akıştan okunan kayıtları {@code STREAM_APPLY_BATCH} büyüklüğünde toplar ve
+     * her parti için hız sınırlayıcıdan bütçe alarak yerel motora yazar.
+     */
+    private final class StreamBatch
+    {
+        private final RateLimiter rateLimiter;
+        private final long now = System.currentTimeMillis();
+        private final List<CacheEngine.BulkEntry<String>> entries = new ArrayList<>(STREAM_APPLY_BATCH);
+        private long bytes;
+        private int applied;
+
+        private StreamBatch(RateLimiter rateLimiter)
+        {
+            this.rateLimiter = rateLimiter;
+        }
+
+        private void add(CacheEngine.BulkEntry<String> entry, long entryBytes) throws IOException
+        {
+            entries.add(entry);
+            bytes += entryBytes;
+            if (entries.size() >= STREAM_APPLY_BATCH) {
+                flush();
+            }
+        }
+
+        private int finish() throws IOException
+        {
+            if (!entries.isEmpty()) {
+                flush();
+            }
+            return applied;
+        }
+
+        private void flush() throws IOException
+        {
+            try {
+                rateLimiter.acquire(entries.size(), bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while applying stream batch", e);
+            }
+            applied += localEngine.setAll(entries);
+            entries.clear();
+            bytes = 0L;
+        }
+    }
 
-                if (expireAt > 0L && expireAt <= now) {
-                    continue;
+    /**
+     * Üyeden yalnızca verilen aralıklardaki kayıtları ister ve yerel motora
+     * yazar; {@link Rebalancer} aktarımları bu yol üzerinden yürütür.
+     */
+    private int fetchRanges(Node<String, String> source, List<TokenRange> ranges, RateLimiter rateLimiter)
+            throws IOException
+    {
+        RemoteMember member = members.get(source.id());
+        if (member == null) {
+            throw new IOException("Unknown cluster member " + source.id());
+        }
+        int applied = 0;
+        for (int from = 0; from < ranges.size(); from += RangeDigests.MAX_RANGES) {
+            List<TokenRange> slice = ranges.subList(from, Math.min(ranges.size(), from + RangeDigests.MAX_RANGES));
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(member.host(), member.port()), replicationConfig.connectTimeoutMillis());
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                byte[] idBytes = clusterState.localNodeIdBytes();
+                FrameCompressor compressor = member.node().compressor();
+                out.writeByte(NodeProtocol.CMD_STREAM);
+                out.writeInt(idBytes.length);
+                out.write(idBytes);
+                writeRanges(out, slice);
+                out.writeByte(compressor.codec().id());
+                out.flush();
+
+                applied += readStream(in, rateLimiter, compressor);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Verilen aralıkların aktarımının tamamlandığını aralıkları kaybeden
+     * üyeye bildirir; üye kopyalarını ancak bu onaydan sonra siler.
+     */
+    private void confirmRanges(Node<String, String> owner, List<TokenRange> ranges) throws IOException
+    {
+        RemoteMember member = members.get(owner.id());
+        if (member == null) {
+            throw new IOException("Unknown cluster member " + owner.id());
+        }
+        for (int from = 0; from < ranges.size(); from += RangeDigests.MAX_RANGES) {
+            List<TokenRange> slice = ranges.subList(from, Math.min(ranges.size(), from + RangeDigests.MAX_RANGES));
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(member.host(), member.port()), replicationConfig.connectTimeoutMillis());
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                byte[] idBytes = clusterState.localNodeIdBytes();
+                out.writeByte(NodeProtocol.CMD_RANGE_ACK);
+                out.writeInt(idBytes.length);
+                out.write(idBytes);
+                writeRanges(out, slice);
+                out.flush();
+
+                byte response = in.readByte();
+                if (response != NodeProtocol.RESP_OK) {
+                    throw new IOException("Unexpected range ack response: " + response);
                 }
+            }
+        }
+    }
+
+    /**
+     * Bir üyenin yerel düğümden kaybettiği aralıkları eksiksiz çektiğini
+     * bildiren onayı yeniden dengeleyiciye iletir.
+     */
+    public void onRangeTransferConfirmed(String nodeId, List<TokenRange> ranges)
+    {
+        rebalancer.onTransferConfirmed(nodeId, ranges);
+    }
 
-                String key = new String(keyBytes, StandardCharsets.UTF_8);
-                String value = new String(valueBytes, StandardCharsets.UTF_8);
+    /**
+     * Uzak düğümle hash aralıkları üzerinden Merkle benzeri bir karşılaştırma
+     * yapar. Tüm jeton uzayından başlayarak her turda şüpheli aralıklar
+     * {@code merkleFanout} parçaya bölünür ve yalnızca özeti ya da kayıt sayısı
+     * tutmayan parçalar bir sonraki tura taşınır. Uzakta az kayıt içeren,
+     * azami derinliğe ulaşan ya da şüpheli aralık sınırını aşan parçalar
+     * doğrudan aktarılır; böylece onarım trafiği farklılığın boyutuyla orantılı
+     * kalır. Onarılan kayıt sayısını döndürür.
+     */
+    private int repairFrom(RemoteMember member) throws IOException
+    {
+        String peerId = member.node().id();
+        List<TokenRange> suspects = List.of(TokenRange.full());
+        List<TokenRange> toStream = new ArrayList<>();
+
+        for (int depth = 0; depth < merkleMaxDepth && !suspects.isEmpty(); depth++) {
+            RangeDigestResponse remote = requestRangeDigests(member, suspects);
+            RangeDigests local = RangeDigests.compute(localEngine, ring, replicationFactor, localNode.id(), peerId,
+                    suspects, merkleFanout);
+            if (remote.digests().length != local.buckets()) {
+                throw new IOException("Range digest size mismatch: expected " + local.buckets()
+                        + " but received " + remote.digests().length);
+            }
 
-                Duration ttl = null;
-                if (expireAt > 0L) {
-                    long ttlMillis = expireAt - now;
-                    if (ttlMillis <= 0L) {
+            List<TokenRange> next = new ArrayList<>();
+            for (int i = 0; i < suspects.size(); i++) {
+                List<TokenRange> parts = suspects.get(i).split(merkleFanout);
+                for (int j = 0; j < parts.size(); j++) {
+                    int bucket = i * merkleFanout + j;
+                    int remoteCount = remote.counts()[bucket];
+                    if (remote.digests()[bucket] == local.digest(bucket) && remoteCount == local.count(bucket)) {
+                        continue;
+                    }
+                    if (remoteCount == 0) {
+                        // Uzakta kayıt yoksa çekilecek veri de yoktur; fazlalık karşı tarafın turunda onarılır.
                         continue;
                     }
-                    ttl = Duration.ofMillis(ttlMillis);
+                    if (remoteCount <= merkleLeafEntries || parts.get(j).width() <= 1L) {
+                        toStream.add(parts.get(j));
+                    } else {
+                        next.add(parts.get(j));
+                    }
                 }
-                localNode.set(key, value, ttl);
             }
-            success = true;
-        } catch (IOException e) {
-            LOG.warnf(e, "Failed to synchronise data from %s", member.hostPort());
-        } finally {
-            if (!force) {
-                member.completeBootstrap(success);
+            if (next.size() > merkleMaxRanges) {
+                toStream.addAll(next);
+                next = List.of();
             }
+            suspects = next;
         }
+        toStream.addAll(suspects);
+        if (toStream.isEmpty()) {
+            return 0;
+        }
+        return streamRanges(member, TokenRange.coalesce(toStream));
     }
 
-    private long requestDigest(RemoteMember member) throws IOException
+    private RangeDigestResponse requestRangeDigests(RemoteMember member, List<TokenRange> ranges) throws IOException
     {
         try (Socket socket = new Socket()) {
             socket.connect(new InetSocketAddress(member.host(), member.port()), replicationConfig.connectTimeoutMillis());
             socket.setTcpNoDelay(true);
             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
-            out.writeByte(NodeProtocol.CMD_DIGEST);
+
+            byte[] idBytes = clusterState.localNodeIdBytes();
+            out.writeByte(NodeProtocol.CMD_RANGE_DIGEST);
+            out.writeInt(idBytes.length);
+            out.write(idBytes);
+            out.writeInt(merkleFanout);
+            writeRanges(out, ranges);
             out.flush();
-            return in.readLong();
+
+            byte response = in.readByte();
+            if (response != NodeProtocol.RESP_OK) {
+                throw new IOException("Unexpected range digest response: " + response);
+            }
+            int buckets = in.readInt();
+            if (buckets < 0 || buckets > RangeDigests.MAX_BUCKETS) {
+                throw new IOException("Invalid range digest size: " + buckets);
+            }
+            long[] digests = new long[buckets];
+            int[] counts = new int[buckets];
+            for (int i = 0; i < buckets; i++) {
+                digests[i] = in.readLong();
+                counts[i] = in.readInt();
+            }
+            return new RangeDigestResponse(digests, counts);
         }
     }
 
-    private long computeExpectedDigestFor(String nodeId)
+    private int streamRanges(RemoteMember member, List<TokenRange> ranges) throws IOException
     {
-        final long[] digest = {1125899906842597L};
-        localEngine.forEachEntry((key, value, expireAt) -> {
-            List<Node<String, String>> replicas = ring.getReplicas(key.getBytes(StandardCharsets.UTF_8), replicationFactor);
-            for (Node<String, String> replica : replicas) {
-                if (Objects.equals(replica.id(), nodeId)) {
-                    long entryHash = 31L * key.hashCode() + Arrays.hashCode(value);
-                    entryHash = 31L * entryHash + Long.hashCode(expireAt);
-                    digest[0] = 31L * digest[0] + entryHash;
-                    break;
-                }
+        int applied = 0;
+        for (int from = 0; from < ranges.size(); from += RangeDigests.MAX_RANGES) {
+            List<TokenRange> slice = ranges.subList(from, Math.min(ranges.size(), from + RangeDigests.MAX_RANGES));
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(member.host(), member.port()), replicationConfig.connectTimeoutMillis());
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                byte[] idBytes = clusterState.localNodeIdBytes();
+                FrameCompressor compressor = member.node().compressor();
+                out.writeByte(NodeProtocol.CMD_RANGE_STREAM);
+                out.writeInt(idBytes.length);
+                out.write(idBytes);
+                writeRanges(out, slice);
+                out.writeByte(compressor.codec().id());
+                out.flush();
+
+                applied += readStream(in, RateLimiter.unlimited(), compressor);
             }
-        });
-        return digest[0];
+        }
+        return applied;
+    }
+
+    private static void writeRanges(DataOutputStream out, List<TokenRange> ranges) throws IOException
+    {
+        out.writeInt(ranges.size());
+        for (TokenRange range : ranges) {
+            out.writeLong(range.start());
+            out.writeLong(range.end());
+        }
     }
 
     private void runAntiEntropy()
@@ -490,11 +879,9 @@ public class CoordinationService implements AutoCloseable
 
         for (RemoteMember member : snapshot) {
             try {
-                long remoteDigest = requestDigest(member);
-                long expectedDigest = computeExpectedDigestFor(member.node().id());
-                if (remoteDigest != expectedDigest) {
-                    LOG.debugf("Digest mismatch detected with %s, triggering repair", member.node().id());
-                    bootstrapFrom(member, true);
+                int repaired = repairFrom(member);
+                if (repaired > 0) {
+                    LOG.infof("Anti-entropy repaired %d keys from %s", repaired, member.node().id());
                 }
             } catch (IOException e) {
                 LOG.debugf(e, "Anti-entropy probe failed for %s", member.node().id());
@@ -502,19 +889,6 @@ public class CoordinationService implements AutoCloseable
         }
     }
 
-    private void broadcastHeartbeat()
-    {
-        String payload = String.format("HELLO|%s|%s|%d|%d", localNode.id(), advertisedHost(), replicationConfig.port(),
-                clusterState.currentEpoch());
-        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
-        DatagramPacket packet = new DatagramPacket(bytes, bytes.length, groupAddress, discoveryConfig.multicastPort());
-        try {
-            sendSocket.send(packet);
-        } catch (IOException e) {
-            LOG.warn("Failed to send coordination heartbeat", e);
-        }
-    }
-
     private void submitAntiEntropyTask()
     {
         if (!running) {
@@ -529,25 +903,6 @@ public class CoordinationService implements AutoCloseable
         }
     }
 
-    private void pruneDeadMembers() {
-        long now = System.currentTimeMillis();
-        long timeout = Math.max(discoveryConfig.failureTimeoutMillis(), discoveryConfig.heartbeatIntervalMillis() * 3);
-
-        synchronized (membershipLock) {
-            members.entrySet().removeIf(entry -> {
-                RemoteMember member = entry.getValue();
-                if (now - member.lastSeen() > timeout) {
-                    ring.removeNode(member.node(), member.idBytes());
-                    closeRemoteNode(member.node());
-                    LOG.warnf("Cluster member %s (%s:%d) timed out", entry.getKey(), member.host(), member.port());
-                    clusterState.bumpEpoch();
-                    return true;
-                }
-                return false;
-            });
-        }
-    }
-
     private String advertisedHost() {
         String host = replicationConfig.advertiseHost();
         if (host == null || host.isBlank() || Objects.equals(host, "0.0.0.0")) {
@@ -561,22 +916,13 @@ public class CoordinationService implements AutoCloseable
     public void close()
     {
         running = false;
-        cancelTimer(heartbeatTimerId);
-        cancelTimer(reapTimerId);
         cancelTimer(repairTimerId);
-        taskExecutor.shutdownNow();
-        if (listenSocket != null) {
-            try {
-                listenSocket.close();
-            } catch (Exception ignored) {
-            }
-        }
-        if (sendSocket != null) {
-            sendSocket.close();
-        }
-        if (listenerThread != null) {
-            listenerThread.interrupt();
+        cancelTimer(evictionTimerId);
+        if (membership != null) {
+            membership.close();
         }
+        taskExecutor.shutdownNow();
+        rebalancer.close();
 
         synchronized (membershipLock) {
             members.values().forEach(member -> {
@@ -605,6 +951,46 @@ public class CoordinationService implements AutoCloseable
         }
     }
 
+    private record RangeDigestResponse(long[] digests, int[] counts)
+    {
+    }
+
+    /** Üyelik olaylarını koordinasyon görevlerine aktaran dinleyici. */
+    private final class MembershipListener implements MembershipProtocol.Listener
+    {
+        @Override
+        public void onAlive(String nodeId, String host, int port, long epoch)
+        {
+            if (!nodeId.equals(localNode.id())) {
+                // SWIM'de canlılık olayları düzenli kalp atışı değildir; φ yerine protokolün şüphesi kullanılır.
+                if (DiscoveryMode.fromConfig(discoveryConfig.mode()) == DiscoveryMode.SWIM) {
+                    failureDetector.reportAlive(nodeId);
+                } else {
+                    failureDetector.heartbeat(nodeId);
+                }
+            }
+            dispatch(nodeId, () -> processMembershipPacket(nodeId, host, port, epoch));
+        }
+
+        @Override
+        public void onSuspect(String nodeId)
+        {
+            failureDetector.reportSuspect(nodeId);
+        }
+
+        @Override
+        public void onLeave(String nodeId)
+        {
+            dispatch(nodeId, () -> processLeave(nodeId));
+        }
+
+        @Override
+        public void onDead(String nodeId)
+        {
+            dispatch(nodeId, () -> processDead(nodeId));
+        }
+    }
+
     private static final class RemoteMember
     {
         private volatile RemoteNode node;
@@ -646,10 +1032,6 @@ public class CoordinationService implements AutoCloseable
             return host + ":" + port;
         }
 
-        private long lastSeen() {
-            return lastSeen;
-        }
-
         private void updateLastSeen(long value, long epoch) {
             this.lastSeen = value;
             this.epoch = epoch;
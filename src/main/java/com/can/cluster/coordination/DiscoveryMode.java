@@ -0,0 +1,24 @@
+package com.can.cluster.coordination;
+
+import java.util.Locale;
+
+/**
+ * Üyelik keşfi için kullanılabilecek protokolleri listeler ve yapılandırmadan
+ * gelen metin değerini ilgili seçeneğe dönüştürür.
+ */
+public enum DiscoveryMode
+{
+    MULTICAST,
+    SWIM;
+
+    public static DiscoveryMode fromConfig(String value)
+    {
+        if (value == null || value.isBlank()) return MULTICAST;
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return DiscoveryMode.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown discovery mode: " + value, ex);
+        }
+    }
+}
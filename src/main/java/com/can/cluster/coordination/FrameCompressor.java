@@ -0,0 +1,138 @@
+package com.can.cluster.coordination;
+
+import com.can.codec.BlockCodec;
+import com.can.constants.NodeProtocol;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bir eş düğümle el sıkışmada kararlaştırılan kodlayıcıyla çerçeve gövdelerini
+ * sıkıştırır ve açar. Eşikten küçük ya da sıkıştırmadan kazanç sağlamayan
+ * gövdeler olduğu gibi gönderilir. Eş başına ham ve tel üzerindeki bayt
+ * sayıları ile sıkıştırma ve açma süreleri sayaç olarak yayımlanır; oran
+ * binde bir hassasiyetle ayrı bir göstergedir.
+ */
+final class FrameCompressor
+{
+    // Açılmış gövde için kabul edilen en büyük uzunluk; bozuk başlıkların dev tahsislerine yol açmasını engeller.
+    static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private final BlockCodec codec;
+    private final int minBytes;
+    private final Counter rawBytes;
+    private final Counter wireBytes;
+    private final Counter compressNanos;
+    private final Counter decompressNanos;
+
+    FrameCompressor(String peerId, BlockCodec codec, int minBytes, MetricsRegistry metrics)
+    {
+        this.codec = codec == null ? BlockCodec.NONE : codec;
+        this.minBytes = Math.max(0, minBytes);
+        if (metrics != null && this.codec != BlockCodec.NONE) {
+            String label = "{node=" + peerId + "}";
+            this.rawBytes = metrics.counter("replication_compression_raw_bytes_total" + label);
+            this.wireBytes = metrics.counter("replication_compression_wire_bytes_total" + label);
+            this.compressNanos = metrics.counter("replication_compression_nanos_total" + label);
+            this.decompressNanos = metrics.counter("replication_decompression_nanos_total" + label);
+            Counter raw = rawBytes;
+            Counter wire = wireBytes;
+            metrics.gauge("replication_compression_ratio_permille" + label,
+                    () -> raw.get() == 0L ? 1000L : wire.get() * 1000L / raw.get());
+        } else {
+            this.rawBytes = null;
+            this.wireBytes = null;
+            this.compressNanos = null;
+            this.decompressNanos = null;
+        }
+    }
+
+    static FrameCompressor none()
+    {
+        return new FrameCompressor("none", BlockCodec.NONE, 0, null);
+    }
+
+    BlockCodec codec()
+    {
+        return codec;
+    }
+
+    boolean enabled()
+    {
+        return codec != BlockCodec.NONE;
+    }
+
+    /**
+     * Gövdeyi sıkıştırır; kodlayıcı kapalıysa, gövde eşiğin altındaysa ya da
+     * sıkıştırılmış hali daha büyük çıkıyorsa {@code null} döner.
+     */
+    byte[] compress(byte[] raw, int offset, int length)
+    {
+        if (codec == BlockCodec.NONE || length < minBytes) {
+            return null;
+        }
+        long start = System.nanoTime();
+        byte[] compressed = codec.compress(raw, offset, length);
+        if (compressNanos != null) {
+            compressNanos.add(System.nanoTime() - start);
+            rawBytes.add(length);
+            wireBytes.add(Math.min(length, compressed.length));
+        }
+        return compressed.length < length ? compressed : null;
+    }
+
+    /**
+     * Komut çerçevesini {@link NodeProtocol#CMD_COMPRESSED} zarfına koyar;
+     * sıkıştırma uygulanmazsa {@code null} döner.
+     */
+    byte[] wrap(byte[] frame)
+    {
+        byte[] compressed = compress(frame, 0, frame.length);
+        if (compressed == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(1 + 1 + 4 + 4 + compressed.length)
+                .put(NodeProtocol.CMD_COMPRESSED)
+                .put((byte) codec.id())
+                .putInt(frame.length)
+                .putInt(compressed.length)
+                .put(compressed)
+                .array();
+    }
+
+    /** Karşı tarafın seçtiği kodlayıcıyla sıkıştırılmış gövdeyi açar. */
+    byte[] decompress(int codecId, byte[] data, int rawLength) throws IOException
+    {
+        BlockCodec blockCodec = BlockCodec.fromId(codecId);
+        if (blockCodec == null) {
+            throw new IOException("Unsupported block codec " + codecId);
+        }
+        long start = System.nanoTime();
+        byte[] raw = blockCodec.decompress(data, 0, data.length, rawLength);
+        if (decompressNanos != null) {
+            decompressNanos.add(System.nanoTime() - start);
+            rawBytes.add(rawLength);
+            wireBytes.add(data.length);
+        }
+        return raw;
+    }
+
+    /**
+     * Katılan düğümün tercih ettiği kodlayıcı yerelde biliniyorsa onu, değilse
+     * yerel tercihi karşı taraf destekliyorsa onu seçer. Taraflardan biri
+     * sıkıştırmayı kapatmışsa sonuç {@link BlockCodec#NONE} olur.
+     */
+    static BlockCodec negotiate(BlockCodec local, int remotePreferredId, int remoteMask)
+    {
+        BlockCodec remotePreferred = BlockCodec.fromId(remotePreferredId);
+        if (local == BlockCodec.NONE || remotePreferred == BlockCodec.NONE) {
+            return BlockCodec.NONE;
+        }
+        if (remotePreferred != null) {
+            return remotePreferred;
+        }
+        return (remoteMask & local.mask()) != 0 ? local : BlockCodec.NONE;
+    }
+}
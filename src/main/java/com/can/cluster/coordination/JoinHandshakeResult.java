@@ -1,3 +1,5 @@
 package com.can.cluster.coordination;
 
-public record JoinHandshakeResult(long epoch, boolean accepted) {}
\ No newline at end of file
+import com.can.codec.BlockCodec;
+
+public record JoinHandshakeResult(long epoch, boolean accepted, BlockCodec codec) {}
@@ -0,0 +1,40 @@
+package com.can.cluster.coordination;
+
+/**
+ * Küme üyeliğinin nasıl keşfedildiğini ve üye hatalarının nasıl tespit
+ * edildiğini soyutlar. {@link CoordinationService} yalnızca bu arayüzün
+ * ürettiği olayları işler; multicast duyurular ya da SWIM tarzı gossip gibi
+ * farklı uygulamalar yapılandırmayla seçilir.
+ */
+public interface MembershipProtocol extends AutoCloseable
+{
+    /** Protokolü başlatır ve üyelik olaylarını verilen dinleyiciye iletir. */
+    void start(Listener listener) throws java.io.IOException;
+
+    /** Yerel düğümün kümeden ayrıldığını duyurur; sonrasında canlılık duyurusu yapılmaz. */
+    void leave();
+
+    @Override
+    void close();
+
+    /** Üyelik olaylarını alan dinleyici. Çağrılar protokolün kendi iş parçacıklarından yapılır. */
+    interface Listener
+    {
+        /** Üyenin canlı olduğu görüldü; ilk görülme ya da adres değişikliği de bu yolla bildirilir. */
+        void onAlive(String nodeId, String host, int port, long epoch);
+
+        /**
+         * Üye yoklamalara yanıt vermediği için şüpheli sayıldı. Ölü ilan edilmeden
+         * önce yanıt verirse yeniden {@link #onAlive} bildirilir.
+         */
+        default void onSuspect(String nodeId)
+        {
+        }
+
+        /** Üye ayrıldığını duyurdu. */
+        void onLeave(String nodeId);
+
+        /** Üye hata tespitiyle ölü kabul edildi. */
+        void onDead(String nodeId);
+    }
+}
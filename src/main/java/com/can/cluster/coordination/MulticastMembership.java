@@ -0,0 +1,276 @@
+package com.can.cluster.coordination;
+
+import io.vertx.core.Vertx;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Multicast duyurularına dayanan üyelik protokolü. Her düğüm belirli
+ * aralıklarla {@code HELLO|id|host|port|epoch} paketi yayınlar; gelen
+ * duyurular canlılık olayı olarak iletilir. Zaman aşımı pozitifse bu süre
+ * boyunca duyurusu alınmayan üyeler ölü kabul edilir; aksi halde tahliye
+ * kararı çağırana (ör. phi-accrual dedektörü) bırakılır. Ayrılan düğümler
+ * {@code LEAVE|id|epoch} paketiyle kendini bildirir.
+ */
+final class MulticastMembership implements MembershipProtocol
+{
+    private static final Logger LOG = Logger.getLogger(MulticastMembership.class);
+    private static final int MAX_PACKET_SIZE = 1024;
+    private static final int LEAVE_ANNOUNCEMENTS = 3;
+
+    private final String localId;
+    private final String advertisedHost;
+    private final int dataPort;
+    private final String bindHost;
+    private final String multicastGroup;
+    private final int multicastPort;
+    private final long heartbeatIntervalMillis;
+    private final long failureTimeoutMillis;
+    private final LongSupplier epochSupplier;
+    private final Vertx vertx;
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    private MulticastSocket listenSocket;
+    private DatagramSocket sendSocket;
+    private InetAddress groupAddress;
+    private Listener listener;
+    private long heartbeatTimerId = -1L;
+    private long reapTimerId = -1L;
+    private Thread listenerThread;
+    private volatile boolean running;
+    private volatile boolean leaving;
+
+    MulticastMembership(String localId,
+                        String advertisedHost,
+                        int dataPort,
+                        String bindHost,
+                        String multicastGroup,
+                        int multicastPort,
+                        long heartbeatIntervalMillis,
+                        long failureTimeoutMillis,
+                        LongSupplier epochSupplier,
+                        Vertx vertx)
+    {
+        this.localId = Objects.requireNonNull(localId, "localId");
+        this.advertisedHost = advertisedHost;
+        this.dataPort = dataPort;
+        this.bindHost = bindHost;
+        this.multicastGroup = multicastGroup;
+        this.multicastPort = multicastPort;
+        this.heartbeatIntervalMillis = Math.max(1000L, heartbeatIntervalMillis);
+        this.failureTimeoutMillis = failureTimeoutMillis <= 0L
+                ? 0L
+                : Math.max(failureTimeoutMillis, heartbeatIntervalMillis * 3);
+        this.epochSupplier = epochSupplier;
+        this.vertx = vertx;
+    }
+
+    @Override
+    public void start(Listener listener) throws IOException
+    {
+        this.listener = Objects.requireNonNull(listener, "listener");
+        setupSockets();
+        running = true;
+
+        listenerThread = new Thread(this::listenLoop, "coordination-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+
+        broadcastHeartbeat();
+        heartbeatTimerId = vertx.setPeriodic(heartbeatIntervalMillis, id -> broadcastHeartbeat());
+        if (failureTimeoutMillis > 0L) {
+            long reapInterval = Math.max(heartbeatIntervalMillis, failureTimeoutMillis / 2);
+            reapTimerId = vertx.setPeriodic(reapInterval, id -> reapDeadMembers());
+        }
+    }
+
+    private void setupSockets() throws IOException
+    {
+        groupAddress = InetAddress.getByName(multicastGroup);
+        listenSocket = new MulticastSocket(multicastPort);
+        listenSocket.setReuseAddress(true);
+        NetworkInterface networkInterface = selectInterface();
+        listenSocket.joinGroup(new InetSocketAddress(groupAddress, multicastPort), networkInterface);
+        sendSocket = new DatagramSocket();
+        sendSocket.setReuseAddress(true);
+    }
+
+    private NetworkInterface selectInterface() throws SocketException
+    {
+        // Önce bind host'u deneyelim, değilse multicast destekleyen ilk arayüzü seçelim.
+        try {
+            InetAddress bindAddress = InetAddress.getByName(bindHost);
+            NetworkInterface ni = NetworkInterface.getByInetAddress(bindAddress);
+            if (ni != null && ni.isUp() && ni.supportsMulticast()) {
+                return ni;
+            }
+        } catch (IOException ignored) {
+        }
+
+        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements()) {
+            NetworkInterface ni = interfaces.nextElement();
+            if (ni.isUp() && ni.supportsMulticast() && !ni.isLoopback()) {
+                return ni;
+            }
+        }
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback != null) {
+            return loopback;
+        }
+        throw new SocketException("No multicast-capable network interface found");
+    }
+
+    private void listenLoop()
+    {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                listenSocket.receive(packet);
+                handlePacket(packet.getData(), packet.getLength());
+            } catch (IOException e) {
+                if (running) {
+                    LOG.warn("Failed to receive coordination packet", e);
+                }
+            }
+        }
+    }
+
+    private void handlePacket(byte[] data, int length)
+    {
+        String message = new String(data, 0, length, StandardCharsets.UTF_8);
+        String[] parts = message.split("\\|");
+        if (parts.length >= 2 && Objects.equals(parts[0], "LEAVE")) {
+            String leavingId = parts[1];
+            if (!leavingId.equals(localId)) {
+                lastSeen.remove(leavingId);
+                listener.onLeave(leavingId);
+            }
+            return;
+        }
+        if (parts.length < 4 || !Objects.equals(parts[0], "HELLO")) {
+            return;
+        }
+
+        String nodeId = parts[1];
+        if (nodeId.equals(localId)) {
+            return;
+        }
+
+        String host = parts[2];
+        int port;
+        try {
+            port = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            LOG.debugf("Ignoring coordination packet with invalid port: %s", message);
+            return;
+        }
+
+        long remoteEpoch = 0L;
+        if (parts.length >= 5) {
+            try {
+                remoteEpoch = Long.parseLong(parts[4]);
+            } catch (NumberFormatException ignored) {
+                remoteEpoch = 0L;
+            }
+        }
+
+        if (failureTimeoutMillis > 0L) {
+            lastSeen.put(nodeId, System.currentTimeMillis());
+        }
+        listener.onAlive(nodeId, host, port, remoteEpoch);
+    }
+
+    private void reapDeadMembers()
+    {
+        long now = System.currentTimeMillis();
+        List<String> dead = new ArrayList<>();
+        lastSeen.entrySet().removeIf(entry -> {
+            if (now - entry.getValue() > failureTimeoutMillis) {
+                dead.add(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+        for (String nodeId : dead) {
+            listener.onDead(nodeId);
+        }
+    }
+
+    private void broadcastHeartbeat()
+    {
+        if (leaving) {
+            return;
+        }
+        broadcast(String.format("HELLO|%s|%s|%d|%d", localId, advertisedHost, dataPort, epochSupplier.getAsLong()));
+    }
+
+    private void broadcast(String payload)
+    {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length, groupAddress, multicastPort);
+        try {
+            sendSocket.send(packet);
+        } catch (IOException e) {
+            LOG.warn("Failed to send coordination packet", e);
+        }
+    }
+
+    @Override
+    public void leave()
+    {
+        if (leaving || !running) {
+            return;
+        }
+        leaving = true;
+        cancelTimer(heartbeatTimerId);
+        heartbeatTimerId = -1L;
+        for (int i = 0; i < LEAVE_ANNOUNCEMENTS; i++) {
+            broadcast(String.format("LEAVE|%s|%d", localId, epochSupplier.getAsLong()));
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        cancelTimer(heartbeatTimerId);
+        cancelTimer(reapTimerId);
+        if (listenSocket != null) {
+            try {
+                listenSocket.close();
+            } catch (Exception ignored) {
+            }
+        }
+        if (sendSocket != null) {
+            sendSocket.close();
+        }
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void cancelTimer(long timerId)
+    {
+        if (timerId >= 0L) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.can.cluster.coordination;
+
+import com.can.cluster.ConsistentHashRing;
+import com.can.cluster.Node;
+import com.can.cluster.TokenRange;
+import com.can.core.CacheEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Jeton aralıkları üzerinde sıra bağımsız özet (digest) hesaplayan yardımcıdır.
+ * Her kaydın anahtar ve değerinden 64 bitlik bir hash üretilir ve kova başına
+ * toplanır; toplama işlemi sıradan bağımsız olduğundan iki düğüm kayıtları
+ * farklı sırada gezse de aynı özeti bulur. Son kullanma zamanı özete dahil
+ * edilmez. Yalnızca iki düğümün de replika olduğu anahtarlar hesaba katılır,
+ * böylece karşılaştırma her iki tarafın da tutması gereken veriyle sınırlı kalır.
+ */
+public final class RangeDigests
+{
+    /** Tek bir özet isteğinde izin verilen en fazla alt aralık sayısı. */
+    public static final int MAX_FANOUT = 1024;
+    /** Tek bir istekte taşınabilecek en fazla aralık sayısı. */
+    public static final int MAX_RANGES = 65_536;
+    /** Tek bir özet yanıtındaki en fazla kova sayısı. */
+    public static final int MAX_BUCKETS = 1 << 20;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] digests;
+    private final int[] counts;
+
+    private RangeDigests(int buckets)
+    {
+        this.digests = new long[buckets];
+        this.counts = new int[buckets];
+    }
+
+    public int buckets()
+    {
+        return digests.length;
+    }
+
+    public long digest(int bucket)
+    {
+        return digests[bucket];
+    }
+
+    public int count(int bucket)
+    {
+        return counts[bucket];
+    }
+
+    /**
+     * Sıralı ve ayrık aralıkların her birini {@code fanout} kovaya bölerek özet
+     * üretir. Kova indeksi {@code aralıkIndeksi * fanout + altIndeks} şeklindedir.
+     */
+    public static RangeDigests compute(CacheEngine<String, String> engine,
+                                       ConsistentHashRing<Node<String, String>> ring,
+                                       int replicationFactor,
+                                       String selfId,
+                                       String peerId,
+                                       List<TokenRange> ranges,
+                                       int fanout)
+    {
+        RangeDigests result = new RangeDigests(ranges.size() * fanout);
+        engine.forEachEntry((key, value, expireAt) -> {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            long token = ring.token(keyBytes);
+            int rangeIndex = TokenRange.indexOf(ranges, token);
+            if (rangeIndex < 0 || !sharedReplica(ring, keyBytes, replicationFactor, selfId, peerId)) {
+                return;
+            }
+            int bucket = rangeIndex * fanout + ranges.get(rangeIndex).bucketOf(token, fanout);
+            result.digests[bucket] += entryHash(keyBytes, value);
+            result.counts[bucket]++;
+        });
+        return result;
+    }
+
+    /** Aralıklara düşen ve iki düğümün de replika olduğu kayıtları ziyaret eder. */
+    public static void forEachShared(CacheEngine<String, String> engine,
+                                     ConsistentHashRing<Node<String, String>> ring,
+                                     int replicationFactor,
+                                     String selfId,
+                                     String peerId,
+                                     List<TokenRange> ranges,
+                                     CacheEngine.EntryConsumer<String> consumer)
+    {
+        engine.forEachEntry((key, value, expireAt) -> {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (TokenRange.indexOf(ranges, ring.token(keyBytes)) >= 0
+                    && sharedReplica(ring, keyBytes, replicationFactor, selfId, peerId)) {
+                consumer.accept(key, value, expireAt);
+            }
+        });
+    }
+
+    /** Aralıkların jetona göre artan sırada ve ayrık olduğunu doğrular. */
+    public static boolean sortedAndDisjoint(List<TokenRange> ranges)
+    {
+        for (int i = 1; i < ranges.size(); i++) {
+            if (ranges.get(i).start() < ranges.get(i - 1).end()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static long entryHash(byte[] key, byte[] value)
+    {
+        long h = fnv(FNV_OFFSET, key);
+        h = fnv(h ^ 0x9E3779B97F4A7C15L, value);
+        // MurmurHash3 sonlandırıcısı; toplama sırasında bit dağılımını iyileştirir.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long fnv(long seed, byte[] data)
+    {
+        long h = seed;
+        for (byte b : data) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static boolean sharedReplica(ConsistentHashRing<Node<String, String>> ring,
+                                         byte[] keyBytes,
+                                         int replicationFactor,
+                                         String selfId,
+                                         String peerId)
+    {
+        boolean self = false;
+        boolean peer = false;
+        for (Node<String, String> replica : ring.getReplicas(keyBytes, replicationFactor)) {
+            self |= Objects.equals(replica.id(), selfId);
+            peer |= Objects.equals(replica.id(), peerId);
+        }
+        return self && peer;
+    }
+}
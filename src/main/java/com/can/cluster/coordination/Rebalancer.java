@@ -0,0 +1,622 @@
+package com.can.cluster.coordination;
+
+import com.can.cluster.ConsistentHashRing;
+import com.can.cluster.Mutation;
+import com.can.cluster.Node;
+import com.can.cluster.RateLimiter;
+import com.can.cluster.TokenRange;
+import com.can.core.CacheEngine;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+import io.vertx.core.Vertx;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Küme üyeliği değiştiğinde yalnızca el değiştiren jeton aralıklarını taşıyan
+ * yeniden dengeleyicidir. Halkanın değişiklik öncesi ve sonrası kopyaları
+ * karşılaştırılır: yerel düğümün yeni sahiplendiği aralıklar eski sahiplerinden
+ * çekilir ve aktarım bitince aralığı kaybeden düğümlere onay gönderilir.
+ * Artık sahip olunmayan aralıklar yalnızca yeni sahipleri aktarımı onayladıktan
+ * sonra arka planda silinir; başka replikalar varsa bekleme süresi onay için
+ * üst sınırdır. Aktarımlar eşzamanlılık ve bayt/sn sınırı altında yürütülür;
+ * böylece katılma/ayrılma trafiği verinin kabaca 1/N'i ile sınırlı kalır.
+ */
+public final class Rebalancer implements AutoCloseable
+{
+    private static final Logger LOG = Logger.getLogger(Rebalancer.class);
+    private static final int HANDOFF_BATCH_SIZE = 256;
+    private static final int HANDOFF_QUEUE_BATCHES = 4;
+
+    private final ConsistentHashRing<Node<String, String>> ring;
+    private final Node<String, String> localNode;
+    private final CacheEngine<String, String> engine;
+    private final int replicationFactor;
+    private final Semaphore transferPermits;
+    private final RateLimiter rateLimiter;
+    private final long purgeDelayMillis;
+    private final RangeFetcher fetcher;
+    private final TransferConfirmer confirmer;
+    private final Vertx vertx;
+    private final ExecutorService executor;
+    private final Counter transferredKeys;
+    private final Counter purgedKeys;
+    private final Counter handedOffKeys;
+
+    private final Object purgeLock = new Object();
+    // Kaybedilmiş ama henüz silinmemiş aralıklar.
+    private List<TokenRange> pendingPurge = List.of();
+    // Yeni sahip başına aktarım onayı beklenen aralıklar.
+    private final Map<String, List<TokenRange>> awaitingConfirmation = new HashMap<>();
+
+    public Rebalancer(ConsistentHashRing<Node<String, String>> ring,
+                      Node<String, String> localNode,
+                      CacheEngine<String, String> engine,
+                      int replicationFactor,
+                      int maxConcurrentTransfers,
+                      RateLimiter rateLimiter,
+                      long purgeDelayMillis,
+                      RangeFetcher fetcher,
+                      TransferConfirmer confirmer,
+                      Vertx vertx,
+                      MetricsRegistry metrics)
+    {
+        this.ring = Objects.requireNonNull(ring, "ring");
+        this.localNode = Objects.requireNonNull(localNode, "localNode");
+        this.engine = Objects.requireNonNull(engine, "engine");
+        this.replicationFactor = Math.max(1, replicationFactor);
+        this.transferPermits = new Semaphore(Math.max(1, maxConcurrentTransfers), true);
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+        this.purgeDelayMillis = Math.max(0L, purgeDelayMillis);
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher");
+        this.confirmer = Objects.requireNonNull(confirmer, "confirmer");
+        this.vertx = vertx;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rebalance-", 0).factory());
+        if (metrics != null) {
+            this.transferredKeys = metrics.counter("rebalance_transferred_keys_total");
+            this.purgedKeys = metrics.counter("rebalance_purged_keys_total");
+            this.handedOffKeys = metrics.counter("rebalance_handed_off_keys_total");
+        } else {
+            this.transferredKeys = null;
+            this.purgedKeys = null;
+            this.handedOffKeys = null;
+        }
+    }
+
+    /**
+     * Yeni görülen bir üyeden çekilmesi gereken aralıkları hesaplar: yerel
+     * düğümün şu an sahip olduğu ve yerel düğüm halkada olmasaydı üyeye ait
+     * olacak aralıklar. Üyenin yerel düğüm yüzünden kaybettiği veri tam olarak
+     * budur; geri kalan aralıklar üyede zaten bulunmaz.
+     */
+    public List<TokenRange> rangesToPullFrom(Node<String, String> member)
+    {
+        ConsistentHashRing<Node<String, String>> current = ring.copy();
+        ConsistentHashRing<Node<String, String>> withoutSelf = current.copy();
+        withoutSelf.removeNode(localNode, idBytes(localNode));
+        return TokenRange.intersect(current.ownedRanges(localNode, replicationFactor),
+                withoutSelf.ownedRanges(member, replicationFactor));
+    }
+
+    /**
+     * Üyeden verilen aralıkları eşzamanlılık ve bant genişliği sınırı altında
+     * çeker ve aktarım tamamlanınca üyeye onay gönderir; üye bu aralıkları
+     * ancak onaydan sonra siler.
+     */
+    public int pull(Node<String, String> source, List<TokenRange> ranges) throws IOException
+    {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        int transferred = transfer(source, ranges);
+        confirmQuietly(source, ranges);
+        return transferred;
+    }
+
+    private int transfer(Node<String, String> source, List<TokenRange> ranges) throws IOException
+    {
+        try {
+            transferPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a transfer slot", e);
+        }
+        try {
+            int transferred = fetcher.fetch(source, ranges, rateLimiter);
+            if (transferredKeys != null && transferred > 0) {
+                transferredKeys.add(transferred);
+            }
+            return transferred;
+        } finally {
+            transferPermits.release();
+        }
+    }
+
+    /**
+     * Üyelik değişikliğinin etkisini uygular. Yeni sahiplenilen aralıklar eski
+     * halkada onlara sahip olan ve hâlâ kümede bulunan düğümlerden arka planda
+     * çekilir; her aralık yalnızca bir kaynaktan istenir. Aktarımlar bitince
+     * çekilen aralıkları kaybeden düğümlere onay gönderilir. Kaybedilen
+     * aralıklar yeni sahiplerinin onayına kadar silinmeden bekletilir.
+     */
+    public void onRingChange(ConsistentHashRing<Node<String, String>> before,
+                             ConsistentHashRing<Node<String, String>> after)
+    {
+        List<TokenRange> ownedBefore = before.ownedRanges(localNode, replicationFactor);
+        List<TokenRange> ownedAfter = after.ownedRanges(localNode, replicationFactor);
+        List<TokenRange> gained = TokenRange.subtract(ownedAfter, ownedBefore);
+        List<TokenRange> lost = TokenRange.subtract(ownedBefore, ownedAfter);
+
+        List<Node<String, String>> remaining = after.nodes();
+        List<CompletableFuture<List<TokenRange>>> transfers = new ArrayList<>();
+        List<TokenRange> unassigned = gained;
+        for (Node<String, String> source : remaining) {
+            if (unassigned.isEmpty()) {
+                break;
+            }
+            if (Objects.equals(source.id(), localNode.id())) {
+                continue;
+            }
+            List<TokenRange> take = TokenRange.intersect(unassigned, before.ownedRanges(source, replicationFactor));
+            if (take.isEmpty()) {
+                continue;
+            }
+            unassigned = TokenRange.subtract(unassigned, take);
+            transfers.add(transferAsync(source, take));
+        }
+        if (!unassigned.isEmpty()) {
+            LOG.debugf("No surviving replica holds %d gained ranges", unassigned.size());
+        }
+        if (!transfers.isEmpty()) {
+            CompletableFuture.allOf(transfers.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+                List<TokenRange> pulled = new ArrayList<>();
+                for (CompletableFuture<List<TokenRange>> transfer : transfers) {
+                    pulled.addAll(transfer.join());
+                }
+                if (!pulled.isEmpty()) {
+                    submit(() -> confirmPulled(before, after, TokenRange.coalesce(pulled)));
+                }
+            });
+        }
+        schedulePurge(before, after, lost, ownedAfter);
+    }
+
+    /**
+     * Yeni sahibin verilen aralıkları eksiksiz çektiğini kaydeder. Onay
+     * bekleyen başka sahibi kalmayan kaybedilmiş aralıklar silinir.
+     */
+    public void onTransferConfirmed(String nodeId, List<TokenRange> ranges)
+    {
+        List<TokenRange> ready;
+        synchronized (purgeLock) {
+            List<TokenRange> owed = awaitingConfirmation.get(nodeId);
+            if (owed == null) {
+                return;
+            }
+            owed = TokenRange.subtract(owed, TokenRange.coalesce(ranges));
+            if (owed.isEmpty()) {
+                awaitingConfirmation.remove(nodeId);
+            } else {
+                awaitingConfirmation.put(nodeId, owed);
+            }
+            ready = releaseUnclaimed();
+        }
+        purgeLater(ready);
+    }
+
+    /**
+     * Verilen aralıklardaki ve mevcut halkaya göre artık yerel düğüme ait
+     * olmayan kayıtları siler. Silinen kayıt sayısını döndürür.
+     */
+    public int purge(List<TokenRange> ranges)
+    {
+        List<String> victims = new ArrayList<>();
+        engine.forEachEntry((key, value, expireAt) -> {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (TokenRange.indexOf(ranges, ring.token(keyBytes)) < 0) {
+                return;
+            }
+            for (Node<String, String> replica : ring.getReplicas(keyBytes, replicationFactor)) {
+                if (Objects.equals(replica.id(), localNode.id())) {
+                    return;
+                }
+            }
+            victims.add(key);
+        });
+        int purged = 0;
+        for (String key : victims) {
+            if (engine.delete(key)) {
+                purged++;
+            }
+        }
+        if (purgedKeys != null && purged > 0) {
+            purgedKeys.add(purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Yerel düğüm halkadan ayrılacakken sahip olduğu kayıtları yeni sahiplerine
+     * iter. Her kayıt için yerel düğüm çıkarıldıktan sonra replika olacak ama
+     * daha önce replika olmayan düğümler hedef alınır. Hedef başına bir gönderici
+     * sanal thread toplu çerçeveleri {@link Node#applyBatch(List)} ile paralel
+     * gönderir; üretici sınırlı kuyruk üzerinden geri basınç görür. Aktarım
+     * eşzamanlılık ve bant genişliği sınırlarına uyar. Süre dolarsa kalan
+     * gönderimler iptal edilir.
+     */
+    public HandOffResult handOff(long timeoutMillis)
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1L, timeoutMillis));
+        ConsistentHashRing<Node<String, String>> before = ring.copy();
+        ConsistentHashRing<Node<String, String>> after = before.copy();
+        after.removeNode(localNode, idBytes(localNode));
+
+        Map<String, HandOffTarget> targets = new LinkedHashMap<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        engine.forEachEntry((key, value, expireAt) -> {
+            if (aborted.get()) {
+                return;
+            }
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            List<Node<String, String>> previous = before.getReplicas(keyBytes, replicationFactor);
+            if (!containsId(previous, localNode.id())) {
+                return;
+            }
+            for (Node<String, String> owner : after.getReplicas(keyBytes, replicationFactor)) {
+                if (containsId(previous, owner.id())) {
+                    continue;
+                }
+                HandOffTarget target = targets.computeIfAbsent(owner.id(), id -> new HandOffTarget(owner));
+                if (!target.add(Mutation.set(key, new String(value, StandardCharsets.UTF_8), expireAt), deadline)) {
+                    aborted.set(true);
+                    return;
+                }
+            }
+        });
+
+        int accepted = 0;
+        int failedTargets = 0;
+        for (HandOffTarget target : targets.values()) {
+            if (!target.finish(deadline)) {
+                aborted.set(true);
+            }
+        }
+        for (HandOffTarget target : targets.values()) {
+            if (!target.await(deadline)) {
+                failedTargets++;
+            }
+            accepted += target.accepted.get();
+        }
+        if (handedOffKeys != null && accepted > 0) {
+            handedOffKeys.add(accepted);
+        }
+        return new HandOffResult(accepted, targets.size(), failedTargets, !aborted.get() && failedTargets == 0);
+    }
+
+    private static boolean containsId(List<Node<String, String>> nodes, String id)
+    {
+        for (Node<String, String> node : nodes) {
+            if (Objects.equals(node.id(), id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Kaybedilen aralıkları, onları yeni sahiplenen her düğümün onayını
+     * bekleyecek şekilde kaydeder. Yeniden sahiplenilen aralıklar bekleyen
+     * silmeden çıkarılır; halkadan ayrılan yeni sahip onay gönderemeyeceği için
+     * artık beklenmez. Başka replikalar da veriyi tuttuğunda bekleme süresi
+     * onay için üst sınırdır; tek kopyada süre sınırı yoktur.
+     */
+    private void schedulePurge(ConsistentHashRing<Node<String, String>> before,
+                               ConsistentHashRing<Node<String, String>> after,
+                               List<TokenRange> lost,
+                               List<TokenRange> ownedAfter)
+    {
+        List<Node<String, String>> members = after.nodes();
+        List<TokenRange> ready;
+        synchronized (purgeLock) {
+            pendingPurge = union(TokenRange.subtract(pendingPurge, ownedAfter), lost);
+            awaitingConfirmation.keySet().removeIf(id -> !containsId(members, id));
+            awaitingConfirmation.replaceAll((id, owed) -> TokenRange.subtract(owed, ownedAfter));
+            for (Node<String, String> owner : members) {
+                if (lost.isEmpty()) {
+                    break;
+                }
+                if (Objects.equals(owner.id(), localNode.id())) {
+                    continue;
+                }
+                List<TokenRange> owed = TokenRange.intersect(lost, TokenRange.subtract(
+                        after.ownedRanges(owner, replicationFactor), before.ownedRanges(owner, replicationFactor)));
+                if (!owed.isEmpty()) {
+                    awaitingConfirmation.merge(owner.id(), owed, Rebalancer::union);
+                }
+            }
+            ready = releaseUnclaimed();
+        }
+        purgeLater(ready);
+
+        if (lost.isEmpty() || replicationFactor == 1) {
+            return;
+        }
+        if (purgeDelayMillis == 0L) {
+            release(lost);
+        } else if (vertx != null) {
+            vertx.setTimer(purgeDelayMillis, id -> release(lost));
+        }
+    }
+
+    /** Onay beklenmeksizin, hâlâ silinmeyi bekleyen kısımlarıyla verilen aralıkları siler. */
+    private void release(List<TokenRange> ranges)
+    {
+        List<TokenRange> ready;
+        synchronized (purgeLock) {
+            ready = TokenRange.intersect(pendingPurge, ranges);
+            if (ready.isEmpty()) {
+                return;
+            }
+            pendingPurge = TokenRange.subtract(pendingPurge, ready);
+            awaitingConfirmation.replaceAll((id, owed) -> TokenRange.subtract(owed, ready));
+            awaitingConfirmation.values().removeIf(List::isEmpty);
+        }
+        purgeLater(ready);
+    }
+
+    // purgeLock altında çağrılır: hiçbir yeni sahibin onayını beklemeyen aralıkları bekleyen silmeden ayırır.
+    private List<TokenRange> releaseUnclaimed()
+    {
+        awaitingConfirmation.values().removeIf(List::isEmpty);
+        List<TokenRange> claimed = List.of();
+        for (List<TokenRange> owed : awaitingConfirmation.values()) {
+            claimed = union(claimed, owed);
+        }
+        List<TokenRange> ready = TokenRange.subtract(pendingPurge, claimed);
+        pendingPurge = TokenRange.intersect(pendingPurge, claimed);
+        return ready;
+    }
+
+    private void purgeLater(List<TokenRange> ranges)
+    {
+        if (!ranges.isEmpty()) {
+            submit(() -> purgeQuietly(ranges));
+        }
+    }
+
+    /**
+     * Çekilen aralıkları eski halkada tutup yeni halkada kaybeden düğümlere
+     * onay gönderir; aralığı hangi kaynaktan çekildiğinden bağımsız olarak tüm
+     * eski sahipler kopyalarını silebilir.
+     */
+    private void confirmPulled(ConsistentHashRing<Node<String, String>> before,
+                               ConsistentHashRing<Node<String, String>> after,
+                               List<TokenRange> pulled)
+    {
+        for (Node<String, String> node : after.nodes()) {
+            if (Objects.equals(node.id(), localNode.id())) {
+                continue;
+            }
+            List<TokenRange> released = TokenRange.intersect(pulled, TokenRange.subtract(
+                    before.ownedRanges(node, replicationFactor), after.ownedRanges(node, replicationFactor)));
+            if (!released.isEmpty()) {
+                confirmQuietly(node, released);
+            }
+        }
+    }
+
+    private void confirmQuietly(Node<String, String> node, List<TokenRange> ranges)
+    {
+        try {
+            confirmer.confirm(node, ranges);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to confirm %d transferred ranges to %s", ranges.size(), node.id());
+        }
+    }
+
+    private CompletableFuture<List<TokenRange>> transferAsync(Node<String, String> source, List<TokenRange> ranges)
+    {
+        try {
+            return CompletableFuture.supplyAsync(() -> transferQuietly(source, ranges) ? ranges : List.of(), executor);
+        } catch (RejectedExecutionException e) {
+            LOG.debugf("Rebalance task rejected: %s", e.getMessage());
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+
+    private boolean transferQuietly(Node<String, String> source, List<TokenRange> ranges)
+    {
+        try {
+            int transferred = transfer(source, ranges);
+            LOG.infof("Rebalance pulled %d keys in %d ranges from %s", transferred, ranges.size(), source.id());
+            return true;
+        } catch (IOException e) {
+            LOG.warnf(e, "Rebalance transfer from %s failed", source.id());
+            return false;
+        }
+    }
+
+    private static List<TokenRange> union(List<TokenRange> a, List<TokenRange> b)
+    {
+        List<TokenRange> all = new ArrayList<>(a);
+        all.addAll(b);
+        return TokenRange.coalesce(all);
+    }
+
+    private void purgeQuietly(List<TokenRange> ranges)
+    {
+        int purged = purge(ranges);
+        if (purged > 0) {
+            LOG.infof("Rebalance purged %d keys no longer owned by %s", purged, localNode.id());
+        }
+    }
+
+    private void submit(Runnable task)
+    {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOG.debugf("Rebalance task rejected: %s", e.getMessage());
+        }
+    }
+
+    private static byte[] idBytes(Node<String, String> node)
+    {
+        return node.id().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Devretme özeti: hedeflerin kabul ettiği kayıt sayısı, hedef düğüm sayısı,
+     * başarısız hedefler ve işlemin süre içinde eksiksiz tamamlanıp tamamlanmadığı.
+     */
+    public record HandOffResult(int accepted, int targets, int failedTargets, boolean complete)
+    {
+    }
+
+    /**
+     * Tek bir hedef düğüme giden devretme akışı. Üretici kayıtları parti
+     * halinde sınırlı kuyruğa koyar; gönderici sanal thread partileri sırayla
+     * hedefe uygular. Boş parti akışın sonunu belirtir.
+     */
+    private final class HandOffTarget
+    {
+        private final Node<String, String> node;
+        private final BlockingQueue<List<Mutation<String, String>>> queue = new ArrayBlockingQueue<>(HANDOFF_QUEUE_BATCHES);
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final Future<?> sender;
+        private List<Mutation<String, String>> pending = new ArrayList<>(HANDOFF_BATCH_SIZE);
+        private volatile boolean failed;
+
+        private HandOffTarget(Node<String, String> node)
+        {
+            this.node = node;
+            this.sender = executor.submit(this::drain);
+        }
+
+        boolean add(Mutation<String, String> mutation, long deadline)
+        {
+            pending.add(mutation);
+            if (pending.size() < HANDOFF_BATCH_SIZE) {
+                return true;
+            }
+            return flush(deadline);
+        }
+
+        boolean finish(long deadline)
+        {
+            return (pending.isEmpty() || flush(deadline)) && offer(List.of(), deadline);
+        }
+
+        private boolean flush(long deadline)
+        {
+            List<Mutation<String, String>> batch = pending;
+            pending = new ArrayList<>(HANDOFF_BATCH_SIZE);
+            return offer(batch, deadline);
+        }
+
+        private boolean offer(List<Mutation<String, String>> batch, long deadline)
+        {
+            try {
+                return queue.offer(batch, Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void drain()
+        {
+            try {
+                while (true) {
+                    List<Mutation<String, String>> batch = queue.take();
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                    if (failed) {
+                        continue;
+                    }
+                    long bytes = 0L;
+                    for (Mutation<String, String> mutation : batch) {
+                        bytes += mutation.key().length() + (mutation.value() == null ? 0 : mutation.value().length());
+                    }
+                    rateLimiter.acquire(batch.size(), bytes);
+                    transferPermits.acquire();
+                    try {
+                        for (boolean result : node.applyBatch(batch)) {
+                            if (result) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        failed = true;
+                        LOG.warnf(e, "Hand-off of %d keys to %s failed", batch.size(), node.id());
+                    } finally {
+                        transferPermits.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed = true;
+            }
+        }
+
+        boolean await(long deadline)
+        {
+            try {
+                sender.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                sender.cancel(true);
+                LOG.warnf("Hand-off to %s did not finish in time", node.id());
+                return false;
+            } catch (ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sender.cancel(true);
+                return false;
+            }
+            return !failed;
+        }
+    }
+
+    /** Bir kaynaktan verilen aralıklardaki kayıtları çekip yerel motora yazan aktarım. */
+    @FunctionalInterface
+    public interface RangeFetcher
+    {
+        int fetch(Node<String, String> source, List<TokenRange> ranges, RateLimiter rateLimiter) throws IOException;
+    }
+
+    /** Çekilen aralıkların aktarımının tamamlandığını eski sahibine bildiren onay. */
+    @FunctionalInterface
+    public interface TransferConfirmer
+    {
+        void confirm(Node<String, String> owner, List<TokenRange> ranges) throws IOException;
+    }
+}
@@ -1,6 +1,8 @@
 package com.can.cluster.coordination;
 
+import com.can.cluster.Mutation;
 import com.can.cluster.Node;
+import com.can.cluster.ReplicationStream;
 import com.can.constants.NodeProtocol;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
@@ -13,6 +15,7 @@ import org.jboss.logging.Logger;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -29,6 +32,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -57,9 +61,33 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
     private final AtomicInteger openConnections = new AtomicInteger();
     private final AtomicBoolean closed = new AtomicBoolean();
     private final ExecutorService requestExecutor;
+    private final Consumer<String> responseListener;
+    private final FrameCompressor compressor;
 
     public RemoteNode(String id, String host, int port, int connectTimeoutMillis, Vertx vertx)
     {
+        this(id, host, port, connectTimeoutMillis, vertx, null);
+    }
+
+    /**
+     * Verilen dinleyici her başarılı yanıtta düğüm kimliğiyle çağrılır; hata
+     * dedektörüne canlılık sinyali iletmek için kullanılır.
+     */
+    public RemoteNode(String id, String host, int port, int connectTimeoutMillis, Vertx vertx,
+                      Consumer<String> responseListener)
+    {
+        this(id, host, port, connectTimeoutMillis, vertx, responseListener, FrameCompressor.none());
+    }
+
+    /**
+     * Verilen sıkıştırıcı, el sıkışmada kararlaştırılan kodlayıcıyla toplu
+     * yazma ve replikasyon çerçevelerini sıkıştırmak için kullanılır.
+     */
+    RemoteNode(String id, String host, int port, int connectTimeoutMillis, Vertx vertx,
+               Consumer<String> responseListener, FrameCompressor compressor)
+    {
+        this.responseListener = responseListener;
+        this.compressor = Objects.requireNonNull(compressor, "compressor");
         this.id = Objects.requireNonNull(id, "id");
         this.host = Objects.requireNonNull(host, "host");
         this.port = port;
@@ -139,6 +167,61 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
                 new BooleanResponseParser(NodeProtocol.RESP_TRUE, NodeProtocol.RESP_FALSE)));
     }
 
+    /**
+     * İşlemleri tek bir {@link NodeProtocol#CMD_BATCH} çerçevesinde gönderir.
+     * Her kayıt {@code [tip][keyLen][valueLen][expireAt][expectedCas][key][value]}
+     * biçimindedir; yanıt kayıt başına bir sonuç baytı içerir. Çerçeve
+     * sıkıştırma eşiğini aşarsa {@link NodeProtocol#CMD_COMPRESSED} zarfıyla
+     * gönderilir.
+     */
+    @Override
+    public boolean[] applyBatch(List<Mutation<String, String>> mutations)
+    {
+        if (mutations.isEmpty()) {
+            return new boolean[0];
+        }
+        Buffer request = Buffer.buffer(1 + 4 + mutations.size() * 32)
+                .appendByte(NodeProtocol.CMD_BATCH)
+                .appendInt(mutations.size());
+        for (Mutation<String, String> mutation : mutations) {
+            byte[] keyBytes = mutation.key().getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = mutation.value() == null ? new byte[0] : mutation.value().getBytes(StandardCharsets.UTF_8);
+            byte type = switch (mutation.type()) {
+                case SET -> NodeProtocol.CMD_SET;
+                case DELETE -> NodeProtocol.CMD_DELETE;
+                case CAS -> NodeProtocol.CMD_CAS;
+            };
+            request.appendByte(type)
+                    .appendInt(keyBytes.length)
+                    .appendInt(valueBytes.length)
+                    .appendLong(mutation.expireAtMillis())
+                    .appendLong(mutation.expectedCas())
+                    .appendBytes(keyBytes)
+                    .appendBytes(valueBytes);
+        }
+        byte[] wrapped = compressor.wrap(request.getBytes());
+        Buffer frame = wrapped != null ? Buffer.buffer(wrapped) : request;
+        return execute(connection -> send(connection, frame, new BatchResponseParser(mutations.size())));
+    }
+
+    /**
+     * Asenkron replikasyon için bu düğüme havuz dışında ayrı bir bağlantı açar.
+     * Akış sıralı ve boru hatlı olduğundan istek/yanıt havuzunu meşgul etmez.
+     */
+    public ReplicationStream openReplicationStream(String primaryId, long session) throws IOException
+    {
+        if (closed.get()) {
+            throw new IOException("Remote node " + id + " is closed");
+        }
+        return new SocketReplicationStream(host, port, (int) Math.min(Integer.MAX_VALUE, connectTimeoutMillis),
+                (int) Math.min(Integer.MAX_VALUE, requestTimeoutMillis), primaryId, session, compressor);
+    }
+
+    FrameCompressor compressor()
+    {
+        return compressor;
+    }
+
     @Override
     public void clear()
     {
@@ -211,7 +294,11 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
     private <T> T awaitResult(CompletableFuture<T> future, ConnectionLease lease)
     {
         try {
-            return future.get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+            T result = future.get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (responseListener != null) {
+                responseListener.accept(id);
+            }
+            return result;
         } catch (TimeoutException e) {
             lease.discard(e);
             throw communicationError("Request to node timed out", e);
@@ -492,7 +579,7 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
     }
 
     private abstract static sealed class AbstractResponseParser<T> implements ResponseParser<T>
-            permits BooleanResponseParser, ClearResponseParser, GetResponseParser
+            permits BooleanResponseParser, ClearResponseParser, GetResponseParser, BatchResponseParser
     {
         protected final ByteBufferReader reader = new ByteBufferReader();
         protected boolean complete;
@@ -632,6 +719,43 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
         }
     }
 
+    private static final class BatchResponseParser extends AbstractResponseParser<boolean[]>
+    {
+        private final int expected;
+
+        private BatchResponseParser(int expected)
+        {
+            this.expected = expected;
+        }
+
+        @Override
+        protected void parse() throws IOException
+        {
+            if (!reader.has(1 + 4)) {
+                return;
+            }
+            byte response = reader.readByte();
+            if (response != NodeProtocol.RESP_OK) {
+                throw new IOException("unexpected response to batch: " + (char) response);
+            }
+            int count = reader.readInt();
+            if (count != expected) {
+                throw new IOException("batch result count mismatch: " + count + " != " + expected);
+            }
+            if (!reader.has(count)) {
+                reader.rewind(1 + 4);
+                return;
+            }
+            byte[] flags = reader.readBytes(count);
+            boolean[] results = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = flags[i] == NodeProtocol.RESP_TRUE;
+            }
+            result = results;
+            complete = true;
+        }
+    }
+
     private static final class ByteBufferReader
     {
         private Buffer buffer = Buffer.buffer();
@@ -675,6 +799,11 @@ public final class RemoteNode implements Node<String, String>, AutoCloseable
             return data;
         }
 
+        void rewind(int bytes)
+        {
+            readIndex = Math.max(0, readIndex - bytes);
+        }
+
         void reset()
         {
             buffer = Buffer.buffer();
@@ -1,10 +1,17 @@
 package com.can.cluster.coordination;
 
 import com.can.cluster.ClusterState;
+import com.can.cluster.ConsistentHashRing;
+import com.can.cluster.Node;
+import com.can.cluster.TokenRange;
 import com.can.config.AppProperties;
+import com.can.codec.BlockCodec;
 import com.can.constants.NodeProtocol;
 import com.can.core.CacheEngine;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
 import io.quarkus.runtime.Startup;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
 import io.vertx.core.buffer.Buffer;
@@ -19,47 +26,80 @@ import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Diğer düğümlerden gelen replikasyon komutlarını kabul ederek {@link CacheEngine}
  * üzerinde uygulayan Vert.x tabanlı TCP sunucusudur. Komut protokolü, {@link RemoteNode}
  * tarafından kullanılan tek baytlık mesajlardan oluşur ve her bağlantı üzerinde
- * gelen istekler sıralı olarak işlenir. Ağ işlemleri Vert.x event-loop'larında
- * yürütülürken, önbellek operasyonları paylaşılan worker havuzu üzerinden
- * çalıştırılarak bloklama engellenir.
+ * gelen istekler sıralı olarak işlenir. Tek anahtarlı komutlar ve partiler
+ * yalnızca kısa segment kilitleri alan kodlanmış motor API'si üzerinden doğrudan
+ * event-loop'ta uygulanır: okuma tamponundaki tüm tamamlanmış çerçeveler art
+ * arda çözülüp işlenir ve yanıtları tek bir yazmayla gönderilir. Yazma kalıcı
+ * olmayı beklemek zorundaysa event-loop bekletilmez; bağlantının yanıtları ve
+ * sıradaki komutları kayıt kalıcı olunca işlenir. Tüm anahtar
+ * uzayını dolaşan ya da soket üzerinde bekleyen komutlar (akış, özet, temizleme)
+ * paylaşılan worker havuzunda çalıştırılır.
  */
 @Singleton
 @Startup
 public class ReplicationServer implements AutoCloseable
 {
     private static final Logger LOG = Logger.getLogger(ReplicationServer.class);
+    private static final int MAX_BATCH_ENTRIES = 65_536;
+    private static final int STREAM_BATCH_BYTES = 64 * 1024;
+    private static final long DRAIN_POLL_MILLIS = 100L;
 
     private final CacheEngine<String, String> engine;
     private final AppProperties.Replication config;
     private final ClusterState clusterState;
+    private final CoordinationService coordinationService;
+    private final ConsistentHashRing<Node<String, String>> ring;
+    private final int replicationFactor;
     private final WorkerExecutor workerExecutor;
     private final Vertx vertx;
+    private final BlockCodec compressionCodec;
+    private final int compressionMinBytes;
+    private final MetricsRegistry metrics;
+    private final Counter inboundDecompressNanos;
 
     private volatile boolean running;
     private NetServer netServer;
     private final Set<ReplicationConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, ReplicaCursor> replicaCursors = new ConcurrentHashMap<>();
 
     @Inject
     public ReplicationServer(CacheEngine<String, String> engine,
                              ClusterState clusterState,
+                             CoordinationService coordinationService,
+                             ConsistentHashRing<Node<String, String>> ring,
                              AppProperties properties,
                              WorkerExecutor workerExecutor,
-                             Vertx vertx)
+                             Vertx vertx,
+                             MetricsRegistry metrics)
     {
         this.engine = engine;
         this.clusterState = clusterState;
+        this.coordinationService = coordinationService;
+        this.ring = ring;
+        this.replicationFactor = Math.max(1, properties.cluster().replicationFactor());
         this.config = properties.cluster().replication();
         this.workerExecutor = workerExecutor;
         this.vertx = vertx;
+        var compression = properties.cluster().compression();
+        this.compressionCodec = BlockCodec.fromConfig(compression.codec());
+        this.compressionMinBytes = compression.minBytes();
+        this.metrics = metrics;
+        this.inboundDecompressNanos = metrics.counter("replication_inbound_decompression_nanos_total");
     }
 
     @PostConstruct
@@ -128,9 +168,10 @@ public class ReplicationServer implements AutoCloseable
         private final NetSocket socket;
         private final ByteBufferReader reader = new ByteBufferReader();
 
-        private boolean closed;
+        private volatile boolean closed;
         private boolean processing;
         private CommandDecoder decoder;
+        private Buffer inlineResponses = Buffer.buffer();
 
         private ReplicationConnection(NetSocket socket)
         {
@@ -152,35 +193,100 @@ public class ReplicationServer implements AutoCloseable
             {
                 if (decoder == null) {
                     if (!reader.has(1)) {
-                        return;
+                        break;
                     }
                     byte command = reader.readByte();
                     decoder = decoderFor(command);
                     if (decoder == null) {
                         LOG.warnf("Unknown replication command %d from %s", command & 0xff, socket.remoteAddress());
+                        flushInline();
                         close();
                         return;
                     }
                 }
 
+                CommandAction action;
                 try {
-                    CommandAction action = decoder.tryDecode(reader);
-                    if (action == null) {
-                        return;
+                    action = decoder.tryDecode(reader);
+                } catch (IOException e) {
+                    LOG.debugf(e, "Failed to decode replication command from %s", socket.remoteAddress());
+                    flushInline();
+                    close();
+                    return;
+                }
+                if (action == null) {
+                    break;
+                }
+                decoder = null;
+                if (action instanceof BlockingCommand blocking) {
+                    reader.compact();
+                    flushInline();
+                    executeBlocking(blocking);
+                    return;
+                }
+                CompletionStage<Void> commit;
+                try {
+                    Buffer response = action.execute();
+                    commit = engine.takePendingCommit();
+                    if (response != null && response.length() > 0) {
+                        inlineResponses.appendBuffer(response);
                     }
-                    decoder = null;
+                } catch (Exception e) {
+                    LOG.debugf(e, "Replication client %s disconnected with error", socket.remoteAddress());
+                    flushInline();
+                    close();
+                    return;
+                }
+                if (commit != null) {
                     reader.compact();
-                    executeCommand(action);
+                    awaitCommit(commit);
                     return;
-                } catch (IOException e) {
-                    LOG.debugf(e, "Failed to decode replication command from %s", socket.remoteAddress());
+                }
+            }
+            reader.compact();
+            flushInline();
+        }
+
+        /**
+         * Event-loop'ta uygulanan yazmanın kalıcı olmasını bekletmeden bekler;
+         * biriken yanıtlar ve sıradaki komutlar kayıt kalıcı olunca işlenir.
+         * Kalıcılık başarısız olursa yanıt gönderilmeden bağlantı kapatılır.
+         */
+        private void awaitCommit(CompletionStage<Void> commit)
+        {
+            processing = true;
+            Context context = Vertx.currentContext();
+            commit.whenComplete((ignored, error) -> context.runOnContext(v -> {
+                processing = false;
+                if (closed) {
+                    return;
+                }
+                if (error != null) {
+                    LOG.warnf(error, "Closing replication client %s because a write could not be persisted",
+                            socket.remoteAddress());
+                    inlineResponses = Buffer.buffer();
                     close();
                     return;
                 }
+                flushInline();
+                processBuffer();
+            }));
+        }
+
+        /** Event-loop'ta işlenen komutların biriken yanıtlarını tek yazmayla gönderir. */
+        private void flushInline()
+        {
+            if (inlineResponses.length() == 0) {
+                return;
+            }
+            Buffer response = inlineResponses;
+            inlineResponses = Buffer.buffer();
+            if (!closed) {
+                socket.write(response);
             }
         }
 
-        private void executeCommand(CommandAction action)
+        private void executeBlocking(CommandAction action)
         {
             processing = true;
             workerExecutor.executeBlocking(action::execute, false).onComplete(ar -> {
@@ -213,8 +319,14 @@ public class ReplicationServer implements AutoCloseable
                 case NodeProtocol.CMD_CLEAR -> new ClearCommandDecoder();
                 case NodeProtocol.CMD_CAS -> new CasCommandDecoder();
                 case NodeProtocol.CMD_JOIN -> new JoinCommandDecoder();
-                case NodeProtocol.CMD_STREAM -> new StreamCommandDecoder();
+                case NodeProtocol.CMD_STREAM -> new RangeCommandDecoder(RangeCommand.STREAM);
                 case NodeProtocol.CMD_DIGEST -> new DigestCommandDecoder();
+                case NodeProtocol.CMD_BATCH -> new BatchCommandDecoder(this::handleBatch);
+                case NodeProtocol.CMD_REPLICATE -> new ReplicateCommandDecoder();
+                case NodeProtocol.CMD_RANGE_DIGEST -> new RangeCommandDecoder(RangeCommand.RANGE_DIGEST);
+                case NodeProtocol.CMD_RANGE_STREAM -> new RangeCommandDecoder(RangeCommand.RANGE_STREAM);
+                case NodeProtocol.CMD_RANGE_ACK -> new RangeCommandDecoder(RangeCommand.RANGE_ACK);
+                case NodeProtocol.CMD_COMPRESSED -> new CompressedCommandDecoder();
                 default -> null;
             };
         }
@@ -376,7 +488,7 @@ public class ReplicationServer implements AutoCloseable
             @Override
             public CommandAction tryDecode(ByteBufferReader reader)
             {
-                return ReplicationConnection.this::handleClear;
+                return new BlockingCommand(ReplicationConnection.this::handleClear);
             }
         }
 
@@ -428,9 +540,220 @@ public class ReplicationServer implements AutoCloseable
             }
         }
 
+        private final class BatchCommandDecoder extends BaseCommandDecoder
+        {
+            private enum Stage { COUNT, HEADER, KEY, VALUE }
+
+            private Stage stage = Stage.COUNT;
+            private int remaining;
+            private byte type;
+            private int keyLength;
+            private int valueLength;
+            private long expireAt;
+            private long expectedCas;
+            private byte[] keyBytes;
+            private List<BatchEntry> entries;
+            private final Function<List<BatchEntry>, Buffer> handler;
+
+            private BatchCommandDecoder(Function<List<BatchEntry>, Buffer> handler)
+            {
+                this.handler = handler;
+            }
+
+            @Override
+            public CommandAction tryDecode(ByteBufferReader reader) throws IOException
+            {
+                while (true) {
+                    switch (stage) {
+                        case COUNT -> {
+                            if (!reader.has(4)) {
+                                return null;
+                            }
+                            remaining = reader.readInt();
+                            if (remaining < 0 || remaining > MAX_BATCH_ENTRIES) {
+                                throw new IOException("invalid batch size " + remaining);
+                            }
+                            entries = new ArrayList<>(remaining);
+                            if (remaining == 0) {
+                                List<BatchEntry> empty = entries;
+                                return () -> handler.apply(empty);
+                            }
+                            stage = Stage.HEADER;
+                        }
+                        case HEADER -> {
+                            if (!reader.has(1 + 4 + 4 + 8 + 8)) {
+                                return null;
+                            }
+                            type = reader.readByte();
+                            keyLength = reader.readInt();
+                            valueLength = reader.readInt();
+                            expireAt = reader.readLong();
+                            expectedCas = reader.readLong();
+                            ensureLength(keyLength);
+                            ensureLength(valueLength);
+                            if (type != NodeProtocol.CMD_SET && type != NodeProtocol.CMD_DELETE
+                                    && type != NodeProtocol.CMD_CAS) {
+                                throw new IOException("unsupported batch entry type " + (type & 0xff));
+                            }
+                            stage = Stage.KEY;
+                        }
+                        case KEY -> {
+                            if (!reader.has(keyLength)) {
+                                return null;
+                            }
+                            keyBytes = reader.readBytes(keyLength);
+                            stage = Stage.VALUE;
+                        }
+                        case VALUE -> {
+                            if (!reader.has(valueLength)) {
+                                return null;
+                            }
+                            byte[] valueBytes = reader.readBytes(valueLength);
+                            entries.add(new BatchEntry(type, keyBytes, valueBytes, expireAt, expectedCas));
+                            if (--remaining == 0) {
+                                List<BatchEntry> decoded = entries;
+                                return () -> handler.apply(decoded);
+                            }
+                            stage = Stage.HEADER;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Asenkron replikasyon partisini çözer: birincil kimliği, oturum ve ilk
+         * sıra numarasından sonra gövde {@link BatchCommandDecoder} ile okunur.
+         */
+        private final class ReplicateCommandDecoder extends BaseCommandDecoder
+        {
+            private enum Stage { LENGTH, ID, SEQUENCE, BODY }
+
+            private Stage stage = Stage.LENGTH;
+            private int idLength;
+            private String primaryId;
+            private long session;
+            private long firstSeq;
+            private BatchCommandDecoder body;
+
+            @Override
+            public CommandAction tryDecode(ByteBufferReader reader) throws IOException
+            {
+                while (true) {
+                    switch (stage) {
+                        case LENGTH -> {
+                            if (!reader.has(4)) {
+                                return null;
+                            }
+                            idLength = reader.readInt();
+                            ensureLength(idLength);
+                            stage = Stage.ID;
+                        }
+                        case ID -> {
+                            if (!reader.has(idLength)) {
+                                return null;
+                            }
+                            primaryId = new String(reader.readBytes(idLength), StandardCharsets.UTF_8);
+                            stage = Stage.SEQUENCE;
+                        }
+                        case SEQUENCE -> {
+                            if (!reader.has(16)) {
+                                return null;
+                            }
+                            session = reader.readLong();
+                            firstSeq = reader.readLong();
+                            if (firstSeq < 1L) {
+                                throw new IOException("invalid replication sequence " + firstSeq);
+                            }
+                            String id = primaryId;
+                            long sessionId = session;
+                            long first = firstSeq;
+                            body = new BatchCommandDecoder(entries -> handleReplicate(id, sessionId, first, entries));
+                            stage = Stage.BODY;
+                        }
+                        case BODY -> {
+                            return body.tryDecode(reader);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * {@link NodeProtocol#CMD_COMPRESSED} zarfını açar ve içindeki komut
+         * çerçevesini tek seferde çözer. Zarfın gövdesi tam bir çerçeve
+         * olmalıdır; iç içe zarflar kabul edilmez.
+         */
+        private final class CompressedCommandDecoder extends BaseCommandDecoder
+        {
+            private enum Stage { HEADER, BODY }
+
+            private Stage stage = Stage.HEADER;
+            private int codecId;
+            private int rawLength;
+            private int compressedLength;
+
+            @Override
+            public CommandAction tryDecode(ByteBufferReader reader) throws IOException
+            {
+                while (true) {
+                    switch (stage) {
+                        case HEADER -> {
+                            if (!reader.has(1 + 4 + 4)) {
+                                return null;
+                            }
+                            codecId = reader.readByte() & 0xff;
+                            rawLength = reader.readInt();
+                            compressedLength = reader.readInt();
+                            ensureLength(rawLength);
+                            ensureLength(compressedLength);
+                            if (rawLength > FrameCompressor.MAX_FRAME_BYTES
+                                    || compressedLength > FrameCompressor.MAX_FRAME_BYTES) {
+                                throw new IOException("compressed frame too large: " + rawLength);
+                            }
+                            stage = Stage.BODY;
+                        }
+                        case BODY -> {
+                            if (!reader.has(compressedLength)) {
+                                return null;
+                            }
+                            BlockCodec codec = BlockCodec.fromId(codecId);
+                            if (codec == null) {
+                                throw new IOException("unsupported frame codec " + codecId);
+                            }
+                            long start = System.nanoTime();
+                            byte[] raw = codec.decompress(reader.readBytes(compressedLength), 0, compressedLength,
+                                    rawLength);
+                            inboundDecompressNanos.add(System.nanoTime() - start);
+                            return decodeInner(raw);
+                        }
+                    }
+                }
+            }
+
+            private CommandAction decodeInner(byte[] raw) throws IOException
+            {
+                ByteBufferReader inner = new ByteBufferReader();
+                inner.append(Buffer.buffer(raw));
+                if (!inner.has(1)) {
+                    throw new IOException("empty compressed frame");
+                }
+                byte command = inner.readByte();
+                CommandDecoder innerDecoder = command == NodeProtocol.CMD_COMPRESSED ? null : decoderFor(command);
+                if (innerDecoder == null) {
+                    throw new IOException("unsupported compressed command " + (command & 0xff));
+                }
+                CommandAction action = innerDecoder.tryDecode(inner);
+                if (action == null || inner.has(1)) {
+                    throw new IOException("compressed frame does not hold exactly one command");
+                }
+                return action;
+            }
+        }
+
         private final class JoinCommandDecoder extends BaseCommandDecoder
         {
-            private enum Stage { LENGTH, ID, EPOCH }
+            private enum Stage { LENGTH, ID, EPOCH, CODECS }
 
             private Stage stage = Stage.LENGTH;
             private int idLength;
@@ -462,59 +785,163 @@ public class ReplicationServer implements AutoCloseable
                                 return null;
                             }
                             epoch = reader.readLong();
-                            return () -> handleJoin(idBytes, epoch);
+                            stage = Stage.CODECS;
+                        }
+                        case CODECS -> {
+                            if (!reader.has(2)) {
+                                return null;
+                            }
+                            int preferredCodec = reader.readByte() & 0xff;
+                            int codecMask = reader.readByte() & 0xff;
+                            return () -> handleJoin(idBytes, epoch, preferredCodec, codecMask);
                         }
                     }
                 }
             }
         }
 
-        private final class StreamCommandDecoder implements CommandDecoder
+        private final class DigestCommandDecoder implements CommandDecoder
         {
             @Override
             public CommandAction tryDecode(ByteBufferReader reader)
             {
-                return ReplicationConnection.this::handleStream;
+                return new BlockingCommand(ReplicationConnection.this::handleDigest);
             }
         }
 
-        private final class DigestCommandDecoder implements CommandDecoder
+        /**
+         * Aralık listesi taşıyan istekleri çözer. Her istek isteyen düğümün
+         * kimliğiyle başlar; tam akış isteği yalnızca isteyen düğümün sahip
+         * olduğu aralıkları taşır, özet isteği her aralığın kaç kovaya
+         * bölüneceğini belirtir. Akış istekleri sonda yanıtın hangi kodlayıcıyla
+         * sıkıştırılacağını bildirir; aktarım onayı yalnızca aralıkları taşır.
+         */
+        private final class RangeCommandDecoder extends BaseCommandDecoder
         {
+            private enum Stage { LENGTH, ID, FANOUT, COUNT, RANGES, CODEC }
+
+            private final RangeCommand command;
+            private Stage stage = Stage.LENGTH;
+            private int idLength;
+            private byte[] idBytes;
+            private int fanout = 1;
+            private int remaining;
+            private List<TokenRange> ranges;
+
+            private RangeCommandDecoder(RangeCommand command)
+            {
+                this.command = command;
+            }
+
             @Override
-            public CommandAction tryDecode(ByteBufferReader reader)
+            public CommandAction tryDecode(ByteBufferReader reader) throws IOException
             {
-                return ReplicationConnection.this::handleDigest;
+                while (true) {
+                    switch (stage) {
+                        case LENGTH -> {
+                            if (!reader.has(4)) {
+                                return null;
+                            }
+                            idLength = reader.readInt();
+                            ensureLength(idLength);
+                            stage = Stage.ID;
+                        }
+                        case ID -> {
+                            if (!reader.has(idLength)) {
+                                return null;
+                            }
+                            idBytes = reader.readBytes(idLength);
+                            stage = command == RangeCommand.RANGE_DIGEST ? Stage.FANOUT : Stage.COUNT;
+                        }
+                        case FANOUT -> {
+                            if (!reader.has(4)) {
+                                return null;
+                            }
+                            fanout = reader.readInt();
+                            if (fanout < 1 || fanout > RangeDigests.MAX_FANOUT) {
+                                throw new IOException("invalid range fanout " + fanout);
+                            }
+                            stage = Stage.COUNT;
+                        }
+                        case COUNT -> {
+                            if (!reader.has(4)) {
+                                return null;
+                            }
+                            remaining = reader.readInt();
+                            if (remaining < 0 || remaining > RangeDigests.MAX_RANGES
+                                    || (long) remaining * fanout > RangeDigests.MAX_BUCKETS) {
+                                throw new IOException("invalid range count " + remaining);
+                            }
+                            ranges = new ArrayList<>(remaining);
+                            stage = Stage.RANGES;
+                        }
+                        case RANGES -> {
+                            while (remaining > 0) {
+                                if (!reader.has(8 + 8)) {
+                                    return null;
+                                }
+                                long start = reader.readLong();
+                                long end = reader.readLong();
+                                try {
+                                    ranges.add(new TokenRange(start, end));
+                                } catch (IllegalArgumentException e) {
+                                    throw new IOException(e.getMessage(), e);
+                                }
+                                remaining--;
+                            }
+                            if (!RangeDigests.sortedAndDisjoint(ranges)) {
+                                throw new IOException("token ranges must be sorted and disjoint");
+                            }
+                            List<TokenRange> decoded = ranges;
+                            String peerId = new String(idBytes, StandardCharsets.UTF_8);
+                            if (command == RangeCommand.RANGE_DIGEST) {
+                                int parts = fanout;
+                                return new BlockingCommand(() -> handleRangeDigest(peerId, decoded, parts));
+                            }
+                            if (command == RangeCommand.RANGE_ACK) {
+                                return () -> handleRangeAck(peerId, decoded);
+                            }
+                            stage = Stage.CODEC;
+                        }
+                        case CODEC -> {
+                            if (!reader.has(1)) {
+                                return null;
+                            }
+                            int codecId = reader.readByte() & 0xff;
+                            BlockCodec codec = BlockCodec.fromId(codecId);
+                            if (codec == null) {
+                                throw new IOException("unsupported stream codec " + codecId);
+                            }
+                            String peerId = new String(idBytes, StandardCharsets.UTF_8);
+                            List<TokenRange> decoded = ranges;
+                            FrameCompressor compressor = new FrameCompressor(peerId, codec, compressionMinBytes, metrics);
+                            return new BlockingCommand(command == RangeCommand.STREAM
+                                    ? () -> handleStream(decoded, compressor)
+                                    : () -> handleRangeStream(peerId, decoded, compressor));
+                        }
+                    }
+                }
             }
         }
 
         private Buffer handleSet(byte[] keyBytes, byte[] valueBytes, long expireAt)
         {
-            String key = new String(keyBytes, StandardCharsets.UTF_8);
-            String value = new String(valueBytes, StandardCharsets.UTF_8);
-            long now = System.currentTimeMillis();
-
-            boolean stored;
-            if (expireAt <= 0L) {
-                stored = engine.set(key, value);
-            } else if (expireAt <= now) {
-                engine.delete(key);
-                stored = true;
-            } else {
-                long ttlMillis = expireAt - now;
-                stored = engine.set(key, value, Duration.ofMillis(ttlMillis));
-            }
-
+            boolean stored = applySet(keyBytes, valueBytes, expireAt);
             return Buffer.buffer(1).appendByte(stored ? NodeProtocol.RESP_TRUE : NodeProtocol.RESP_FALSE);
         }
 
+        // Değerler motorda UTF-8 kodlanmış baytlar olarak durduğundan ağdan geldiği gibi saklanır.
+        private boolean applySet(byte[] keyBytes, byte[] valueBytes, long expireAt)
+        {
+            return engine.setEncoded(new String(keyBytes, StandardCharsets.UTF_8), valueBytes, expireAt);
+        }
+
         private Buffer handleGet(byte[] keyBytes)
         {
-            String key = new String(keyBytes, StandardCharsets.UTF_8);
-            String value = engine.get(key);
-            if (value == null) {
+            byte[] valueBytes = engine.getEncoded(new String(keyBytes, StandardCharsets.UTF_8));
+            if (valueBytes == null) {
                 return Buffer.buffer(1).appendByte(NodeProtocol.RESP_MISS);
             }
-            byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
             return Buffer.buffer(1 + 4 + valueBytes.length)
                     .appendByte(NodeProtocol.RESP_HIT)
                     .appendInt(valueBytes.length)
@@ -536,25 +963,74 @@ public class ReplicationServer implements AutoCloseable
 
         private Buffer handleCas(byte[] keyBytes, byte[] valueBytes, long expireAt, long expectedCas)
         {
-            String key = new String(keyBytes, StandardCharsets.UTF_8);
-            String value = new String(valueBytes, StandardCharsets.UTF_8);
-            long now = System.currentTimeMillis();
-
-            boolean stored;
-            if (expireAt <= 0L) {
-                stored = engine.compareAndSwap(key, value, expectedCas, null);
-            } else if (expireAt <= now) {
-                engine.delete(key);
-                stored = true;
-            } else {
-                long ttlMillis = expireAt - now;
-                stored = engine.compareAndSwap(key, value, expectedCas, Duration.ofMillis(ttlMillis));
+            boolean stored = applyCas(keyBytes, valueBytes, expireAt, expectedCas);
+            return Buffer.buffer(1).appendByte(stored ? NodeProtocol.RESP_TRUE : NodeProtocol.RESP_FALSE);
+        }
+
+        private boolean applyCas(byte[] keyBytes, byte[] valueBytes, long expireAt, long expectedCas)
+        {
+            return engine.compareAndSwapEncoded(new String(keyBytes, StandardCharsets.UTF_8), valueBytes, expectedCas,
+                    expireAt);
+        }
+
+        /**
+         * Toplu çerçevedeki işlemleri sırayla uygular ve her biri için bir sonuç
+         * baytı döndürür.
+         */
+        private Buffer handleBatch(List<BatchEntry> entries)
+        {
+            Buffer response = Buffer.buffer(1 + 4 + entries.size())
+                    .appendByte(NodeProtocol.RESP_OK)
+                    .appendInt(entries.size());
+            for (BatchEntry entry : entries) {
+                boolean applied = switch (entry.type()) {
+                    case NodeProtocol.CMD_SET -> applySet(entry.key(), entry.value(), entry.expireAt());
+                    case NodeProtocol.CMD_CAS -> applyCas(entry.key(), entry.value(), entry.expireAt(), entry.expectedCas());
+                    default -> engine.delete(new String(entry.key(), StandardCharsets.UTF_8));
+                };
+                response.appendByte(applied ? NodeProtocol.RESP_TRUE : NodeProtocol.RESP_FALSE);
             }
+            return response;
+        }
 
-            return Buffer.buffer(1).appendByte(stored ? NodeProtocol.RESP_TRUE : NodeProtocol.RESP_FALSE);
+        /**
+         * Birincilden gelen sıralı partiyi uygular. Yeniden bağlanma sonrası
+         * tekrar gönderilen ve daha önce uygulanmış sıra numaraları atlanır;
+         * birincil yeniden başlarsa (yeni oturum) sayaç sıfırlanır. Yanıt,
+         * kesintisiz uygulanan en büyük sıra numarasını taşır.
+         */
+        private Buffer handleReplicate(String primaryId, long session, long firstSeq, List<BatchEntry> entries)
+        {
+            ReplicaCursor cursor = replicaCursors.computeIfAbsent(primaryId, ignored -> new ReplicaCursor());
+            long applied;
+            synchronized (cursor) {
+                if (cursor.session != session) {
+                    cursor.session = session;
+                    cursor.appliedSeq = firstSeq - 1;
+                }
+                for (int i = 0; i < entries.size(); i++) {
+                    long seq = firstSeq + i;
+                    if (seq <= cursor.appliedSeq) {
+                        continue;
+                    }
+                    BatchEntry entry = entries.get(i);
+                    switch (entry.type()) {
+                        case NodeProtocol.CMD_SET -> applySet(entry.key(), entry.value(), entry.expireAt());
+                        case NodeProtocol.CMD_CAS -> applyCas(entry.key(), entry.value(), entry.expireAt(), entry.expectedCas());
+                        default -> engine.delete(new String(entry.key(), StandardCharsets.UTF_8));
+                    }
+                    cursor.appliedSeq = seq;
+                }
+                applied = cursor.appliedSeq;
+            }
+            return Buffer.buffer(1 + 8).appendByte(NodeProtocol.RESP_OK).appendLong(applied);
         }
 
-        private Buffer handleJoin(byte[] joinerIdBytes, long joinerEpoch)
+        /**
+         * Katılan düğümü kabul eder ve katılanın tercih ettiği ile yerel
+         * kodlayıcıdan çerçeve sıkıştırması için kullanılacak olanı seçer.
+         */
+        private Buffer handleJoin(byte[] joinerIdBytes, long joinerEpoch, int preferredCodec, int codecMask)
         {
             clusterState.observeEpoch(joinerEpoch);
             String joinerId = new String(joinerIdBytes, StandardCharsets.UTF_8);
@@ -563,45 +1039,177 @@ public class ReplicationServer implements AutoCloseable
             }
 
             byte[] idBytes = clusterState.localNodeIdBytes();
-            return Buffer.buffer(1 + 4 + idBytes.length + 8)
+            BlockCodec codec = FrameCompressor.negotiate(compressionCodec, preferredCodec, codecMask);
+            return Buffer.buffer(1 + 4 + idBytes.length + 8 + 1)
                     .appendByte(NodeProtocol.RESP_ACCEPT)
                     .appendInt(idBytes.length)
                     .appendBytes(idBytes)
-                    .appendLong(clusterState.currentEpoch());
+                    .appendLong(clusterState.currentEpoch())
+                    .appendByte((byte) codec.id());
         }
 
-        private Buffer handleStream() throws IOException
+        /**
+         * Yalnızca isteyen düğümün sahip olduğu aralıklara düşen kayıtları
+         * gönderir; filtreleme kaynakta yapıldığı için katılan düğüme ait
+         * olmayan anahtarlar ağa hiç çıkmaz.
+         */
+        private Buffer handleStream(List<TokenRange> ranges, FrameCompressor compressor) throws IOException
         {
+            StreamWriter writer = new StreamWriter(compressor);
             try {
                 engine.forEachEntry((key, value, expireAt) -> {
-                    try {
-                        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
-                        Buffer chunk = Buffer.buffer(1 + 4 + 4 + 8 + keyBytes.length + value.length);
-                        chunk.appendByte(NodeProtocol.STREAM_CHUNK_MARKER);
-                        chunk.appendInt(keyBytes.length);
-                        chunk.appendInt(value.length);
-                        chunk.appendLong(expireAt);
-                        chunk.appendBytes(keyBytes);
-                        chunk.appendBytes(value);
-                        socket.write(chunk);
-                    }
-                    catch (Exception e) {
-                        IOException io = new IOException(e);
-                        throw new StreamWriteException(io);
+                    if (TokenRange.indexOf(ranges, ring.token(key.getBytes(StandardCharsets.UTF_8))) >= 0) {
+                        writer.write(key, value, expireAt);
                     }
                 });
+                writer.flush();
+            } catch (StreamWriteException e) {
+                throw e.unwrap();
+            }
+            return Buffer.buffer(1).appendByte(NodeProtocol.STREAM_END_MARKER);
+        }
+
+        /**
+         * Yalnızca istenen aralıklara düşen ve iki düğümün de replika olduğu
+         * kayıtları tam akışla aynı çerçeve biçiminde gönderir.
+         */
+        private Buffer handleRangeStream(String peerId, List<TokenRange> ranges, FrameCompressor compressor)
+                throws IOException
+        {
+            StreamWriter writer = new StreamWriter(compressor);
+            try {
+                RangeDigests.forEachShared(engine, ring, replicationFactor, clusterState.localNodeId(), peerId,
+                        ranges, writer::write);
+                writer.flush();
             } catch (StreamWriteException e) {
                 throw e.unwrap();
             }
             return Buffer.buffer(1).appendByte(NodeProtocol.STREAM_END_MARKER);
         }
 
+        /**
+         * Akış kayıtlarını {@code STREAM_BATCH_BYTES} büyüklüğünde tamponlarda
+         * biriktirerek yazar. Soketin yazma kuyruğu doluysa worker iş parçacığı
+         * drain bildirimi gelene kadar bekler; böylece büyük bir düğüm tüm
+         * anahtar uzayını Netty belleğinde biriktirmez. İstek bir kodlayıcı
+         * belirttiyse her tampon tek bir sıkıştırılmış blok olarak gönderilir.
+         */
+        private final class StreamWriter
+        {
+            private final FrameCompressor compressor;
+            private Buffer pending = Buffer.buffer(STREAM_BATCH_BYTES);
+
+            StreamWriter(FrameCompressor compressor)
+            {
+                this.compressor = compressor;
+            }
+
+            void write(String key, byte[] value, long expireAt)
+            {
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                pending.appendByte(NodeProtocol.STREAM_CHUNK_MARKER);
+                pending.appendInt(keyBytes.length);
+                pending.appendInt(value.length);
+                pending.appendLong(expireAt);
+                pending.appendBytes(keyBytes);
+                pending.appendBytes(value);
+                if (pending.length() >= STREAM_BATCH_BYTES) {
+                    flush();
+                }
+            }
+
+            void flush()
+            {
+                if (pending.length() == 0) {
+                    return;
+                }
+                try {
+                    Buffer block = compressBlock(pending);
+                    awaitWritable();
+                    socket.write(block);
+                } catch (IOException e) {
+                    throw new StreamWriteException(e);
+                } catch (Exception e) {
+                    throw new StreamWriteException(new IOException(e));
+                }
+                pending = Buffer.buffer(STREAM_BATCH_BYTES);
+            }
+
+            private Buffer compressBlock(Buffer block)
+            {
+                if (!compressor.enabled()) {
+                    return block;
+                }
+                byte[] raw = block.getBytes();
+                byte[] compressed = compressor.compress(raw, 0, raw.length);
+                if (compressed == null) {
+                    return block;
+                }
+                return Buffer.buffer(1 + 1 + 4 + 4 + compressed.length)
+                        .appendByte(NodeProtocol.STREAM_COMPRESSED_MARKER)
+                        .appendByte((byte) compressor.codec().id())
+                        .appendInt(raw.length)
+                        .appendInt(compressed.length)
+                        .appendBytes(compressed);
+            }
+
+            private void awaitWritable() throws IOException, InterruptedException
+            {
+                while (socket.writeQueueFull()) {
+                    if (closed) {
+                        throw new IOException("Connection closed while streaming");
+                    }
+                    CountDownLatch drained = new CountDownLatch(1);
+                    socket.drainHandler(v -> drained.countDown());
+                    if (!socket.writeQueueFull()) {
+                        break;
+                    }
+                    drained.await(DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                socket.drainHandler(null);
+            }
+        }
+
+        private Buffer handleRangeDigest(String peerId, List<TokenRange> ranges, int fanout)
+        {
+            RangeDigests digests = RangeDigests.compute(engine, ring, replicationFactor, clusterState.localNodeId(),
+                    peerId, ranges, fanout);
+            int buckets = digests.buckets();
+            Buffer response = Buffer.buffer(1 + 4 + buckets * (8 + 4))
+                    .appendByte(NodeProtocol.RESP_OK)
+                    .appendInt(buckets);
+            for (int i = 0; i < buckets; i++) {
+                response.appendLong(digests.digest(i)).appendInt(digests.count(i));
+            }
+            return response;
+        }
+
+        /** Yeni sahibin aralıkları çektiğini bildiren onayı koordinasyon servisine iletir. */
+        private Buffer handleRangeAck(String peerId, List<TokenRange> ranges)
+        {
+            coordinationService.onRangeTransferConfirmed(peerId, ranges);
+            return Buffer.buffer(1).appendByte(NodeProtocol.RESP_OK);
+        }
+
         private Buffer handleDigest()
         {
             return Buffer.buffer(8).appendLong(engine.fingerprint());
         }
     }
 
+    private enum RangeCommand { STREAM, RANGE_DIGEST, RANGE_STREAM, RANGE_ACK }
+
+    private record BatchEntry(byte type, byte[] key, byte[] value, long expireAt, long expectedCas)
+    {
+    }
+
+    /** Bir birincilden alınan replikasyon akışında uygulanan son sıra numarası. */
+    private static final class ReplicaCursor
+    {
+        private long session;
+        private long appliedSeq;
+    }
+
     private interface CommandDecoder
     {
         CommandAction tryDecode(ByteBufferReader reader) throws IOException;
@@ -613,6 +1221,16 @@ public class ReplicationServer implements AutoCloseable
         Buffer execute() throws Exception;
     }
 
+    /** Event-loop'u bloklayabileceği için worker havuzunda çalıştırılması gereken komut. */
+    private record BlockingCommand(CommandAction action) implements CommandAction
+    {
+        @Override
+        public Buffer execute() throws Exception
+        {
+            return action.execute();
+        }
+    }
+
     private static final class ByteBufferReader
     {
         private Buffer buffer = Buffer.buffer();
@@ -679,6 +1297,8 @@ public class ReplicationServer implements AutoCloseable
 
     private static final class StreamWriteException extends RuntimeException
     {
+        private static final long serialVersionUID = 1L;
+
         private final IOException cause;
 
         private StreamWriteException(IOException cause)
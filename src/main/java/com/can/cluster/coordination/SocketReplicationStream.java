@@ -0,0 +1,111 @@
+package com.can.cluster.coordination;
+
+import com.can.cluster.Mutation;
+import com.can.cluster.ReplicationStream;
+import com.can.constants.NodeProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Yedek düğüme tek bir TCP bağlantısı üzerinden {@link NodeProtocol#CMD_REPLICATE}
+ * çerçeveleri gönderen akıştır. Sunucu bir bağlantıdaki komutları sırayla
+ * işlediği için partiler onay beklenmeden art arda yazılabilir. Çerçeve biçimi
+ * {@code [idLen][primaryId][session][firstSeq][count][kayıtlar]} olup kayıtlar
+ * {@link NodeProtocol#CMD_BATCH} ile aynı biçimdedir; yanıt
+ * {@code [RESP_OK][appliedSeq]} şeklindedir. Eşle sıkıştırma kararlaştırıldıysa
+ * eşiği aşan çerçeveler {@link NodeProtocol#CMD_COMPRESSED} zarfıyla gönderilir.
+ */
+final class SocketReplicationStream implements ReplicationStream
+{
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final byte[] primaryId;
+    private final long session;
+    private final FrameCompressor compressor;
+    private final ByteArrayOutputStream frameBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream frame = new DataOutputStream(frameBuffer);
+
+    SocketReplicationStream(String host,
+                            int port,
+                            int connectTimeoutMillis,
+                            int readTimeoutMillis,
+                            String primaryId,
+                            long session,
+                            FrameCompressor compressor) throws IOException
+    {
+        this.socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(readTimeoutMillis);
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.primaryId = primaryId.getBytes(StandardCharsets.UTF_8);
+        this.session = session;
+        this.compressor = compressor;
+    }
+
+    @Override
+    public void send(long firstSeq, List<Mutation<String, String>> mutations) throws IOException
+    {
+        frameBuffer.reset();
+        frame.writeByte(NodeProtocol.CMD_REPLICATE);
+        frame.writeInt(primaryId.length);
+        frame.write(primaryId);
+        frame.writeLong(session);
+        frame.writeLong(firstSeq);
+        frame.writeInt(mutations.size());
+        for (Mutation<String, String> mutation : mutations) {
+            byte[] keyBytes = mutation.key().getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = mutation.value() == null ? new byte[0] : mutation.value().getBytes(StandardCharsets.UTF_8);
+            frame.writeByte(switch (mutation.type()) {
+                case SET -> NodeProtocol.CMD_SET;
+                case DELETE -> NodeProtocol.CMD_DELETE;
+                case CAS -> NodeProtocol.CMD_CAS;
+            });
+            frame.writeInt(keyBytes.length);
+            frame.writeInt(valueBytes.length);
+            frame.writeLong(mutation.expireAtMillis());
+            frame.writeLong(mutation.expectedCas());
+            frame.write(keyBytes);
+            frame.write(valueBytes);
+        }
+        byte[] raw = frameBuffer.toByteArray();
+        byte[] wrapped = compressor.wrap(raw);
+        out.write(wrapped != null ? wrapped : raw);
+        out.flush();
+    }
+
+    @Override
+    public long readAck() throws IOException
+    {
+        byte response = in.readByte();
+        if (response != NodeProtocol.RESP_OK) {
+            throw new IOException("Unexpected replication response " + (response & 0xff));
+        }
+        return in.readLong();
+    }
+
+    @Override
+    public void close()
+    {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
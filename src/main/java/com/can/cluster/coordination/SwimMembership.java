@@ -0,0 +1,778 @@
+package com.can.cluster.coordination;
+
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * SWIM tarzı gossip üyelik protokolü. Her tur rastgele sıralanmış üye
+ * listesinden sıradaki üyeye doğrudan {@code PING} gönderilir; zaman aşımında
+ * {@code k} farklı üye üzerinden dolaylı {@code PING_REQ} denenir, yine yanıt
+ * alınamazsa üye şüpheli ilan edilir ve şüphe süresi dolduğunda ölü kabul
+ * edilir. Üyelik değişiklikleri ayrı paket gönderilmeden her mesajın sonuna
+ * eklenerek yayılır; her güncelleme yaklaşık {@code λ·log(N+1)} kez taşınır.
+ * Böylece tur başına ağ trafiği küme boyutundan bağımsız kalır.
+ * <p>
+ * Mesajlar UDP üzerinden kompakt ikili biçimde taşınır. Yeni düğüm, tohum
+ * listesindeki adreslere {@code JOIN} gönderir ve tam üye listesini paket
+ * boyutuna bölünmüş {@code SYNC} mesajlarıyla alır. Artış numarası
+ * (incarnation) kuralları eski bilgilerin yenilerini ezmesini engeller;
+ * hakkında şüphe yayılan düğüm artış numarasını yükselterek kendini yalanlar.
+ */
+public final class SwimMembership implements MembershipProtocol
+{
+    private static final Logger LOG = Logger.getLogger(SwimMembership.class);
+
+    static final byte MAGIC = 'W';
+    static final byte VERSION = 1;
+    static final byte TYPE_PING = 1;
+    static final byte TYPE_ACK = 2;
+    static final byte TYPE_PING_REQ = 3;
+    static final byte TYPE_JOIN = 4;
+    static final byte TYPE_SYNC = 5;
+
+    private static final int MAX_PACKET_SIZE = 1400;
+    private static final int RETRANSMIT_MULTIPLIER = 3;
+    private static final int MAX_PIGGYBACK = 255;
+
+    private final String localId;
+    private final String advertisedHost;
+    private final int dataPort;
+    private final String bindHost;
+    private final int requestedPort;
+    private final List<InetSocketAddress> seeds;
+    private final long probeIntervalMillis;
+    private final long probeTimeoutMillis;
+    private final int indirectProbes;
+    private final long suspicionTimeoutMillis;
+    private final LongSupplier epochSupplier;
+
+    private final Object lock = new Object();
+    private final Map<String, Member> members = new HashMap<>();
+    private final Map<String, Broadcast> broadcasts = new LinkedHashMap<>();
+    private final Map<Long, CountDownLatch> pendingAcks = new ConcurrentHashMap<>();
+    private final Map<Long, Relay> relays = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<String> probeOrder = new ArrayList<>();
+    private int probeIndex;
+
+    private long incarnation;
+    private volatile MemberStatus localStatus = MemberStatus.ALIVE;
+    private DatagramSocket socket;
+    private Listener listener;
+    private Thread receiverThread;
+    private Thread proberThread;
+    private volatile boolean running;
+
+    public SwimMembership(String localId,
+                          String advertisedHost,
+                          int dataPort,
+                          String bindHost,
+                          int gossipPort,
+                          List<InetSocketAddress> seeds,
+                          long probeIntervalMillis,
+                          long probeTimeoutMillis,
+                          int indirectProbes,
+                          long suspicionTimeoutMillis,
+                          LongSupplier epochSupplier)
+    {
+        this.localId = Objects.requireNonNull(localId, "localId");
+        this.advertisedHost = Objects.requireNonNull(advertisedHost, "advertisedHost");
+        this.dataPort = dataPort;
+        this.bindHost = bindHost;
+        this.requestedPort = gossipPort;
+        this.seeds = seeds == null ? List.of() : List.copyOf(seeds);
+        this.probeIntervalMillis = Math.max(10L, probeIntervalMillis);
+        this.probeTimeoutMillis = Math.max(1L, Math.min(probeTimeoutMillis, this.probeIntervalMillis));
+        this.indirectProbes = Math.max(0, indirectProbes);
+        this.suspicionTimeoutMillis = Math.max(this.probeIntervalMillis, suspicionTimeoutMillis);
+        this.epochSupplier = epochSupplier == null ? () -> 0L : epochSupplier;
+    }
+
+    /**
+     * {@code host:port} biçimindeki tohum adreslerini çözümler; port
+     * belirtilmemişse varsayılan gossip portu kullanılır.
+     */
+    public static List<InetSocketAddress> parseSeeds(List<String> values, int defaultPort)
+    {
+        List<InetSocketAddress> result = new ArrayList<>();
+        if (values == null) {
+            return result;
+        }
+        for (String value : values) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String trimmed = value.trim();
+            int separator = trimmed.lastIndexOf(':');
+            String host = separator > 0 ? trimmed.substring(0, separator) : trimmed;
+            int port = defaultPort;
+            if (separator > 0) {
+                try {
+                    port = Integer.parseInt(trimmed.substring(separator + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid seed address: " + value, e);
+                }
+            }
+            result.add(new InetSocketAddress(host, port));
+        }
+        return result;
+    }
+
+    @Override
+    public void start(Listener listener) throws IOException
+    {
+        this.listener = Objects.requireNonNull(listener, "listener");
+        socket = new DatagramSocket(new InetSocketAddress(bindHost, requestedPort));
+        running = true;
+
+        receiverThread = new Thread(this::receiveLoop, "swim-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        proberThread = new Thread(this::probeLoop, "swim-prober");
+        proberThread.setDaemon(true);
+        proberThread.start();
+        LOG.infof("SWIM membership for %s listening on UDP port %d with %d seeds", localId, port(), seeds.size());
+    }
+
+    /** Bağlanılan gerçek UDP portunu döndürür; port 0 ile başlatıldığında işe yarar. */
+    public int port()
+    {
+        DatagramSocket current = socket;
+        return current == null ? requestedPort : current.getLocalPort();
+    }
+
+    /** Canlı ya da şüpheli durumdaki uzak üye sayısını döndürür. */
+    public int memberCount()
+    {
+        synchronized (lock) {
+            int count = 0;
+            for (Member member : members.values()) {
+                if (member.status.reachable()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public void leave()
+    {
+        List<Member> targets = new ArrayList<>();
+        synchronized (lock) {
+            if (!running || localStatus == MemberStatus.LEFT) {
+                return;
+            }
+            localStatus = MemberStatus.LEFT;
+            incarnation++;
+            broadcasts.clear();
+            for (Member member : members.values()) {
+                if (member.status.reachable()) {
+                    targets.add(member);
+                }
+            }
+        }
+        // Ayrılma bilgisi gönderen kaydında taşındığı için boş bir PING yeterlidir.
+        for (Member member : targets) {
+            send(member.address(), TYPE_PING, sequence.incrementAndGet(), null, List.of());
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        if (socket != null) {
+            socket.close();
+        }
+        if (receiverThread != null) {
+            receiverThread.interrupt();
+        }
+        if (proberThread != null) {
+            proberThread.interrupt();
+        }
+    }
+
+    private void probeLoop()
+    {
+        while (running) {
+            long started = System.currentTimeMillis();
+            try {
+                if (localStatus == MemberStatus.LEFT) {
+                    return;
+                }
+                if (!seeds.isEmpty() && memberCount() == 0) {
+                    for (InetSocketAddress seed : seeds) {
+                        send(seed, TYPE_JOIN, sequence.incrementAndGet(), null, List.of());
+                    }
+                }
+                Member target = nextTarget();
+                if (target != null) {
+                    probe(target);
+                }
+                expireSuspects();
+                long remaining = probeIntervalMillis - (System.currentTimeMillis() - started);
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (running) {
+                    LOG.warn("SWIM probe round failed", e);
+                }
+            }
+        }
+    }
+
+    private Member nextTarget()
+    {
+        synchronized (lock) {
+            for (int attempts = 0; attempts <= probeOrder.size(); attempts++) {
+                if (probeIndex >= probeOrder.size()) {
+                    probeOrder.clear();
+                    for (Member member : members.values()) {
+                        if (member.status.reachable()) {
+                            probeOrder.add(member.id);
+                        }
+                    }
+                    Collections.shuffle(probeOrder, ThreadLocalRandom.current());
+                    probeIndex = 0;
+                    if (probeOrder.isEmpty()) {
+                        return null;
+                    }
+                }
+                Member member = members.get(probeOrder.get(probeIndex++));
+                if (member != null && member.status.reachable()) {
+                    return member;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void probe(Member target) throws InterruptedException
+    {
+        long knownIncarnation;
+        synchronized (lock) {
+            knownIncarnation = target.incarnation;
+        }
+        long seq = sequence.incrementAndGet();
+        CountDownLatch ack = new CountDownLatch(1);
+        pendingAcks.put(seq, ack);
+        try {
+            send(target.address(), TYPE_PING, seq, null, List.of());
+            if (ack.await(probeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            for (Member helper : randomHelpers(target.id)) {
+                send(helper.address(), TYPE_PING_REQ, seq, target.id, List.of());
+            }
+            long indirectWait = Math.max(probeTimeoutMillis, probeIntervalMillis - probeTimeoutMillis);
+            if (ack.await(indirectWait, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            suspect(target.id, knownIncarnation);
+        } finally {
+            pendingAcks.remove(seq);
+        }
+    }
+
+    private List<Member> randomHelpers(String excludedId)
+    {
+        List<Member> candidates = new ArrayList<>();
+        synchronized (lock) {
+            for (Member member : members.values()) {
+                if (member.status == MemberStatus.ALIVE && !member.id.equals(excludedId)) {
+                    candidates.add(member);
+                }
+            }
+        }
+        Collections.shuffle(candidates, ThreadLocalRandom.current());
+        return candidates.subList(0, Math.min(indirectProbes, candidates.size()));
+    }
+
+    private void suspect(String nodeId, long knownIncarnation)
+    {
+        synchronized (lock) {
+            Member member = members.get(nodeId);
+            if (member == null || member.status != MemberStatus.ALIVE || member.incarnation != knownIncarnation) {
+                return;
+            }
+            member.status = MemberStatus.SUSPECT;
+            member.suspectedAt = System.currentTimeMillis();
+            enqueue(member);
+        }
+        LOG.debugf("Member %s suspected after failed probe", nodeId);
+        listener.onSuspect(nodeId);
+    }
+
+    private void expireSuspects()
+    {
+        long now = System.currentTimeMillis();
+        List<String> dead = new ArrayList<>();
+        synchronized (lock) {
+            for (Member member : members.values()) {
+                if (member.status == MemberStatus.SUSPECT && now - member.suspectedAt >= suspicionTimeoutMillis) {
+                    member.status = MemberStatus.DEAD;
+                    enqueue(member);
+                    dead.add(member.id);
+                }
+            }
+        }
+        for (String nodeId : dead) {
+            LOG.warnf("Member %s declared dead after suspicion timeout", nodeId);
+            listener.onDead(nodeId);
+        }
+    }
+
+    private void receiveLoop()
+    {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (running) {
+                    LOG.warn("Failed to receive SWIM packet", e);
+                }
+                continue;
+            }
+            try {
+                handle(packet.getSocketAddress(), packet.getData(), packet.getLength());
+            } catch (IOException e) {
+                LOG.debugf(e, "Ignoring malformed SWIM packet from %s", packet.getSocketAddress());
+            } catch (RuntimeException e) {
+                if (running) {
+                    LOG.warn("Failed to process SWIM packet", e);
+                }
+            }
+        }
+    }
+
+    private void handle(SocketAddress from, byte[] data, int length) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, length));
+        if (in.readByte() != MAGIC || in.readByte() != VERSION) {
+            return;
+        }
+        byte type = in.readByte();
+        long seq = in.readLong();
+        Update sender = Update.read(in);
+        if (sender.id().equals(localId)) {
+            return;
+        }
+        String target = type == TYPE_PING_REQ ? in.readUTF() : null;
+        int count = in.readUnsignedByte();
+        List<Update> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            updates.add(Update.read(in));
+        }
+
+        List<Runnable> events = new ArrayList<>();
+        synchronized (lock) {
+            apply(sender, true, events);
+            for (Update update : updates) {
+                apply(update, false, events);
+            }
+        }
+        events.forEach(Runnable::run);
+
+        switch (type) {
+            case TYPE_PING -> send(from, TYPE_ACK, seq, null, List.of());
+            case TYPE_ACK -> onAck(seq);
+            case TYPE_PING_REQ -> relayProbe(from, seq, target);
+            case TYPE_JOIN -> sendSync(from);
+            default -> {
+            }
+        }
+    }
+
+    private void onAck(long seq)
+    {
+        CountDownLatch latch = pendingAcks.get(seq);
+        if (latch != null) {
+            latch.countDown();
+            return;
+        }
+        Relay relay = relays.remove(seq);
+        if (relay != null) {
+            send(relay.requester(), TYPE_ACK, relay.requesterSeq(), null, List.of());
+        }
+    }
+
+    private void relayProbe(SocketAddress requester, long requesterSeq, String targetId)
+    {
+        Member target;
+        synchronized (lock) {
+            target = members.get(targetId);
+        }
+        if (target == null || !target.status.reachable()) {
+            return;
+        }
+        long seq = sequence.incrementAndGet();
+        relays.put(seq, new Relay(requester, requesterSeq, System.currentTimeMillis()));
+        send(target.address(), TYPE_PING, seq, null, List.of());
+        // Yanıt gelmeyen aktarma kayıtları birikmesin diye eski kayıtlar temizlenir.
+        long cutoff = System.currentTimeMillis() - probeIntervalMillis * 2;
+        relays.values().removeIf(relay -> relay.createdAt() < cutoff);
+    }
+
+    /** Tam üye listesini paket boyutunu aşmayacak parçalara bölerek gönderir. */
+    private void sendSync(SocketAddress to)
+    {
+        List<Update> all = new ArrayList<>();
+        synchronized (lock) {
+            for (Member member : members.values()) {
+                all.add(member.toUpdate());
+            }
+        }
+        if (all.isEmpty()) {
+            send(to, TYPE_SYNC, 0L, null, List.of());
+            return;
+        }
+        int start = 0;
+        while (start < all.size()) {
+            int end = start;
+            int size = headerSize() + 1;
+            while (end < all.size() && end - start < MAX_PIGGYBACK
+                    && size + all.get(end).encodedSize() <= MAX_PACKET_SIZE) {
+                size += all.get(end).encodedSize();
+                end++;
+            }
+            if (end == start) {
+                end++;
+            }
+            send(to, TYPE_SYNC, 0L, null, all.subList(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * Bir üyelik güncellemesini artış numarası kurallarına göre uygular.
+     * Doğrudan gönderenden gelen kayıt adres ve epoch için yetkili kabul edilir.
+     * Tetiklenen olaylar kilit dışında çalıştırılmak üzere listeye eklenir.
+     */
+    private void apply(Update update, boolean direct, List<Runnable> events)
+    {
+        if (update.id().equals(localId)) {
+            refute(update);
+            return;
+        }
+        Member member = members.get(update.id());
+        long now = System.currentTimeMillis();
+        if (member == null) {
+            // Tanınmayan üyenin ölüm ya da ayrılma bilgisi de saklanır ki eski canlılık kayıtları onu geri getirmesin.
+            member = new Member(update);
+            members.put(member.id, member);
+            if (member.status.reachable()) {
+                member.lastNotified = now;
+                enqueue(member);
+                events.add(aliveEvent(member));
+                if (member.status == MemberStatus.SUSPECT) {
+                    member.suspectedAt = now;
+                    events.add(suspectEvent(member));
+                }
+            }
+            return;
+        }
+
+        MemberStatus previous = member.status;
+        boolean accepted = switch (update.status()) {
+            case ALIVE -> update.incarnation() > member.incarnation
+                    || (direct && update.incarnation() == member.incarnation && previous == MemberStatus.ALIVE);
+            case SUSPECT -> previous.reachable()
+                    && (update.incarnation() > member.incarnation
+                    || (update.incarnation() == member.incarnation && previous == MemberStatus.ALIVE));
+            case DEAD, LEFT -> previous.reachable() && update.incarnation() >= member.incarnation;
+        };
+        if (!accepted) {
+            return;
+        }
+
+        boolean moved = !Objects.equals(member.host, update.host()) || member.dataPort != update.dataPort()
+                || member.gossipPort != update.gossipPort();
+        boolean changed = update.incarnation() != member.incarnation || update.status() != previous || moved;
+        member.incarnation = update.incarnation();
+        member.host = update.host();
+        member.gossipPort = update.gossipPort();
+        member.dataPort = update.dataPort();
+        member.epoch = update.epoch();
+        member.status = update.status();
+        if (member.status == MemberStatus.SUSPECT && previous != MemberStatus.SUSPECT) {
+            member.suspectedAt = now;
+        }
+        if (changed) {
+            enqueue(member);
+        }
+
+        switch (member.status) {
+            case ALIVE -> {
+                // Şüpheden dönen üye, yönlendirme şüphesini kaldırmak için hemen bildirilir.
+                boolean revived = previous != MemberStatus.ALIVE;
+                if (revived || moved || now - member.lastNotified >= probeIntervalMillis) {
+                    member.lastNotified = now;
+                    events.add(aliveEvent(member));
+                }
+            }
+            case DEAD -> {
+                String id = member.id;
+                events.add(() -> listener.onDead(id));
+            }
+            case LEFT -> {
+                String id = member.id;
+                events.add(() -> listener.onLeave(id));
+            }
+            case SUSPECT -> {
+                if (previous != MemberStatus.SUSPECT) {
+                    events.add(suspectEvent(member));
+                }
+            }
+        }
+    }
+
+    private Runnable aliveEvent(Member member)
+    {
+        String id = member.id;
+        String host = member.host;
+        int port = member.dataPort;
+        long epoch = member.epoch;
+        return () -> listener.onAlive(id, host, port, epoch);
+    }
+
+    private Runnable suspectEvent(Member member)
+    {
+        String id = member.id;
+        return () -> listener.onSuspect(id);
+    }
+
+    /** Kendisi hakkında şüphe ya da ölüm bilgisi yayılırsa artış numarasını yükselterek yalanlar. */
+    private void refute(Update update)
+    {
+        if (localStatus == MemberStatus.LEFT || update.status() == MemberStatus.ALIVE) {
+            return;
+        }
+        if (update.incarnation() >= incarnation) {
+            incarnation = update.incarnation() + 1;
+            broadcasts.put(localId, new Broadcast(selfUpdate(), retransmitLimit()));
+            LOG.debugf("Refuted %s rumour about %s with incarnation %d", update.status(), localId, incarnation);
+        }
+    }
+
+    private void enqueue(Member member)
+    {
+        broadcasts.remove(member.id);
+        broadcasts.put(member.id, new Broadcast(member.toUpdate(), retransmitLimit()));
+    }
+
+    private int retransmitLimit()
+    {
+        int size = members.size() + 1;
+        return RETRANSMIT_MULTIPLIER * (int) Math.ceil(Math.log10(size + 1));
+    }
+
+    private Update selfUpdate()
+    {
+        return new Update(localStatus, incarnation, epochSupplier.getAsLong(), localId, advertisedHost, port(), dataPort);
+    }
+
+    /** Gönderilecek paket için boş alana sığan, en az taşınmış güncellemeleri seçer. */
+    private List<Update> drainPiggyback(int budget)
+    {
+        List<Update> selected = new ArrayList<>();
+        synchronized (lock) {
+            if (broadcasts.isEmpty()) {
+                return selected;
+            }
+            List<Broadcast> ordered = new ArrayList<>(broadcasts.values());
+            ordered.sort((a, b) -> Integer.compare(b.remaining, a.remaining));
+            int used = 0;
+            for (Broadcast broadcast : ordered) {
+                int size = broadcast.update.encodedSize();
+                if (used + size > budget || selected.size() >= MAX_PIGGYBACK) {
+                    continue;
+                }
+                used += size;
+                selected.add(broadcast.update);
+                broadcast.remaining--;
+            }
+            Iterator<Broadcast> iterator = broadcasts.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().remaining <= 0) {
+                    iterator.remove();
+                }
+            }
+        }
+        return selected;
+    }
+
+    private void send(SocketAddress to, byte type, long seq, String target, List<Update> payload)
+    {
+        DatagramSocket current = socket;
+        if (current == null || current.isClosed()) {
+            return;
+        }
+        try {
+            Update self;
+            synchronized (lock) {
+                self = selfUpdate();
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(MAX_PACKET_SIZE);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(type);
+            out.writeLong(seq);
+            self.write(out);
+            if (type == TYPE_PING_REQ) {
+                out.writeUTF(target);
+            }
+            List<Update> updates = payload;
+            if (updates.isEmpty()) {
+                updates = drainPiggyback(MAX_PACKET_SIZE - out.size() - 1);
+            }
+            out.writeByte(updates.size());
+            for (Update update : updates) {
+                update.write(out);
+            }
+            out.flush();
+            byte[] bytes = buffer.toByteArray();
+            current.send(new DatagramPacket(bytes, bytes.length, to));
+        } catch (IOException e) {
+            if (running) {
+                LOG.debugf(e, "Failed to send SWIM message to %s", to);
+            }
+        }
+    }
+
+    private int headerSize()
+    {
+        synchronized (lock) {
+            return 3 + Long.BYTES + selfUpdate().encodedSize();
+        }
+    }
+
+    enum MemberStatus
+    {
+        ALIVE,
+        SUSPECT,
+        DEAD,
+        LEFT;
+
+        boolean reachable()
+        {
+            return this == ALIVE || this == SUSPECT;
+        }
+    }
+
+    /**
+     * Tek bir üyenin yayılan durumu:
+     * {@code [status][incarnation:long][epoch:long][id][host][gossipPort:int][dataPort:int]}.
+     */
+    record Update(MemberStatus status, long incarnation, long epoch, String id, String host, int gossipPort,
+                  int dataPort)
+    {
+        void write(DataOutputStream out) throws IOException
+        {
+            out.writeByte(status.ordinal());
+            out.writeLong(incarnation);
+            out.writeLong(epoch);
+            out.writeUTF(id);
+            out.writeUTF(host);
+            out.writeInt(gossipPort);
+            out.writeInt(dataPort);
+        }
+
+        static Update read(DataInputStream in) throws IOException
+        {
+            int ordinal = in.readUnsignedByte();
+            MemberStatus[] values = MemberStatus.values();
+            if (ordinal >= values.length) {
+                throw new IOException("Unknown member status " + ordinal);
+            }
+            return new Update(values[ordinal], in.readLong(), in.readLong(), in.readUTF(), in.readUTF(),
+                    in.readInt(), in.readInt());
+        }
+
+        int encodedSize()
+        {
+            // writeUTF uzunluğu ASCII dışı karakterlerde artabilir; tahmin üst sınır olarak kullanılır.
+            return 1 + Long.BYTES * 2 + 2 + id.length() * 3 + 2 + host.length() * 3 + Integer.BYTES * 2;
+        }
+    }
+
+    private static final class Member
+    {
+        private final String id;
+        private String host;
+        private int gossipPort;
+        private int dataPort;
+        private long incarnation;
+        private long epoch;
+        private MemberStatus status;
+        private long suspectedAt;
+        private long lastNotified;
+
+        private Member(Update update)
+        {
+            this.id = update.id();
+            this.host = update.host();
+            this.gossipPort = update.gossipPort();
+            this.dataPort = update.dataPort();
+            this.incarnation = update.incarnation();
+            this.epoch = update.epoch();
+            this.status = update.status();
+        }
+
+        private InetSocketAddress address()
+        {
+            return new InetSocketAddress(host, gossipPort);
+        }
+
+        private Update toUpdate()
+        {
+            return new Update(status, incarnation, epoch, id, host, gossipPort, dataPort);
+        }
+    }
+
+    private static final class Broadcast
+    {
+        private final Update update;
+        private int remaining;
+
+        private Broadcast(Update update, int remaining)
+        {
+            this.update = update;
+            this.remaining = Math.max(1, remaining);
+        }
+    }
+
+    private record Relay(SocketAddress requester, long requesterSeq, long createdAt)
+    {
+    }
+}
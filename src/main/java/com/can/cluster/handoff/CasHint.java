@@ -1,14 +1,14 @@
 package com.can.cluster.handoff;
 
+import com.can.cluster.Mutation;
 import com.can.cluster.Node;
 
-import java.time.Duration;
 import java.util.Objects;
 
 /**
  * CAS işlemlerinin yeniden oynatılmasını sağlayan ipucu temsilidir.
  */
-public record CasHint(String key, String value, long expectedCas, Duration ttl) implements Hint
+public record CasHint(String key, String value, long expectedCas, long expireAtMillis) implements Hint
 {
     public CasHint
     {
@@ -18,7 +18,17 @@ public record CasHint(String key, String value, long expectedCas, Duration ttl)
     @Override
     public boolean replay(Node<String, String> node)
     {
-        return node.compareAndSwap(key, value, expectedCas, ttl);
+        long now = System.currentTimeMillis();
+        if (expired(now)) {
+            return true;
+        }
+        return node.compareAndSwap(key, value, expectedCas, Hint.remainingTtl(expireAtMillis, now));
+    }
+
+    @Override
+    public Mutation<String, String> toMutation()
+    {
+        return Mutation.cas(key, value, expectedCas, expireAtMillis);
     }
 
     @Override
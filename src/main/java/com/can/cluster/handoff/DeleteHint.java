@@ -1,5 +1,6 @@
 package com.can.cluster.handoff;
 
+import com.can.cluster.Mutation;
 import com.can.cluster.Node;
 
 import java.util.Objects;
@@ -20,6 +21,12 @@ public record DeleteHint(String key) implements Hint
         return node.delete(key);
     }
 
+    @Override
+    public Mutation<String, String> toMutation()
+    {
+        return Mutation.delete(key);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,792 @@
+package com.can.cluster.handoff;
+
+import com.can.constants.NodeProtocol;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * İpuçlarını hedef düğüm başına ayrı bir dizindeki yalnızca-ekleme segment
+ * dosyalarına yazan kalıcı depodur. Her kayıt
+ * {@code [uzunluk:4][crc32c:4][oluşturulma:8][yük]} biçimindedir; yarım kalmış
+ * son kayıt açılışta kesilerek atılır. Segmentler belirli bir boyutta
+ * döndürülür, düğüm başına bayt sınırı aşıldığında en eski segment bütünüyle
+ * düşürülür. Tüketilen konum ayrı bir imleç dosyasında saklanır, bu sayede
+ * yeniden başlatma sonrası oynatma kaldığı yerden devam eder.
+ * <p>
+ * Bellekte anahtar başına en güncel set ya da delete kaydının sıra numarası
+ * tutulur. Aynı anahtar için yazılan yeni set ya da delete ipucu bekleyen tüm
+ * ipuçlarını geçersiz kılar; oynatmada eski kayıtlar gönderilmeden atlanır.
+ * CAS ipuçları önceki duruma bağlı olduğundan birleştirilmez, yazıldıkları
+ * sırayla ayrı ayrı oynatılır.
+ */
+public final class FileHintStore implements HintStore
+{
+    private static final Logger LOG = Logger.getLogger(FileHintStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CURSOR_FILE = "cursor";
+    private static final String NODE_ID_FILE = "node.id";
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytesPerNode;
+    private final long maxHintAgeMillis;
+    private final Map<String, NodeLog> logs = new ConcurrentHashMap<>();
+    private final AtomicLong totalPending = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Counter dropped;
+    private final Counter coalesced;
+    private volatile boolean closed;
+
+    public FileHintStore(Path directory,
+                         long segmentBytes,
+                         long maxBytesPerNode,
+                         long maxHintAgeMillis,
+                         MetricsRegistry metrics)
+    {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.maxBytesPerNode = Math.max(RECORD_HEADER_BYTES, maxBytesPerNode);
+        this.segmentBytes = Math.min(this.maxBytesPerNode, Math.max(RECORD_HEADER_BYTES, segmentBytes));
+        this.maxHintAgeMillis = maxHintAgeMillis;
+        this.dropped = metrics != null ? metrics.counter("hinted_handoff_dropped_total") : null;
+        this.coalesced = metrics != null ? metrics.counter("hinted_handoff_coalesced_total") : null;
+        try {
+            Files.createDirectories(directory);
+            loadExisting();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open hint directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void append(String nodeId, Hint hint)
+    {
+        Objects.requireNonNull(nodeId, "nodeId");
+        Objects.requireNonNull(hint, "hint");
+        if (closed) {
+            drop(1);
+            return;
+        }
+        byte[] payload = HintCodec.encode(hint);
+        long now = System.currentTimeMillis();
+        try {
+            NodeLog log = logs.computeIfAbsent(nodeId, this::createLog);
+            boolean replaced;
+            synchronized (log) {
+                log.expireOldSegments(now);
+                replaced = log.append(payload, hint.key(), hint instanceof CasHint, now);
+                log.enforceCap();
+            }
+            if (replaced && coalesced != null) {
+                coalesced.inc();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // İpucu kaydı yazma yolunu bozmamalı; kayıt düşürülür.
+            drop(1);
+            LOG.warnf(e, "Failed to persist hint for node %s", nodeId);
+        }
+    }
+
+    @Override
+    public int pending(String nodeId)
+    {
+        NodeLog log = logs.get(nodeId);
+        if (log == null) {
+            return 0;
+        }
+        synchronized (log) {
+            return (int) Math.min(Integer.MAX_VALUE, log.pending);
+        }
+    }
+
+    @Override
+    public long pendingBytes(String nodeId)
+    {
+        NodeLog log = logs.get(nodeId);
+        if (log == null) {
+            return 0L;
+        }
+        synchronized (log) {
+            return log.bytes;
+        }
+    }
+
+    @Override
+    public long totalPending()
+    {
+        return totalPending.get();
+    }
+
+    @Override
+    public long totalBytes()
+    {
+        return totalBytes.get();
+    }
+
+    @Override
+    public int replay(String nodeId, int batchSize, BatchConsumer consumer)
+    {
+        NodeLog log = logs.get(nodeId);
+        if (log == null || closed) {
+            return 0;
+        }
+        int limit = Math.max(1, batchSize);
+        int applied = 0;
+        log.replayLock.lock();
+        try {
+            while (!closed) {
+                List<Item> items;
+                synchronized (log) {
+                    long now = System.currentTimeMillis();
+                    log.expireOldSegments(now);
+                    items = log.readBatch(limit, now);
+                }
+                if (items.isEmpty()) {
+                    break;
+                }
+
+                List<Hint> hints = new ArrayList<>(items.size());
+                for (Item item : items) {
+                    if (item.state == ItemState.LIVE) {
+                        hints.add(item.hint);
+                    }
+                }
+                // Gönderim sırasında kilit bırakılır; yeni ipuçları eklenmeye devam edebilir.
+                int consumed = hints.isEmpty() ? 0 : Math.min(hints.size(), Math.max(0, consumer.accept(hints)));
+                synchronized (log) {
+                    log.advance(items, consumed, consumed == hints.size());
+                }
+                applied += consumed;
+                if (consumed < hints.size()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to read hints for node %s", nodeId);
+        } finally {
+            log.replayLock.unlock();
+        }
+        return applied;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        for (NodeLog log : logs.values()) {
+            log.replayLock.lock();
+            try {
+                synchronized (log) {
+                    log.close();
+                }
+            } finally {
+                log.replayLock.unlock();
+            }
+        }
+        logs.clear();
+    }
+
+    private void loadExisting() throws IOException
+    {
+        try (DirectoryStream<Path> nodes = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path nodeDir : nodes) {
+                Path idFile = nodeDir.resolve(NODE_ID_FILE);
+                if (!Files.isRegularFile(idFile)) {
+                    continue;
+                }
+                String nodeId = Files.readString(idFile, StandardCharsets.UTF_8).trim();
+                if (nodeId.isEmpty()) {
+                    continue;
+                }
+                NodeLog log = new NodeLog(nodeId, nodeDir);
+                log.load();
+                logs.put(nodeId, log);
+                if (log.pending > 0) {
+                    LOG.infof("Recovered %d pending hints (%d bytes) for node %s", log.pending, log.bytes, nodeId);
+                }
+            }
+        }
+    }
+
+    private NodeLog createLog(String nodeId)
+    {
+        Path nodeDir = directory.resolve(directoryName(nodeId));
+        try {
+            Files.createDirectories(nodeDir);
+            Files.writeString(nodeDir.resolve(NODE_ID_FILE), nodeId, StandardCharsets.UTF_8);
+            NodeLog log = new NodeLog(nodeId, nodeDir);
+            log.load();
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String directoryName(String nodeId)
+    {
+        String safe = nodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (safe.length() > 64) {
+            safe = safe.substring(0, 64);
+        }
+        return safe + '-' + Integer.toHexString(nodeId.hashCode());
+    }
+
+    private void drop(long count)
+    {
+        if (count > 0 && dropped != null) {
+            dropped.add(count);
+        }
+    }
+
+    private boolean isStale(Hint hint, long createdAt, long now)
+    {
+        return hint.expired(now) || (maxHintAgeMillis > 0L && now - createdAt > maxHintAgeMillis);
+    }
+
+    private static int checksum(long createdAt, ByteBuffer payload)
+    {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, createdAt));
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            pos += channel.write(buffer, pos);
+        }
+    }
+
+    private enum ItemState { LIVE, STALE, SUPERSEDED }
+
+    private record Item(Hint hint, ItemState state, Segment segment, long sequence, long endOffset)
+    {
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor
+    {
+        /** Kaydı kabul ederse {@code true}; {@code false} taramayı kaydı tüketmeden durdurur. */
+        boolean visit(long createdAt, ByteBuffer payload, long endOffset) throws IOException;
+    }
+
+    private static final class Segment
+    {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private long firstSequence;
+        private long size;
+        private long records;
+        private long newestCreatedAt;
+
+        Segment(long id, Path path, long firstSequence) throws IOException
+        {
+            this.id = id;
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Geçerli kayıtları sırayla ziyaret eder ve son kabul edilen kaydın bittiği
+         * konumu döndürür. Bozuk ya da yarım kayıtta tarama durur.
+         */
+        long scan(long from, long to, RecordVisitor visitor) throws IOException
+        {
+            ChunkReader reader = new ChunkReader(channel, to);
+            long pos = from;
+            while (pos + RECORD_HEADER_BYTES <= to) {
+                ByteBuffer header = reader.read(pos, RECORD_HEADER_BYTES);
+                int length = header.getInt();
+                int crc = header.getInt();
+                long createdAt = header.getLong();
+                if (length <= 0 || length > MAX_RECORD_BYTES || pos + RECORD_HEADER_BYTES + length > to) {
+                    return pos;
+                }
+                ByteBuffer payload = reader.read(pos + RECORD_HEADER_BYTES, length);
+                if (checksum(createdAt, payload) != crc) {
+                    return pos;
+                }
+                long end = pos + RECORD_HEADER_BYTES + length;
+                if (!visitor.visit(createdAt, payload, end)) {
+                    return pos;
+                }
+                pos = end;
+            }
+            return pos;
+        }
+    }
+
+    /**
+     * Segmenti büyük parçalar halinde okuyarak kayıt başına sistem çağrısı
+     * yapılmasını önleyen yardımcıdır.
+     */
+    private static final class ChunkReader
+    {
+        private final FileChannel channel;
+        private final long limit;
+        private ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_BYTES).limit(0);
+        private long chunkStart;
+
+        ChunkReader(FileChannel channel, long limit)
+        {
+            this.channel = channel;
+            this.limit = limit;
+        }
+
+        /** {@code position} konumundaki {@code length} baytı gösteren bir dilim döndürür. */
+        ByteBuffer read(long position, int length) throws IOException
+        {
+            long offset = position - chunkStart;
+            if (offset < 0L || offset + length > chunk.limit()) {
+                if (length > chunk.capacity()) {
+                    chunk = ByteBuffer.allocate(length);
+                }
+                chunk.clear().limit((int) Math.min(chunk.capacity(), limit - position));
+                long readPos = position;
+                while (chunk.position() < length) {
+                    int read = channel.read(chunk, readPos);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of hint segment");
+                    }
+                    readPos += read;
+                }
+                chunk.flip();
+                chunkStart = position;
+                offset = 0L;
+            }
+            return chunk.slice((int) offset, length);
+        }
+    }
+
+    private final class NodeLog
+    {
+        private final String nodeId;
+        private final Path dir;
+        private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+        private final ReentrantLock replayLock = new ReentrantLock();
+        // Anahtar başına en güncel set ya da delete kaydının sıra numarası.
+        private final Map<String, Long> latest = new HashMap<>();
+        // Anahtar başına bekleyen CAS kayıtlarının sıra numaraları, yazılma sırasıyla.
+        private final Map<String, List<Long>> cas = new HashMap<>();
+        private long casPending;
+        private FileChannel cursorChannel;
+        private long cursorOffset;
+        private long cursorRecords;
+        private long nextSegmentId;
+        private long nextSequence;
+        private long diskBytes;
+        private long pending;
+        private long bytes;
+
+        NodeLog(String nodeId, Path dir)
+        {
+            this.nodeId = nodeId;
+            this.dir = dir;
+        }
+
+        void load() throws IOException
+        {
+            List<Long> ids = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    try {
+                        ids.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        LOG.warnf("Ignoring unexpected file %s in hint directory", file);
+                    }
+                }
+            }
+            ids.sort(Long::compare);
+
+            cursorChannel = FileChannel.open(dir.resolve(CURSOR_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer cursor = ByteBuffer.allocate(16);
+            long cursorSegment = -1L;
+            long savedOffset = 0L;
+            if (cursorChannel.read(cursor, 0L) == 16) {
+                cursorSegment = cursor.getLong(0);
+                savedOffset = cursor.getLong(8);
+            }
+
+            for (long id : ids) {
+                Path path = dir.resolve(segmentName(id));
+                if (id < cursorSegment) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                Segment segment = new Segment(id, path, nextSequence);
+                // İmleç yalnızca ilk segmentte olabilir; öncesindeki kayıtlar tüketilmiştir.
+                long consumedUpTo = segments.isEmpty() && id == cursorSegment ? savedOffset : 0L;
+                long fileSize = segment.channel.size();
+                long validEnd = segment.scan(0L, fileSize, (createdAt, payload, end) -> {
+                    long sequence = nextSequence++;
+                    segment.records++;
+                    segment.newestCreatedAt = Math.max(segment.newestCreatedAt, createdAt);
+                    if (end <= consumedUpTo) {
+                        cursorOffset = end;
+                        cursorRecords++;
+                    } else {
+                        index(HintCodec.decodeKey(payload), payload.get(payload.position()) == NodeProtocol.CMD_CAS, sequence);
+                    }
+                    return true;
+                });
+                if (validEnd < fileSize) {
+                    LOG.warnf("Truncating %d corrupt trailing bytes from hint segment %s", fileSize - validEnd, path);
+                    segment.channel.truncate(validEnd);
+                }
+                segment.size = validEnd;
+                segments.addLast(segment);
+                nextSegmentId = id + 1;
+            }
+            if (segments.isEmpty()) {
+                roll();
+            }
+
+            for (Segment segment : segments) {
+                diskBytes += segment.size;
+            }
+            adjustBytes(diskBytes - cursorOffset);
+            syncPending();
+            persistCursor();
+        }
+
+        /** Kaydı ekler; aynı anahtar için bekleyen bir ipucunun yerini aldıysa {@code true} döner. */
+        boolean append(byte[] payload, String key, boolean casHint, long now) throws IOException
+        {
+            int recordBytes = RECORD_HEADER_BYTES + payload.length;
+            Segment active = segments.peekLast();
+            if (active.size > 0L && active.size + recordBytes > segmentBytes) {
+                active = roll();
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordBytes);
+            record.putInt(payload.length)
+                    .putInt(checksum(now, ByteBuffer.wrap(payload)))
+                    .putLong(now)
+                    .put(payload)
+                    .flip();
+            writeFully(active.channel, record, active.size);
+            active.size += recordBytes;
+            active.records++;
+            active.newestCreatedAt = now;
+            diskBytes += recordBytes;
+            adjustBytes(recordBytes);
+            boolean replaced = index(key, casHint, nextSequence++);
+            syncPending();
+            return replaced;
+        }
+
+        /**
+         * Kaydı bekleyenler indeksine ekler. Set ve delete, anahtarın bekleyen
+         * tüm kayıtlarını geçersiz kılar; CAS kayıtları ise sıraya eklenir.
+         */
+        private boolean index(String key, boolean casHint, long sequence)
+        {
+            if (casHint) {
+                cas.computeIfAbsent(key, ignored -> new ArrayList<>()).add(sequence);
+                casPending++;
+                return false;
+            }
+            boolean replaced = latest.put(key, sequence) != null;
+            List<Long> superseded = cas.remove(key);
+            if (superseded != null) {
+                casPending -= superseded.size();
+                replaced = true;
+            }
+            return replaced;
+        }
+
+        private boolean isPending(Hint hint, long sequence)
+        {
+            if (hint instanceof CasHint) {
+                List<Long> sequences = cas.get(hint.key());
+                return sequences != null && sequences.contains(sequence);
+            }
+            Long current = latest.get(hint.key());
+            return current != null && current == sequence;
+        }
+
+        /** Kaydı bekleyenler indeksinden çıkarır; kayıt hâlâ bekliyorsa {@code true} döner. */
+        private boolean unindex(Hint hint, long sequence)
+        {
+            if (!(hint instanceof CasHint)) {
+                return latest.remove(hint.key(), sequence);
+            }
+            List<Long> sequences = cas.get(hint.key());
+            if (sequences == null || !sequences.remove(sequence)) {
+                return false;
+            }
+            if (sequences.isEmpty()) {
+                cas.remove(hint.key());
+            }
+            casPending--;
+            return true;
+        }
+
+        private long pendingCount()
+        {
+            return latest.size() + casPending;
+        }
+
+        /** Düğüm başına bayt sınırı aşıldığında en eski segmentleri bütünüyle düşürür. */
+        void enforceCap() throws IOException
+        {
+            while (diskBytes > maxBytesPerNode && segments.size() > 1) {
+                long lost = dropFirst();
+                LOG.warnf("Hint log for node %s exceeded %d bytes; dropped %d oldest hints", nodeId, maxBytesPerNode, lost);
+            }
+        }
+
+        /** Tüm kayıtları yaş sınırını aşmış segmentleri baştan itibaren düşürür. */
+        void expireOldSegments(long now) throws IOException
+        {
+            if (maxHintAgeMillis <= 0L) {
+                return;
+            }
+            while (true) {
+                Segment first = segments.peekFirst();
+                if (first == null || first.size == 0L || now - first.newestCreatedAt <= maxHintAgeMillis) {
+                    return;
+                }
+                if (segments.size() > 1) {
+                    dropFirst();
+                } else {
+                    drop(resetActive());
+                    return;
+                }
+            }
+        }
+
+        /**
+         * İmleçten itibaren kayıtları okur. Aynı anahtar için daha yeni bir kayıt
+         * varsa eski kayıt atlanacak olarak işaretlenir; partideki canlı ipucu
+         * sayısı {@code limit} ile sınırlıdır.
+         */
+        List<Item> readBatch(int limit, long now) throws IOException
+        {
+            List<Item> items = new ArrayList<>(limit);
+            int maxItems = limit * 4;
+            int[] live = new int[1];
+            boolean firstSegment = true;
+            for (Segment segment : segments) {
+                long from = firstSegment ? cursorOffset : 0L;
+                long[] index = {firstSegment ? cursorRecords : 0L};
+                firstSegment = false;
+                segment.scan(from, segment.size, (createdAt, payload, end) -> {
+                    if (live[0] >= limit || items.size() >= maxItems) {
+                        return false;
+                    }
+                    long sequence = segment.firstSequence + index[0]++;
+                    Hint hint = HintCodec.decode(payload);
+                    ItemState state;
+                    if (!isPending(hint, sequence)) {
+                        state = ItemState.SUPERSEDED;
+                    } else if (isStale(hint, createdAt, now)) {
+                        state = ItemState.STALE;
+                    } else {
+                        state = ItemState.LIVE;
+                        live[0]++;
+                    }
+                    items.add(new Item(hint, state, segment, sequence, end));
+                    return true;
+                });
+                if (live[0] >= limit || items.size() >= maxItems) {
+                    break;
+                }
+            }
+            return items;
+        }
+
+        /**
+         * Tüketilen kayıtların ardından imleci ilerletir. Başarısız ipucundan önceki
+         * atlanacak kayıtlar da tüketilmiş sayılır; tüm parti uygulandıysa sondakiler
+         * de geçilir. Oynatma sürerken aynı anahtara yazılmış yeni ipucu korunur.
+         */
+        void advance(List<Item> items, int consumed, boolean batchCompleted) throws IOException
+        {
+            int live = 0;
+            long stale = 0L;
+            for (Item item : items) {
+                if (item.state == ItemState.LIVE) {
+                    if (live == consumed) {
+                        break;
+                    }
+                    live++;
+                } else if (!batchCompleted && live == consumed) {
+                    break;
+                }
+                if (item.state != ItemState.SUPERSEDED
+                        && unindex(item.hint, item.sequence)
+                        && item.state == ItemState.STALE) {
+                    stale++;
+                }
+                consumeThrough(item);
+            }
+            syncPending();
+            drop(stale);
+            persistCursor();
+        }
+
+        private void consumeThrough(Item item) throws IOException
+        {
+            Segment first = segments.peekFirst();
+            if (first == null || item.segment != first || item.endOffset <= cursorOffset) {
+                // Segment oynatma sürerken bayt ya da yaş sınırı nedeniyle düşürülmüş.
+                return;
+            }
+            adjustBytes(-(item.endOffset - cursorOffset));
+            cursorOffset = item.endOffset;
+            cursorRecords++;
+            if (cursorOffset >= first.size) {
+                if (segments.size() > 1) {
+                    segments.pollFirst();
+                    diskBytes -= first.size;
+                    deleteSegment(first);
+                    cursorOffset = 0L;
+                    cursorRecords = 0L;
+                } else {
+                    resetActive();
+                }
+            }
+        }
+
+        private Segment roll() throws IOException
+        {
+            Segment segment = new Segment(nextSegmentId, dir.resolve(segmentName(nextSegmentId)), nextSequence);
+            nextSegmentId++;
+            segments.addLast(segment);
+            return segment;
+        }
+
+        /** En eski segmenti siler ve kaybolan bekleyen ipucu sayısını döndürür. */
+        private long dropFirst() throws IOException
+        {
+            Segment first = segments.pollFirst();
+            long end = first.firstSequence + first.records;
+            long before = pendingCount();
+            latest.values().removeIf(sequence -> sequence < end);
+            cas.values().removeIf(sequences -> {
+                int size = sequences.size();
+                sequences.removeIf(sequence -> sequence < end);
+                casPending -= size - sequences.size();
+                return sequences.isEmpty();
+            });
+            long lost = before - pendingCount();
+            adjustBytes(-(first.size - cursorOffset));
+            diskBytes -= first.size;
+            deleteSegment(first);
+            cursorOffset = 0L;
+            cursorRecords = 0L;
+            syncPending();
+            drop(lost);
+            persistCursor();
+            return lost;
+        }
+
+        /** Tek kalan segmenti boşaltır ve kaybolan bekleyen ipucu sayısını döndürür. */
+        private long resetActive() throws IOException
+        {
+            Segment active = segments.peekFirst();
+            long lost = pendingCount();
+            latest.clear();
+            cas.clear();
+            casPending = 0L;
+            adjustBytes(-(active.size - cursorOffset));
+            diskBytes -= active.size;
+            active.channel.truncate(0L);
+            active.size = 0L;
+            active.records = 0L;
+            active.newestCreatedAt = 0L;
+            active.firstSequence = nextSequence;
+            cursorOffset = 0L;
+            cursorRecords = 0L;
+            syncPending();
+            persistCursor();
+            return lost;
+        }
+
+        private void deleteSegment(Segment segment) throws IOException
+        {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+
+        private void persistCursor() throws IOException
+        {
+            Segment first = segments.peekFirst();
+            ByteBuffer cursor = ByteBuffer.allocate(16)
+                    .putLong(first == null ? 0L : first.id)
+                    .putLong(cursorOffset)
+                    .flip();
+            writeFully(cursorChannel, cursor, 0L);
+        }
+
+        private void adjustBytes(long delta)
+        {
+            bytes += delta;
+            totalBytes.addAndGet(delta);
+        }
+
+        private void syncPending()
+        {
+            long delta = pendingCount() - pending;
+            pending = pendingCount();
+            totalPending.addAndGet(delta);
+        }
+
+        void close()
+        {
+            try {
+                for (Segment segment : segments) {
+                    segment.channel.force(false);
+                    segment.channel.close();
+                }
+                if (cursorChannel != null) {
+                    cursorChannel.force(false);
+                    cursorChannel.close();
+                }
+            } catch (IOException e) {
+                LOG.warnf(e, "Failed to close hint log for node %s", nodeId);
+            }
+            latest.clear();
+            cas.clear();
+            casPending = 0L;
+            syncPending();
+            adjustBytes(-bytes);
+            segments.clear();
+        }
+    }
+
+    private static String segmentName(long id)
+    {
+        return String.format("%020d%s", id, SEGMENT_SUFFIX);
+    }
+}
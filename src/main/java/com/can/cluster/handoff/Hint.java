@@ -1,11 +1,56 @@
 package com.can.cluster.handoff;
 
+import com.can.cluster.Mutation;
 import com.can.cluster.Node;
 
+import java.time.Duration;
+
 /**
- * Hinted handoff sırasında yeniden oynatılacak işlemleri temsil eder.
+ * Hinted handoff sırasında yeniden oynatılacak işlemleri temsil eder. Son
+ * kullanma zamanı mutlak milisaniye olarak tutulur; böylece geç oynatılan bir
+ * ipucu değerin ömrünü uzatmaz, süresi dolmuş ipuçları ise hiç gönderilmez.
  */
 public interface Hint
 {
+    String key();
+
     boolean replay(Node<String, String> node);
+
+    /** İpucunu toplu gönderim için düğümden bağımsız bir işleme dönüştürür. */
+    Mutation<String, String> toMutation();
+
+    /** Hız sınırlaması ve bütçe hesapları için kodlanmış boyutun tahmini. */
+    default int estimatedBytes()
+    {
+        return HintCodec.estimatedSize(this);
+    }
+
+    /** Mutlak son kullanma zamanı; 0 veya negatif değer TTL olmadığını belirtir. */
+    default long expireAtMillis()
+    {
+        return 0L;
+    }
+
+    default boolean expired(long now)
+    {
+        long expireAt = expireAtMillis();
+        return expireAt > 0L && expireAt <= now;
+    }
+
+    static long expireAtFor(Duration ttl, long now)
+    {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return 0L;
+        }
+        long expireAt = now + ttl.toMillis();
+        return expireAt <= 0L ? Long.MAX_VALUE : expireAt;
+    }
+
+    static Duration remainingTtl(long expireAtMillis, long now)
+    {
+        if (expireAtMillis <= 0L || expireAtMillis == Long.MAX_VALUE) {
+            return null;
+        }
+        return Duration.ofMillis(Math.max(1L, expireAtMillis - now));
+    }
 }
@@ -0,0 +1,116 @@
+package com.can.cluster.handoff;
+
+import com.can.constants.NodeProtocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * İpuçlarını diske yazılabilecek kompakt ikili biçime dönüştürür. İşlem türü
+ * olarak replikasyon protokolündeki komut baytları kullanılır:
+ * <pre>
+ *   S: [tip][expireAt:8][keyLen:4][key][valueLen:4][value]
+ *   X: [tip][expireAt:8][expectedCas:8][keyLen:4][key][valueLen:4][value]
+ *   D: [tip][keyLen:4][key]
+ * </pre>
+ */
+final class HintCodec
+{
+    private HintCodec()
+    {
+    }
+
+    static byte[] encode(Hint hint)
+    {
+        byte[] key = hint.key().getBytes(StandardCharsets.UTF_8);
+        if (hint instanceof SetHint set) {
+            byte[] value = bytes(set.value());
+            return ByteBuffer.allocate(1 + 8 + 4 + key.length + 4 + value.length)
+                    .put(NodeProtocol.CMD_SET)
+                    .putLong(set.expireAtMillis())
+                    .putInt(key.length).put(key)
+                    .putInt(value.length).put(value)
+                    .array();
+        }
+        if (hint instanceof CasHint cas) {
+            byte[] value = bytes(cas.value());
+            return ByteBuffer.allocate(1 + 8 + 8 + 4 + key.length + 4 + value.length)
+                    .put(NodeProtocol.CMD_CAS)
+                    .putLong(cas.expireAtMillis())
+                    .putLong(cas.expectedCas())
+                    .putInt(key.length).put(key)
+                    .putInt(value.length).put(value)
+                    .array();
+        }
+        if (hint instanceof DeleteHint) {
+            return ByteBuffer.allocate(1 + 4 + key.length)
+                    .put(NodeProtocol.CMD_DELETE)
+                    .putInt(key.length).put(key)
+                    .array();
+        }
+        throw new IllegalArgumentException("Unsupported hint type: " + hint.getClass().getName());
+    }
+
+    static Hint decode(ByteBuffer buffer) throws IOException
+    {
+        byte type = buffer.get();
+        return switch (type) {
+            case NodeProtocol.CMD_SET -> {
+                long expireAt = buffer.getLong();
+                String key = readString(buffer);
+                yield new SetHint(key, readString(buffer), expireAt);
+            }
+            case NodeProtocol.CMD_CAS -> {
+                long expireAt = buffer.getLong();
+                long expectedCas = buffer.getLong();
+                String key = readString(buffer);
+                yield new CasHint(key, readString(buffer), expectedCas, expireAt);
+            }
+            case NodeProtocol.CMD_DELETE -> new DeleteHint(readString(buffer));
+            default -> throw new IOException("Unknown hint type: " + (type & 0xff));
+        };
+    }
+
+    /** Yalnızca anahtarı çözer; değer baytları kopyalanmaz. */
+    static String decodeKey(ByteBuffer buffer) throws IOException
+    {
+        ByteBuffer view = buffer.duplicate();
+        byte type = view.get();
+        switch (type) {
+            case NodeProtocol.CMD_SET -> view.position(view.position() + 8);
+            case NodeProtocol.CMD_CAS -> view.position(view.position() + 16);
+            case NodeProtocol.CMD_DELETE -> { }
+            default -> throw new IOException("Unknown hint type: " + (type & 0xff));
+        }
+        return readString(view);
+    }
+
+    /** Kodlanmış boyutu kopya üretmeden tahmin eder; bellek içi bütçe hesapları için kullanılır. */
+    static int estimatedSize(Hint hint)
+    {
+        int size = 1 + 4 + hint.key().length();
+        if (hint instanceof SetHint set) {
+            size += 8 + 4 + (set.value() == null ? 0 : set.value().length());
+        } else if (hint instanceof CasHint cas) {
+            size += 16 + 4 + (cas.value() == null ? 0 : cas.value().length());
+        }
+        return size;
+    }
+
+    private static byte[] bytes(String value)
+    {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException
+    {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt hint record");
+        }
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
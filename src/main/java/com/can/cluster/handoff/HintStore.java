@@ -0,0 +1,40 @@
+package com.can.cluster.handoff;
+
+import java.util.List;
+
+/**
+ * Hedef düğüm başına tutulan ipucu kuyruğunun depolama sözleşmesidir. Kayıtlar
+ * eklenme sırasıyla saklanır, yeniden oynatma ise partiler halinde yapılır:
+ * tüketici bir partinin baştan kaç kaydını başarıyla uyguladığını döndürür ve
+ * depo yalnızca o kadar ilerler. Süresi dolmuş ya da yaşı sınırı aşmış ipuçları
+ * tüketiciye verilmeden düşürülür.
+ */
+public interface HintStore extends AutoCloseable
+{
+    void append(String nodeId, Hint hint);
+
+    int pending(String nodeId);
+
+    long pendingBytes(String nodeId);
+
+    long totalPending();
+
+    long totalBytes();
+
+    /**
+     * İpuçlarını en fazla {@code batchSize} büyüklüğünde partiler halinde tüketiciye verir.
+     *
+     * @return başarıyla uygulanan ipucu sayısı
+     */
+    int replay(String nodeId, int batchSize, BatchConsumer consumer);
+
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface BatchConsumer
+    {
+        /** Partinin başından itibaren uygulanan kayıt sayısını döndürür; eksik dönüş oynatmayı durdurur. */
+        int accept(List<Hint> batch);
+    }
+}
@@ -0,0 +1,271 @@
+package com.can.cluster.handoff;
+
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * İpuçlarını yığında tutan sınırlı depodur. Düğüm başına ipuçları anahtarla
+ * indekslenir; aynı anahtar için gelen yeni set ya da delete ipucu bekleyen
+ * tüm ipuçlarının yerini alır ve kuyruğun sonuna taşınır, böylece oynatma
+ * hacmi yazma hızına değil farklı anahtar sayısına bağlı kalır. CAS ipuçları
+ * önceki duruma bağlı olduğundan birleştirilmez; geldikleri sırayla kuyruğa
+ * eklenir ve öncelerindeki ipuçlarını silmez. Tahmini bayt üst sınırı aşıldığında en eski
+ * ipucu düşürülür. Yeniden başlatmada ipuçları kaybolur, kalıcılık gereken
+ * kurulumlarda {@link FileHintStore} tercih edilmelidir.
+ */
+public final class MemoryHintStore implements HintStore
+{
+    private final long maxBytesPerNode;
+    private final long maxHintAgeMillis;
+    private final Map<String, NodeQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong totalPending = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Counter dropped;
+    private final Counter coalesced;
+
+    public MemoryHintStore(long maxBytesPerNode, long maxHintAgeMillis, MetricsRegistry metrics)
+    {
+        this.maxBytesPerNode = Math.max(1L, maxBytesPerNode);
+        this.maxHintAgeMillis = maxHintAgeMillis;
+        this.dropped = metrics != null ? metrics.counter("hinted_handoff_dropped_total") : null;
+        this.coalesced = metrics != null ? metrics.counter("hinted_handoff_coalesced_total") : null;
+    }
+
+    @Override
+    public void append(String nodeId, Hint hint)
+    {
+        Objects.requireNonNull(nodeId, "nodeId");
+        Objects.requireNonNull(hint, "hint");
+        int overflow = 0;
+        boolean replaced = false;
+        while (true) {
+            NodeQueue queue = queues.computeIfAbsent(nodeId, ignored -> new NodeQueue());
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                Entry entry;
+                if (hint instanceof CasHint) {
+                    entry = new Entry(new CasSlot(hint.key(), queue.nextCasId++), hint,
+                            System.currentTimeMillis(), HintCodec.estimatedSize(hint));
+                    queue.casEntries.computeIfAbsent(hint.key(), ignored -> new ArrayList<>()).add(entry);
+                } else {
+                    entry = new Entry(hint.key(), hint, System.currentTimeMillis(), HintCodec.estimatedSize(hint));
+                    replaced = queue.supersede(hint.key());
+                }
+                queue.entries.put(entry.slot, entry);
+                queue.bytes += entry.size;
+                totalPending.incrementAndGet();
+                totalBytes.addAndGet(entry.size);
+                while (queue.bytes > maxBytesPerNode && queue.entries.size() > 1) {
+                    queue.removeFirst();
+                    overflow++;
+                }
+                break;
+            }
+        }
+        drop(overflow);
+        if (replaced && coalesced != null) {
+            coalesced.inc();
+        }
+    }
+
+    @Override
+    public int pending(String nodeId)
+    {
+        NodeQueue queue = queues.get(nodeId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.entries.size();
+        }
+    }
+
+    @Override
+    public long pendingBytes(String nodeId)
+    {
+        NodeQueue queue = queues.get(nodeId);
+        if (queue == null) {
+            return 0L;
+        }
+        synchronized (queue) {
+            return queue.bytes;
+        }
+    }
+
+    @Override
+    public long totalPending()
+    {
+        return totalPending.get();
+    }
+
+    @Override
+    public long totalBytes()
+    {
+        return totalBytes.get();
+    }
+
+    @Override
+    public int replay(String nodeId, int batchSize, BatchConsumer consumer)
+    {
+        NodeQueue queue = queues.get(nodeId);
+        if (queue == null) {
+            return 0;
+        }
+        int limit = Math.max(1, batchSize);
+        int applied = 0;
+        while (true) {
+            List<Entry> batch = new ArrayList<>(limit);
+            int expired = 0;
+            synchronized (queue) {
+                long now = System.currentTimeMillis();
+                Iterator<Entry> iterator = queue.entries.values().iterator();
+                while (iterator.hasNext() && batch.size() < limit) {
+                    Entry entry = iterator.next();
+                    if (isStale(entry, now)) {
+                        iterator.remove();
+                        queue.unlink(entry);
+                        expired++;
+                    } else {
+                        batch.add(entry);
+                    }
+                }
+            }
+            drop(expired);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            int consumed = Math.min(batch.size(), Math.max(0, consumer.accept(hints(batch))));
+            synchronized (queue) {
+                // Oynatma sırasında aynı anahtara yazılan daha yeni ipucu korunur.
+                for (int i = 0; i < consumed; i++) {
+                    Entry entry = batch.get(i);
+                    if (queue.entries.remove(entry.slot, entry)) {
+                        queue.unlink(entry);
+                    }
+                }
+            }
+            applied += consumed;
+            if (consumed < batch.size()) {
+                break;
+            }
+        }
+        queues.computeIfPresent(nodeId, (ignored, current) -> {
+            synchronized (current) {
+                current.retired = current.entries.isEmpty();
+                return current.retired ? null : current;
+            }
+        });
+        return applied;
+    }
+
+    @Override
+    public void close()
+    {
+        queues.clear();
+        totalPending.set(0L);
+        totalBytes.set(0L);
+    }
+
+    private boolean isStale(Entry entry, long now)
+    {
+        return entry.hint.expired(now) || (maxHintAgeMillis > 0L && now - entry.createdAt > maxHintAgeMillis);
+    }
+
+    private void drop(int count)
+    {
+        if (count > 0 && dropped != null) {
+            dropped.add(count);
+        }
+    }
+
+    private static List<Hint> hints(List<Entry> entries)
+    {
+        List<Hint> hints = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            hints.add(entry.hint);
+        }
+        return hints;
+    }
+
+    /** Kuyruktaki yeri: set ve delete için anahtarın kendisi, CAS için ipucuna özgü bir kimlik. */
+    private record Entry(Object slot, Hint hint, long createdAt, int size)
+    {
+    }
+
+    private record CasSlot(String key, long id)
+    {
+    }
+
+    private final class NodeQueue
+    {
+        private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>();
+        // Anahtar başına bekleyen CAS ipuçları; sonraki set ya da delete bunları geçersiz kılar.
+        private final Map<String, List<Entry>> casEntries = new HashMap<>();
+        private long nextCasId;
+        private long bytes;
+        private boolean retired;
+
+        /** Anahtar için bekleyen tüm ipuçlarını kaldırır; en az biri varsa {@code true} döner. */
+        boolean supersede(String key)
+        {
+            boolean removed = false;
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                forget(entry);
+                removed = true;
+            }
+            List<Entry> cas = casEntries.remove(key);
+            if (cas != null) {
+                for (Entry pending : cas) {
+                    entries.remove(pending.slot);
+                    forget(pending);
+                }
+                removed = true;
+            }
+            return removed;
+        }
+
+        void removeFirst()
+        {
+            Iterator<Entry> iterator = entries.values().iterator();
+            if (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                iterator.remove();
+                unlink(entry);
+            }
+        }
+
+        /** Haritadan çıkarılmış kaydı CAS indeksinden de düşürür ve sayaçlarını geri alır. */
+        void unlink(Entry entry)
+        {
+            if (entry.slot instanceof CasSlot slot) {
+                List<Entry> cas = casEntries.get(slot.key());
+                if (cas != null && cas.remove(entry) && cas.isEmpty()) {
+                    casEntries.remove(slot.key());
+                }
+            }
+            forget(entry);
+        }
+
+        /** Haritadan çıkarılmış kaydın sayaçlarını geri alır. */
+        void forget(Entry entry)
+        {
+            bytes -= entry.size;
+            totalPending.decrementAndGet();
+            totalBytes.addAndGet(-entry.size);
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package com.can.cluster.handoff;
 
+import com.can.cluster.Mutation;
 import com.can.cluster.Node;
 
-import java.time.Duration;
 import java.util.Objects;
 
 /**
  * Uzak düğüme tekrar gönderilmesi gereken set operasyonunu temsil eder.
  */
-public record SetHint(String key, String value, Duration ttl) implements Hint
+public record SetHint(String key, String value, long expireAtMillis) implements Hint
 {
     public SetHint
     {
@@ -18,7 +18,17 @@ public record SetHint(String key, String value, Duration ttl) implements Hint
     @Override
     public boolean replay(Node<String, String> node)
     {
-        return node.set(key, value, ttl);
+        long now = System.currentTimeMillis();
+        if (expired(now)) {
+            return true;
+        }
+        return node.set(key, value, Hint.remainingTtl(expireAtMillis, now));
+    }
+
+    @Override
+    public Mutation<String, String> toMutation()
+    {
+        return Mutation.set(key, value, expireAtMillis);
     }
 
     @Override
@@ -0,0 +1,158 @@
+package com.can.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bayt bloklarını sıkıştıran ve açan kodlayıcıları listeler. Her kodlayıcının
+ * tel üzerinde taşınan sabit bir kimliği vardır; açma işlemi için özgün blok
+ * uzunluğunun bilinmesi gerekir ve çağıran bu uzunluğu blokla birlikte taşır.
+ * {@link #LZ4} saf Java ile yazılmış LZ4 blok biçimidir ve düşük CPU maliyetiyle
+ * orta düzey sıkıştırma sağlar; {@link #DEFLATE} daha yüksek oran için JDK'nın
+ * zlib uygulamasını en hızlı seviyede kullanır.
+ */
+public enum BlockCodec
+{
+    NONE(0) {
+        @Override
+        public byte[] compress(byte[] src, int offset, int length)
+        {
+            byte[] copy = new byte[length];
+            System.arraycopy(src, offset, copy, 0, length);
+            return copy;
+        }
+
+        @Override
+        public byte[] decompress(byte[] src, int offset, int length, int rawLength) throws IOException
+        {
+            if (length != rawLength) {
+                throw new IOException("Uncompressed block length mismatch: " + length + " != " + rawLength);
+            }
+            return compress(src, offset, length);
+        }
+    },
+    DEFLATE(1) {
+        @Override
+        public byte[] compress(byte[] src, int offset, int length)
+        {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(src, offset, length);
+                deflater.finish();
+                byte[] out = new byte[length + (length >>> 9) + 64];
+                int written = 0;
+                while (!deflater.finished()) {
+                    if (written == out.length) {
+                        out = Arrays.copyOf(out, out.length * 2);
+                    }
+                    written += deflater.deflate(out, written, out.length - written);
+                }
+                return Arrays.copyOf(out, written);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(byte[] src, int offset, int length, int rawLength) throws IOException
+        {
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(src, offset, length);
+                byte[] out = new byte[rawLength];
+                int read = 0;
+                while (read < rawLength) {
+                    int n = inflater.inflate(out, read, rawLength - read);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != rawLength) {
+                    throw new IOException("Deflate block truncated: " + read + " of " + rawLength + " bytes");
+                }
+                return out;
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt deflate block", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    },
+    LZ4(2) {
+        @Override
+        public byte[] compress(byte[] src, int offset, int length)
+        {
+            return Lz4Block.compress(src, offset, length);
+        }
+
+        @Override
+        public byte[] decompress(byte[] src, int offset, int length, int rawLength) throws IOException
+        {
+            return Lz4Block.decompress(src, offset, length, rawLength);
+        }
+    };
+
+    private final int id;
+
+    BlockCodec(int id)
+    {
+        this.id = id;
+    }
+
+    public int id()
+    {
+        return id;
+    }
+
+    /** Bu kodlayıcının destek maskesindeki biti. */
+    public int mask()
+    {
+        return 1 << id;
+    }
+
+    public abstract byte[] compress(byte[] src, int offset, int length);
+
+    public abstract byte[] decompress(byte[] src, int offset, int length, int rawLength) throws IOException;
+
+    public byte[] compress(byte[] src)
+    {
+        return compress(src, 0, src.length);
+    }
+
+    /** Bu sürümün çözebildiği tüm kodlayıcıların maskesi. */
+    public static int supportedMask()
+    {
+        int mask = 0;
+        for (BlockCodec codec : values()) {
+            mask |= codec.mask();
+        }
+        return mask;
+    }
+
+    /** Tel kimliğini kodlayıcıya çevirir; bilinmeyen kimlikler için {@code null} döner. */
+    public static BlockCodec fromId(int id)
+    {
+        for (BlockCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    public static BlockCodec fromConfig(String value)
+    {
+        if (value == null || value.isBlank()) return NONE;
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return BlockCodec.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown block codec: " + value, ex);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.can.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4 blok biçiminin saf Java uygulaması. Sıkıştırıcı dört baytlık öneklerin
+ * özetini tutan tek bir tablo ile en son konumu arar ve bulduğu eşleşmeyi ileri
+ * doğru uzatır; oran yerine hızı öncelikler. Çıktı standart LZ4 blok
+ * biçimindedir: her dizi bir belirteç baytı, değişmez baytlar, iki baytlık
+ * geri uzaklık ve eşleşme uzunluğu uzantısından oluşur; son dizi yalnızca
+ * değişmez bayt içerir.
+ */
+final class Lz4Block
+{
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65_535;
+    private static final int HASH_LOG = 14;
+    private static final int SKIP_TRIGGER = 6;
+
+    private Lz4Block()
+    {
+    }
+
+    static int maxCompressedLength(int length)
+    {
+        return length + length / 255 + 16;
+    }
+
+    static byte[] compress(byte[] src, int offset, int length)
+    {
+        byte[] dst = new byte[maxCompressedLength(length)];
+        int end = offset + length;
+        int anchor = offset;
+        int op = 0;
+
+        if (length >= MF_LIMIT + 1) {
+            int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            int matchLimit = end - LAST_LITERALS;
+            int inputLimit = end - MF_LIMIT;
+            int ip = offset;
+            int misses = 0;
+            while (ip < inputLimit) {
+                int sequence = readInt(src, ip);
+                int slot = hash(sequence);
+                int ref = table[slot];
+                table[slot] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    // Sıkıştırılamayan bölgelerde adım boyu giderek büyür.
+                    ip += 1 + (misses++ >>> SKIP_TRIGGER);
+                    continue;
+                }
+                misses = 0;
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(dst, op, src, anchor, ip - anchor, ip - ref, matchLength - MIN_MATCH);
+                ip += matchLength;
+                anchor = ip;
+                if (ip - 2 >= offset && ip - 2 < inputLimit) {
+                    table[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+
+        op = writeLiterals(dst, op, src, anchor, end - anchor);
+        return Arrays.copyOf(dst, op);
+    }
+
+    static byte[] decompress(byte[] src, int offset, int length, int rawLength) throws IOException
+    {
+        if (rawLength < 0) {
+            throw new IOException("Negative LZ4 block length");
+        }
+        byte[] dst = new byte[rawLength];
+        int ip = offset;
+        int end = offset + length;
+        int op = 0;
+        while (true) {
+            if (ip >= end) {
+                throw new IOException("Truncated LZ4 block");
+            }
+            int token = src[ip++] & 0xff;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new IOException("Truncated LZ4 literal length");
+                    }
+                    b = src[ip++] & 0xff;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            if (literalLength > end - ip || literalLength > rawLength - op) {
+                throw new IOException("LZ4 literal run exceeds block bounds");
+            }
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            if (ip == end) {
+                break;
+            }
+
+            if (end - ip < 2) {
+                throw new IOException("Truncated LZ4 match offset");
+            }
+            int distance = (src[ip] & 0xff) | ((src[ip + 1] & 0xff) << 8);
+            ip += 2;
+            if (distance == 0 || distance > op) {
+                throw new IOException("Invalid LZ4 match offset " + distance);
+            }
+            int matchLength = token & 0x0f;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new IOException("Truncated LZ4 match length");
+                    }
+                    b = src[ip++] & 0xff;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > rawLength - op) {
+                throw new IOException("LZ4 match exceeds block bounds");
+            }
+            int ref = op - distance;
+            if (distance >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+            } else {
+                // Örtüşen kopya: tekrar eden desenler bayt bayt genişletilir.
+                for (int i = 0; i < matchLength; i++) {
+                    dst[op + i] = dst[ref + i];
+                }
+            }
+            op += matchLength;
+        }
+        if (op != rawLength) {
+            throw new IOException("LZ4 block decoded to " + op + " bytes, expected " + rawLength);
+        }
+        return dst;
+    }
+
+    private static int writeSequence(byte[] dst, int op, byte[] src, int literalStart, int literalLength,
+                                     int distance, int matchExtra)
+    {
+        int tokenIndex = op++;
+        int token = (Math.min(literalLength, 15) << 4) | Math.min(matchExtra, 15);
+        dst[tokenIndex] = (byte) token;
+        op = writeLength(dst, op, literalLength);
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        op += literalLength;
+        dst[op++] = (byte) distance;
+        dst[op++] = (byte) (distance >>> 8);
+        return writeLength(dst, op, matchExtra);
+    }
+
+    private static int writeLiterals(byte[] dst, int op, byte[] src, int literalStart, int literalLength)
+    {
+        dst[op++] = (byte) (Math.min(literalLength, 15) << 4);
+        op = writeLength(dst, op, literalLength);
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(byte[] dst, int op, int length)
+    {
+        if (length < 15) {
+            return op;
+        }
+        int remaining = length - 15;
+        while (remaining >= 255) {
+            dst[op++] = (byte) 255;
+            remaining -= 255;
+        }
+        dst[op++] = (byte) remaining;
+        return op;
+    }
+
+    private static int readInt(byte[] src, int index)
+    {
+        return (src[index] & 0xff)
+                | ((src[index + 1] & 0xff) << 8)
+                | ((src[index + 2] & 0xff) << 16)
+                | ((src[index + 3] & 0xff) << 24);
+    }
+
+    private static int hash(int sequence)
+    {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
@@ -1,17 +1,34 @@
 package com.can.config;
 
+import com.can.cluster.AsyncReplicator;
 import com.can.cluster.ClusterClient;
+import com.can.cluster.ConsistencyPolicy;
 import com.can.cluster.ClusterState;
 import com.can.cluster.ConsistentHashRing;
 import com.can.cluster.HashFn;
+import com.can.cluster.HedgedReadPolicy;
 import com.can.cluster.HintedHandoffService;
+import com.can.cluster.handoff.FileHintStore;
+import com.can.cluster.handoff.HintStore;
+import com.can.cluster.handoff.MemoryHintStore;
 import com.can.cluster.Node;
+import com.can.cluster.NodeHealthTracker;
+import com.can.cluster.PhiAccrualFailureDetector;
+import com.can.cluster.RateLimiter;
+import com.can.cluster.ReplicationMode;
+import com.can.cluster.ValueVersioning;
 import com.can.cluster.coordination.CoordinationService;
+import com.can.cluster.coordination.RemoteNode;
+import com.can.codec.BlockCodec;
 import com.can.codec.StringCodec;
 import com.can.core.CacheEngine;
 import com.can.core.EvictionPolicyType;
+import com.can.core.StoredValueCodec;
 import com.can.metric.MetricsRegistry;
+import com.can.rdb.AppendOnlyLog;
+import com.can.rdb.FsyncPolicy;
 import com.can.rdb.SnapshotFile;
+import com.can.rdb.SnapshotLoader;
 import com.can.pubsub.Broker;
 import io.quarkus.arc.DefaultBean;
 import io.vertx.core.Vertx;
@@ -26,9 +43,13 @@ import java.util.Locale;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * CDI tarafından yönetilen bu yapılandırma sınıfı, önbellek motoru, metrik
@@ -42,6 +63,7 @@ public class AppConfig {
 
     private final AppProperties properties;
     private final AtomicBoolean ownsVertx = new AtomicBoolean(false);
+    private volatile AppendOnlyLog<String> appendOnlyLog;
 
     @Inject
     public AppConfig(AppProperties properties) {
@@ -126,7 +148,7 @@ public class AppConfig {
     public CacheEngine<String, String> cacheEngine(
             MetricsRegistry metrics,
             Broker broker,
-            SnapshotFile<String, String> snapshotFile,
+            SnapshotLoader<String, String> snapshotLoader,
             Vertx vertx
     ) {
         var cacheProps = properties.cache();
@@ -136,19 +158,68 @@ public class AppConfig {
                 .maxCapacity(cacheProps.maxCapacity())
                 .cleanerPollMillis(cacheProps.cleanerPollMillis())
                 .evictionPolicy(EvictionPolicyType.fromConfig(cacheProps.evictionPolicy()))
+                .trackChanges(properties.rdb().delta().enabled())
                 .metrics(metrics)
                 .broker(broker)
                 .vertx(vertx)
                 .build();
 
-        snapshotFile.load(engine);
+        var aofProps = properties.rdb().aof();
+        AppendOnlyLog<String> aof = null;
+        if (aofProps.enabled()) {
+            aof = new AppendOnlyLog<>(
+                    new File(aofProps.path()),
+                    StringCodec.UTF8,
+                    FsyncPolicy.fromConfig(aofProps.fsync()),
+                    aofProps.rewritePercentage(),
+                    aofProps.rewriteMinSizeBytes(),
+                    aofProps.maxQueuedRecords()
+            );
+            appendOnlyLog = aof;
+        }
+        AppendOnlyLog<String> log = aof;
+        Consumer<CacheEngine<String, String>> afterLoad = loaded -> {
+            if (log != null) {
+                try {
+                    log.replay(loaded);
+                    log.start(loaded);
+                } catch (RuntimeException e) {
+                    // Günlük açılamazsa yakalanan yazmalar bellekte birikmesin diye abonelik kapatılır.
+                    log.close();
+                    throw e;
+                }
+            }
+        };
+
+        if (properties.rdb().asyncLoad()) {
+            if (log != null) {
+                // Yükleme sürerken gelen yazmalar günlük açılana kadar bellekte bekler.
+                log.capture(engine);
+            }
+            snapshotLoader.loadAsync(engine, afterLoad);
+        } else {
+            snapshotLoader.load(engine, afterLoad);
+        }
         return engine;
     }
 
     void disposeCacheEngine(@Disposes CacheEngine<String, String> engine) {
+        AppendOnlyLog<String> aof = appendOnlyLog;
+        if (aof != null) {
+            aof.close();
+            appendOnlyLog = null;
+        }
         engine.close();
     }
 
+    @Produces
+    @Singleton
+    public SnapshotLoader<String, String> snapshotLoader(SnapshotFile<String, String> snapshotFile,
+                                                        MetricsRegistry metrics)
+    {
+        return new SnapshotLoader<>(snapshotFile, metrics);
+    }
+
     @Produces
     @Singleton
     public SnapshotFile<String, String> snapshotFile()
@@ -156,7 +227,10 @@ public class AppConfig {
         var rdbProps = properties.rdb();
         return new SnapshotFile<>(
                 new File(rdbProps.path()),
-                StringCodec.UTF8
+                StringCodec.UTF8,
+                rdbProps.parallelism(),
+                rdbProps.writeBytesPerSecond(),
+                BlockCodec.fromConfig(rdbProps.compression())
         );
     }
 
@@ -231,7 +305,73 @@ public class AppConfig {
     @Singleton
     public HintedHandoffService hintedHandoffService(MetricsRegistry metrics)
     {
-        return new HintedHandoffService(metrics);
+        var handoff = properties.cluster().handoff();
+        HintStore store;
+        if (handoff.persistent()) {
+            store = new FileHintStore(Path.of(handoff.directory()), handoff.segmentBytes(),
+                    handoff.maxBytesPerNode(), handoff.maxHintAgeMillis(), metrics);
+        } else {
+            store = new MemoryHintStore(handoff.maxBytesPerNode(), handoff.maxHintAgeMillis(), metrics);
+        }
+        return new HintedHandoffService(store, handoff.replayBatchSize(), handoff.replayFrameSize(),
+                handoff.replayMaxInFlight(),
+                new RateLimiter(handoff.replayOpsPerSecond(), handoff.replayBytesPerSecond()), metrics);
+    }
+
+    void disposeHintedHandoffService(@Disposes HintedHandoffService service)
+    {
+        service.close();
+    }
+
+    @Produces
+    @Singleton
+    public PhiAccrualFailureDetector failureDetector(MetricsRegistry metrics)
+    {
+        var cluster = properties.cluster();
+        var detector = cluster.failureDetector();
+        return new PhiAccrualFailureDetector(
+                detector.enabled(),
+                detector.suspectThreshold(),
+                detector.evictThreshold(),
+                detector.windowSize(),
+                detector.minStdDevMillis(),
+                detector.acceptablePauseMillis(),
+                cluster.discovery().heartbeatIntervalMillis(),
+                metrics);
+    }
+
+    @Produces
+    @Singleton
+    public NodeHealthTracker nodeHealthTracker(PhiAccrualFailureDetector failureDetector, MetricsRegistry metrics)
+    {
+        var health = properties.cluster().health();
+        return new NodeHealthTracker(
+                health.enabled(),
+                health.ewmaAlpha(),
+                health.failureThreshold(),
+                health.errorRateThreshold(),
+                health.openMillis(),
+                failureDetector,
+                metrics);
+    }
+
+    @Produces
+    @Singleton
+    public AsyncReplicator asyncReplicator(Node<String, String> localNode, MetricsRegistry metrics)
+    {
+        var async = properties.cluster().asyncReplication();
+        return new AsyncReplicator(localNode.id(), async.logCapacity(), async.batchSize(), async.maxInFlight(),
+                (node, primaryId, session) -> {
+                    if (node instanceof RemoteNode remote) {
+                        return remote.openReplicationStream(primaryId, session);
+                    }
+                    throw new IOException("Node " + node.id() + " does not support replication streams");
+                }, metrics);
+    }
+
+    void disposeAsyncReplicator(@Disposes AsyncReplicator replicator)
+    {
+        replicator.close();
     }
 
     @Produces
@@ -239,9 +379,43 @@ public class AppConfig {
     public ClusterClient clusterClient(
             ConsistentHashRing<Node<String, String>> ring,
             CoordinationService coordinationService,
-            HintedHandoffService hintedHandoffService
+            HintedHandoffService hintedHandoffService,
+            NodeHealthTracker nodeHealthTracker,
+            AsyncReplicator asyncReplicator,
+            MetricsRegistry metrics
     ) {
+        var hedging = properties.cluster().hedging();
+        HedgedReadPolicy hedgedReads = new HedgedReadPolicy(
+                hedging.enabled(),
+                hedging.delayMillis(),
+                hedging.minDelayMillis(),
+                hedging.maxDelayMillis(),
+                hedging.budgetPercent());
+        ReplicationMode mode = ReplicationMode.fromConfig(properties.cluster().replicationMode());
+        boolean async = mode == ReplicationMode.ASYNC;
+        var consistency = properties.cluster().consistency();
+        ConsistencyPolicy consistencyPolicy = ConsistencyPolicy.fromConfig(
+                consistency.read(),
+                consistency.write().orElse(null),
+                ConsistencyPolicy.defaultWrite(mode),
+                consistency.rules().orElse(List.of()));
         return new ClusterClient(ring, properties.cluster().replicationFactor(), StringCodec.UTF8,
-                hintedHandoffService);
+                hintedHandoffService, hedgedReads, nodeHealthTracker, metrics, async ? asyncReplicator : null,
+                consistencyPolicy, true, new ValueVersioning<>() {
+                    @Override
+                    public long version(String value) {
+                        return StoredValueCodec.decode(value).cas();
+                    }
+
+                    @Override
+                    public long expireAtMillis(String value) {
+                        return StoredValueCodec.decode(value).expireAt();
+                    }
+                });
+    }
+
+    void disposeClusterClient(@Disposes ClusterClient clusterClient)
+    {
+        clusterClient.close();
     }
 }
@@ -3,6 +3,7 @@ package com.can.config;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,6 +36,64 @@ public interface AppProperties
 
         @WithDefault("60")
         long snapshotIntervalSeconds();
+
+        // Redis "save" kuralları: "<saniye> <değişiklik>" çiftleri; boşsa sabit periyot kullanılır.
+        Optional<String> save();
+
+        // Snapshot yazımının bayt/saniye sınırı; 0 sınırsız.
+        @WithDefault("0")
+        long writeBytesPerSecond();
+
+        // Snapshot bloklarının sıkıştırılması: none, lz4 ya da deflate
+        @WithDefault("none")
+        String compression();
+
+        // Snapshot bölümlerini paralel yazan/yükleyen thread sayısı; 0 işlemci sayısını kullanır.
+        @WithDefault("0")
+        int parallelism();
+
+        // Açılışta snapshot'ı arka planda yükler; sunucu bu sırada trafik kabul eder.
+        @WithDefault("false")
+        boolean asyncLoad();
+
+        Aof aof();
+
+        Delta delta();
+
+        interface Aof
+        {
+            @WithDefault("false")
+            boolean enabled();
+
+            @WithDefault("data.aof")
+            String path();
+
+            // always, everysec ya da no
+            @WithDefault("everysec")
+            String fsync();
+
+            // Günlük son yeniden yazımdaki boyutunun bu yüzdesi kadar büyüyünce sıkıştırılır; 0 kapatır.
+            @WithDefault("100")
+            int rewritePercentage();
+
+            @WithDefault("67108864")
+            long rewriteMinSizeBytes();
+
+            // Kuyruktaki kayıt sayısı bunu aşınca yazan thread'ler günlük yazıcısını bekler.
+            @WithDefault("65536")
+            int maxQueuedRecords();
+        }
+
+        interface Delta
+        {
+            // Tam snapshot'lar arasında yalnızca değişen anahtarları yazar.
+            @WithDefault("false")
+            boolean enabled();
+
+            // Her bu kadar snapshot'tan biri tam yazılır; arada kalanlar deltadır.
+            @WithDefault("10")
+            int fullEvery();
+        }
     }
 
     interface Cache {
@@ -58,10 +117,23 @@ public interface AppProperties
         @WithDefault("1")
         int replicationFactor();
 
+        // sync: çoğunluk onayı beklenir, async: yalnızca birincil beklenir.
+        @WithDefault("sync")
+        String replicationMode();
+
         Discovery discovery();
 
         Replication replication();
+        AsyncReplication asyncReplication();
+        Consistency consistency();
+        Compression compression();
         Coordination coordination();
+        Hedging hedging();
+        Health health();
+        FailureDetector failureDetector();
+        Handoff handoff();
+        Rebalance rebalance();
+        Decommission decommission();
     }
 
     interface Discovery {
@@ -78,6 +150,26 @@ public interface AppProperties
         long failureTimeoutMillis();
 
         Optional<String> nodeId();
+
+        @WithDefault("multicast")
+        String mode();
+
+        Optional<List<String>> seeds();
+
+        @WithDefault("7946")
+        int swimPort();
+
+        @WithDefault("1000")
+        long probeIntervalMillis();
+
+        @WithDefault("300")
+        long probeTimeoutMillis();
+
+        @WithDefault("3")
+        int indirectProbes();
+
+        @WithDefault("5000")
+        long suspicionTimeoutMillis();
     }
 
     interface Replication {
@@ -94,6 +186,43 @@ public interface AppProperties
         int connectTimeoutMillis();
     }
 
+    interface AsyncReplication
+    {
+        // Yedek başına onay bekleyen en fazla kayıt; dolduğunda yazma ipucu olarak saklanır.
+        @WithDefault("100000")
+        int logCapacity();
+
+        @WithDefault("256")
+        int batchSize();
+
+        @WithDefault("4")
+        int maxInFlight();
+    }
+
+    interface Consistency
+    {
+        // one, quorum ya da all; okumalarda any kabul edilmez.
+        @WithDefault("one")
+        String read();
+
+        // any, one, quorum ya da all; boşsa sync modda quorum, async modda one.
+        Optional<String> write();
+
+        // önek=okuma/yazma biçiminde kurallar, örn. session:=one/any
+        Optional<List<String>> rules();
+    }
+
+    interface Compression
+    {
+        // none, lz4 ya da deflate; kodlayıcı JOIN el sıkışmasında eşle kararlaştırılır.
+        @WithDefault("none")
+        String codec();
+
+        // Bu boyutun altındaki çerçeveler sıkıştırılmadan gönderilir.
+        @WithDefault("1024")
+        int minBytes();
+    }
+
     interface Network {
         @WithDefault("0.0.0.0")
         String host();
@@ -118,6 +247,147 @@ public interface AppProperties
 
         @WithDefault("30000")
         long antiEntropyIntervalMillis();
+
+        @WithDefault("64")
+        int merkleFanout();
+
+        @WithDefault("3")
+        int merkleMaxDepth();
+
+        @WithDefault("256")
+        int merkleLeafEntries();
+
+        @WithDefault("4096")
+        int merkleMaxRanges();
+    }
+
+    interface Hedging
+    {
+        @WithDefault("true")
+        boolean enabled();
+
+        // 0 ise replikanın gözlemlenen p95 gecikmesi kullanılır.
+        @WithDefault("0")
+        long delayMillis();
+
+        @WithDefault("2")
+        long minDelayMillis();
+
+        @WithDefault("1000")
+        long maxDelayMillis();
+
+        @WithDefault("5")
+        double budgetPercent();
+    }
+
+    interface Health
+    {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("0.2")
+        double ewmaAlpha();
+
+        @WithDefault("5")
+        int failureThreshold();
+
+        @WithDefault("0.5")
+        double errorRateThreshold();
+
+        @WithDefault("5000")
+        long openMillis();
+    }
+
+    interface FailureDetector
+    {
+        @WithDefault("true")
+        boolean enabled();
+
+        // Bu eşiği aşan düğümlere istek yönlendirilmez.
+        @WithDefault("3.0")
+        double suspectThreshold();
+
+        // Bu eşiği aşan düğümler halkadan çıkarılır (yalnızca multicast keşifte).
+        @WithDefault("12.0")
+        double evictThreshold();
+
+        @WithDefault("100")
+        int windowSize();
+
+        @WithDefault("500")
+        long minStdDevMillis();
+
+        @WithDefault("2000")
+        long acceptablePauseMillis();
+
+        @WithDefault("1000")
+        long checkIntervalMillis();
+    }
+
+    interface Handoff
+    {
+        // false ise ipuçları yalnızca bellekte tutulur ve yeniden başlatmada kaybolur.
+        @WithDefault("true")
+        boolean persistent();
+
+        @WithDefault("hints")
+        String directory();
+
+        @WithDefault("67108864")
+        long maxBytesPerNode();
+
+        @WithDefault("4194304")
+        long segmentBytes();
+
+        // 0 ise yaş sınırı uygulanmaz.
+        @WithDefault("10800000")
+        long maxHintAgeMillis();
+
+        @WithDefault("256")
+        int replayBatchSize();
+
+        // Tek bir toplu ağ çerçevesindeki ipucu sayısı.
+        @WithDefault("64")
+        int replayFrameSize();
+
+        @WithDefault("4")
+        int replayMaxInFlight();
+
+        // 0 ise sınırsız.
+        @WithDefault("5000")
+        long replayOpsPerSecond();
+
+        // 0 ise sınırsız.
+        @WithDefault("8388608")
+        long replayBytesPerSecond();
+    }
+
+    interface Rebalance
+    {
+        @WithDefault("2")
+        int maxConcurrentTransfers();
+
+        // 0 ise sınırsız.
+        @WithDefault("33554432")
+        long bytesPerSecond();
+
+        // Başka replikalar varken artık sahip olunmayan aralıklar için aktarım onayının beklenebileceği en uzun süre.
+        @WithDefault("60000")
+        long purgeDelayMillis();
+    }
+
+    interface Decommission
+    {
+        // Kapanışta verileri yeni sahiplerine devredip ipuçlarını boşaltır.
+        @WithDefault("true")
+        boolean onShutdown();
+
+        @WithDefault("60000")
+        long timeoutMillis();
+
+        // cancached "shutdown" komutuyla devretmeyi başlatmaya izin verir.
+        @WithDefault("false")
+        boolean adminCommandEnabled();
     }
 
     interface Cancache
@@ -25,11 +25,18 @@ public interface CanCachedProtocol
     String DELETE = "delete";
     String TOUCH = "touch";
 
+    // Meta commands; the L<level> flag selects the consistency level per request.
+    String META_GET = "mg";
+    String META_SET = "ms";
+    String META_DELETE = "md";
+    String META_NOOP = "mn";
+
     // Server administration commands.
     String FLUSH_ALL = "flush_all";
     String STATS = "stats";
     String VERSION = "version";
     String QUIT = "quit";
+    String SHUTDOWN = "shutdown";
 
     // Generic error response used when a command cannot be processed.
     String ERROR = "ERROR";
@@ -26,6 +26,24 @@ public interface NodeProtocol
     // 'H' komutu, uzak nodun anti-entropy Digest değerini istemek için gönderilir.
     byte CMD_DIGEST = 'H';
 
+    // 'B' komutu, birden fazla set/delete/CAS işlemini tek çerçevede BATCH olarak taşır.
+    byte CMD_BATCH = 'B';
+
+    // 'Q' komutu, verilen hash aralıklarının alt kovalarına ait özetleri (RANGE DIGEST) ister.
+    byte CMD_RANGE_DIGEST = 'Q';
+
+    // 'P' komutu, yalnızca verilen hash aralıklarındaki kayıtların akışını (RANGE STREAM) ister.
+    byte CMD_RANGE_STREAM = 'P';
+
+    // 'K' komutu, yeni sahibin verilen hash aralıklarını eksiksiz çektiğini eski sahibine onaylar (ACK).
+    byte CMD_RANGE_ACK = 'K';
+
+    // 'L' komutu, asenkron replikasyon günlüğünden sıra numaralı bir partiyi (LOG) yedeğe taşır.
+    byte CMD_REPLICATE = 'L';
+
+    // 'Z' komutu, sıkıştırılmış (ZIPPED) bir komut çerçevesini taşır: [codec][rawLen][compLen][gövde].
+    byte CMD_COMPRESSED = 'Z';
+
     // 'O' yanıtı, isteğin başarılı olduğunu (OK) belirtir.
      byte RESP_OK = 'O';
 
@@ -50,6 +68,9 @@ public interface NodeProtocol
     // 1 baytlık chunk işaretleyicisi, STREAM yanıtında yeni bir kaydın geldiğini gösterir.
      byte STREAM_CHUNK_MARKER = 1;
 
+    // 2 baytlık işaretleyici, STREAM yanıtında sıkıştırılmış bir kayıt bloğunun geldiğini gösterir.
+    byte STREAM_COMPRESSED_MARKER = 2;
+
     // 0 baytlık işaretleyici, STREAM yanıtında aktarımın sona erdiğini gösterir.
      byte STREAM_END_MARKER = 0;
 }
@@ -16,9 +16,17 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Anahtar-değer çiftlerini segmentlere bölerek depolayan, TTL yönetimi yapan,
@@ -31,6 +39,7 @@ public final class CacheEngine<K,V> implements AutoCloseable
 
     private final int segments;
     private final CacheSegment<K>[] table;
+    private final boolean trackChanges;
     private final DelayQueue<ExpiringKey> ttlQueue = new DelayQueue<>();
     private final long cleanerPollMillis;
     private final Vertx vertx;
@@ -44,17 +53,25 @@ public final class CacheEngine<K,V> implements AutoCloseable
     private final Counter hits, misses, evictions;
     private final Timer tGet, tSet, tDel;
     private final CopyOnWriteArrayList<RemovalListener<K>> removalListeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<MutationListener<K>> mutationListeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<CompletableFuture<Void>> pendingCommit = new ThreadLocal<>();
+    private final LongAdder mutations = new LongAdder();
+
+    // Sıcak başlatma sürerken istemcilerin yazdığı ya da sildiği anahtarlar; yükleme yoksa null.
+    private volatile Set<K> warmWrites;
+    private volatile boolean warmCleared;
 
     @SuppressWarnings("unchecked")
     private CacheEngine(int segments, int maxCapacity, long cleanerPollMillis,
                         EvictionPolicyType evictionPolicy,
                         Codec<K> keyCodec, Codec<V> valCodec,
                         MetricsRegistry metrics, Broker broker,
-                        Vertx vertx) {
+                        Vertx vertx, boolean trackChanges) {
         this.segments = segments;
         this.table = new CacheSegment[segments];
+        this.trackChanges = trackChanges;
         int per = Math.max(1, maxCapacity / segments);
-        for (int i=0;i<segments;i++) table[i] = new CacheSegment<>(per, evictionPolicy.create(per), this::notifyRemoval);
+        for (int i=0;i<segments;i++) table[i] = new CacheSegment<>(per, evictionPolicy.create(per), this::notifyRemoval, trackChanges);
 
         this.cleanerPollMillis = cleanerPollMillis;
         this.keyCodec = keyCodec; this.valCodec = valCodec;
@@ -86,6 +103,7 @@ public final class CacheEngine<K,V> implements AutoCloseable
         private int segments = 8, maxCapacity = 10_000; private long cleanerPollMillis = 100;
         private final Codec<K> keyCodec; private final Codec<V> valCodec;
         private MetricsRegistry metrics; private Broker broker; private Vertx vertx;
+        private boolean trackChanges;
         private EvictionPolicyType evictionPolicy = EvictionPolicyType.LRU;
         public Builder(Codec<K> keyCodec, Codec<V> valCodec){ this.keyCodec=keyCodec; this.valCodec=valCodec; }
         public Builder<K,V> segments(int s){ this.segments=s; return this; }
@@ -95,8 +113,10 @@ public final class CacheEngine<K,V> implements AutoCloseable
         public Builder<K,V> broker(Broker b){ this.broker=b; return this; }
         public Builder<K,V> vertx(Vertx vertx){ this.vertx=Objects.requireNonNull(vertx); return this; }
         public Builder<K,V> evictionPolicy(EvictionPolicyType p){ this.evictionPolicy=Objects.requireNonNull(p); return this; }
+        /** Artımlı snapshot için segment başına değişen anahtarları izler. */
+        public Builder<K,V> trackChanges(boolean track){ this.trackChanges=track; return this; }
         public CacheEngine<K,V> build(){ return new CacheEngine<>(segments, maxCapacity, cleanerPollMillis, evictionPolicy,
-                keyCodec, valCodec, metrics, broker, Objects.requireNonNull(vertx, "vertx")); }
+                keyCodec, valCodec, metrics, broker, Objects.requireNonNull(vertx, "vertx"), trackChanges); }
     }
     private int segIndex(Object key){ return (key.hashCode() & 0x7fffffff) % segments; }
     private CacheSegment<K> seg(Object key){ return table[segIndex(key)]; }
@@ -141,6 +161,77 @@ public final class CacheEngine<K,V> implements AutoCloseable
         return () -> removalListeners.remove(listener);
     }
 
+    /**
+     * İstemci kaynaklı her yazma, CAS, silme ve temizleme işleminden sonra
+     * çağrılacak dinleyiciyi kaydeder. Persistans katmanından yapılan
+     * {@link #replay(byte[], byte[], byte[], long)} çağrıları ve süre dolumu ya da
+     * kapasite nedeniyle yapılan çıkarmalar bildirilmez.
+     */
+    public AutoCloseable onMutation(MutationListener<K> listener) {
+        Objects.requireNonNull(listener);
+        mutationListeners.add(listener);
+        return () -> mutationListeners.remove(listener);
+    }
+
+    /**
+     * Segment kilidi bırakıldıktan sonra, değişikliği yapan thread'de çağrılır.
+     * Dinleyicinin döndürdüğü bekleme aşaması thread'e bağlanır; dinleyici
+     * hatası çağırana iletilir.
+     */
+    private void afterMutation() {
+        if (mutationListeners.isEmpty()) {
+            return;
+        }
+        RuntimeException failure = null;
+        for (MutationListener<K> listener : mutationListeners) {
+            try {
+                CompletionStage<Void> commit = listener.afterMutation();
+                if (commit != null) {
+                    CompletableFuture<Void> previous = pendingCommit.get();
+                    pendingCommit.set(previous == null || (previous.isDone() && !previous.isCompletedExceptionally())
+                            ? commit.toCompletableFuture()
+                            : CompletableFuture.allOf(previous, commit.toCompletableFuture()));
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Bu thread'de yapılan değişikliklerin kalıcı olmasını bekleyen aşamayı alıp
+     * temizler; beklenecek bir şey yoksa {@code null} döner. Dinleyiciler
+     * event-loop thread'ini bekletmek yerine aşama döndürür; event-loop'ta yazan
+     * çağıran yanıtını bu aşama tamamlanınca göndermelidir.
+     */
+    public CompletionStage<Void> takePendingCommit() {
+        CompletableFuture<Void> commit = pendingCommit.get();
+        if (commit != null) {
+            pendingCommit.remove();
+        }
+        return commit;
+    }
+
+    private void notifyMutation(byte op, K key, byte[] value, long expireAt) {
+        mutations.increment();
+        if (mutationListeners.isEmpty()) {
+            return;
+        }
+        for (MutationListener<K> listener : mutationListeners) {
+            try {
+                listener.onMutation(op, key, value, expireAt);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
     public boolean set(K key, V value){
         return set(key, value, null);
     }
@@ -150,44 +241,166 @@ public final class CacheEngine<K,V> implements AutoCloseable
         long t0 = System.nanoTime();
         Objects.requireNonNull(key);
         long now = System.currentTimeMillis();
-        long expireAt = computeExpireAt(ttl, now);
+        return store(key, valCodec.encode(value), computeExpireAt(ttl, now), t0);
+    }
+
+    /**
+     * Değer kodlayıcısından geçmiş baytları doğrudan saklar; ağdan gelen
+     * değerlerin {@code V} türüne çevrilip tekrar kodlanmasını önler. Mutlak
+     * son kullanma zamanı geçmişse kayıt silinir. Yalnızca kısa segment
+     * kilidini aldığı için event-loop üzerinden çağrılabilir.
+     */
+    public boolean setEncoded(K key, byte[] value, long expireAtMillis)
+    {
+        long t0 = System.nanoTime();
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        if (expireAtMillis > 0L && expireAtMillis <= System.currentTimeMillis()) {
+            delete(key);
+            return true;
+        }
+        return store(key, value, Math.max(0L, expireAtMillis), t0);
+    }
+
+    private boolean store(K key, byte[] encoded, long expireAt, long t0)
+    {
+        touchWarm(key);
         int idx = segIndex(key);
-        boolean stored = seg(key).put(key, new CacheValue(valCodec.encode(value), expireAt));
+        CacheSegment<K> segment = table[idx];
+        // Değişiklik kaydı segment kilidi bırakılmadan üretilir; böylece aynı
+        // anahtara eşzamanlı yazmalar dinleyicilere uygulandıkları sırayla ulaşır.
+        boolean stored = segment.locked(() -> {
+            boolean ok = segment.put(key, new CacheValue(encoded, expireAt));
+            if (ok) notifyMutation(NodeProtocol.CMD_SET, key, encoded, expireAt);
+            return ok;
+        });
         if (!stored) {
             if (tSet != null) tSet.record(System.nanoTime() - t0);
             return false;
         }
         if (expireAt > 0) ttlQueue.offer(new ExpiringKey(key, idx, expireAt));
         if (broker != null) broker.publish("keyspace:set", keyCodec.encode(key));
+        afterMutation();
         if (tSet != null) tSet.record(System.nanoTime() - t0);
         return true;
     }
 
+    /**
+     * Önceden kodlanmış değerleri toplu olarak yazar. Kayıtlar segmentlere göre
+     * gruplanır ve her segmentin kilidi yalnızca bir kez alınır; kabul kuralları
+     * {@link #set(Object, Object, Duration)} ile aynıdır. Süresi dolmuş kayıtlar
+     * atlanır. Saklanan kayıt sayısını döndürür.
+     */
+    public int setAll(List<BulkEntry<K>> entries)
+    {
+        Objects.requireNonNull(entries);
+        long now = System.currentTimeMillis();
+        List<List<K>> keys = new ArrayList<>(Collections.nCopies(segments, null));
+        List<List<CacheValue>> values = new ArrayList<>(Collections.nCopies(segments, null));
+        for (BulkEntry<K> entry : entries) {
+            Objects.requireNonNull(entry.key());
+            if (entry.expireAtMillis() > 0L && entry.expireAtMillis() <= now) {
+                continue;
+            }
+            touchWarm(entry.key());
+            int idx = segIndex(entry.key());
+            if (keys.get(idx) == null) {
+                keys.set(idx, new ArrayList<>());
+                values.set(idx, new ArrayList<>());
+            }
+            keys.get(idx).add(entry.key());
+            values.get(idx).add(new CacheValue(entry.value(), entry.expireAtMillis()));
+        }
+
+        int storedCount = 0;
+        for (int idx = 0; idx < segments; idx++) {
+            List<K> segmentKeys = keys.get(idx);
+            if (segmentKeys == null) {
+                continue;
+            }
+            List<CacheValue> segmentValues = values.get(idx);
+            CacheSegment<K> segment = table[idx];
+            boolean[] stored = segment.locked(() -> {
+                boolean[] ok = segment.putAll(segmentKeys, segmentValues);
+                for (int i = 0; i < ok.length; i++) {
+                    if (ok[i]) {
+                        CacheValue value = segmentValues.get(i);
+                        notifyMutation(NodeProtocol.CMD_SET, segmentKeys.get(i), value.value(), value.expireAtMillis());
+                    }
+                }
+                return ok;
+            });
+            for (int i = 0; i < stored.length; i++) {
+                if (!stored[i]) {
+                    continue;
+                }
+                storedCount++;
+                K key = segmentKeys.get(i);
+                long expireAt = segmentValues.get(i).expireAtMillis();
+                if (expireAt > 0) ttlQueue.offer(new ExpiringKey(key, idx, expireAt));
+                if (broker != null) broker.publish("keyspace:set", keyCodec.encode(key));
+            }
+        }
+        if (storedCount > 0) {
+            afterMutation();
+        }
+        return storedCount;
+    }
+
     public boolean compareAndSwap(K key, V value, long expectedCas, Duration ttl) {
         long t0 = System.nanoTime();
         Objects.requireNonNull(key);
         Objects.requireNonNull(value);
+        long now = System.currentTimeMillis();
+        return compareAndSwapValue(key, valCodec.encode(value), expectedCas, ttl != null, computeExpireAt(ttl, now), now, t0);
+    }
+
+    /**
+     * {@link #compareAndSwap(Object, Object, long, Duration)} ile aynı kuralları
+     * kodlanmış değer ve mutlak son kullanma zamanıyla uygular. Zaman pozitif
+     * değilse mevcut kaydın süresi korunur; geçmişse kayıt silinir.
+     */
+    public boolean compareAndSwapEncoded(K key, byte[] value, long expectedCas, long expireAtMillis)
+    {
+        long t0 = System.nanoTime();
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        long now = System.currentTimeMillis();
+        if (expireAtMillis > 0L && expireAtMillis <= now) {
+            delete(key);
+            return true;
+        }
+        return compareAndSwapValue(key, value, expectedCas, expireAtMillis > 0L, expireAtMillis, now, t0);
+    }
+
+    private boolean compareAndSwapValue(K key, byte[] value, long expectedCas, boolean replaceExpiry,
+                                        long newExpireAt, long now, long t0)
+    {
+        touchWarm(key);
         CacheSegment<K> segment = seg(key);
         int idx = segIndex(key);
-        long now = System.currentTimeMillis();
-        CasResult result = segment.compareAndSwap(key, existing -> {
-            if (existing == null) {
-                return CasDecision.fail();
-            }
-            if (existing.expired(now)) {
-                return CasDecision.expired();
-            }
-            @SuppressWarnings("unchecked")
-            String encoded = (String) valCodec.decode(existing.value());
-            StoredValueCodec.StoredValue stored = StoredValueCodec.decode(encoded);
-            if (stored.cas() != expectedCas) {
-                return CasDecision.fail();
-            }
-            long expireAt = existing.expireAtMillis();
-            if (ttl != null) {
-                expireAt = computeExpireAt(ttl, now);
+        CasResult result = segment.locked(() -> {
+            CasResult applied = segment.compareAndSwap(key, existing -> {
+                if (existing == null) {
+                    return CasDecision.fail();
+                }
+                if (existing.expired(now)) {
+                    return CasDecision.expired();
+                }
+                @SuppressWarnings("unchecked")
+                String encoded = (String) valCodec.decode(existing.value());
+                StoredValueCodec.StoredValue stored = StoredValueCodec.decode(encoded);
+                if (stored.cas() != expectedCas) {
+                    return CasDecision.fail();
+                }
+                long expireAt = replaceExpiry ? newExpireAt : existing.expireAtMillis();
+                return CasDecision.success(new CacheValue(value, expireAt));
+            });
+            CacheValue newValue = applied.newValue();
+            if (applied.success() && newValue != null) {
+                notifyMutation(NodeProtocol.CMD_CAS, key, newValue.value(), newValue.expireAtMillis());
             }
-            return CasDecision.success(new CacheValue(valCodec.encode(value), expireAt));
+            return applied;
         });
         boolean success = result.success();
         if (success) {
@@ -198,6 +411,9 @@ public final class CacheEngine<K,V> implements AutoCloseable
             if (broker != null) {
                 broker.publish("keyspace:set", keyCodec.encode(key));
             }
+            if (newValue != null) {
+                afterMutation();
+            }
         }
         if (tSet != null) {
             tSet.record(System.nanoTime() - t0);
@@ -234,20 +450,69 @@ public final class CacheEngine<K,V> implements AutoCloseable
         return out;
     }
 
+    /**
+     * Saklanan değeri kodlanmış haliyle döndürür; süresi dolmuşsa kaydı siler
+     * ve {@code null} döner.
+     */
+    public byte[] getEncoded(K key)
+    {
+        long t0 = System.nanoTime();
+        CacheValue cv = seg(key).get(key);
+        byte[] out = null;
+        if (cv != null){
+            if (cv.expired(System.currentTimeMillis())) {
+                delete(key);
+                if (misses != null) misses.inc();
+            } else {
+                out = cv.value();
+                if (hits != null) hits.inc();
+            }
+        } else if (misses != null) misses.inc();
+        if (tGet != null) tGet.record(System.nanoTime() - t0);
+        return out;
+    }
+
     public boolean delete(K key)
     {
         long t0 = System.nanoTime();
-        boolean ok = seg(key).remove(key) != null;
+        touchWarm(key);
+        CacheSegment<K> segment = seg(key);
+        boolean ok = segment.locked(() -> {
+            boolean removed = segment.remove(key) != null;
+            if (removed) notifyMutation(NodeProtocol.CMD_DELETE, key, null, 0L);
+            return removed;
+        });
         if (ok && broker != null) broker.publish("keyspace:del", keyCodec.encode(key));
+        if (ok) afterMutation();
         if (tDel != null) tDel.record(System.nanoTime() - t0);
         return ok;
     }
 
     public void clear() {
-        for (CacheSegment<K> segment : table) {
-            segment.clear();
+        if (warmWrites != null) {
+            warmCleared = true;
+        }
+        clearFrom(0);
+        afterMutation();
+    }
+
+    /**
+     * Segmentleri sırayla kilitleyip temizler; değişiklik kaydı tüm kilitler
+     * tutulurken üretilir ki günlükte clear'dan önceki ve sonraki yazmalar
+     * doğru tarafta kalsın.
+     */
+    private void clearFrom(int idx) {
+        if (idx == segments) {
+            ttlQueue.clear();
+            notifyMutation(NodeProtocol.CMD_CLEAR, null, null, 0L);
+            return;
         }
-        ttlQueue.clear();
+        CacheSegment<K> segment = table[idx];
+        segment.locked(() -> {
+            segment.clear();
+            clearFrom(idx + 1);
+            return null;
+        });
     }
 
     public boolean exists(K key){
@@ -257,16 +522,87 @@ public final class CacheEngine<K,V> implements AutoCloseable
 
     public int size(){ int t=0; for (CacheSegment<K> s : table) t += s.size(); return t; }
 
+    public int segmentCount() { return segments; }
+
+    /**
+     * Açılıştan beri başarıyla uygulanan istemci değişikliklerinin (set, CAS,
+     * delete, clear) sayısı; persistans katmanından yüklenen kayıtlar sayılmaz.
+     */
+    public long mutationCount() { return mutations.sum(); }
+
     public void forEachEntry(EntryConsumer<K> consumer) {
+        Objects.requireNonNull(consumer);
+        for (int idx = 0; idx < segments; idx++) {
+            forEachEntry(idx, consumer);
+        }
+    }
+
+    /**
+     * Yalnızca verilen segmentteki süresi dolmamış kayıtları dolaşır; farklı
+     * segmentler farklı thread'lerden eşzamanlı olarak dolaşılabilir. Dolaşım
+     * segmentin başladığı andaki içeriğini görür ve segment kopyalanmaz;
+     * bu sırada gelen yazmalar beklemeden devam eder.
+     */
+    public void forEachEntry(int segment, EntryConsumer<K> consumer) {
         Objects.requireNonNull(consumer);
         long now = System.currentTimeMillis();
-        for (CacheSegment<K> segment : table) {
-            segment.forEach((key, value) -> {
-                if (!value.expired(now)) {
-                    consumer.accept(key, value.value(), value.expireAtMillis());
-                }
-            });
+        table[segment].forEach((key, value) -> {
+            if (!value.expired(now)) {
+                consumer.accept(key, value.value(), value.expireAtMillis());
+            }
+        });
+    }
+
+    public boolean isTrackingChanges() { return trackChanges; }
+
+    /**
+     * Segmentin tahliye politikası durumunu (örneğin TinyLFU sıklık skeçi)
+     * snapshot'a yazılmak üzere döndürür; LRU sırası girdilerin dolaşım
+     * sırasıyla zaten korunduğu için LRU'da {@code null} döner.
+     */
+    public byte[] policyState(int segment) {
+        return table[segment].policyState();
+    }
+
+    /**
+     * {@link #policyState(int)} çıktısını geri yükler. Durum yalnızca aynı
+     * segment sayısıyla yazılmışsa ve politika ile kapasite uyuşuyorsa
+     * uygulanır; aksi halde {@code false} döner ve politika boş başlar.
+     */
+    public boolean restorePolicyState(int segment, int sourceSegments, byte[] state) {
+        if (sourceSegments != segments || segment < 0 || segment >= segments) {
+            return false;
+        }
+        return table[segment].restorePolicyState(state);
+    }
+
+    /**
+     * Verilen segmentte son çağrıdan beri değişen anahtarları bildirir ve
+     * değişiklik kümesini sıfırlar. Anahtar hâlâ varsa güncel değeriyle
+     * {@code changed}, silinmiş ya da süresi dolmuşsa {@code removed} çağrılır.
+     * Segment bu sürede temizlendiyse {@code false} döner; bu durumda değişiklikler
+     * tam bir snapshot ile yazılmalıdır.
+     */
+    public boolean drainChanges(int segment, EntryConsumer<K> changed, Consumer<K> removed) {
+        CacheSegment.ChangeSet<K> changes = table[segment].drainChanges();
+        if (changes == null) {
+            throw new IllegalStateException("Change tracking is disabled");
+        }
+        long now = System.currentTimeMillis();
+        for (K key : changes.keys()) {
+            CacheValue value = table[segment].peek(key);
+            if (value == null || value.expired(now)) {
+                removed.accept(key);
+            } else {
+                changed.accept(key, value.value(), value.expireAtMillis());
+            }
         }
+        return !changes.cleared();
+    }
+
+    /** Segmentin değişiklik kümesini bildirim yapmadan sıfırlar; tam snapshot öncesinde çağrılır. */
+    public void discardChanges(int segment) {
+        table[segment].drainChanges();
     }
 
     public long fingerprint()
@@ -290,28 +626,129 @@ public final class CacheEngine<K,V> implements AutoCloseable
     // Replay entry from persistence layer
     public void replay(byte[] op, byte[] k, byte[] v, long expireAt)
     {
+        if (op[0] == NodeProtocol.CMD_CLEAR) {
+            Predicate<K> guard = warmGuard();
+            if (guard != null) {
+                // Sıcak başlatmada istemcilerin yazdığı anahtarlar korunur; yalnızca yüklenmiş kayıtlar silinir.
+                for (int idx = 0; idx < segments; idx++) {
+                    List<K> loaded = new ArrayList<>();
+                    forEachEntry(idx, (key, value, expire) -> loaded.add(key));
+                    for (K key : loaded) {
+                        table[idx].removeUnless(key, guard);
+                    }
+                }
+                return;
+            }
+            for (CacheSegment<K> segment : table) {
+                segment.clear();
+            }
+            ttlQueue.clear();
+            return;
+        }
         K key = keyCodec.decode(k);
-        if (op[0] == NodeProtocol.CMD_SET) {
+        if (op[0] == NodeProtocol.CMD_SET || op[0] == NodeProtocol.CMD_CAS) {
             applyReplayEntry(key, v, expireAt);
         } else if (op[0] == NodeProtocol.CMD_DELETE) {
             applyReplayDelete(key);
         }
     }
 
+    /**
+     * Persistans katmanından gelen kayıtları {@link #replay(byte[], byte[], byte[], long)}
+     * kurallarıyla toplu olarak yükler: her segmentin kilidi bir kez alınır,
+     * süresi dolmuş kayıtlar atlanır ve dinleyicilere bildirim yapılmaz. Aynı
+     * segmente düşen kayıtlar tek thread'den yüklendiğinde thread'ler arasında
+     * kilit yarışı olmaz. Sıcak başlatma sürerken istemcilerin yazdığı
+     * anahtarların üzerine yazılmaz. Yüklenen kayıt sayısını döndürür.
+     */
+    public int restoreAll(List<BulkEntry<K>> entries)
+    {
+        Objects.requireNonNull(entries);
+        long now = System.currentTimeMillis();
+        List<List<K>> keys = new ArrayList<>(Collections.nCopies(segments, null));
+        List<List<CacheValue>> values = new ArrayList<>(Collections.nCopies(segments, null));
+        for (BulkEntry<K> entry : entries) {
+            Objects.requireNonNull(entry.key());
+            if (entry.expireAtMillis() > 0L && entry.expireAtMillis() <= now) {
+                continue;
+            }
+            int idx = segIndex(entry.key());
+            if (keys.get(idx) == null) {
+                keys.set(idx, new ArrayList<>());
+                values.set(idx, new ArrayList<>());
+            }
+            keys.get(idx).add(entry.key());
+            values.get(idx).add(new CacheValue(entry.value(), entry.expireAtMillis()));
+        }
+
+        int restored = 0;
+        Predicate<K> guard = warmGuard();
+        for (int idx = 0; idx < segments; idx++) {
+            List<K> segmentKeys = keys.get(idx);
+            if (segmentKeys == null) {
+                continue;
+            }
+            List<CacheValue> segmentValues = values.get(idx);
+            boolean[] stored = table[idx].putAllForce(segmentKeys, segmentValues, guard);
+            for (int i = 0; i < stored.length; i++) {
+                if (!stored[i]) {
+                    continue;
+                }
+                restored++;
+                long expireAt = segmentValues.get(i).expireAtMillis();
+                if (expireAt > 0) ttlQueue.offer(new ExpiringKey(segmentKeys.get(i), idx, expireAt));
+            }
+        }
+        return restored;
+    }
+
     private void applyReplayEntry(K key, byte[] value, long expireAt) {
         Objects.requireNonNull(key);
         int idx = segIndex(key);
         CacheSegment<K> segment = table[idx];
+        Predicate<K> guard = warmGuard();
         if (expireAt > 0 && expireAt <= System.currentTimeMillis()) {
-            segment.remove(key);
+            segment.removeUnless(key, guard);
             return;
         }
-        if (segment.putForce(key, new CacheValue(value, expireAt)) && expireAt > 0)
+        if (segment.putForce(key, new CacheValue(value, expireAt), guard) && expireAt > 0)
             ttlQueue.offer(new ExpiringKey(key, idx, expireAt));
     }
 
     private void applyReplayDelete(K key) {
-        seg(key).remove(key);
+        seg(key).removeUnless(key, warmGuard());
+    }
+
+    /**
+     * Sıcak başlatmayı başlatır: bu andan {@link #endWarmLoad()} çağrılana
+     * kadar istemcilerin yazdığı ya da sildiği anahtarlar işaretlenir ve
+     * persistans katmanından gelen kayıtlar bu anahtarlara uygulanmaz. Bir
+     * {@link #clear()} sonrasında yükleyiciden gelen kayıtların tamamı atlanır.
+     */
+    public void beginWarmLoad() {
+        warmCleared = false;
+        warmWrites = ConcurrentHashMap.newKeySet();
+    }
+
+    /** Sıcak başlatmayı bitirir ve işaretlenen anahtarları bırakır. */
+    public void endWarmLoad() {
+        warmWrites = null;
+        warmCleared = false;
+    }
+
+    public boolean isWarmLoading() { return warmWrites != null; }
+
+    // İstemci yazmaları segment kilidinden önce işaretlenir; yükleyici aynı kilit altında kontrol ettiği için yarış kaçmaz.
+    private void touchWarm(K key) {
+        Set<K> writes = warmWrites;
+        if (writes != null) {
+            writes.add(key);
+        }
+    }
+
+    private Predicate<K> warmGuard() {
+        Set<K> writes = warmWrites;
+        return writes == null ? null : key -> warmCleared || writes.contains(key);
     }
 
     @Override
@@ -322,11 +759,33 @@ public final class CacheEngine<K,V> implements AutoCloseable
         }
     }
 
+    /** {@link #setAll(List)} için kodlanmış değer ve mutlak son kullanma zamanı taşıyan kayıt. */
+    public record BulkEntry<K>(K key, byte[] value, long expireAtMillis) {
+    }
+
     @FunctionalInterface
     public interface RemovalListener<K> {
         void onRemoval(K key);
     }
 
+    /**
+     * Motor üzerindeki değişiklikleri {@link NodeProtocol} komut kodlarıyla
+     * bildirir. Silmede değer {@code null}, temizlemede anahtar da {@code null} olur.
+     * Çağrı ilgili segment kilidi tutulurken yapılır; dinleyici bu yüzden
+     * bloklamadan dönmeli ve kayıtları aldığı sırayla işlemelidir. Kilit
+     * bırakıldıktan sonra aynı thread'de {@link #afterMutation()} çağrılır;
+     * dinleyici gerekiyorsa çağıranı orada bekletebilir, event-loop thread'inde
+     * ise beklemek yerine tamamlanınca yanıt verilecek bir aşama döndürür.
+     */
+    @FunctionalInterface
+    public interface MutationListener<K> {
+        void onMutation(byte op, K key, byte[] value, long expireAtMillis);
+
+        default CompletionStage<Void> afterMutation() {
+            return null;
+        }
+    }
+
     /**
      * Persistans katmanına veri aktarımı yapılırken her anahtar için çağrılan fonksiyonel arayüzdür.
      */
@@ -4,93 +4,196 @@ import com.can.core.model.CacheValue;
 import com.can.core.model.CasDecision;
 import com.can.core.model.CasResult;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Önbellek kapasitesini parçalara ayırarak eşzamanlı erişimi azaltan segment
  * yapısıdır. Her segment LRU erişim sırası izleyen bir {@link LinkedHashMap}
  * ve seçilen tahliye politikasını kullanarak anahtarların kabul edilmesi ya da
  * silinmesini kontrol eder.
+ *
+ * <p>{@link #forEach(BiConsumer)} segmenti kopyalamadan nokta-zamanlı dolaşır:
+ * dolaşım başlarken mevcut harita donmuş taban olarak ayrılır ve dolaşım
+ * bitene kadar değiştirilmez. Bu sürede yazmalar boş bir üst haritaya gider,
+ * tabandaki silinen ya da üzerine yazılan anahtarlar gizli küme ile işaretlenir.
+ * Böylece eski sürüm yalnızca değişen girdiler için iki kez tutulur. Eşzamanlı
+ * dolaşımların hepsi aynı tabanı paylaşır; sonradan başlayan dolaşım yalnızca
+ * o ana kadarki üst haritayı ve gizli kümeyi kopyalar. Son dolaşım bittiğinde
+ * yalnızca değişen girdiler tabana işlenir.</p>
+ *
+ * <p>Değişiklik izleme açıksa içeriği değiştiren her yazma ve silme (tahliye
+ * ve süre dolumu dahil) anahtarı kirli kümeye ekler; artımlı snapshot bu
+ * kümeyi {@link #drainChanges()} ile alıp sıfırlar.</p>
  */
 final class CacheSegment<K>
 {
     private final ReentrantLock lock = new ReentrantLock();
     private final int capacity;
-    private final LinkedHashMap<K, CacheValue> map =
-            new LinkedHashMap<>(16, 0.75f, true);
+    // Ekleme sırası LRU sırasıdır; erişilen girdiler putLast ile sona taşınır.
+    private LinkedHashMap<K, CacheValue> map = new LinkedHashMap<>(16, 0.75f);
     private final EvictionPolicy<K> policy;
     private final CacheEngine.RemovalListener<K> removalListener;
 
+    // Nokta-zamanlı dolaşım sürerken kullanılan alanlar; hepsi kilit altında değişir.
+    private LinkedHashMap<K, CacheValue> frozen;
+    private Set<K> hidden;
+    private boolean frozenCleared;
+    private int liveSize;
+    private int readers;
+    // Taban donukken değişmediğinden tahliye sırası için imleç yalnızca ileri gider.
+    private Iterator<K> frozenCursor;
+    private K frozenEldest;
+
+    // Son drainChanges çağrısından beri değişen anahtarlar; izleme kapalıysa null.
+    private Set<K> dirty;
+    private boolean dirtyCleared;
+
     CacheSegment(int capacity, EvictionPolicy<K> policy, CacheEngine.RemovalListener<K> removalListener)
+    {
+        this(capacity, policy, removalListener, false);
+    }
+
+    CacheSegment(int capacity, EvictionPolicy<K> policy, CacheEngine.RemovalListener<K> removalListener,
+                 boolean trackChanges)
     {
         this.capacity = capacity;
         this.policy = Objects.requireNonNull(policy);
         this.removalListener = removalListener;
+        this.dirty = trackChanges ? new HashSet<>() : null;
     }
 
     CacheValue get(K key) {
         lock.lock();
         try {
-            CacheValue v = map.get(key);
-            if (v != null) policy.recordAccess(key);
+            CacheValue v = lookup(key);
+            if (v != null) {
+                policy.recordAccess(key);
+                store(key, v, true);
+            }
             return v;
         }
         finally { lock.unlock(); }
     }
     boolean put(K key, CacheValue v) {
-        return putInternal(key, v, false);
+        return putInternal(key, v, false, null);
     }
 
     boolean putForce(K key, CacheValue v) {
-        return putInternal(key, v, true);
+        return putInternal(key, v, true, null);
+    }
+
+    /**
+     * {@link #putForce(Object, CacheValue)} ile aynıdır; ancak {@code skip}
+     * anahtarı kabul ederse yazmaz. Kontrol yazmayla aynı kilit altında yapılır.
+     */
+    boolean putForce(K key, CacheValue v, Predicate<K> skip) {
+        return putInternal(key, v, true, skip);
+    }
+
+    /**
+     * Kayıtları segment kilidini tek sefer alarak yazar; her kayıt için
+     * {@link #put(Object, CacheValue)} ile aynı kabul kuralları uygulanır ve
+     * sonuç dizisi girişlerle aynı sıradadır.
+     */
+    boolean[] putAll(List<K> keys, List<CacheValue> values) {
+        return putAllInternal(keys, values, false, null);
+    }
+
+    /** {@link #putAll(List, List)} ile aynıdır ancak {@link #putForce(Object, CacheValue)} kurallarını uygular. */
+    boolean[] putAllForce(List<K> keys, List<CacheValue> values) {
+        return putAllInternal(keys, values, true, null);
+    }
+
+    /** {@link #putAllForce(List, List)} ile aynıdır; {@code skip} kabul eden anahtarlar yazılmaz. */
+    boolean[] putAllForce(List<K> keys, List<CacheValue> values, Predicate<K> skip) {
+        return putAllInternal(keys, values, true, skip);
     }
 
-    private boolean putInternal(K key, CacheValue v, boolean force) {
+    private boolean[] putAllInternal(List<K> keys, List<CacheValue> values, boolean force, Predicate<K> skip) {
+        boolean[] stored = new boolean[keys.size()];
         lock.lock();
         try {
-            CacheValue existing = map.get(key);
-            policy.recordAccess(key);
-            if (existing != null) {
-                map.put(key, v);
-                return true;
+            for (int i = 0; i < stored.length; i++) {
+                K key = keys.get(i);
+                stored[i] = (skip == null || !skip.test(key)) && putLocked(key, values.get(i), force);
             }
+        } finally { lock.unlock(); }
+        return stored;
+    }
 
-            if (!force) {
-                EvictionPolicy.AdmissionDecision<K> decision = policy.admit(key, map, capacity);
-                if (!decision.shouldAdmit()) {
-                    return false;
-                }
-                K victim = decision.evictKey();
-                if (victim != null && map.remove(victim) != null) {
-                    policy.onRemove(victim);
-                    notifyRemoval(victim);
-                }
-            } else {
-                while (map.size() >= capacity) {
-                    Iterator<Map.Entry<K, CacheValue>> it = map.entrySet().iterator();
-                    if (!it.hasNext()) {
-                        break;
-                    }
-                    K victim = it.next().getKey();
-                    it.remove();
-                    policy.onRemove(victim);
-                    notifyRemoval(victim);
+    private boolean putInternal(K key, CacheValue v, boolean force, Predicate<K> skip) {
+        lock.lock();
+        try {
+            return (skip == null || !skip.test(key)) && putLocked(key, v, force);
+        } finally { lock.unlock(); }
+    }
+
+    private boolean putLocked(K key, CacheValue v, boolean force) {
+        CacheValue existing = lookup(key);
+        policy.recordAccess(key);
+        if (existing != null) {
+            store(key, v, true);
+            markDirty(key);
+            return true;
+        }
+
+        if (!force) {
+            EvictionPolicy.AdmissionDecision<K> decision = policy.admit(key, count(), capacity, this::eldest);
+            if (!decision.shouldAdmit()) {
+                return false;
+            }
+            K victim = decision.evictKey();
+            if (victim != null && erase(victim) != null) {
+                policy.onRemove(victim);
+                notifyRemoval(victim);
+            }
+        } else {
+            while (count() >= capacity) {
+                K victim = eldest();
+                if (victim == null) {
+                    break;
                 }
+                erase(victim);
+                policy.onRemove(victim);
+                notifyRemoval(victim);
             }
+        }
 
-            map.put(key, v);
-            return true;
-        } finally { lock.unlock(); }
+        store(key, v, false);
+        markDirty(key);
+        return true;
     }
     CacheValue remove(K key) {
         lock.lock();
         try {
-            CacheValue removed = map.remove(key);
+            CacheValue removed = erase(key);
+            if (removed != null) {
+                policy.onRemove(key);
+                notifyRemoval(key);
+            }
+            return removed;
+        }
+        finally { lock.unlock(); }
+    }
+
+    /** Anahtarı {@code skip} kabul etmiyorsa siler; kontrol silmeyle aynı kilit altında yapılır. */
+    CacheValue removeUnless(K key, Predicate<K> skip) {
+        lock.lock();
+        try {
+            if (skip != null && skip.test(key)) {
+                return null;
+            }
+            CacheValue removed = erase(key);
             if (removed != null) {
                 policy.onRemove(key);
                 notifyRemoval(key);
@@ -103,11 +206,11 @@ final class CacheSegment<K>
     boolean removeIfMatches(K key, long expireAtMillis) {
         lock.lock();
         try {
-            CacheValue existing = map.get(key);
+            CacheValue existing = lookup(key);
             if (existing == null || existing.expireAtMillis() != expireAtMillis) {
                 return false;
             }
-            map.remove(key);
+            erase(key);
             policy.onRemove(key);
             notifyRemoval(key);
             return true;
@@ -119,16 +222,19 @@ final class CacheSegment<K>
     CasResult compareAndSwap(K key, java.util.function.Function<CacheValue, CasDecision> decisionFn) {
         lock.lock();
         try {
-            CacheValue existing = map.get(key);
+            CacheValue existing = lookup(key);
             CasDecision decision = decisionFn.apply(existing);
             if (decision == null) {
+                if (existing != null) {
+                    store(key, existing, true);
+                }
                 return new CasResult(false, null);
             }
             if (existing != null && decision.recordAccess()) {
                 policy.recordAccess(key);
             }
             if (decision.removeExisting() && existing != null) {
-                if (map.remove(key) != null) {
+                if (erase(key) != null) {
                     policy.onRemove(key);
                     if (decision.notifyRemoval()) {
                         notifyRemoval(key);
@@ -137,26 +243,108 @@ final class CacheSegment<K>
                 existing = null;
             }
             if (decision.success() && decision.newValue() != null) {
-                map.put(key, decision.newValue());
+                store(key, decision.newValue(), existing != null);
+                markDirty(key);
+            } else if (existing != null) {
+                store(key, existing, true);
             }
             return new CasResult(decision.success(), decision.newValue());
         } finally {
             lock.unlock();
         }
     }
+    /**
+     * İşi segment kilidi altında çalıştırır. Kilit yeniden girilebilir olduğundan
+     * iş içinde segmentin diğer metotları çağrılabilir; motor, değişiklik
+     * kayıtlarının uygulama sırasıyla üretilmesi için bunu kullanır.
+     */
+    <T> T locked(Supplier<T> action) {
+        lock.lock(); try { return action.get(); } finally { lock.unlock(); }
+    }
+
     int size() {
-        lock.lock(); try { return map.size(); } finally { lock.unlock(); }
+        lock.lock(); try { return count(); } finally { lock.unlock(); }
+    }
+
+    /** Tahliye politikasının snapshot'a yazılacak durumu; yoksa {@code null}. */
+    byte[] policyState() {
+        lock.lock(); try { return policy.saveState(); } finally { lock.unlock(); }
+    }
+
+    boolean restorePolicyState(byte[] state) {
+        lock.lock(); try { return policy.restoreState(state); } finally { lock.unlock(); }
+    }
+
+    /** Anahtarın değerini LRU sırasını ve politikayı etkilemeden döndürür. */
+    CacheValue peek(K key) {
+        lock.lock(); try { return lookup(key); } finally { lock.unlock(); }
     }
 
+    /**
+     * Son çağrıdan beri değişen anahtarları döndürüp kümeyi sıfırlar; izleme
+     * kapalıysa {@code null} döner.
+     */
+    ChangeSet<K> drainChanges() {
+        lock.lock();
+        try {
+            if (dirty == null) {
+                return null;
+            }
+            ChangeSet<K> changes = new ChangeSet<>(dirty, dirtyCleared);
+            dirty = new HashSet<>();
+            dirtyCleared = false;
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Segmentin dolaşım başladığı andaki içeriğini kilit tutmadan dolaşır.
+     * Donmuş taban tüm eşzamanlı dolaşımlarca paylaşılır; taban donduktan
+     * sonra değişiklik olduysa yalnızca üst harita ve gizli küme bu çağrı
+     * için kopyalanır.
+     */
     void forEach(BiConsumer<K, CacheValue> consumer) {
-        Map<K, CacheValue> snapshot;
+        LinkedHashMap<K, CacheValue> base;
+        Set<K> skip;
+        Map<K, CacheValue> overlay;
         lock.lock();
         try {
-            snapshot = new LinkedHashMap<>(map);
+            if (frozen == null) {
+                frozen = map;
+                map = new LinkedHashMap<>();
+                hidden = new HashSet<>();
+                liveSize = frozen.size();
+                frozenCursor = frozen.keySet().iterator();
+                frozenEldest = null;
+            }
+            readers++;
+            base = frozenCleared ? null : frozen;
+            skip = hidden.isEmpty() ? Set.of() : new HashSet<>(hidden);
+            overlay = map.isEmpty() ? Map.of() : new LinkedHashMap<>(map);
         } finally {
             lock.unlock();
         }
-        snapshot.forEach(consumer);
+        try {
+            if (base != null) {
+                base.forEach((key, value) -> {
+                    if (!skip.contains(key)) {
+                        consumer.accept(key, value);
+                    }
+                });
+            }
+            overlay.forEach(consumer);
+        } finally {
+            lock.lock();
+            try {
+                if (--readers == 0) {
+                    thaw();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     private void notifyRemoval(K key) {
@@ -168,6 +356,27 @@ final class CacheSegment<K>
     void clear() {
         lock.lock();
         try {
+            if (dirty != null) {
+                dirty.clear();
+                dirtyCleared = true;
+            }
+            if (frozen != null) {
+                if (!frozenCleared) {
+                    for (K key : frozen.keySet()) {
+                        if (!hidden.contains(key)) {
+                            policy.onRemove(key);
+                        }
+                    }
+                    frozenCleared = true;
+                    hidden.clear();
+                }
+                for (K key : map.keySet()) {
+                    policy.onRemove(key);
+                }
+                map.clear();
+                liveSize = 0;
+                return;
+            }
             if (map.isEmpty()) {
                 return;
             }
@@ -179,4 +388,90 @@ final class CacheSegment<K>
             lock.unlock();
         }
     }
+
+    // Aşağıdaki yardımcılar kilit altında çağrılır ve donmuş tabanı hesaba katar.
+
+    private CacheValue lookup(K key) {
+        CacheValue v = map.get(key);
+        if (v != null || frozen == null || frozenCleared || hidden.contains(key)) {
+            return v;
+        }
+        return frozen.get(key);
+    }
+
+    private void store(K key, CacheValue v, boolean existed) {
+        map.putLast(key, v);
+        if (frozen == null) {
+            return;
+        }
+        if (!existed) {
+            liveSize++;
+        }
+        if (!frozenCleared && frozen.containsKey(key)) {
+            hidden.add(key);
+        }
+    }
+
+    private void markDirty(K key) {
+        if (dirty != null) {
+            dirty.add(key);
+        }
+    }
+
+    private CacheValue erase(K key) {
+        markDirty(key);
+        if (frozen == null) {
+            return map.remove(key);
+        }
+        CacheValue removed = lookup(key);
+        if (removed != null) {
+            map.remove(key);
+            if (!frozenCleared && frozen.containsKey(key)) {
+                hidden.add(key);
+            }
+            liveSize--;
+        }
+        return removed;
+    }
+
+    private int count() {
+        return frozen == null ? map.size() : liveSize;
+    }
+
+    // Gizlenen anahtar donukluk bitene kadar gizli kaldığından imleç geri dönmez.
+    private K eldest() {
+        if (frozen != null && !frozenCleared) {
+            while (frozenEldest == null || hidden.contains(frozenEldest)) {
+                if (!frozenCursor.hasNext()) {
+                    frozenEldest = null;
+                    break;
+                }
+                frozenEldest = frozenCursor.next();
+            }
+            if (frozenEldest != null) {
+                return frozenEldest;
+            }
+        }
+        return map.isEmpty() ? null : map.keySet().iterator().next();
+    }
+
+    /** Son dolaşım bittiğinde değişen girdileri tabana işleyip normal moda döner. */
+    private void thaw() {
+        if (!frozenCleared) {
+            for (K key : hidden) {
+                frozen.remove(key);
+            }
+            frozen.putAll(map);
+            map = frozen;
+        }
+        frozen = null;
+        hidden = null;
+        frozenCleared = false;
+        frozenCursor = null;
+        frozenEldest = null;
+    }
+
+    /** Kirli anahtarlar ve bu sürede segmentin temizlenip temizlenmediği. */
+    record ChangeSet<K>(Set<K> keys, boolean cleared) {
+    }
 }
@@ -1,8 +1,6 @@
 package com.can.core;
 
-import com.can.core.model.CacheValue;
-
-import java.util.LinkedHashMap;
+import java.util.function.Supplier;
 
 /**
  * Bir segmentin hangi anahtarları kabul edeceğini ve kapasite aşıldığında hangi
@@ -18,16 +16,30 @@ interface EvictionPolicy<K>
      * Yeni bir anahtar segment içine eklenmeden önce çağrılarak kabul kurallarını uygular.
      *
      * @param key       kabul edilmek istenen aday anahtar
-     * @param map       segmentin erişim sırasına göre tutulan mevcut haritası
+     * @param size      segmentteki mevcut giriş sayısı
      * @param capacity  segment için tanımlı maksimum giriş sayısı
+     * @param eldest    erişim sırasına göre en eski anahtarı veren tedarikçi; segment boşsa {@code null} döner
      * @return anahtarın kabul edilip edilmeyeceğini ve gerekirse kurban anahtarı döndürür
      */
-    AdmissionDecision<K> admit(K key, LinkedHashMap<K, CacheValue> map, int capacity);
+    AdmissionDecision<K> admit(K key, int size, int capacity, Supplier<K> eldest);
 
     /** Belirtilen anahtarın segmentten çıkarıldığını bildirir. */
     void onRemove(K key);
 
-    /** {@link #admit(Object, LinkedHashMap, int)} çağrısının sonucunu kapsüller. */
+    /**
+     * Politikanın öğrendiği durumu snapshot'a yazılmak üzere kodlar; erişim
+     * sırası segmentin kendisinde tutulduğu için saklanacak ek durum yoksa
+     * {@code null} döner.
+     */
+    default byte[] saveState() { return null; }
+
+    /**
+     * {@link #saveState()} çıktısını geri yükler. Durum bu politikaya ya da
+     * kapasiteye uymuyorsa hiçbir şey değiştirmeden {@code false} döner.
+     */
+    default boolean restoreState(byte[] state) { return false; }
+
+    /** {@link #admit(Object, int, int, Supplier)} çağrısının sonucunu kapsüller. */
     final class AdmissionDecision<K>
     {
         private static final AdmissionDecision<?> REJECT = new AdmissionDecision<>(false, null);
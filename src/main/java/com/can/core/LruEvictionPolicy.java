@@ -1,8 +1,6 @@
 package com.can.core;
 
-import com.can.core.model.CacheValue;
-
-import java.util.LinkedHashMap;
+import java.util.function.Supplier;
 
 /**
  * Klasik son kullanılan ilk çıkar yaklaşımını uygulayan basit tahliye politikasıdır.
@@ -14,12 +12,12 @@ final class LruEvictionPolicy<K> implements EvictionPolicy<K>
     public void recordAccess(K key){}
 
     @Override
-    public AdmissionDecision<K> admit(K key, LinkedHashMap<K, CacheValue> map, int capacity)
+    public AdmissionDecision<K> admit(K key, int size, int capacity, Supplier<K> eldest)
     {
-        if (map.size() < capacity) return AdmissionDecision.admit();
-        if (map.isEmpty()) return AdmissionDecision.admit();
-        K eldest = map.entrySet().iterator().next().getKey();
-        return AdmissionDecision.admit(eldest);
+        if (size < capacity) return AdmissionDecision.admit();
+        K victim = eldest.get();
+        if (victim == null) return AdmissionDecision.admit();
+        return AdmissionDecision.admit(victim);
     }
 
     @Override
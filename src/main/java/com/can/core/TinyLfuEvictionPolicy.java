@@ -1,17 +1,19 @@
 package com.can.core;
 
-import com.can.core.model.CacheValue;
-
-import java.util.LinkedHashMap;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 /**
  * TinyLFU algoritmasını uygulayarak yeni girişlerin kabul edilip edilmeyeceğine
  * karar veren gelişmiş tahliye politikasıdır. Sıklık skeçi ve örnekleme dizisi
  * kullanarak aday ile mevcut kurbanın erişim frekanslarını karşılaştırır.
+ * Skeç sayaçları ve örnekleme halkası snapshot ile saklanıp geri yüklenebilir;
+ * böylece yeniden başlatılan node öğrendiği sıcak kümeyi kaybetmez.
  */
 final class TinyLfuEvictionPolicy<K> implements EvictionPolicy<K>
 {
     private static final int[] SEEDS = {0x7f4a7c15, 0x9e3779b9, 0xc2b2ae35, 0x165667b1};
+    private static final byte STATE_TYPE = 'T';
 
     private final FrequencySketch sketch;
     private final int[] samples;
@@ -58,11 +60,11 @@ final class TinyLfuEvictionPolicy<K> implements EvictionPolicy<K>
     }
 
     @Override
-    public AdmissionDecision<K> admit(K key, LinkedHashMap<K, CacheValue> map, int capacity)
+    public AdmissionDecision<K> admit(K key, int size, int capacity, Supplier<K> eldest)
     {
-        if (map.size() < capacity) return AdmissionDecision.admit();
-        if (map.isEmpty()) return AdmissionDecision.admit();
-        K victimKey = map.entrySet().iterator().next().getKey();
+        if (size < capacity) return AdmissionDecision.admit();
+        K victimKey = eldest.get();
+        if (victimKey == null) return AdmissionDecision.admit();
         int candidateFreq = sketch.estimate(spread(key.hashCode()));
         int victimFreq = sketch.estimate(spread(victimKey.hashCode()));
         if (candidateFreq > victimFreq)
@@ -74,6 +76,49 @@ final class TinyLfuEvictionPolicy<K> implements EvictionPolicy<K>
 
     @Override public void onRemove(K key){}
 
+    /** {@code [tür][örnek sayısı][index][count][skeç uzunluğu][skeç sayaçları][örnekler]} biçiminde kodlar. */
+    @Override
+    public byte[] saveState()
+    {
+        int[] table = sketch.table;
+        ByteBuffer state = ByteBuffer.allocate(1 + 4 * 4 + table.length + samples.length * 4);
+        state.put(STATE_TYPE).putInt(samples.length).putInt(index).putInt(count).putInt(table.length);
+        for (int counter : table)
+        {
+            // Sayaçlar 255 ile sınırlı olduğundan tek bayta sığar.
+            state.put((byte) counter);
+        }
+        for (int sample : samples)
+        {
+            state.putInt(sample);
+        }
+        return state.array();
+    }
+
+    @Override
+    public boolean restoreState(byte[] state)
+    {
+        int[] table = sketch.table;
+        if (state == null || state.length != 1 + 4 * 4 + table.length + samples.length * 4) return false;
+        ByteBuffer in = ByteBuffer.wrap(state);
+        if (in.get() != STATE_TYPE || in.getInt() != samples.length) return false;
+        int savedIndex = in.getInt();
+        int savedCount = in.getInt();
+        if (in.getInt() != table.length || savedCount < 0 || savedCount > samples.length
+                || savedIndex < 0 || (samples.length > 0 && savedIndex >= samples.length)) return false;
+        for (int i = 0; i < table.length; i++)
+        {
+            table[i] = in.get() & 0xFF;
+        }
+        for (int i = 0; i < samples.length; i++)
+        {
+            samples[i] = in.getInt();
+        }
+        index = savedIndex;
+        count = savedCount;
+        return true;
+    }
+
     private static int spread(int hash)
     {
         hash ^= (hash >>> 16);
@@ -0,0 +1,18 @@
+package com.can.metric;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Kuyruk derinliği, bayt miktarı veya gecikme gibi anlık değerleri okunduğu
+ * anda kaynağından hesaplayan metrik bileşenidir. Değer saklanmaz; her okuma
+ * kayıt sırasında verilen tedarikçiyi çağırır.
+ */
+public final class Gauge
+{
+    private final String name;
+    private final LongSupplier supplier;
+    public Gauge(String name, LongSupplier supplier) { this.name = name; this.supplier = Objects.requireNonNull(supplier); }
+    public long get() { return supplier.getAsLong(); }
+    public String name() { return name; }
+}
@@ -2,20 +2,26 @@ package com.can.metric;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 /**
- * Sayaç ve zamanlayıcı metrikleri thread-safe koleksiyonlarda tutan merkezi
- * kayıt yapısıdır. İhtiyaç duyulan metrikler talep edildiği anda oluşturulur
- * ve uygulamanın diğer bileşenleri tarafından paylaşılır.
+ * Sayaç, zamanlayıcı ve gösterge metriklerini thread-safe koleksiyonlarda tutan
+ * merkezi kayıt yapısıdır. İhtiyaç duyulan metrikler talep edildiği anda
+ * oluşturulur ve uygulamanın diğer bileşenleri tarafından paylaşılır. Aynı isimle
+ * yeniden kaydedilen göstergede son tedarikçi geçerli olur.
  */
 public final class MetricsRegistry
 {
     private final Map<String, Counter> counters = new ConcurrentHashMap<>();
     private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
 
     public Counter counter(String name) { return counters.computeIfAbsent(name, Counter::new); }
     public Timer timer(String name) { return timers.computeIfAbsent(name, Timer::new); }
+    public Gauge gauge(String name, LongSupplier supplier) { Gauge g = new Gauge(name, supplier); gauges.put(name, g); return g; }
+    public void removeGauge(String name) { gauges.remove(name); }
 
     public Map<String, Counter> counters(){ return counters; }
     public Map<String, Timer> timers(){ return timers; }
+    public Map<String, Gauge> gauges(){ return gauges; }
 }
\ No newline at end of file
@@ -13,7 +13,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Metrik kayıt defterindeki sayaç ve zamanlayıcıları belirli aralıklarla konsola
+ * Metrik kayıt defterindeki sayaç, gösterge ve zamanlayıcıları belirli aralıklarla konsola
  * raporlayan yardımcı servistir. Sanal thread'ler üzerinden çalışan zamanlayıcı
  * görevleri yönetir ve kapatıldığında kaynakları serbest bırakır.
  */
@@ -68,6 +68,10 @@ public class MetricsReporter implements AutoCloseable
                 .forEach(counter ->
                     System.out.printf("counter %s = %d%n", counter.name(), counter.get())
         );
+        registry.gauges().values()
+                .forEach(gauge ->
+                    System.out.printf("gauge %s = %d%n", gauge.name(), gauge.get())
+        );
         registry.timers().values().forEach(timer -> {
             var sample = timer.snapshot();
             System.out.printf(
@@ -1,6 +1,10 @@
 package com.can.net;
 
+import com.can.cluster.AsyncReplicator;
 import com.can.cluster.ClusterClient;
+import com.can.cluster.ConsistencyLevel;
+import com.can.cluster.ReplicationMode;
+import com.can.cluster.coordination.CoordinationService;
 import com.can.config.AppProperties;
 import com.can.constants.CanCachedProtocol;
 import com.can.core.CacheEngine;
@@ -8,8 +12,11 @@ import com.can.core.StoredValueCodec;
 import com.can.net.protocol.CommandAction;
 import com.can.net.protocol.CommandResult;
 import com.can.net.protocol.ImmediateCommand;
+import com.can.net.protocol.MetaFlags;
 import com.can.net.protocol.PendingStorageCommand;
 import com.can.net.protocol.StorageCommand;
+import com.can.rdb.SnapshotLoader;
+import io.quarkus.runtime.Quarkus;
 import io.quarkus.runtime.Startup;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -44,12 +51,19 @@ public class CanCachedServer implements AutoCloseable
     private static final Logger LOG = Logger.getLogger(CanCachedServer.class);
     private static final byte[] CRLF = new byte[]{'\r', '\n'};
     private static final long THIRTY_DAYS_SECONDS = 60L * 60L * 24L * 30L;
+    // CAS değerinde milisaniye başına 2^16 sıra numarası ayrılır.
+    private static final int CAS_CLOCK_SHIFT = 16;
     private final Vertx vertx;
     private final ClusterClient clusterClient;
     private final AppProperties.Network networkConfig;
     private final int maxItemSize;
     private final int maxCasRetries;
     private final CacheEngine<String, String> localEngine;
+    private final CoordinationService coordinationService;
+    private final boolean shutdownCommandEnabled;
+    private final ReplicationMode replicationMode;
+    private final AsyncReplicator asyncReplicator;
+    private final SnapshotLoader<String, String> snapshotLoader;
 
     private final AtomicLong casCounter = new AtomicLong(1L);
     private final AtomicLong cmdGet = new AtomicLong();
@@ -73,7 +87,10 @@ public class CanCachedServer implements AutoCloseable
     public CanCachedServer(Vertx vertx,
                            ClusterClient clusterClient,
                            AppProperties properties,
-                           CacheEngine<String, String> localEngine)
+                           CacheEngine<String, String> localEngine,
+                           CoordinationService coordinationService,
+                           AsyncReplicator asyncReplicator,
+                           SnapshotLoader<String, String> snapshotLoader)
     {
         this.vertx = Objects.requireNonNull(vertx, "vertx");
         this.clusterClient = Objects.requireNonNull(clusterClient, "clusterClient");
@@ -82,6 +99,11 @@ public class CanCachedServer implements AutoCloseable
         this.maxItemSize = Math.max(1, cancacheConfig.maxItemSizeBytes());
         this.maxCasRetries = Math.max(1, cancacheConfig.maxCasRetries());
         this.localEngine = Objects.requireNonNull(localEngine, "localEngine");
+        this.coordinationService = Objects.requireNonNull(coordinationService, "coordinationService");
+        this.shutdownCommandEnabled = properties.cluster().decommission().adminCommandEnabled();
+        this.replicationMode = ReplicationMode.fromConfig(properties.cluster().replicationMode());
+        this.asyncReplicator = Objects.requireNonNull(asyncReplicator, "asyncReplicator");
+        this.snapshotLoader = Objects.requireNonNull(snapshotLoader, "snapshotLoader");
     }
 
     @PostConstruct
@@ -150,11 +172,19 @@ public class CanCachedServer implements AutoCloseable
             case CanCachedProtocol.GET -> new ImmediateCommand(() -> handleGet(parts, false));
             case CanCachedProtocol.GETS -> new ImmediateCommand(() -> handleGet(parts, true));
             case CanCachedProtocol.DELETE -> new ImmediateCommand(() -> handleDelete(parts));
+            case CanCachedProtocol.META_GET -> new ImmediateCommand(() -> handleMetaGet(parts));
+            case CanCachedProtocol.META_SET -> prepareMetaSet(parts);
+            case CanCachedProtocol.META_DELETE -> new ImmediateCommand(() -> handleMetaDelete(parts));
+            case CanCachedProtocol.META_NOOP -> new ImmediateCommand(() -> {
+                maybeApplyDelayedFlush();
+                return handleSimpleLine("MN");
+            });
             case CanCachedProtocol.INCR, CanCachedProtocol.DECR -> new ImmediateCommand(() -> handleIncrDecr(command, parts));
             case CanCachedProtocol.TOUCH -> new ImmediateCommand(() -> handleTouch(parts));
             case CanCachedProtocol.FLUSH_ALL -> new ImmediateCommand(() -> handleFlushAll(parts));
             case CanCachedProtocol.STATS -> new ImmediateCommand(this::handleStats);
             case CanCachedProtocol.VERSION -> new ImmediateCommand(this::handleVersion);
+            case CanCachedProtocol.SHUTDOWN -> new ImmediateCommand(() -> handleShutdown(parts));
             case CanCachedProtocol.QUIT -> new ImmediateCommand(() -> {
                 maybeApplyDelayedFlush();
                 return CommandResult.terminate();
@@ -219,7 +249,89 @@ public class CanCachedServer implements AutoCloseable
         return new StorageCommand(new PendingStorageCommand(command, parts[1], flags, ttl, (int) bytes, noreply, isCas, casUnique));
     }
 
+    /**
+     * {@code ms <key> <datalen> <bayraklar>*} komutunu klasik depolama komutuna
+     * çevirir: {@code M} bayrağı kipi (S set, E add, R replace, A append,
+     * P prepend), {@code C} bayrağı CAS karşılaştırmasını belirler. {@code C}
+     * ile S ve R kipleri CAS komutuna, A ve P kipleri yalnızca CAS eşleşirse
+     * uygulanan eklemeye dönüşür; kayıt olmamasını şart koşan E kipiyle
+     * birlikte kullanılamaz.
+     */
+    private CommandAction prepareMetaSet(String[] parts)
+    {
+        if (parts.length < 3) {
+            return new ImmediateCommand(() -> {
+                maybeApplyDelayedFlush();
+                return handleSimpleLine("CLIENT_ERROR bad command line format");
+            });
+        }
+        long bytes;
+        MetaFlags meta;
+        try {
+            bytes = Long.parseLong(parts[2]);
+            meta = MetaFlags.parse(parts, 3, MetaFlags.SET_FLAGS);
+        } catch (IllegalArgumentException e) {
+            return new ImmediateCommand(() -> {
+                maybeApplyDelayedFlush();
+                return handleSimpleLine("CLIENT_ERROR bad command line format");
+            });
+        }
+        String command = switch (meta.mode()) {
+            case 'S' -> CanCachedProtocol.SET;
+            case 'E' -> CanCachedProtocol.ADD;
+            case 'R' -> CanCachedProtocol.REPLACE;
+            case 'A' -> CanCachedProtocol.APPEND;
+            case 'P' -> CanCachedProtocol.PREPEND;
+            default -> null;
+        };
+        boolean isCas = meta.compareCas() != null;
+        if (command == null || bytes < 0 || bytes > maxItemSize || (isCas && meta.mode() == 'E')) {
+            return new ImmediateCommand(() -> {
+                maybeApplyDelayedFlush();
+                return handleSimpleLine("CLIENT_ERROR invalid arguments");
+            });
+        }
+        if (isCas && (meta.mode() == 'S' || meta.mode() == 'R')) {
+            command = CanCachedProtocol.CAS;
+        }
+        Duration ttl = parseExpiration(meta.ttlSeconds() != null ? meta.ttlSeconds() : 0L);
+        return new StorageCommand(new PendingStorageCommand(command, parts[1],
+                meta.clientFlags(), ttl, (int) bytes, false, isCas, isCas ? meta.compareCas() : 0L, meta));
+    }
+
     private CommandResult handleStoragePayload(PendingStorageCommand pending, Buffer payload)
+    {
+        CommandResult result = handleStorage(pending, payload);
+        if (pending.meta() == null) {
+            return result;
+        }
+        return toMetaStorageResult(pending, result);
+    }
+
+    /** Klasik depolama yanıtını meta yanıt koduna çevirir; hata satırları aynen iletilir. */
+    private CommandResult toMetaStorageResult(PendingStorageCommand pending, CommandResult result)
+    {
+        MetaFlags meta = pending.meta();
+        String line = result.response() == null ? "" : result.response().toString(StandardCharsets.US_ASCII).trim();
+        String code = switch (line) {
+            case "STORED" -> "HD";
+            case "NOT_STORED" -> "NS";
+            case "EXISTS" -> "EX";
+            case "NOT_FOUND" -> "NF";
+            default -> null;
+        };
+        if (code == null) {
+            return result;
+        }
+        if (meta.quiet() && "HD".equals(code)) {
+            return CommandResult.continueWithoutResponse();
+        }
+        StringBuilder response = new StringBuilder(code);
+        meta.appendEcho(response, pending.key());
+        return handleSimpleLine(response.toString());
+    }
+
+    private CommandResult handleStorage(PendingStorageCommand pending, Buffer payload)
     {
         maybeApplyDelayedFlush();
 
@@ -233,22 +345,27 @@ public class CanCachedServer implements AutoCloseable
         byte[] valueBytes = payload.getBytes(0, pending.bytes());
         String key = pending.key();
         Duration ttl = pending.ttl();
+        ConsistencyLevel level = pending.meta() != null ? pending.meta().consistency() : null;
         cmdSet.incrementAndGet();
 
-        StoredValueCodec.StoredValue existing = getEntry(key);
+        StoredValueCodec.StoredValue existing = getEntry(key, level);
         if (existing != null && existing.expired(System.currentTimeMillis())) {
             existing = null;
         }
 
+        if (pending.isCas() && existing != null && existing.cas() != pending.casUnique()) {
+            return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("EXISTS");
+        }
+
         if (Duration.ZERO.equals(ttl)) {
-            if (existing != null && clusterClient.delete(key)) {
+            if (existing != null && clusterClient.delete(key, level)) {
                 decrementCurrItems();
             }
             return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("STORED");
         }
 
-        if (pending.isCas()) {
-            return handleCasCommand(key, valueBytes, pending.flags(), ttl, pending.casUnique(), pending.noreply(), existing);
+        if (pending.isCas() && CanCachedProtocol.CAS.equals(pending.command())) {
+            return handleCasCommand(key, valueBytes, pending.flags(), ttl, pending.casUnique(), pending.noreply(), existing, level);
         }
 
         switch (pending.command()) {
@@ -257,7 +374,7 @@ public class CanCachedServer implements AutoCloseable
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
                 StoredValueCodec.StoredValue entry = new StoredValueCodec.StoredValue(valueBytes, pending.flags(), nextCas(), computeExpireAt(ttl));
-                if (!storeEntry(key, entry, ttl)) {
+                if (!storeEntry(key, entry, ttl, level)) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
                 incrementItems();
@@ -267,7 +384,7 @@ public class CanCachedServer implements AutoCloseable
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
                 StoredValueCodec.StoredValue entry = new StoredValueCodec.StoredValue(valueBytes, pending.flags(), nextCas(), computeExpireAt(ttl));
-                if (!storeEntry(key, entry, ttl)) {
+                if (!storeEntry(key, entry, ttl, level)) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
             }
@@ -278,7 +395,9 @@ public class CanCachedServer implements AutoCloseable
                 if ((long) existing.value().length + valueBytes.length > maxItemSize) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR object too large");
                 }
-                CasUpdateStatus status = appendOrPrepend(key, existing, valueBytes, false);
+                // Meta CAS eklemesi tek denemedir; araya giren yazma EXISTS ile bildirilir.
+                int attempts = pending.isCas() ? 1 : maxCasRetries;
+                CasUpdateStatus status = appendOrPrepend(key, existing, valueBytes, false, level, attempts);
                 if (status == CasUpdateStatus.NOT_FOUND) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
@@ -286,7 +405,8 @@ public class CanCachedServer implements AutoCloseable
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR object too large");
                 }
                 if (status == CasUpdateStatus.CONFLICT) {
-                    return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR cas conflict");
+                    return pending.noreply() ? CommandResult.continueWithoutResponse()
+                            : handleSimpleLine(pending.isCas() ? "EXISTS" : "SERVER_ERROR cas conflict");
                 }
             }
             case CanCachedProtocol.PREPEND -> {
@@ -296,7 +416,9 @@ public class CanCachedServer implements AutoCloseable
                 if ((long) existing.value().length + valueBytes.length > maxItemSize) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR object too large");
                 }
-                CasUpdateStatus status = appendOrPrepend(key, existing, valueBytes, true);
+                // Meta CAS eklemesi tek denemedir; araya giren yazma EXISTS ile bildirilir.
+                int attempts = pending.isCas() ? 1 : maxCasRetries;
+                CasUpdateStatus status = appendOrPrepend(key, existing, valueBytes, true, level, attempts);
                 if (status == CasUpdateStatus.NOT_FOUND) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
@@ -304,12 +426,13 @@ public class CanCachedServer implements AutoCloseable
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR object too large");
                 }
                 if (status == CasUpdateStatus.CONFLICT) {
-                    return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR cas conflict");
+                    return pending.noreply() ? CommandResult.continueWithoutResponse()
+                            : handleSimpleLine(pending.isCas() ? "EXISTS" : "SERVER_ERROR cas conflict");
                 }
             }
             default -> {
                 StoredValueCodec.StoredValue entry = new StoredValueCodec.StoredValue(valueBytes, pending.flags(), nextCas(), computeExpireAt(ttl));
-                if (!storeEntry(key, entry, ttl)) {
+                if (!storeEntry(key, entry, ttl, level)) {
                     return pending.noreply() ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_STORED");
                 }
                 if (existing == null) {
@@ -328,7 +451,8 @@ public class CanCachedServer implements AutoCloseable
                                            Duration ttl,
                                            long casUnique,
                                            boolean noreply,
-                                           StoredValueCodec.StoredValue existing)
+                                           StoredValueCodec.StoredValue existing,
+                                           ConsistencyLevel level)
     {
         if (existing == null) {
             return noreply ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_FOUND");
@@ -342,9 +466,9 @@ public class CanCachedServer implements AutoCloseable
         if (effectiveTtl == null) {
             effectiveTtl = ttlFromExpireAt(expireAt);
         }
-        boolean stored = clusterClient.compareAndSwap(key, StoredValueCodec.encode(entry), casUnique, effectiveTtl);
+        boolean stored = clusterClient.compareAndSwap(key, StoredValueCodec.encode(entry), casUnique, effectiveTtl, level);
         if (!stored) {
-            StoredValueCodec.StoredValue latest = getEntry(key);
+            StoredValueCodec.StoredValue latest = getEntry(key, level);
             if (noreply) {
                 return CommandResult.continueWithoutResponse();
             }
@@ -359,10 +483,12 @@ public class CanCachedServer implements AutoCloseable
     private CasUpdateStatus appendOrPrepend(String key,
                                             StoredValueCodec.StoredValue snapshot,
                                             byte[] addition,
-                                            boolean prepend)
+                                            boolean prepend,
+                                            ConsistencyLevel level,
+                                            int attempts)
     {
         StoredValueCodec.StoredValue current = snapshot;
-        for (int attempt = 0; attempt < maxCasRetries; attempt++) {
+        for (int attempt = 0; attempt < attempts; attempt++) {
             if (current == null) {
                 return CasUpdateStatus.NOT_FOUND;
             }
@@ -379,10 +505,10 @@ public class CanCachedServer implements AutoCloseable
             }
             StoredValueCodec.StoredValue candidate = new StoredValueCodec.StoredValue(combined, current.flags(), nextCas(), current.expireAt());
             Duration ttl = ttlFromExpireAt(current.expireAt());
-            if (clusterClient.compareAndSwap(key, StoredValueCodec.encode(candidate), current.cas(), ttl)) {
+            if (clusterClient.compareAndSwap(key, StoredValueCodec.encode(candidate), current.cas(), ttl, level)) {
                 return CasUpdateStatus.SUCCESS;
             }
-            current = getEntry(key);
+            current = getEntry(key, level);
         }
         return CasUpdateStatus.CONFLICT;
     }
@@ -415,6 +541,129 @@ public class CanCachedServer implements AutoCloseable
         return CommandResult.continueWith(response);
     }
 
+    /**
+     * {@code mg <key> <bayraklar>*}: isabette {@code v} bayrağı varsa
+     * {@code VA <boyut> <bayraklar>} ve değer, yoksa {@code HD <bayraklar>};
+     * ıskalamada {@code EN} döner. {@code T} verilirse isabet eden kaydın ömrü
+     * {@code touch} gibi güncellenir ve {@code t} yeni kalan süreyi gösterir.
+     */
+    private CommandResult handleMetaGet(String[] parts)
+    {
+        maybeApplyDelayedFlush();
+        if (parts.length < 2) {
+            return handleSimpleLine("CLIENT_ERROR bad command line format");
+        }
+        MetaFlags meta;
+        try {
+            meta = MetaFlags.parse(parts, 2, MetaFlags.GET_FLAGS);
+        } catch (IllegalArgumentException e) {
+            return handleSimpleLine("CLIENT_ERROR bad command line format");
+        }
+        cmdGet.incrementAndGet();
+        String key = parts[1];
+        long now = System.currentTimeMillis();
+        StoredValueCodec.StoredValue entry = getEntry(key, meta.consistency());
+        if (entry != null && !entry.expired(now) && meta.ttlSeconds() != null) {
+            Duration ttl = parseExpiration(meta.ttlSeconds());
+            if (Duration.ZERO.equals(ttl)) {
+                if (clusterClient.delete(key, meta.consistency())) {
+                    decrementCurrItems();
+                }
+                entry = null;
+            } else {
+                TouchOutcome touched = touchEntry(key, entry, ttl, meta.consistency());
+                if (touched.status() == CasUpdateStatus.CONFLICT) {
+                    return handleSimpleLine("SERVER_ERROR cas conflict");
+                }
+                entry = touched.entry();
+            }
+        }
+        if (entry == null || entry.expired(now)) {
+            getMisses.incrementAndGet();
+            return meta.quiet() ? CommandResult.continueWithoutResponse() : handleSimpleLine("EN");
+        }
+        getHits.incrementAndGet();
+
+        StringBuilder line = new StringBuilder(meta.returnValue() ? "VA " + entry.value().length : "HD");
+        if (meta.returnFlags()) {
+            line.append(" f").append(entry.flags());
+        }
+        if (meta.returnCas()) {
+            line.append(" c").append(entry.cas());
+        }
+        if (meta.returnTtl()) {
+            long expireAt = entry.expireAt();
+            long remaining = expireAt <= 0L || expireAt == Long.MAX_VALUE
+                    ? -1L
+                    : Math.max(0L, TimeUnit.MILLISECONDS.toSeconds(expireAt - now));
+            line.append(" t").append(remaining);
+        }
+        if (meta.returnSize()) {
+            line.append(" s").append(entry.value().length);
+        }
+        meta.appendEcho(line, key);
+
+        Buffer response = Buffer.buffer();
+        writeLine(response, line.toString());
+        if (meta.returnValue()) {
+            response.appendBytes(entry.value());
+            response.appendBytes(CRLF);
+        }
+        return CommandResult.continueWith(response);
+    }
+
+    /**
+     * {@code md <key> <bayraklar>*}: silindiyse {@code HD}, yoksa {@code NF} döner.
+     * {@code C} verilirse kayıt yalnızca CAS değeri eşleşiyorsa silinir, eşleşmezse
+     * {@code EX} döner. Koşullu silme, kaydı CAS ile hemen sona eren bir kayıtla
+     * değiştirerek yapılır; böylece kontrol ile silme arasına yazma giremez.
+     */
+    private CommandResult handleMetaDelete(String[] parts)
+    {
+        maybeApplyDelayedFlush();
+        if (parts.length < 2) {
+            return handleSimpleLine("CLIENT_ERROR bad command line format");
+        }
+        MetaFlags meta;
+        try {
+            meta = MetaFlags.parse(parts, 2, MetaFlags.DELETE_FLAGS);
+        } catch (IllegalArgumentException e) {
+            return handleSimpleLine("CLIENT_ERROR bad command line format");
+        }
+        String code;
+        if (meta.compareCas() != null) {
+            code = deleteIfCasMatches(parts[1], meta.compareCas(), meta.consistency());
+        } else {
+            code = clusterClient.delete(parts[1], meta.consistency()) ? "HD" : "NF";
+        }
+        if ("HD".equals(code)) {
+            decrementCurrItems();
+        }
+        if ("HD".equals(code) && meta.quiet()) {
+            return CommandResult.continueWithoutResponse();
+        }
+        StringBuilder line = new StringBuilder(code);
+        meta.appendEcho(line, parts[1]);
+        return handleSimpleLine(line.toString());
+    }
+
+    private String deleteIfCasMatches(String key, long expectedCas, ConsistencyLevel level)
+    {
+        StoredValueCodec.StoredValue current = getEntry(key, level);
+        if (current == null) {
+            return "NF";
+        }
+        if (current.cas() != expectedCas) {
+            return "EX";
+        }
+        StoredValueCodec.StoredValue expired = new StoredValueCodec.StoredValue(new byte[0], current.flags(), nextCas(),
+                System.currentTimeMillis());
+        if (clusterClient.compareAndSwap(key, StoredValueCodec.encode(expired), expectedCas, Duration.ofMillis(1L), level)) {
+            return "HD";
+        }
+        return getEntry(key, level) == null ? "NF" : "EX";
+    }
+
     private CommandResult handleDelete(String[] parts)
     {
         maybeApplyDelayedFlush();
@@ -507,10 +756,26 @@ public class CanCachedServer implements AutoCloseable
             }
             return noreply ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_FOUND");
         }
-        StoredValueCodec.StoredValue current = getEntry(parts[1]);
+        TouchOutcome outcome = touchEntry(parts[1], getEntry(parts[1]), ttl, null);
+        if (noreply) {
+            return CommandResult.continueWithoutResponse();
+        }
+        return switch (outcome.status()) {
+            case SUCCESS -> handleSimpleLine("TOUCHED");
+            case NOT_FOUND -> handleSimpleLine("NOT_FOUND");
+            default -> handleSimpleLine("SERVER_ERROR cas conflict");
+        };
+    }
+
+    /**
+     * Kaydın bitiş zamanını CAS değerini koruyarak günceller. Araya giren
+     * yazmalarda güncel kayıt yeniden okunur ve {@code maxCasRetries} kez denenir.
+     */
+    private TouchOutcome touchEntry(String key, StoredValueCodec.StoredValue current, Duration ttl, ConsistencyLevel level)
+    {
         for (int attempt = 0; attempt < maxCasRetries; attempt++) {
             if (current == null) {
-                return noreply ? CommandResult.continueWithoutResponse() : handleSimpleLine("NOT_FOUND");
+                return new TouchOutcome(CasUpdateStatus.NOT_FOUND, null);
             }
             long expireAt = computeExpireAt(ttl);
             StoredValueCodec.StoredValue candidate = new StoredValueCodec.StoredValue(current.value(), current.flags(), current.cas(), expireAt);
@@ -518,13 +783,13 @@ public class CanCachedServer implements AutoCloseable
             if (effectiveTtl == null) {
                 effectiveTtl = ttlFromExpireAt(expireAt);
             }
-            if (clusterClient.compareAndSwap(parts[1], StoredValueCodec.encode(candidate), current.cas(), effectiveTtl)) {
+            if (clusterClient.compareAndSwap(key, StoredValueCodec.encode(candidate), current.cas(), effectiveTtl, level)) {
                 cmdTouch.incrementAndGet();
-                return noreply ? CommandResult.continueWithoutResponse() : handleSimpleLine("TOUCHED");
+                return new TouchOutcome(CasUpdateStatus.SUCCESS, candidate);
             }
-            current = getEntry(parts[1]);
+            current = getEntry(key, level);
         }
-        return noreply ? CommandResult.continueWithoutResponse() : handleSimpleLine("SERVER_ERROR cas conflict");
+        return new TouchOutcome(CasUpdateStatus.CONFLICT, null);
     }
 
     private CommandResult handleFlushAll(String[] parts)
@@ -601,6 +866,13 @@ public class CanCachedServer implements AutoCloseable
         writeStat(out, "get_misses", getMisses.get());
         writeStat(out, "curr_items", currItems.get());
         writeStat(out, "total_items", totalItems.get());
+        writeStat(out, "replication_mode", replicationMode.name().toLowerCase(Locale.ROOT));
+        AsyncReplicator.ReplicationLag lag = asyncReplicator.lag();
+        writeStat(out, "replication_lag_entries", lag.entries());
+        writeStat(out, "replication_lag_millis", lag.millis());
+        writeStat(out, "loading", snapshotLoader.isReady() ? 0 : 1);
+        writeStat(out, "loading_progress_percent", snapshotLoader.progressPercent());
+        writeStat(out, "loading_loaded_entries", snapshotLoader.loadedEntries());
         writeLine(out, "END");
         return CommandResult.continueWith(out);
     }
@@ -611,6 +883,28 @@ public class CanCachedServer implements AutoCloseable
         return handleSimpleLine("VERSION " + getVersion());
     }
 
+    /**
+     * Düğümü kontrollü şekilde kapatır: veriler yeni sahiplerine devredilip
+     * ipuçları boşaltıldıktan sonra uygulama sonlandırılır. Komut yalnızca
+     * yapılandırmayla etkinleştirildiğinde kabul edilir.
+     */
+    private CommandResult handleShutdown(String[] parts)
+    {
+        maybeApplyDelayedFlush();
+        if (!shutdownCommandEnabled) {
+            return handleSimpleLine("ERROR: shutdown not enabled");
+        }
+        if (parts.length > 2 || (parts.length == 2 && !"graceful".equalsIgnoreCase(parts[1]))) {
+            return handleSimpleLine("CLIENT_ERROR invalid arguments");
+        }
+        LOG.info("Shutdown requested over cancached protocol, decommissioning node");
+        Thread.ofVirtual().name("decommission").start(() -> {
+            coordinationService.decommission();
+            Quarkus.asyncExit();
+        });
+        return handleSimpleLine("OK");
+    }
+
     private CommandResult handleSimpleLine(String line)
     {
         return CommandResult.continueWith(lineBuffer(line));
@@ -630,14 +924,19 @@ public class CanCachedServer implements AutoCloseable
 
     private StoredValueCodec.StoredValue getEntry(String key)
     {
-        String encoded = clusterClient.get(key);
+        return getEntry(key, null);
+    }
+
+    private StoredValueCodec.StoredValue getEntry(String key, ConsistencyLevel level)
+    {
+        String encoded = clusterClient.get(key, level);
         if (encoded == null) {
             return null;
         }
         StoredValueCodec.StoredValue entry = StoredValueCodec.decode(encoded);
         long now = System.currentTimeMillis();
         if (entry.expired(now)) {
-            if (clusterClient.delete(key)) {
+            if (clusterClient.delete(key, level)) {
                 decrementCurrItems();
             }
             return null;
@@ -645,24 +944,30 @@ public class CanCachedServer implements AutoCloseable
         return entry;
     }
 
-    private boolean storeEntry(String key, StoredValueCodec.StoredValue entry, Duration ttl)
+    private boolean storeEntry(String key, StoredValueCodec.StoredValue entry, Duration ttl, ConsistencyLevel level)
     {
         Duration effectiveTtl = ttl;
         if (effectiveTtl == null) {
             effectiveTtl = ttlFromExpireAt(entry.expireAt());
         }
         if (effectiveTtl != null && effectiveTtl.isZero()) {
-            if (clusterClient.delete(key)) {
+            if (clusterClient.delete(key, level)) {
                 decrementCurrItems();
             }
             return true;
         }
-        return clusterClient.set(key, StoredValueCodec.encode(entry), effectiveTtl);
+        return clusterClient.set(key, StoredValueCodec.encode(entry), effectiveTtl, level);
     }
 
+    /**
+     * CAS değerleri saatten türetilir ve her çağrıda en az bir artar. Böylece
+     * farklı düğümlerin ürettiği değerler yazma zamanına göre karşılaştırılabilir
+     * ve çoğunluk okumaları replikalar arasından en yenisini seçebilir.
+     */
     private long nextCas()
     {
-        return casCounter.updateAndGet(prev -> prev == Long.MAX_VALUE ? 1L : prev + 1L);
+        long clock = System.currentTimeMillis() << CAS_CLOCK_SHIFT;
+        return casCounter.updateAndGet(prev -> Math.max(prev + 1L, clock));
     }
 
     private long computeExpireAt(Duration ttl)
@@ -699,6 +1004,10 @@ public class CanCachedServer implements AutoCloseable
         TOO_LARGE
     }
 
+    private record TouchOutcome(CasUpdateStatus status, StoredValueCodec.StoredValue entry)
+    {
+    }
+
     private void incrementItems()
     {
         currItems.incrementAndGet();
@@ -0,0 +1,116 @@
+package com.can.net.protocol;
+
+import com.can.cluster.ConsistencyLevel;
+
+/**
+ * Meta komutlarının ({@code mg}, {@code ms}, {@code md}) bayraklarını taşır.
+ * Dönüş bayrakları ({@code v k f c t s}) yanıtın içeriğini, değerli bayraklar
+ * ({@code F T C M O}) ise işlemin kendisini belirler. {@code q} başarılı ya da
+ * ıskalanan yanıtları bastırır. Protokole eklenen {@code L<seviye>} bayrağı
+ * isteğin tutarlılık seviyesini seçer, örn. {@code Lquorum}. Her komut yalnızca
+ * uyguladığı bayrakları kabul eder; diğerleri sessizce yok sayılmak yerine
+ * hata olarak reddedilir.
+ */
+public record MetaFlags(boolean returnValue,
+                        boolean returnKey,
+                        boolean returnFlags,
+                        boolean returnCas,
+                        boolean returnTtl,
+                        boolean returnSize,
+                        boolean quiet,
+                        String opaque,
+                        int clientFlags,
+                        Long ttlSeconds,
+                        Long compareCas,
+                        char mode,
+                        ConsistencyLevel consistency)
+{
+    /** {@code mg} bayrakları; {@code T} isabette kaydın ömrünü günceller. */
+    public static final String GET_FLAGS = "vkfctsqOTL";
+    /** {@code ms} bayrakları. */
+    public static final String SET_FLAGS = "kqOFTCML";
+    /** {@code md} bayrakları; {@code C} silmeyi CAS eşleşmesine bağlar. */
+    public static final String DELETE_FLAGS = "kqOCL";
+
+    /**
+     * {@code parts} dizisinin {@code from} konumundan itibaren bayrakları
+     * çözümler. Tanınmayan ya da hatalı bayraklarda {@link IllegalArgumentException}
+     * fırlatılır.
+     */
+    public static MetaFlags parse(String[] parts, int from)
+    {
+        return parse(parts, from, null);
+    }
+
+    /**
+     * {@link #parse(String[], int)} gibi çözümler; ayrıca {@code allowed} içinde
+     * bulunmayan bayrakları da reddeder. {@code allowed} {@code null} ise tüm
+     * bilinen bayraklar kabul edilir.
+     */
+    public static MetaFlags parse(String[] parts, int from, String allowed)
+    {
+        boolean returnValue = false;
+        boolean returnKey = false;
+        boolean returnFlags = false;
+        boolean returnCas = false;
+        boolean returnTtl = false;
+        boolean returnSize = false;
+        boolean quiet = false;
+        String opaque = null;
+        int clientFlags = 0;
+        Long ttlSeconds = null;
+        Long compareCas = null;
+        char mode = 'S';
+        ConsistencyLevel consistency = null;
+
+        for (int i = from; i < parts.length; i++) {
+            String token = parts[i];
+            if (token.isEmpty()) {
+                continue;
+            }
+            char flag = token.charAt(0);
+            String value = token.substring(1);
+            if (allowed != null && allowed.indexOf(flag) < 0) {
+                throw new IllegalArgumentException("Unsupported meta flag: " + token);
+            }
+            try {
+                switch (flag) {
+                    case 'v' -> returnValue = true;
+                    case 'k' -> returnKey = true;
+                    case 'f' -> returnFlags = true;
+                    case 'c' -> returnCas = true;
+                    case 't' -> returnTtl = true;
+                    case 's' -> returnSize = true;
+                    case 'q' -> quiet = true;
+                    case 'O' -> opaque = value;
+                    case 'F' -> clientFlags = Integer.parseInt(value);
+                    case 'T' -> ttlSeconds = Long.parseLong(value);
+                    case 'C' -> compareCas = Long.parseUnsignedLong(value);
+                    case 'M' -> {
+                        if (value.length() != 1) {
+                            throw new IllegalArgumentException("Invalid mode flag: " + token);
+                        }
+                        mode = Character.toUpperCase(value.charAt(0));
+                    }
+                    case 'L' -> consistency = ConsistencyLevel.fromConfig(value, null);
+                    default -> throw new IllegalArgumentException("Unsupported meta flag: " + token);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid numeric meta flag: " + token, e);
+            }
+        }
+        return new MetaFlags(returnValue, returnKey, returnFlags, returnCas, returnTtl, returnSize, quiet,
+                opaque, clientFlags, ttlSeconds, compareCas, mode, consistency);
+    }
+
+    /** Her yanıtta geri yansıtılan {@code k} ve {@code O} bayraklarını ekler. */
+    public void appendEcho(StringBuilder line, String key)
+    {
+        if (returnKey) {
+            line.append(" k").append(key);
+        }
+        if (opaque != null) {
+            line.append(" O").append(opaque);
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.can.net.protocol;
 import java.time.Duration;
 
 /**
- * İstemciden okunacak gövde verisini tanımlar.
+ * İstemciden okunacak gövde verisini tanımlar. Komut {@code ms} ile geldiyse
+ * {@code meta} bayrakları taşır ve yanıt meta biçiminde üretilir.
  */
 public record PendingStorageCommand(String command,
                                     String key,
@@ -12,10 +13,23 @@ public record PendingStorageCommand(String command,
                                     int bytes,
                                     boolean noreply,
                                     boolean isCas,
-                                    long casUnique)
+                                    long casUnique,
+                                    MetaFlags meta)
 {
     private static final int CRLF_LENGTH = 2;
 
+    public PendingStorageCommand(String command,
+                                 String key,
+                                 int flags,
+                                 Duration ttl,
+                                 int bytes,
+                                 boolean noreply,
+                                 boolean isCas,
+                                 long casUnique)
+    {
+        this(command, key, flags, ttl, bytes, noreply, isCas, casUnique, null);
+    }
+
     public int totalLength()
     {
         return bytes + CRLF_LENGTH;
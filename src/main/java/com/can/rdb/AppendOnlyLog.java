@@ -0,0 +1,711 @@
+package com.can.rdb;
+
+import com.can.codec.Codec;
+import com.can.constants.NodeProtocol;
+import com.can.core.CacheEngine;
+import io.vertx.core.Context;
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snapshot'lar arasındaki yazmaları kaybetmemek için {@link CacheEngine}
+ * değişikliklerini ikili bir append-only günlüğe yazar. Event-loop tarafı
+ * yalnızca kilitsiz bir kuyruğa kayıt ekler; tek bir sanal thread kuyrukta
+ * biriken kayıtları {@link SnapshotFormat} kayıt biçiminde ve CRC32C korumalı
+ * tek bir blok olarak yazar (grup commit) ve {@link FsyncPolicy} uyarınca diske
+ * senkronize eder. {@link FsyncPolicy#ALWAYS} ile yazan thread, kaydını içeren
+ * grup diske senkronize edilene kadar bekler. Kuyruktaki kayıt sayısı
+ * {@code maxQueuedRecords} sınırını aştığında yazan thread'ler yazıcı kuyruğu
+ * boşaltana kadar bekletilir; sınır, kilit altında eklenen kayıtlar nedeniyle
+ * eşzamanlı yazan sayısı kadar aşılabilir. Bekleme, değişikliği yapan thread'de
+ * segment kilidi bırakıldıktan sonra gerçekleşir; event-loop thread'leri
+ * bekletilmez, bunun yerine {@link CacheEngine#takePendingCommit()} ile alınan
+ * aşama kayıt kalıcı olunca tamamlanır. Yazma ya da senkronizasyon hatası
+ * bekleyenlere iletilir ve günlük bellekteki içerikten yeniden yazılana kadar
+ * yeni kayıtlar kalıcı sayılmaz. Günlük, son yeniden yazımdan sonraki boyutunun
+ * belirlenen yüzdesi kadar büyüdüğünde motorun o anki içeriğiyle arka planda
+ * yeniden yazılarak sıkıştırılır. Başlangıçta snapshot yüklendikten sonra günlük
+ * baştan sona tekrar oynatılır; yarım kalmış ya da bozuk son blok atılır.
+ */
+public final class AppendOnlyLog<K> implements AutoCloseable
+{
+    private static final Logger LOG = Logger.getLogger(AppendOnlyLog.class);
+
+    static final int MAGIC = 0x43414E41; // "CANA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4;
+    private static final byte[] EMPTY = new byte[0];
+    private static final long EVERYSEC_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long REWRITE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    static final int DEFAULT_MAX_QUEUED_RECORDS = 65_536;
+
+    private final Path path;
+    private final Codec<K> keyCodec;
+    private final FsyncPolicy fsyncPolicy;
+    private final int rewritePercentage;
+    private final long rewriteMinBytes;
+    private final int maxQueuedRecords;
+    private final ConcurrentLinkedQueue<Entry<K>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadLocal<long[]> lastEnqueued = ThreadLocal.withInitial(() -> new long[1]);
+    // Bekleyen yazarlar bu nesne üzerinde bekler; yazıcı her turdan sonra uyandırır.
+    private final Object progress = new Object();
+    // Event-loop thread'lerinin bekleyen kayıtları; kalıcı olduklarında tamamlanır.
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private volatile long committedSequence;
+    private volatile long failedSequence;
+    private volatile IOException failure;
+    private final AtomicBoolean parked = new AtomicBoolean(false);
+    private final AtomicBoolean rewriteRequested = new AtomicBoolean(false);
+    private volatile boolean running;
+    private volatile Thread writer;
+    private volatile long size;
+
+    // Aşağıdaki alanlara start sonrasında yalnızca yazıcı thread erişir.
+    private CacheEngine<K, ?> engine;
+    private AutoCloseable subscription;
+    private FileChannel channel;
+    private BlockWriter blocks;
+    private long baseSize;
+    private long lastFsyncNanos;
+    private boolean dirty;
+    private long drainedSequence;
+    private long syncedSequence;
+    private boolean degraded;
+    private long rewriteRetryNanos;
+    private long rewriteStartedNanos;
+    private CompletableFuture<Void> rewriteTask;
+    private List<Entry<K>> rewriteTail;
+
+    public AppendOnlyLog(File file, Codec<K> keyCodec, FsyncPolicy fsyncPolicy,
+                         int rewritePercentage, long rewriteMinBytes)
+    {
+        this(file, keyCodec, fsyncPolicy, rewritePercentage, rewriteMinBytes, DEFAULT_MAX_QUEUED_RECORDS);
+    }
+
+    public AppendOnlyLog(File file, Codec<K> keyCodec, FsyncPolicy fsyncPolicy,
+                         int rewritePercentage, long rewriteMinBytes, int maxQueuedRecords)
+    {
+        this.path = file.toPath();
+        this.keyCodec = keyCodec;
+        this.fsyncPolicy = fsyncPolicy;
+        this.rewritePercentage = rewritePercentage;
+        this.rewriteMinBytes = Math.max(0L, rewriteMinBytes);
+        this.maxQueuedRecords = Math.max(1, maxQueuedRecords);
+    }
+
+    /**
+     * Günlükteki kayıtları motora uygular ve uygulanan kayıt sayısını döndürür.
+     * Son blok yarım ya da bozuksa dosya son sağlam bloğun sonundan kesilir.
+     */
+    public long replay(CacheEngine<K, ?> target)
+    {
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (in.size() < HEADER_BYTES) {
+                in.truncate(0L);
+                return 0L;
+            }
+            readHeader(in);
+            BlockReader reader = new BlockReader(in, HEADER_BYTES);
+            byte[] op = new byte[1];
+            long applied = 0L;
+            while (true) {
+                BlockReader.Block block;
+                try {
+                    block = reader.next();
+                } catch (IOException e) {
+                    LOG.warnf("Discarding damaged append-only log tail at offset %d: %s", reader.position(), e.getMessage());
+                    in.truncate(reader.position());
+                    break;
+                }
+                if (block == null) {
+                    break;
+                }
+                BlockReader.forEachRecord(block, (code, key, value, expireAt) -> {
+                    op[0] = code;
+                    target.replay(op, key, value, expireAt);
+                });
+                applied += block.records();
+            }
+            return applied;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Motor değişikliklerini kuyruğa almaya başlar; kayıtlar {@link #start(CacheEngine)}
+     * çağrılana kadar bellekte bekler. Sıcak başlatmada günlük arka planda
+     * tekrar oynatılırken gelen istemci yazmalarının kaybolmaması için kullanılır.
+     * Yazıcı henüz çalışmadığından bu sürede yazan thread'ler bekletilmez.
+     */
+    public synchronized void capture(CacheEngine<K, ?> source)
+    {
+        if (subscription == null) {
+            subscription = source.onMutation(new CacheEngine.MutationListener<>()
+            {
+                @Override
+                public void onMutation(byte op, K key, byte[] value, long expireAtMillis)
+                {
+                    enqueue(op, key, value, expireAtMillis);
+                }
+
+                @Override
+                public CompletionStage<Void> afterMutation()
+                {
+                    return awaitCommit();
+                }
+            });
+        }
+    }
+
+    /** Motor değişikliklerini dinlemeye ve günlüğe yazmaya başlar. */
+    public synchronized void start(CacheEngine<K, ?> source)
+    {
+        if (running) {
+            return;
+        }
+        try {
+            engine = source;
+            openForAppend();
+            baseSize = size;
+            lastFsyncNanos = System.nanoTime();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        running = true;
+        capture(source);
+        writer = Thread.ofVirtual().name("aof-writer").start(this::run);
+    }
+
+    /** Günlüğün bir sonraki turda yeniden yazılmasını ister. */
+    public void requestRewrite()
+    {
+        rewriteRequested.set(true);
+        wakeWriter();
+    }
+
+    /** Günlük dosyasının bilinen son boyutu. */
+    public long size()
+    {
+        return size;
+    }
+
+    private void enqueue(byte op, K key, byte[] value, long expireAt)
+    {
+        long seq = sequence.incrementAndGet();
+        queue.offer(new Entry<>(seq, op, key, value, expireAt));
+        queued.incrementAndGet();
+        lastEnqueued.get()[0] = seq;
+        wakeWriter();
+    }
+
+    /**
+     * Kuyruk sınırın üzerindeyse yazıcı boşaltana kadar, {@link FsyncPolicy#ALWAYS}
+     * ile de bu thread'in son kaydı diske senkronize edilene kadar bekler. Event-loop
+     * thread'i bekletilmez; bekleme gerekiyorsa kayıt kalıcı olduğunda tamamlanan
+     * bir aşama döner ve çağıran yanıtını ona bağlar. Kaydı içeren yazma ya da
+     * senkronizasyon başarısız olduysa hata çağırana iletilir.
+     */
+    private CompletionStage<Void> awaitCommit()
+    {
+        if (!running) {
+            return null;
+        }
+        long seq = lastEnqueued.get()[0];
+        boolean sync = fsyncPolicy == FsyncPolicy.ALWAYS;
+        if (Context.isOnEventLoopThread()) {
+            long target = sync || queued.get() > maxQueuedRecords ? seq : 0L;
+            return committedSequence >= target ? null : register(target);
+        }
+        long target = sync ? seq : 0L;
+        if (queued.get() <= maxQueuedRecords && committedSequence >= target) {
+            return null;
+        }
+        wakeWriter();
+        boolean interrupted = false;
+        try {
+            synchronized (progress) {
+                while (running && (queued.get() > maxQueuedRecords || committedSequence < target)) {
+                    if (committedSequence < target && failedSequence >= target) {
+                        throw new UncheckedIOException("Failed to persist append-only log record", failure);
+                    }
+                    try {
+                        progress.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (committedSequence < target && failedSequence >= target) {
+                    throw new UncheckedIOException("Failed to persist append-only log record", failure);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return null;
+    }
+
+    private CompletionStage<Void> register(long seq)
+    {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        waiters.add(new Waiter(seq, future));
+        wakeWriter();
+        // Kayıt eklenirken yazıcı ilerlemiş olabilir; durum yeniden kontrol edilir.
+        completeWaiters();
+        return future;
+    }
+
+    /** Kaydedilen sırayı yayınlar ve bekleyen yazarları uyandırır. */
+    private void signalProgress(long committed)
+    {
+        synchronized (progress) {
+            committedSequence = committed;
+            progress.notifyAll();
+        }
+        completeWaiters();
+    }
+
+    /** Yazılmış ama kalıcı olmamış kayıtların beklerini hatayla sonlandırır. */
+    private void failWaiters(IOException cause)
+    {
+        synchronized (progress) {
+            failure = cause;
+            failedSequence = drainedSequence;
+            progress.notifyAll();
+        }
+        completeWaiters();
+    }
+
+    private void completeWaiters()
+    {
+        long committed = committedSequence;
+        long failed = failedSequence;
+        IOException error = failure;
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            if (waiter.sequence() <= committed) {
+                it.remove();
+                waiter.future().complete(null);
+            } else if (waiter.sequence() <= failed) {
+                it.remove();
+                waiter.future().completeExceptionally(error);
+            }
+        }
+    }
+
+    private void wakeWriter()
+    {
+        if (parked.get() && parked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void run()
+    {
+        try {
+            while (running || !queue.isEmpty()) {
+                boolean progressed;
+                try {
+                    progressed = drain();
+                    maybeFsync(progressed);
+                } catch (IOException | UncheckedIOException e) {
+                    writeFailed(e instanceof UncheckedIOException unchecked ? unchecked.getCause() : (IOException) e);
+                    progressed = true;
+                }
+                progressed |= rewriteStep();
+                if (progressed) {
+                    publish();
+                } else {
+                    parked.set(true);
+                    if (running && queue.isEmpty() && !rewriteRequested.get()
+                            && (rewriteTask == null || !rewriteTask.isDone())) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked.set(false);
+                }
+            }
+        } finally {
+            shutdownWriter();
+        }
+    }
+
+    /** Günlük sağlamsa kalıcı hale gelen sırayı bekleyenlere bildirir. */
+    private void publish()
+    {
+        if (!degraded) {
+            signalProgress(fsyncPolicy == FsyncPolicy.ALWAYS ? syncedSequence : drainedSequence);
+        }
+    }
+
+    /**
+     * Kuyrukta biriken kayıtları tek blok halinde yazar; sürekli yazmada
+     * senkronizasyon gecikmesin diye bir turda en fazla kuyruk sınırı kadar kayıt
+     * alınır. Yeniden yazım sürerken kayıtlar yeni dosyaya eklenmek üzere de
+     * saklanır; günlük açılamamışsa yalnızca yeniden yazımı bekler.
+     */
+    private boolean drain() throws IOException
+    {
+        Entry<K> entry;
+        boolean wrote = false;
+        int drained = 0;
+        while (drained < maxQueuedRecords && (entry = queue.poll()) != null) {
+            queued.decrementAndGet();
+            drained++;
+            drainedSequence = entry.sequence();
+            if (rewriteTail != null) {
+                rewriteTail.add(entry);
+            }
+            if (blocks != null) {
+                append(blocks, entry);
+                wrote = true;
+            }
+        }
+        if (wrote) {
+            blocks.flush();
+            size = channel.size();
+            dirty = true;
+        }
+        return drained > 0;
+    }
+
+    private void append(BlockWriter writer, Entry<K> entry) throws IOException
+    {
+        byte[] key = entry.key() == null ? EMPTY : keyCodec.encode(entry.key());
+        byte[] value = entry.value() == null ? EMPTY : entry.value();
+        writer.append(entry.op(), key, value, entry.expireAt());
+    }
+
+    private void maybeFsync(boolean wrote) throws IOException
+    {
+        if (!dirty || channel == null) {
+            return;
+        }
+        boolean force = switch (fsyncPolicy) {
+            case ALWAYS -> wrote;
+            case EVERYSEC -> System.nanoTime() - lastFsyncNanos >= EVERYSEC_NANOS;
+            case NO -> false;
+        };
+        if (force) {
+            channel.force(false);
+            lastFsyncNanos = System.nanoTime();
+            dirty = false;
+            syncedSequence = drainedSequence;
+        }
+    }
+
+    /**
+     * Yazma ya da senkronizasyon hatasından sonra kalıcı olmayan kayıtların
+     * beklerine hata iletilir ve günlük bellekteki içerikten yeniden yazılana
+     * kadar yeni kayıtlar kalıcı sayılmaz. Dosya son sağlam boyutuna kesilir;
+     * kesilemezse kanal kapatılır ve yeniden yazım yeni dosyayı açar.
+     */
+    private void writeFailed(IOException cause)
+    {
+        LOG.error("Failed to write append-only log; rewriting it from memory", cause);
+        if (channel != null) {
+            try {
+                channel.truncate(size);
+                blocks = new BlockWriter(channel, SnapshotFormat.DEFAULT_BLOCK_BYTES);
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+                closeChannel();
+            }
+        }
+        degraded = true;
+        rewriteRetryNanos = System.nanoTime();
+        failWaiters(cause);
+    }
+
+    private boolean shouldRewrite()
+    {
+        if (rewritePercentage <= 0 || size < rewriteMinBytes) {
+            return false;
+        }
+        return size - baseSize >= baseSize * rewritePercentage / 100;
+    }
+
+    /** Gerekiyorsa yeniden yazımı başlatır ya da biten yeniden yazımı devreye alır. */
+    private boolean rewriteStep()
+    {
+        if (rewriteTask == null) {
+            boolean due = degraded
+                    ? System.nanoTime() - rewriteRetryNanos >= 0L
+                    : rewriteRequested.getAndSet(false) || shouldRewrite();
+            if (due) {
+                startRewrite();
+            }
+            return false;
+        }
+        if (!rewriteTask.isDone()) {
+            return false;
+        }
+        finishRewrite();
+        return true;
+    }
+
+    /**
+     * Motorun o anki içeriğini ayrı bir sanal thread'de yeni bir dosyaya yazar.
+     * Yazıcı bu sürede kayıtları eski günlüğe yazmaya devam eder ve başlangıçtan
+     * sonra aldığı kayıtları ayrıca saklar; bunlar bitişte yeni dosyaya eklenir.
+     * Kayıtlar anahtarın son durumunu taşıdığı için tekrar oynatma aynı sonuca ulaşır.
+     */
+    private void startRewrite()
+    {
+        rewriteRequested.set(false);
+        rewriteTail = new ArrayList<>();
+        rewriteStartedNanos = System.nanoTime();
+        CompletableFuture<Void> task = new CompletableFuture<>();
+        rewriteTask = task;
+        Path temp = rewritePath();
+        Thread.ofVirtual().name("aof-rewrite").start(() -> {
+            try {
+                writeBase(temp);
+                task.complete(null);
+            } catch (Throwable t) {
+                task.completeExceptionally(t);
+            } finally {
+                wakeWriter();
+            }
+        });
+    }
+
+    private void writeBase(Path temp) throws IOException
+    {
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out);
+            BlockWriter base = new BlockWriter(out, SnapshotFormat.DEFAULT_BLOCK_BYTES);
+            engine.forEachEntry((key, value, expireAt) -> {
+                try {
+                    base.append(NodeProtocol.CMD_SET, keyCodec.encode(key), value, expireAt);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            base.flush();
+            out.force(true);
+        }
+    }
+
+    /**
+     * Biten yeniden yazıma bekleyen kayıtları ekleyip eski günlüğün yerine koyar.
+     * Başarısız olursa eski günlük açık kaldığından yazmaya devam edilir; günlük
+     * hatalı durumdaysa bekleyenlere hata iletilir ve yeniden yazım tekrar denenir.
+     */
+    private void finishRewrite()
+    {
+        CompletableFuture<Void> task = rewriteTask;
+        List<Entry<K>> tail = rewriteTail;
+        rewriteTask = null;
+        rewriteTail = null;
+        Path temp = rewritePath();
+        long previous = size;
+        try {
+            task.join();
+            appendTail(temp, tail);
+            install(temp);
+        } catch (IOException | RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            LOG.error("Failed to rewrite append-only log", cause);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+            if (degraded) {
+                rewriteRetryNanos = System.nanoTime() + REWRITE_RETRY_NANOS;
+                failWaiters(cause instanceof IOException io ? io : new IOException(cause));
+            }
+            return;
+        }
+        LOG.infof("Rewrote append-only log from %d to %d bytes in %d ms", previous, size,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - rewriteStartedNanos));
+    }
+
+    private void appendTail(Path temp, List<Entry<K>> tail) throws IOException
+    {
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            BlockWriter writer = new BlockWriter(out, SnapshotFormat.DEFAULT_BLOCK_BYTES);
+            for (Entry<K> entry : tail) {
+                append(writer, entry);
+            }
+            writer.flush();
+            out.force(true);
+        }
+    }
+
+    /**
+     * Yeni dosyayı eski günlüğün yerine taşır ve yazmaya açar. Eski kanal taşıma
+     * başarılı olana kadar açık kalır; yeni dosya açılamazsa günlük hatalı duruma
+     * geçer ve yeniden yazım tekrar denenene kadar kayıtlar kalıcı sayılmaz.
+     */
+    private void install(Path temp) throws IOException
+    {
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        closeChannel();
+        degraded = true;
+        openForAppend();
+        baseSize = size;
+        dirty = false;
+        degraded = false;
+        // Yeni dosya yazılmış kayıtların etkisini de içerir ve diske senkronize edilmiştir.
+        syncedSequence = drainedSequence;
+    }
+
+    private Path rewritePath()
+    {
+        return path.resolveSibling(path.getFileName() + ".rewrite");
+    }
+
+    private void closeChannel()
+    {
+        FileChannel current = channel;
+        channel = null;
+        blocks = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close append-only log channel", e);
+            }
+        }
+    }
+
+    /** Yazıcı dururken süren yeniden yazımı bitirir, günlüğü diske senkronize edip kapatır. */
+    private void shutdownWriter()
+    {
+        if (rewriteTask != null) {
+            try {
+                rewriteTask.join();
+            } catch (RuntimeException ignored) {
+            }
+            finishRewrite();
+        }
+        if (channel != null) {
+            try {
+                blocks.flush();
+                channel.force(true);
+                syncedSequence = drainedSequence;
+                publish();
+            } catch (IOException e) {
+                LOG.error("Failed to close append-only log", e);
+                failWaiters(e);
+            }
+            closeChannel();
+        }
+        if (degraded) {
+            LOG.error("Append-only log closed before it could be rewritten after a write failure");
+            failWaiters(failure != null ? failure : new IOException("Append-only log is unavailable"));
+        }
+    }
+
+    private void openForAppend() throws IOException
+    {
+        File parent = path.toAbsolutePath().getParent().toFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0L) {
+            writeHeader(channel);
+        }
+        blocks = new BlockWriter(channel, SnapshotFormat.DEFAULT_BLOCK_BYTES);
+        size = channel.size();
+    }
+
+    private static void writeHeader(FileChannel out) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        SnapshotFormat.writeFully(out, header);
+    }
+
+    private static void readHeader(FileChannel in) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        SnapshotFormat.readFully(in, header, 0L);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not an append-only log file");
+        }
+        int version = header.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported append-only log version " + version);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        Thread current;
+        synchronized (this) {
+            try {
+                if (subscription != null) {
+                    subscription.close();
+                    subscription = null;
+                }
+            } catch (Exception ignored) {
+            }
+            if (!running) {
+                queue.clear();
+                queued.set(0);
+                return;
+            }
+            running = false;
+            current = writer;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+        IOException closed = new IOException("Append-only log closed");
+        for (Waiter waiter; (waiter = waiters.poll()) != null; ) {
+            waiter.future().completeExceptionally(closed);
+        }
+    }
+
+    private record Entry<K>(long sequence, byte op, K key, byte[] value, long expireAt)
+    {
+    }
+
+    private record Waiter(long sequence, CompletableFuture<Void> future)
+    {
+    }
+}
@@ -0,0 +1,167 @@
+package com.can.rdb;
+
+import com.can.codec.BlockCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link BlockWriter} ile yazılmış blokları sırayla okur ve her bloğun CRC32C
+ * değerini doğrular. Dosya sonu işaretine ulaşmadan dosya biterse ya da bir
+ * blok bozuksa {@link IOException} fırlatılır. {@link #mapped(ByteBuffer, long, BlockCodec)}
+ * ile oluşturulan okuyucu bellek eşlemeli bir bölge üzerinde çalışır; blok
+ * yükleri kopyalanmadan aynı bölgenin dilimleri olarak döndürülür. Sıkıştırılmış
+ * dosyalarda blok, CRC doğrulandıktan sonra okuyan thread'de açılır.
+ */
+final class BlockReader
+{
+    private final FileChannel channel;
+    private final ByteBuffer region;
+    private final long base;
+    private final BlockCodec codec;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_BYTES);
+    private long position;
+
+    BlockReader(FileChannel channel, long position)
+    {
+        this(channel, position, BlockCodec.NONE);
+    }
+
+    BlockReader(FileChannel channel, long position, BlockCodec codec)
+    {
+        this.channel = channel;
+        this.region = null;
+        this.base = 0L;
+        this.codec = codec;
+        this.position = position;
+    }
+
+    private BlockReader(ByteBuffer region, long base, BlockCodec codec)
+    {
+        this.channel = null;
+        this.region = region;
+        this.base = base;
+        this.codec = codec;
+        this.position = 0L;
+    }
+
+    /**
+     * Dosyanın {@code base} konumundan itibaren eşlenmiş {@code region}
+     * üzerinden okuyan bir okuyucu döndürür; konumlar hata mesajlarında dosya
+     * başına göre raporlanır.
+     */
+    static BlockReader mapped(ByteBuffer region, long base, BlockCodec codec)
+    {
+        return new BlockReader(region, base, codec);
+    }
+
+    /** Sıradaki bloğun yükünü döndürür; dosya sonu işaretinde {@code null} döner. */
+    Block next() throws IOException
+    {
+        ByteBuffer header = readHeader();
+        int length = header.getInt(0);
+        int records = header.getInt(4);
+        int checksum = header.getInt(8);
+        if (length == 0 && records == 0) {
+            return null;
+        }
+        if (length < 0 || length > SnapshotFormat.MAX_BLOCK_BYTES || records <= 0) {
+            throw new IOException("Invalid snapshot block at offset " + position());
+        }
+        ByteBuffer payload = readPayload(length);
+        if (SnapshotFormat.crc(payload.duplicate()) != checksum) {
+            throw new IOException("Snapshot block checksum mismatch at offset " + position());
+        }
+        if (codec != BlockCodec.NONE) {
+            payload = decompress(payload);
+        }
+        position += SnapshotFormat.BLOCK_HEADER_BYTES + length;
+        return new Block(payload, records);
+    }
+
+    private ByteBuffer decompress(ByteBuffer payload) throws IOException
+    {
+        if (payload.remaining() < 4) {
+            throw new IOException("Invalid compressed snapshot block at offset " + position());
+        }
+        int rawLength = payload.getInt();
+        if (rawLength < 0 || rawLength > SnapshotFormat.MAX_BLOCK_BYTES) {
+            throw new IOException("Invalid compressed snapshot block length at offset " + position());
+        }
+        byte[] compressed = new byte[payload.remaining()];
+        payload.get(compressed);
+        return ByteBuffer.wrap(codec.decompress(compressed, 0, compressed.length, rawLength));
+    }
+
+    private ByteBuffer readHeader() throws IOException
+    {
+        if (region == null) {
+            blockHeader.clear();
+            SnapshotFormat.readFully(channel, blockHeader, position);
+            return blockHeader;
+        }
+        return slice(position, SnapshotFormat.BLOCK_HEADER_BYTES);
+    }
+
+    private ByteBuffer readPayload(int length) throws IOException
+    {
+        long start = position + SnapshotFormat.BLOCK_HEADER_BYTES;
+        if (region == null) {
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            SnapshotFormat.readFully(channel, payload, start);
+            return payload.flip();
+        }
+        return slice(start, length);
+    }
+
+    private ByteBuffer slice(long start, int length) throws IOException
+    {
+        if (start + length > region.limit()) {
+            throw new EOFException("Truncated snapshot file");
+        }
+        return region.slice((int) start, length);
+    }
+
+    /** Okunacak sıradaki bloğun dosya içindeki konumu. */
+    long position()
+    {
+        return base + position;
+    }
+
+    /** Blok yükündeki kayıtları sırayla çözer. */
+    static void forEachRecord(Block block, RecordConsumer consumer) throws IOException
+    {
+        ByteBuffer payload = block.payload();
+        for (int i = 0; i < block.records(); i++) {
+            if (payload.remaining() < SnapshotFormat.RECORD_HEADER_BYTES) {
+                throw new IOException("Snapshot block ended before record " + i);
+            }
+            byte op = payload.get();
+            int keyLength = payload.getInt();
+            int valueLength = payload.getInt();
+            long expireAt = payload.getLong();
+            if (keyLength < 0 || valueLength < 0 || (long) keyLength + valueLength > payload.remaining()) {
+                throw new IOException("Invalid snapshot record lengths");
+            }
+            byte[] key = new byte[keyLength];
+            byte[] value = new byte[valueLength];
+            payload.get(key).get(value);
+            consumer.accept(op, key, value, expireAt);
+        }
+        if (payload.hasRemaining()) {
+            throw new IOException("Snapshot block has trailing bytes");
+        }
+    }
+
+    record Block(ByteBuffer payload, int records)
+    {
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer
+    {
+        void accept(byte op, byte[] key, byte[] value, long expireAt);
+    }
+}
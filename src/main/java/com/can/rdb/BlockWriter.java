@@ -0,0 +1,122 @@
+package com.can.rdb;
+
+import com.can.cluster.RateLimiter;
+import com.can.codec.BlockCodec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Kayıtları bellekte bir blokta biriktirip dolduğunda CRC32C ile birlikte tek
+ * bir toplu yazmayla {@link FileChannel}'a aktarır. Blok boyutunu aşan tek bir
+ * kayıt kendi bloğunda yazılır. Kodlayıcı {@link BlockCodec#NONE} değilse her
+ * blok ham uzunluğu önüne eklenerek sıkıştırılır. Bir {@link RateLimiter}
+ * verilirse her bloktan sonra diske yazılan bayt kadar jeton beklenir.
+ */
+final class BlockWriter
+{
+    private final FileChannel channel;
+    private final int blockBytes;
+    private final RateLimiter throttle;
+    private final BlockCodec codec;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_BYTES);
+    private ByteBuffer block;
+    private int blockRecords;
+    private long totalEntries;
+
+    BlockWriter(FileChannel channel, int blockBytes)
+    {
+        this(channel, blockBytes, null, BlockCodec.NONE);
+    }
+
+    BlockWriter(FileChannel channel, int blockBytes, RateLimiter throttle, BlockCodec codec)
+    {
+        this.channel = channel;
+        this.throttle = throttle;
+        this.codec = codec;
+        this.blockBytes = Math.max(SnapshotFormat.RECORD_HEADER_BYTES, blockBytes);
+        this.block = ByteBuffer.allocate(this.blockBytes);
+    }
+
+    void append(byte op, byte[] key, byte[] value, long expireAt) throws IOException
+    {
+        write(op, key, value, expireAt);
+        totalEntries++;
+    }
+
+    /**
+     * Önbellek girdisi olmayan bir kaydı (örneğin politika durumu) bloğa ekler;
+     * kayıt bloğun kayıt sayısına girer ancak {@link #finish()} toplamına girmez.
+     */
+    void appendMetadata(byte op, byte[] key, byte[] value) throws IOException
+    {
+        write(op, key, value, 0L);
+    }
+
+    private void write(byte op, byte[] key, byte[] value, long expireAt) throws IOException
+    {
+        int size = SnapshotFormat.RECORD_HEADER_BYTES + key.length + value.length;
+        if (block.remaining() < size) {
+            flush();
+            if (block.remaining() < size) {
+                block = ByteBuffer.allocate(size);
+            }
+        }
+        block.put(op).putInt(key.length).putInt(value.length).putLong(expireAt).put(key).put(value);
+        blockRecords++;
+    }
+
+    /** Bekleyen bloğu ve dosya sonu işaretini yazar; meta kayıtlar hariç girdi sayısını döndürür. */
+    long finish() throws IOException
+    {
+        flush();
+        blockHeader.clear();
+        blockHeader.putInt(0).putInt(0).putInt(0).flip();
+        SnapshotFormat.writeFully(channel, blockHeader);
+        return totalEntries;
+    }
+
+    /** Biriken kayıtları tek blok olarak yazar; blok boşsa bir şey yapmaz. */
+    void flush() throws IOException
+    {
+        if (blockRecords == 0) {
+            return;
+        }
+        block.flip();
+        ByteBuffer payload = block;
+        if (codec != BlockCodec.NONE) {
+            byte[] compressed = codec.compress(block.array(), 0, block.limit());
+            payload = ByteBuffer.allocate(4 + compressed.length).putInt(block.limit()).put(compressed).flip();
+        }
+        crc.reset();
+        crc.update(payload.array(), 0, payload.limit());
+        blockHeader.clear();
+        blockHeader.putInt(payload.limit()).putInt(blockRecords).putInt((int) crc.getValue()).flip();
+        SnapshotFormat.writeFully(channel, blockHeader, payload);
+        throttle(throttle, SnapshotFormat.BLOCK_HEADER_BYTES + payload.limit());
+        blockRecords = 0;
+        if (block.capacity() > blockBytes) {
+            block = ByteBuffer.allocate(blockBytes);
+        } else {
+            block.clear();
+        }
+    }
+
+    /** Sınırlayıcı varsa {@code bytes} kadar jeton birikene kadar bekler. */
+    static void throttle(RateLimiter throttle, long bytes) throws IOException
+    {
+        if (throttle == null || bytes <= 0L) {
+            return;
+        }
+        try {
+            throttle.acquire(0L, bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttling snapshot writes");
+        }
+    }
+}
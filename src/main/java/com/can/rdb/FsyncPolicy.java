@@ -0,0 +1,28 @@
+package com.can.rdb;
+
+import java.util.Locale;
+
+/**
+ * Append-only günlüğün diske ne sıklıkla senkronize edileceğini belirler.
+ * {@link #ALWAYS} her grup yazmasından sonra {@code fsync} yapar ve yazan
+ * thread kaydı diske inene kadar bekler; {@link #EVERYSEC} en fazla saniyede
+ * bir {@code fsync} yapar ve çökmede son saniyenin yazmaları kaybolabilir;
+ * {@link #NO} ise zamanlamayı işletim sistemine bırakır.
+ */
+public enum FsyncPolicy
+{
+    ALWAYS,
+    EVERYSEC,
+    NO;
+
+    public static FsyncPolicy fromConfig(String value)
+    {
+        if (value == null || value.isBlank()) return EVERYSEC;
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        try {
+            return FsyncPolicy.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown fsync policy: " + value, ex);
+        }
+    }
+}
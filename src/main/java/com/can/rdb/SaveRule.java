@@ -0,0 +1,48 @@
+package com.can.rdb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis'in {@code save <saniye> <değişiklik>} kuralına karşılık gelir: son
+ * başarılı snapshot'tan beri en az {@code seconds} saniye geçmiş ve en az
+ * {@code changes} değişiklik olmuşsa yeni snapshot alınır.
+ */
+public record SaveRule(long seconds, long changes)
+{
+    public SaveRule
+    {
+        if (seconds <= 0L || changes <= 0L) {
+            throw new IllegalArgumentException("Save rule values must be positive: " + seconds + " " + changes);
+        }
+    }
+
+    public boolean matches(long elapsedSeconds, long changesSinceSave)
+    {
+        return elapsedSeconds >= seconds && changesSinceSave >= changes;
+    }
+
+    /**
+     * {@code "3600 1 300 100 60 10000"} biçimindeki saniye/değişiklik çiftlerini
+     * çözer; boş değer kural olmadığı anlamına gelir.
+     */
+    public static List<SaveRule> parse(String value)
+    {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        String[] tokens = value.trim().split("[\\s,]+");
+        if (tokens.length % 2 != 0) {
+            throw new IllegalArgumentException("Save rules must be <seconds> <changes> pairs: " + value);
+        }
+        List<SaveRule> rules = new ArrayList<>(tokens.length / 2);
+        for (int i = 0; i < tokens.length; i += 2) {
+            try {
+                rules.add(new SaveRule(Long.parseLong(tokens[i]), Long.parseLong(tokens[i + 1])));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid save rule: " + tokens[i] + " " + tokens[i + 1], ex);
+            }
+        }
+        return List.copyOf(rules);
+    }
+}
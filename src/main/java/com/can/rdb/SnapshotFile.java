@@ -1,76 +1,407 @@
 package com.can.rdb;
 
+import com.can.cluster.RateLimiter;
+import com.can.codec.BlockCodec;
 import com.can.codec.Codec;
 import com.can.constants.NodeProtocol;
 import com.can.core.CacheEngine;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntFunction;
 import java.util.regex.Pattern;
 
 /**
- * Önbellek içeriğini kalıcı hale getirmek amacıyla RDB benzeri düz dosya formatı
- * üzerinden okuma/yazma işlemlerini üstlenen kayıt sınıfıdır. Anahtarları verilen
- * codec ile kodlayıp Base64'e çevirerek satır satır diske yazar, uygulama
- * yeniden başladığında ise aynı dosyayı okuyup {@link CacheEngine} üzerinde
- * komutları tekrar oynatarak belleği geri yükler.
+ * Önbellek içeriğini kalıcı hale getirmek amacıyla RDB benzeri dosya formatı
+ * üzerinden okuma/yazma işlemlerini üstlenen kayıt sınıfıdır. Kayıtlar
+ * {@link SnapshotFormat} ile tanımlanan sürümlü ikili biçimde, uzunluk önekli
+ * ve CRC32C korumalı bloklar halinde {@link FileChannel} üzerinden yazılır.
+ * Her önbellek segmenti ayrı bir bölüm olarak paralel yazılır ve yüklenirken
+ * her bölümü tek bir thread okur; segment sayısı değişmediyse her segmente
+ * yalnızca bir thread yazdığından yükleme sırasında kilit yarışı oluşmaz.
+ * Artımlı modda tam snapshot'ın yanına yalnızca değişen anahtarları ve silme
+ * kayıtlarını taşıyan {@code <dosya>.delta.<sıra>} dosyaları yazılır; yükleme
+ * tabanı ve ardından deltaları sırayla uygular. Bloklar seçilen
+ * {@link BlockCodec} ile sıkıştırılabilir; kodlayıcı her dosyanın başlığına
+ * yazıldığı için farklı ayarlarla yazılmış taban ve deltalar birlikte
+ * yüklenebilir ve açma işlemi bölümleri yükleyen thread'lerde paralel yürür.
+ * Geçiş dönemi için eski Base64 tabanlı satır formatındaki dosyalar da okunabilir.
+ *
+ * @param parallelism         yazma ve yüklemede kullanılacak en fazla thread sayısı;
+ *                            0 veya negatifse işlemci sayısı kullanılır
+ * @param writeBytesPerSecond snapshot yazımının diske aktarabileceği en fazla
+ *                            bayt/saniye; 0 sınırsızdır
+ * @param codec               yazılan blokların sıkıştırma kodlayıcısı
  */
-public record SnapshotFile<K, V>(File file, Codec<K> keyCodec)
+public record SnapshotFile<K, V>(File file, Codec<K> keyCodec, int parallelism, long writeBytesPerSecond,
+                                 BlockCodec codec)
 {
     private static final char FIELD_SEPARATOR = '\t';
     private static final String FIELD_SEPARATOR_STRING = String.valueOf(FIELD_SEPARATOR);
     private static final String FIELD_SEPARATOR_REGEX = Pattern.quote(FIELD_SEPARATOR_STRING);
+    private static final String DELTA_SUFFIX = ".delta.";
+    private static final byte[] EMPTY = new byte[0];
 
-    public synchronized void write(CacheEngine<K, V> engine) {
+    public SnapshotFile(File file, Codec<K> keyCodec) {
+        this(file, keyCodec, 0);
+    }
+
+    public SnapshotFile(File file, Codec<K> keyCodec, int parallelism) {
+        this(file, keyCodec, parallelism, 0L);
+    }
+
+    public SnapshotFile(File file, Codec<K> keyCodec, int parallelism, long writeBytesPerSecond) {
+        this(file, keyCodec, parallelism, writeBytesPerSecond, BlockCodec.NONE);
+    }
+
+    /**
+     * Tüm anahtar uzayını tam snapshot olarak yazar; sonucun oluşturma zamanı
+     * yeni tabanın kimliğidir. Yazım başarılı olduktan sonra önceki tabana ait
+     * delta dosyaları silinir.
+     */
+    public synchronized WriteResult write(CacheEngine<K, V> engine) {
+        long createdAt = System.currentTimeMillis();
         try {
-            Path temp = createTempFile();
-            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
-                try {
-                    engine.forEachEntry((key, value, expireAt) -> {
-                        try {
-                            String encodedKey = Base64.getEncoder().encodeToString(keyCodec.encode(key));
-                            String encodedValue = Base64.getEncoder().encodeToString(value);
-                            String line = String.join(
-                                FIELD_SEPARATOR_STRING,
-                                Character.toString((char) NodeProtocol.CMD_SET),
-                                encodedKey,
-                                encodedValue,
-                                Long.toString(expireAt)
-                            );
-                            writer.write(line);
-                            writer.newLine();
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
-                } catch (UncheckedIOException e) {
-                    throw new IOException(e.getCause());
+            WriteResult result = writeFile(engine, file.toPath(), createdAt, 0L, 0, this::writeFullSection);
+            deleteDeltas();
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Verilen tabandan sonraki {@code sequence} numaralı delta dosyasını yazar.
+     * Dosya yalnızca son snapshot'tan beri değişen anahtarların güncel
+     * değerlerini ve silinen anahtarlar için silme kayıtlarını içerir. Motor
+     * değişiklik izlemiyorsa ya da bu sürede bir segment temizlendiyse dosya
+     * yazılmaz ve {@code null} döner; çağıran tam snapshot almalıdır.
+     */
+    public synchronized WriteResult writeDelta(CacheEngine<K, V> engine, long baseId, int sequence) {
+        if (!engine.isTrackingChanges()) {
+            return null;
+        }
+        try {
+            return writeFile(engine, deltaFile(sequence), System.currentTimeMillis(), baseId, sequence, this::writeDeltaSection);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private WriteResult writeFile(CacheEngine<K, V> engine, Path target, long createdAt, long baseId, int sequence,
+                                  SectionWriter<K, V> sectionWriter) throws IOException {
+        RateLimiter throttle = new RateLimiter(0L, writeBytesPerSecond);
+        List<Path> parts = new ArrayList<>();
+        try {
+            int sections = engine.segmentCount();
+            for (int i = 0; i < sections; i++) {
+                parts.add(createTempFile(".part"));
+            }
+            List<Long> records = inParallel(sections, i -> () -> writeSection(engine, i, parts.get(i), sectionWriter, throttle));
+            if (records.contains(-1L)) {
+                return null;
+            }
+
+            Path temp = createTempFile(".tmp");
+            WriteResult result;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // Kayıt sayısı ve tablo konumu bilinmediği için başlık önce yer tutucu olarak yazılır, sonda güncellenir.
+                SnapshotFormat.writeFully(channel, SnapshotFormat.header(createdAt, 0L, sections, 0L, baseId, sequence, codec));
+                List<SnapshotFormat.Section> table = new ArrayList<>(sections);
+                long entryCount = 0L;
+                for (int i = 0; i < sections; i++) {
+                    table.add(new SnapshotFormat.Section(channel.position(), records.get(i)));
+                    appendPart(parts.get(i), channel, throttle);
+                    entryCount += records.get(i);
                 }
+                long tableOffset = channel.position();
+                SnapshotFormat.writeFully(channel, SnapshotFormat.sectionTable(table));
+                SnapshotFormat.writeFully(channel,
+                        SnapshotFormat.header(createdAt, entryCount, sections, tableOffset, baseId, sequence, codec), 0L);
+                channel.force(true);
+                result = new WriteResult(createdAt, entryCount, channel.size());
             }
 
             try {
-                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             } catch (AtomicMoveNotSupportedException e) {
-                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return result;
+        } finally {
+            for (Path part : parts) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Bölümü parça dosyasına yazar; bölüm yazıcısı vazgeçerse -1 döner. */
+    private long writeSection(CacheEngine<K, V> engine, int segment, Path part,
+                              SectionWriter<K, V> sectionWriter, RateLimiter throttle) throws IOException {
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BlockWriter writer = new BlockWriter(channel, SnapshotFormat.DEFAULT_BLOCK_BYTES, throttle, codec);
+            try {
+                if (!sectionWriter.write(engine, segment, writer)) {
+                    return -1L;
+                }
+            } catch (UncheckedIOException e) {
+                throw new IOException(e.getCause());
+            }
+            return writer.finish();
+        }
+    }
+
+    private boolean writeFullSection(CacheEngine<K, V> engine, int segment, BlockWriter writer) {
+        if (engine.isTrackingChanges()) {
+            // Tam snapshot her şeyi içerdiği için bu ana kadarki değişiklikler bir sonraki deltaya taşınmaz.
+            engine.discardChanges(segment);
+        }
+        engine.forEachEntry(segment, (key, value, expireAt) -> append(writer, NodeProtocol.CMD_SET, key, value, expireAt));
+        // Politika durumu girdilerden sonra yazılır; yüklemede girdilerin erişim kayıtlarının üzerine uygulanır.
+        byte[] policyState = engine.policyState(segment);
+        if (policyState != null) {
+            try {
+                writer.appendMetadata(SnapshotFormat.OP_POLICY_STATE, EMPTY, policyState);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        }
+        return true;
+    }
+
+    private boolean writeDeltaSection(CacheEngine<K, V> engine, int segment, BlockWriter writer) {
+        return engine.drainChanges(segment,
+                (key, value, expireAt) -> append(writer, NodeProtocol.CMD_SET, key, value, expireAt),
+                key -> append(writer, NodeProtocol.CMD_DELETE, key, EMPTY, 0L));
+    }
+
+    private void append(BlockWriter writer, byte op, K key, byte[] value, long expireAt) {
+        try {
+            writer.append(op, keyCodec.encode(key), value, expireAt);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Tabana bağlı {@code sequence} numaralı delta dosyasının yolu. */
+    Path deltaFile(int sequence) {
+        return new File(file.getPath() + DELTA_SUFFIX + sequence).toPath();
+    }
+
+    /**
+     * Okunamayan snapshot'ı ve deltalarını {@code <dosya>.corrupt-<zaman>} adıyla
+     * kenara taşır; böylece sonraki snapshot bozuk dosyanın üzerine yazılmaz ve
+     * içerik elle kurtarılabilir. Taşınan tam snapshot'ın yolunu, dosya yoksa
+     * {@code null} döndürür.
+     */
+    public synchronized Path moveAside() throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        Path aside = new File(file.getPath() + ".corrupt-" + System.currentTimeMillis()).toPath();
+        File parent = file.getAbsoluteFile().getParentFile();
+        String prefix = file.getName() + DELTA_SUFFIX;
+        File[] deltas = parent == null ? null : parent.listFiles((dir, name) -> name.startsWith(prefix));
+        if (deltas != null) {
+            for (File delta : deltas) {
+                String suffix = delta.getName().substring(file.getName().length());
+                Files.move(delta.toPath(), aside.resolveSibling(aside.getFileName() + suffix));
+            }
         }
+        Files.move(file.toPath(), aside);
+        return aside;
     }
 
+    private void deleteDeltas() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        String prefix = file.getName() + DELTA_SUFFIX;
+        File[] deltas = parent == null ? null : parent.listFiles((dir, name) -> name.startsWith(prefix));
+        if (deltas == null) {
+            return;
+        }
+        for (File delta : deltas) {
+            Files.deleteIfExists(delta.toPath());
+        }
+    }
+
+    private static void appendPart(Path part, FileChannel target, RateLimiter throttle) throws IOException {
+        try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = source.size();
+            long position = 0L;
+            while (position < size) {
+                // Hız sınırı varsa kopya blok boyutunda parçalara bölünür; yoksa tek aktarımla biter.
+                long chunk = throttle.limited() ? Math.min(size - position, SnapshotFormat.DEFAULT_BLOCK_BYTES) : size - position;
+                long copied = source.transferTo(position, chunk, target);
+                position += copied;
+                BlockWriter.throttle(throttle, copied);
+            }
+        }
+    }
+
+    /**
+     * Tam snapshot'ı ve ona bağlı delta dosyalarını sırayla yükler. Sıra
+     * numarası kopuk ya da başka bir tabana ait ilk deltada durulur.
+     */
     public void load(CacheEngine<K, V> engine) {
+        load(engine, LoadProgress.NONE);
+    }
+
+    /** {@link #load(CacheEngine)} ile aynıdır; okunan kayıt sayısını {@code progress} üzerinden bildirir. */
+    public void load(CacheEngine<K, V> engine, LoadProgress progress) {
         if (!file.exists()) {
             return;
         }
+        try {
+            if (SnapshotFormat.isBinary(file.toPath())) {
+                SnapshotFormat.Header base = loadBinary(engine, file.toPath(), 0L, 0, progress);
+                if (base == null) {
+                    throw new IOException("Snapshot file is a delta, not a full snapshot");
+                }
+                for (int sequence = 1; Files.exists(deltaFile(sequence)); sequence++) {
+                    if (loadBinary(engine, deltaFile(sequence), base.createdAtMillis(), sequence, progress) == null) {
+                        break;
+                    }
+                }
+            } else {
+                loadLegacyText(engine);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Dosyanın taban kimliği ve sırası beklenenle eşleşmezse yüklemeden {@code null} döner. */
+    private SnapshotFormat.Header loadBinary(CacheEngine<K, V> engine, Path path, long baseId, int sequence,
+                                             LoadProgress progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SnapshotFormat.Header header = SnapshotFormat.readHeader(channel);
+            if (header.baseId() != baseId || header.sequence() != sequence) {
+                return null;
+            }
+            progress.expected(header.entryCount());
+            List<SnapshotFormat.Section> sections = SnapshotFormat.readSections(channel, header);
+            long fileEnd = header.tableOffset();
+            List<Long> loaded = inParallel(sections.size(), i -> () -> {
+                SnapshotFormat.Section section = sections.get(i);
+                long end = i + 1 < sections.size() ? sections.get(i + 1).offset() : fileEnd;
+                return loadSection(channel, section, end, header.codec(), engine, progress, i, sections.size());
+            });
+            long total = 0L;
+            for (long count : loaded) {
+                total += count;
+            }
+            if (total != header.entryCount()) {
+                throw new IOException("Snapshot entry count mismatch: header=" + header.entryCount() + ", read=" + total);
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Bir bölümü blok blok okuyup her bloğu tek bir toplu yüklemeyle motora
+     * aktarır. Bölüm bellek eşlemeyle okunur; bloklar eşlenmiş bölgede yerinde
+     * doğrulanıp çözülür ve değer baytları motora yalnızca bir kez kopyalanır.
+     * Tek bir eşlemeye sığmayan bölümler kanal üzerinden okunur.
+     */
+    private long loadSection(FileChannel channel, SnapshotFormat.Section section, long end, BlockCodec blockCodec,
+                             CacheEngine<K, V> engine, LoadProgress progress,
+                             int sectionIndex, int sectionCount) throws IOException {
+        long length = end - section.offset();
+        if (length < SnapshotFormat.BLOCK_HEADER_BYTES || end > channel.size()) {
+            throw new IOException("Invalid snapshot section bounds at offset " + section.offset());
+        }
+        BlockReader reader = length <= Integer.MAX_VALUE
+                ? BlockReader.mapped(channel.map(FileChannel.MapMode.READ_ONLY, section.offset(), length), section.offset(), blockCodec)
+                : new BlockReader(channel, section.offset(), blockCodec);
+        List<CacheEngine.BulkEntry<K>> batch = new ArrayList<>();
+        byte[] op = new byte[1];
+        int[] metadata = new int[1];
+        long loaded = 0L;
+        BlockReader.Block block;
+        while ((block = reader.next()) != null) {
+            batch.clear();
+            metadata[0] = 0;
+            BlockReader.forEachRecord(block, (code, key, value, expireAt) -> {
+                if (code == NodeProtocol.CMD_SET) {
+                    batch.add(new CacheEngine.BulkEntry<>(keyCodec.decode(key), value, expireAt));
+                } else if (code == SnapshotFormat.OP_POLICY_STATE) {
+                    metadata[0]++;
+                    engine.restoreAll(batch);
+                    batch.clear();
+                    engine.restorePolicyState(sectionIndex, sectionCount, value);
+                } else {
+                    engine.restoreAll(batch);
+                    batch.clear();
+                    op[0] = code;
+                    engine.replay(op, key, value, expireAt);
+                }
+            });
+            engine.restoreAll(batch);
+            // Politika durumu kaydı önbellek girdisi değildir; başlıktaki sayıya katılmaz.
+            int entries = block.records() - metadata[0];
+            loaded += entries;
+            progress.loaded(entries);
+        }
+        if (loaded != section.records()) {
+            throw new IOException("Snapshot section entry count mismatch at offset " + section.offset());
+        }
+        return loaded;
+    }
+
+    /** Görevleri en fazla {@link #parallelism} thread ile çalıştırıp sonuçları sırayla döndürür. */
+    private <T> List<T> inParallel(int tasks, IntFunction<Callable<T>> task) throws IOException {
+        int limit = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        int threads = Math.max(1, Math.min(tasks, limit));
+        ThreadFactory factory = Thread.ofPlatform().name("snapshot-io-", 0).daemon().factory();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads, factory)) {
+            List<Future<T>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(task.apply(i)));
+            }
+            List<T> results = new ArrayList<>(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing snapshot sections");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /** Base64 ile kodlanmış eski satır formatını okur; hatalı satırlar atlanır. */
+    private void loadLegacyText(CacheEngine<K, V> engine) throws IOException {
         try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -91,19 +422,51 @@ public record SnapshotFile<K, V>(File file, Codec<K> keyCodec)
                     // skip malformed lines
                 }
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
-    private Path createTempFile() throws IOException {
+    private Path createTempFile(String suffix) throws IOException {
         File parent = file.getAbsoluteFile().getParentFile();
         if (parent != null && !parent.exists()) {
             parent.mkdirs();
         }
         if (parent != null) {
-            return Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+            return Files.createTempFile(parent.toPath(), file.getName(), suffix);
         }
-        return Files.createTempFile(file.getName(), ".tmp");
+        return Files.createTempFile(file.getName(), suffix);
+    }
+
+    /** Yazılan dosyanın oluşturma zamanı, kayıt sayısı ve bayt boyutu. */
+    public record WriteResult(long createdAtMillis, long entries, long bytes)
+    {
+    }
+
+    @FunctionalInterface
+    private interface SectionWriter<K, V>
+    {
+        boolean write(CacheEngine<K, V> engine, int segment, BlockWriter writer) throws IOException;
+    }
+
+    /** Yükleme ilerlemesini bildirir; bölümler paralel yüklendiği için thread güvenli olmalıdır. */
+    public interface LoadProgress
+    {
+        LoadProgress NONE = new LoadProgress()
+        {
+            @Override
+            public void expected(long entries)
+            {
+            }
+
+            @Override
+            public void loaded(long entries)
+            {
+            }
+        };
+
+        /** Okunmaya başlanan dosyanın başlığındaki kayıt sayısı. */
+        void expected(long entries);
+
+        /** Motora aktarılan kayıt sayısı. */
+        void loaded(long entries);
     }
 }
@@ -0,0 +1,190 @@
+package com.can.rdb;
+
+import com.can.codec.BlockCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * İkili snapshot dosyasının yerleşimini tanımlar. Dosya sabit boyutlu bir
+ * başlıkla başlar: {@code [magic][sürüm][oluşturma zamanı][kayıt sayısı]
+ * [bölüm sayısı][bölüm tablosu konumu][taban kimliği][delta sırası][blok kodlayıcısı]
+ * [başlık CRC32C]}.
+ * Tam snapshot'larda taban kimliği ve delta sırası sıfırdır; artımlı (delta)
+ * dosyalarda taban kimliği bağlı olduğu tam snapshot'ın oluşturma zamanıdır.
+ * Ardından her biri bir
+ * önbellek segmentine karşılık gelen bölümler, en sonda da
+ * {@code [bölüm konumu][kayıt sayısı]} girdilerinden ve CRC32C değerinden oluşan
+ * bölüm tablosu gelir. Bölümler bloklardan oluşur; her blok
+ * {@code [yük uzunluğu][kayıt sayısı][yük CRC32C]} başlığı ve uzunluk önekli
+ * kayıtlardan oluşan yükü taşır. Kayıt biçimi
+ * {@code [op][anahtar uzunluğu][değer uzunluğu][expireAt][anahtar][değer]}
+ * şeklindedir; tam snapshot bölümleri segmentin tahliye politikası durumunu
+ * taşıyan {@link #OP_POLICY_STATE} kaydıyla bitebilir; bu kayıt blok başlığındaki
+ * kayıt sayısına girer ancak başlıktaki ve bölüm tablosundaki girdi sayılarına
+ * katılmaz. Yük uzunluğu ve kayıt sayısı sıfır olan blok bölümün sonunu
+ * işaretler; bu sayede yarıda kalmış dosyalar ayırt edilir. Kodlayıcı
+ * {@link BlockCodec#NONE} değilse blok yükü {@code [ham uzunluk][sıkıştırılmış
+ * kayıtlar]} biçimindedir ve CRC32C sıkıştırılmış yük üzerinden hesaplanır.
+ * İkili biçimin yayımlanmış önceki sürümü yoktur; biçim değişirse sürüm artırılıp
+ * eski sürümün okuyucusu burada tutulmalıdır.
+ */
+final class SnapshotFormat
+{
+    static final int MAGIC = 0x43414E53; // "CANS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 8 + 8 + 4 + 4 + 4;
+    static final int SECTION_ENTRY_BYTES = 8 + 8;
+    static final int BLOCK_HEADER_BYTES = 4 + 4 + 4;
+    static final int RECORD_HEADER_BYTES = 1 + 4 + 4 + 8;
+    static final int DEFAULT_BLOCK_BYTES = 256 * 1024;
+    static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+    // Tam snapshot bölümlerinin sonunda tahliye politikası durumunu taşıyan kayıt; anahtarı boştur.
+    static final byte OP_POLICY_STATE = 'E';
+
+    private SnapshotFormat()
+    {
+    }
+
+    /** Dosyanın ikili biçimde olup olmadığını ilk dört bayta bakarak belirler. */
+    static boolean isBinary(Path path) throws IOException
+    {
+        if (Files.size(path) < 4) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            readFully(channel, magic, 0L);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    static ByteBuffer header(long createdAtMillis, long entryCount, int sectionCount, long tableOffset,
+                             long baseId, int sequence, BlockCodec codec)
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(createdAtMillis).putLong(entryCount)
+                .putInt(sectionCount).putLong(tableOffset).putLong(baseId).putInt(sequence).putInt(codec.id());
+        header.putInt(crc(header.array(), 0, HEADER_BYTES - 4));
+        return header.flip();
+    }
+
+    static Header readHeader(FileChannel channel) throws IOException
+    {
+        ByteBuffer prefix = ByteBuffer.allocate(8);
+        readFully(channel, prefix, 0L);
+        if (prefix.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary snapshot file");
+        }
+        int version = prefix.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0L);
+        if (header.getInt(HEADER_BYTES - 4) != crc(header.array(), 0, HEADER_BYTES - 4)) {
+            throw new IOException("Snapshot header checksum mismatch");
+        }
+        BlockCodec codec = BlockCodec.fromId(header.getInt(48));
+        if (codec == null) {
+            throw new IOException("Unknown snapshot block codec " + header.getInt(48));
+        }
+        return new Header(version, header.getLong(8), header.getLong(16), header.getInt(24), header.getLong(28),
+                header.getLong(36), header.getInt(44), codec);
+    }
+
+    /** Bölüm tablosunu kodlar; tablo sonunda girdilerin CRC32C değeri bulunur. */
+    static ByteBuffer sectionTable(List<Section> sections)
+    {
+        ByteBuffer table = ByteBuffer.allocate(sections.size() * SECTION_ENTRY_BYTES + 4);
+        for (Section section : sections) {
+            table.putLong(section.offset()).putLong(section.records());
+        }
+        table.putInt(crc(table.array(), 0, table.position()));
+        return table.flip();
+    }
+
+    /** Başlığın gösterdiği bölümleri bölüm tablosundan okuyup döndürür. */
+    static List<Section> readSections(FileChannel channel, Header header) throws IOException
+    {
+        int count = header.sectionCount();
+        if (count <= 0 || header.tableOffset() < HEADER_BYTES) {
+            throw new IOException("Invalid snapshot section table");
+        }
+        int length = count * SECTION_ENTRY_BYTES;
+        ByteBuffer table = ByteBuffer.allocate(length + 4);
+        readFully(channel, table, header.tableOffset());
+        if (table.getInt(length) != crc(table.array(), 0, length)) {
+            throw new IOException("Snapshot section table checksum mismatch");
+        }
+        List<Section> sections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sections.add(new Section(table.getLong(i * SECTION_ENTRY_BYTES), table.getLong(i * SECTION_ENTRY_BYTES + 8)));
+        }
+        return sections;
+    }
+
+    static int crc(byte[] data, int offset, int length)
+    {
+        CRC32C crc = new CRC32C();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    static int crc(ByteBuffer data)
+    {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException
+    {
+        long remaining = 0L;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0L) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Truncated snapshot file");
+            }
+            position += read;
+        }
+    }
+
+    record Header(int version, long createdAtMillis, long entryCount, int sectionCount, long tableOffset,
+                  long baseId, int sequence, BlockCodec codec)
+    {
+        boolean isDelta()
+        {
+            return sequence > 0;
+        }
+    }
+
+    record Section(long offset, long records)
+    {
+    }
+}
@@ -0,0 +1,175 @@
+package com.can.rdb;
+
+import com.can.core.CacheEngine;
+import com.can.metric.MetricsRegistry;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot'ı motora yükler ve yüklemenin ilerlemesini ve hazır olma durumunu
+ * dışarıya açar. Senkron modda yükleme çağıran thread'de tamamlanır. Asenkron
+ * (sıcak başlatma) modda yükleme bir sanal thread'de yürür; sunucu bu sırada
+ * trafik kabul eder ve motor, başlangıçtan beri istemcilerin yazdığı ya da
+ * sildiği anahtarların üzerine snapshot kayıtlarını uygulamaz. Snapshot'tan
+ * sonra çalışacak adımlar (örneğin append-only günlüğün tekrar oynatılması)
+ * aynı thread'de, hazır sinyalinden önce çalıştırılır.
+ */
+public final class SnapshotLoader<K, V>
+{
+    private static final Logger LOG = Logger.getLogger(SnapshotLoader.class);
+
+    private final SnapshotFile<K, V> snapshotFile;
+    private final AtomicLong expectedEntries = new AtomicLong();
+    private final AtomicLong loadedEntries = new AtomicLong();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    public SnapshotLoader(SnapshotFile<K, V> snapshotFile, MetricsRegistry metrics)
+    {
+        this.snapshotFile = snapshotFile;
+        if (metrics != null) {
+            metrics.gauge("snapshot_load_expected_entries", expectedEntries::get);
+            metrics.gauge("snapshot_load_loaded_entries", loadedEntries::get);
+            metrics.gauge("snapshot_load_ready", () -> isReady() ? 1L : 0L);
+        }
+    }
+
+    /**
+     * Snapshot'ı ve ardından {@code afterLoad} adımını çağıran thread'de
+     * çalıştırır; hata başlatmayı durdurur ve diskteki dosyaya dokunulmaz.
+     */
+    public void load(CacheEngine<K, V> engine, Consumer<CacheEngine<K, V>> afterLoad)
+    {
+        try {
+            run(engine, afterLoad);
+            ready.complete(null);
+        } catch (RuntimeException e) {
+            ready.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Yüklemeyi arka planda başlatır ve hemen döner. Dönen future yükleme
+     * bittiğinde tamamlanır. Snapshot okunamazsa motor o ana kadar yüklenen
+     * kayıtlarla hizmet vermeye devam eder, bozuk dosya
+     * {@link SnapshotFile#moveAside()} ile kenara taşınır ve {@code afterLoad}
+     * yine çalıştırılır; böylece günlük tekrar oynatılıp açılır ve yükleme
+     * sırasında biriken yazmalar kalıcı hale gelir. Future yalnızca bozuk dosya
+     * kenara taşınamadığında hatayla tamamlanır.
+     */
+    public CompletableFuture<Void> loadAsync(CacheEngine<K, V> engine, Consumer<CacheEngine<K, V>> afterLoad)
+    {
+        engine.beginWarmLoad();
+        Thread.ofVirtual().name("snapshot-loader").start(() -> {
+            Throwable failure = null;
+            try {
+                loadSnapshot(engine);
+            } catch (Throwable t) {
+                LOG.error("Failed to load snapshot in background", t);
+                failure = moveAside(t);
+            }
+            try {
+                if (afterLoad != null) {
+                    afterLoad.accept(engine);
+                }
+            } catch (Throwable t) {
+                // Snapshot dosyası sağlam olduğundan snapshot almaya devam edilebilir; hata yalnızca loglanır.
+                LOG.error("Failed to complete startup after loading the snapshot", t);
+            }
+            engine.endWarmLoad();
+            if (failure == null) {
+                ready.complete(null);
+            } else {
+                ready.completeExceptionally(failure);
+            }
+        });
+        return ready;
+    }
+
+    /** Bozuk snapshot'ı kenara taşır; taşınamazsa yükleme hatasını döndürür. */
+    private Throwable moveAside(Throwable cause)
+    {
+        try {
+            Path aside = snapshotFile.moveAside();
+            if (aside != null) {
+                LOG.warnf("Moved unreadable snapshot aside to %s", aside);
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            return cause;
+        }
+    }
+
+    private void run(CacheEngine<K, V> engine, Consumer<CacheEngine<K, V>> afterLoad)
+    {
+        loadSnapshot(engine);
+        if (afterLoad != null) {
+            afterLoad.accept(engine);
+        }
+    }
+
+    private void loadSnapshot(CacheEngine<K, V> engine)
+    {
+        long started = System.nanoTime();
+        snapshotFile.load(engine, new SnapshotFile.LoadProgress()
+        {
+            @Override
+            public void expected(long entries)
+            {
+                expectedEntries.addAndGet(entries);
+            }
+
+            @Override
+            public void loaded(long entries)
+            {
+                loadedEntries.addAndGet(entries);
+            }
+        });
+        LOG.infof("Loaded %d snapshot entries in %d ms", loadedEntries.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Yükleme bittiğinde tamamlanan sinyal. Hatayla tamamlanmışsa diskteki
+     * snapshot okunamamış ve yerinde duruyor olabilir; üzerine yazılmamalıdır.
+     */
+    public CompletableFuture<Void> ready()
+    {
+        return ready;
+    }
+
+    public boolean isReady()
+    {
+        return ready.isDone();
+    }
+
+    public long expectedEntries()
+    {
+        return expectedEntries.get();
+    }
+
+    public long loadedEntries()
+    {
+        return loadedEntries.get();
+    }
+
+    /** Yüklenen kayıtların snapshot başlıklarındaki toplama oranı (0-100). */
+    public int progressPercent()
+    {
+        if (isReady()) {
+            return 100;
+        }
+        long expected = expectedEntries.get();
+        if (expected <= 0L) {
+            return 0;
+        }
+        return (int) Math.min(99L, loadedEntries.get() * 100L / expected);
+    }
+}
@@ -2,6 +2,9 @@ package com.can.rdb;
 
 import com.can.config.AppProperties;
 import com.can.core.CacheEngine;
+import com.can.metric.Counter;
+import com.can.metric.MetricsRegistry;
+import com.can.metric.Timer;
 import io.quarkus.runtime.Startup;
 import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
@@ -11,15 +14,31 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.jboss.logging.Logger;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 /**
  * Belirlenen aralıklarla {@link CacheEngine} üzerindeki veriyi güvenli bir şekilde
  * diske yazmak için arka planda çalışan zamanlayıcıdır. Sanal thread tabanlı
  * planlayıcıyı kullanarak ilk başlangıçta ve devamında periyodik olarak
  * {@link SnapshotFile#write(CacheEngine)} çağrısını gerçekleştirir ve hata
- * durumlarını loglayarak sistemin ayakta kalmasını sağlar.
+ * durumlarını loglayarak sistemin ayakta kalmasını sağlar. Artımlı mod açıksa
+ * tam snapshot'lar arasında yalnızca değişen anahtarları taşıyan deltalar
+ * yazılır; zincir {@code fullEvery} uzunluğuna ulaştığında ya da motor tam
+ * snapshot gerektirdiğinde (örneğin bir segment temizlendiğinde) yeniden tam
+ * snapshot alınır. Snapshot arka planda yüklenirken yarım içerik mevcut dosyanın
+ * üzerine yazılmasın diye ilk snapshot yükleme bitince alınır ve o zamana kadar
+ * periyodik turlar atlanır; yükleme hatayla biterse snapshot alınmaz.
+ *
+ * <p>{@link SaveRule} tanımlıysa sabit periyot yerine her saniye motorun
+ * değişiklik sayacı kontrol edilir ve kurallardan biri sağlandığında snapshot
+ * alınır. Sabit periyotta da son snapshot'tan beri değişiklik yoksa tur
+ * atlanır. Snapshot süresi, yazılan bayt ve kayıt sayısı ile son başarılı
+ * snapshot zamanı metrik olarak raporlanır.</p>
  */
 @Startup
 @Singleton
@@ -27,22 +46,43 @@ public class SnapshotScheduler implements AutoCloseable
 {
 
     private static final Logger LOG = Logger.getLogger(SnapshotScheduler.class);
+    private static final long RULE_CHECK_MILLIS = 1_000L;
 
     private final CacheEngine<String, String> engine;
     private final SnapshotFile<String, String> snapshotFile;
     private final long intervalSeconds;
+    private final boolean deltaEnabled;
+    private final int fullEvery;
     private final Vertx vertx;
     private final WorkerExecutor workerExecutor;
+    private final CompletionStage<?> loaded;
+    private final List<SaveRule> saveRules;
+    private final LongSupplier nanoClock;
     private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final Timer writeTimer;
+    private final Counter bytesWritten, entriesWritten, failures;
     private long periodicTimerId = -1L;
+    // Periyodik tur event loop'ta okuduğu için volatile; yalnızca safeSnapshot yazar.
+    private volatile long baseId = -1L;
+    private int sequence;
+    private volatile long lastSaveMutations;
+    private volatile long lastSaveNanos;
+    private volatile long lastSuccessMillis;
+    private volatile long lastBytes;
+    private volatile long lastEntries;
 
     @Inject
     public SnapshotScheduler(CacheEngine<String, String> engine,
                              SnapshotFile<String, String> snapshotFile,
                              AppProperties properties,
                              Vertx vertx,
-                             WorkerExecutor workerExecutor) {
-        this(engine, snapshotFile, properties.rdb().snapshotIntervalSeconds(), vertx, workerExecutor);
+                             WorkerExecutor workerExecutor,
+                             SnapshotLoader<String, String> snapshotLoader,
+                             MetricsRegistry metrics) {
+        this(engine, snapshotFile, properties.rdb().snapshotIntervalSeconds(),
+                properties.rdb().delta().enabled(), properties.rdb().delta().fullEvery(), vertx, workerExecutor,
+                snapshotLoader.ready(), SaveRule.parse(properties.rdb().save().orElse(null)), metrics);
     }
 
     public SnapshotScheduler(CacheEngine<String, String> engine,
@@ -50,11 +90,60 @@ public class SnapshotScheduler implements AutoCloseable
                              long intervalSeconds,
                              Vertx vertx,
                              WorkerExecutor workerExecutor) {
+        this(engine, snapshotFile, intervalSeconds, false, 1, vertx, workerExecutor,
+                CompletableFuture.completedFuture(null), List.of(), null);
+    }
+
+    public SnapshotScheduler(CacheEngine<String, String> engine,
+                             SnapshotFile<String, String> snapshotFile,
+                             long intervalSeconds,
+                             boolean deltaEnabled,
+                             int fullEvery,
+                             Vertx vertx,
+                             WorkerExecutor workerExecutor,
+                             CompletionStage<?> loaded,
+                             List<SaveRule> saveRules,
+                             MetricsRegistry metrics) {
+        this(engine, snapshotFile, intervalSeconds, deltaEnabled, fullEvery, vertx, workerExecutor, loaded,
+                saveRules, metrics, System::nanoTime);
+    }
+
+    /** Kural sürelerini {@code nanoClock} ile ölçer; testler saati ilerletmek için kullanır. */
+    SnapshotScheduler(CacheEngine<String, String> engine,
+                      SnapshotFile<String, String> snapshotFile,
+                      long intervalSeconds,
+                      boolean deltaEnabled,
+                      int fullEvery,
+                      Vertx vertx,
+                      WorkerExecutor workerExecutor,
+                      CompletionStage<?> loaded,
+                      List<SaveRule> saveRules,
+                      MetricsRegistry metrics,
+                      LongSupplier nanoClock) {
         this.engine = engine;
         this.snapshotFile = snapshotFile;
         this.intervalSeconds = intervalSeconds;
+        this.deltaEnabled = deltaEnabled && engine.isTrackingChanges();
+        this.fullEvery = Math.max(1, fullEvery);
         this.vertx = vertx;
         this.workerExecutor = workerExecutor;
+        this.loaded = loaded;
+        this.saveRules = List.copyOf(saveRules);
+        this.nanoClock = nanoClock;
+        this.lastSaveNanos = nanoClock.getAsLong();
+        if (metrics != null) {
+            this.writeTimer = metrics.timer("snapshot_write");
+            this.bytesWritten = metrics.counter("snapshot_bytes_written");
+            this.entriesWritten = metrics.counter("snapshot_entries_written");
+            this.failures = metrics.counter("snapshot_failures");
+            metrics.gauge("snapshot_last_bytes", () -> lastBytes);
+            metrics.gauge("snapshot_last_entries", () -> lastEntries);
+            metrics.gauge("snapshot_last_success_epoch_seconds", () -> lastSuccessMillis / 1000L);
+            metrics.gauge("snapshot_changes_since_last_save", this::changesSinceLastSave);
+        } else {
+            this.writeTimer = null;
+            this.bytesWritten = this.entriesWritten = this.failures = null;
+        }
     }
 
     @PostConstruct
@@ -67,33 +156,115 @@ public class SnapshotScheduler implements AutoCloseable
             return;
         }
         started.set(true);
-        workerExecutor.executeBlocking(() -> {
-            safeSnapshot();
-            return null;
+        // Okunamayan snapshot kenara taşınamadıysa yükleme hatayla biter; dosyanın
+        // üzerine yarım içerik yazılmasın diye snapshot alınmaz.
+        loaded.whenComplete((ignored, error) -> {
+            if (error == null) {
+                submit();
+            } else {
+                LOG.error("Snapshots are disabled because the previous snapshot could not be loaded", error);
+            }
         });
-        if (intervalSeconds > 0) {
+        if (!saveRules.isEmpty()) {
+            periodicTimerId = vertx.setPeriodic(RULE_CHECK_MILLIS, id -> {
+                if (shouldSave()) {
+                    submit();
+                }
+            });
+        } else if (intervalSeconds > 0) {
             long delay = TimeUnit.SECONDS.toMillis(intervalSeconds);
-            periodicTimerId = vertx.setPeriodic(delay, id ->
-                    workerExecutor.executeBlocking(() -> {
-                        safeSnapshot();
-                        return null;
-                    })
-            );
+            periodicTimerId = vertx.setPeriodic(delay, id -> {
+                if (periodicDue()) {
+                    submit();
+                }
+            });
+        }
+    }
+
+    /** Kurallardan biri son başarılı snapshot'tan beri sağlandıysa {@code true} döner. */
+    boolean shouldSave() {
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong() - lastSaveNanos);
+        long changes = changesSinceLastSave();
+        for (SaveRule rule : saveRules) {
+            if (rule.matches(elapsedSeconds, changes)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /** Henüz snapshot alınmadıysa ya da son snapshot'tan beri değişiklik varsa periyodik tur çalışır. */
+    boolean periodicDue() {
+        return baseId < 0L || changesSinceLastSave() > 0L;
+    }
+
+    private long changesSinceLastSave() {
+        return engine.mutationCount() - lastSaveMutations;
+    }
+
+    // Önceki snapshot hâlâ sıradaysa yenisi kuyruğa eklenmez.
+    private void submit() {
+        if (!pending.compareAndSet(false, true)) {
+            return;
+        }
+        workerExecutor.executeBlocking(() -> {
+            try {
+                safeSnapshot();
+            } finally {
+                pending.set(false);
+            }
+            return null;
+        });
     }
 
     public boolean isRunning() {
         return started.get();
     }
 
-    private void safeSnapshot() {
+    synchronized void safeSnapshot() {
+        CompletableFuture<?> load = loaded.toCompletableFuture();
+        if (!load.isDone() || load.isCompletedExceptionally()) {
+            LOG.debug("Skipping snapshot because the previous snapshot is loading or failed to load");
+            return;
+        }
+        long t0 = System.nanoTime();
+        long mutations = engine.mutationCount();
         try {
-            snapshotFile.write(engine);
+            SnapshotFile.WriteResult result = null;
+            if (deltaEnabled && baseId >= 0L && sequence + 1 < fullEvery) {
+                result = snapshotFile.writeDelta(engine, baseId, sequence + 1);
+            }
+            if (result != null) {
+                sequence++;
+            } else {
+                result = snapshotFile.write(engine);
+                baseId = result.createdAtMillis();
+                sequence = 0;
+            }
+            recordSuccess(result, mutations, t0);
         } catch (Throwable t) {
+            // Değişiklik kümesi yazımdan önce boşaltıldığı için zincir kopar; sonraki tur tam snapshot alır.
+            baseId = -1L;
+            sequence = 0;
+            if (failures != null) failures.inc();
             LOG.error("Failed to persist snapshot", t);
         }
     }
 
+    private void recordSuccess(SnapshotFile.WriteResult result, long mutations, long t0) {
+        long now = System.nanoTime();
+        lastSaveMutations = mutations;
+        lastSaveNanos = nanoClock.getAsLong();
+        lastSuccessMillis = System.currentTimeMillis();
+        lastBytes = result.bytes();
+        lastEntries = result.entries();
+        if (writeTimer != null) writeTimer.record(now - t0);
+        if (bytesWritten != null) bytesWritten.add(result.bytes());
+        if (entriesWritten != null) entriesWritten.add(result.entries());
+        LOG.debugf("Persisted %d snapshot entries (%d bytes) in %d ms", result.entries(), result.bytes(),
+                TimeUnit.NANOSECONDS.toMillis(now - t0));
+    }
+
     @PreDestroy
     void shutdown() {
         close();
@@ -0,0 +1,294 @@
+package com.can.cluster;
+
+import com.can.metric.MetricsRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncReplicatorTest
+{
+    @Nested
+    class Shipping
+    {
+        // Bu test günlükteki kayıtların sırayla yedeğe taşındığını ve gecikmenin sıfırlandığını doğrular.
+        @Test
+        void entries_are_shipped_in_order_and_lag_drains()
+        {
+            MapNode backup = new MapNode("backup");
+            List<Long> firstSeqs = new ArrayList<>();
+            try (AsyncReplicator replicator = new AsyncReplicator("primary", 10_000, 16, 4,
+                    (node, primaryId, session) -> new InMemoryStream((MapNode) node, firstSeqs, -1), null))
+            {
+                for (int i = 0; i < 500; i++)
+                {
+                    assertTrue(replicator.replicate(backup, Mutation.set("k" + (i % 10), "v" + i, 0L)));
+                }
+                assertTrue(replicator.replicate(backup, Mutation.delete("k0")));
+
+                awaitDrained(replicator);
+                assertNull(backup.get("k0"));
+                assertEquals("v499", backup.get("k9"));
+                assertEquals(9, backup.data.size());
+                for (int i = 1; i < firstSeqs.size(); i++)
+                {
+                    assertTrue(firstSeqs.get(i) > firstSeqs.get(i - 1));
+                }
+            }
+        }
+
+        // Bu test akış koptuğunda onaylanmamış kayıtların yeni akışta yeniden gönderildiğini gösterir.
+        @Test
+        void unacknowledged_entries_are_resent_after_stream_failure()
+        {
+            MapNode backup = new MapNode("backup");
+            AtomicInteger opened = new AtomicInteger();
+            try (AsyncReplicator replicator = new AsyncReplicator("primary", 10_000, 8, 2,
+                    (node, primaryId, session) -> new InMemoryStream((MapNode) node, new ArrayList<>(),
+                            opened.getAndIncrement() == 0 ? 3 : -1), null))
+            {
+                for (int i = 0; i < 100; i++)
+                {
+                    assertTrue(replicator.replicate(backup, Mutation.set("key" + i, "v" + i, 0L)));
+                }
+                awaitDrained(replicator);
+                assertTrue(opened.get() >= 2);
+                assertEquals(100, backup.data.size());
+            }
+        }
+
+        // Bu test yerel düğüme giden kaydın günlüğe alınmadan hemen uygulandığını doğrular.
+        @Test
+        void local_node_is_applied_directly()
+        {
+            MapNode local = new MapNode("primary");
+            try (AsyncReplicator replicator = new AsyncReplicator("primary", 10, 4, 1,
+                    (node, primaryId, session) -> { throw new IOException("unexpected"); }, null))
+            {
+                assertTrue(replicator.replicate(local, Mutation.set("k", "v", 0L)));
+                assertEquals("v", local.get("k"));
+                assertEquals(0, replicator.lag().entries());
+            }
+        }
+    }
+
+    @Nested
+    class Backpressure
+    {
+        // Bu test yedeğe ulaşılamadığında günlük kapasitesi dolunca kaydın reddedildiğini doğrular.
+        @Test
+        void replicate_returns_false_when_log_is_full()
+        {
+            MapNode backup = new MapNode("backup");
+            try (AsyncReplicator replicator = new AsyncReplicator("primary", 2, 4, 1,
+                    (node, primaryId, session) -> { throw new IOException("down"); }, null))
+            {
+                assertTrue(replicator.replicate(backup, Mutation.set("a", "1", 0L)));
+                assertTrue(replicator.replicate(backup, Mutation.set("b", "2", 0L)));
+                assertFalse(replicator.replicate(backup, Mutation.set("c", "3", 0L)));
+                assertEquals(2, replicator.lag().entries());
+                assertEquals(2, replicator.lagByNode().get("backup").entries());
+            }
+        }
+    }
+
+    @Nested
+    class Departure
+    {
+        // Bu test ayrılan yedeğin göndericisinin durdurulduğunu, göstergelerinin kaldırıldığını ve bekleyen kayıtların devredildiğini doğrular.
+        @Test
+        void forget_stops_shipper_and_returns_pending_entries()
+        {
+            MapNode backup = new MapNode("backup");
+            MetricsRegistry metrics = new MetricsRegistry();
+            try (AsyncReplicator replicator = new AsyncReplicator("primary", 10, 4, 1,
+                    (node, primaryId, session) -> { throw new IOException("down"); }, metrics))
+            {
+                assertTrue(replicator.replicate(backup, Mutation.set("a", "1", 0L)));
+                assertTrue(replicator.replicate(backup, Mutation.delete("b")));
+                assertTrue(metrics.gauges().containsKey("replication_log_lag_entries{node=backup}"));
+
+                List<Mutation<String, String>> pending = replicator.forget("backup");
+
+                assertEquals(List.of(Mutation.set("a", "1", 0L), Mutation.<String, String>delete("b")), pending);
+                assertFalse(metrics.gauges().containsKey("replication_log_lag_entries{node=backup}"));
+                assertFalse(metrics.gauges().containsKey("replication_log_lag_millis{node=backup}"));
+                assertFalse(replicator.lagByNode().containsKey("backup"));
+                assertTrue(replicator.forget("backup").isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    class LogIndex
+    {
+        // Bu test günlüğün onaylardan ve büyümeden sonra kayıtları sıra numarasıyla doğrudan okuduğunu doğrular.
+        @Test
+        void read_locates_entries_by_sequence_after_acks_and_growth()
+        {
+            ReplicationLog log = new ReplicationLog(5_000);
+            for (int i = 1; i <= 3_000; i++)
+            {
+                assertEquals(i, log.append(Mutation.set("key-" + i, "v", 0L)));
+            }
+            log.ack(1_000);
+            for (int i = 3_001; i <= 6_000; i++)
+            {
+                assertEquals(i, log.append(Mutation.set("key-" + i, "v", 0L)));
+            }
+            assertEquals(-1L, log.append(Mutation.set("overflow", "v", 0L)));
+
+            List<ReplicationLog.Entry> middle = log.read(4_500, 3);
+            assertEquals(List.of(4_500L, 4_501L, 4_502L), middle.stream().map(ReplicationLog.Entry::seq).toList());
+            assertEquals("key-4500", middle.get(0).mutation().key());
+            assertEquals(1_001L, log.read(10, 1).get(0).seq());
+            assertEquals(2, log.read(5_999, 10).size());
+            assertTrue(log.read(6_001, 10).isEmpty());
+            assertEquals(5_000L, log.lagEntries());
+        }
+    }
+
+    private static void awaitDrained(AsyncReplicator replicator)
+    {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (replicator.lag().entries() > 0)
+        {
+            assertTrue(System.currentTimeMillis() < deadline, "replication lag did not drain");
+            try
+            {
+                Thread.sleep(10L);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Gönderilen partileri hedef düğüme uygulayıp onay kuyruğuna ekleyen akış.
+     * {@code failAfterSends} pozitifse o kadar gönderimden sonra akış kopar.
+     */
+    private static final class InMemoryStream implements ReplicationStream
+    {
+        private final MapNode target;
+        private final List<Long> firstSeqs;
+        private final BlockingQueue<Long> acks = new LinkedBlockingQueue<>();
+        private int remainingSends;
+
+        InMemoryStream(MapNode target, List<Long> firstSeqs, int failAfterSends)
+        {
+            this.target = target;
+            this.firstSeqs = firstSeqs;
+            this.remainingSends = failAfterSends;
+        }
+
+        @Override
+        public void send(long firstSeq, List<Mutation<String, String>> mutations) throws IOException
+        {
+            if (remainingSends == 0)
+            {
+                throw new IOException("stream broken");
+            }
+            remainingSends--;
+            long applied = target.appliedSeq;
+            for (int i = 0; i < mutations.size(); i++)
+            {
+                if (firstSeq + i > applied)
+                {
+                    target.applyBatch(List.of(mutations.get(i)));
+                    applied = firstSeq + i;
+                }
+            }
+            target.appliedSeq = applied;
+            firstSeqs.add(firstSeq);
+            acks.add(applied);
+        }
+
+        @Override
+        public long readAck() throws IOException
+        {
+            try
+            {
+                Long ack = acks.poll(5, TimeUnit.SECONDS);
+                if (ack == null)
+                {
+                    throw new IOException("ack timeout");
+                }
+                return ack;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static final class MapNode implements Node<String, String>
+    {
+        private final String id;
+        private final Map<String, String> data = new ConcurrentHashMap<>();
+        private volatile long appliedSeq;
+
+        MapNode(String id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public boolean set(String key, String value, Duration ttl)
+        {
+            data.put(key, value);
+            return true;
+        }
+
+        @Override
+        public String get(String key)
+        {
+            return data.get(key);
+        }
+
+        @Override
+        public boolean delete(String key)
+        {
+            return data.remove(key) != null;
+        }
+
+        @Override
+        public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
+        {
+            data.put(key, value);
+            return true;
+        }
+
+        @Override
+        public void clear()
+        {
+            data.clear();
+        }
+
+        @Override
+        public String id()
+        {
+            return id;
+        }
+    }
+}
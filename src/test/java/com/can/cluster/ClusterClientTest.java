@@ -6,8 +6,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -91,6 +98,121 @@ class ClusterClientTest
         }
     }
 
+    @Nested
+    class HedgedReads
+    {
+        // Bu test ilk replika geciktiğinde sıradaki replikaya spekülatif istek atılıp ilk yanıtın döndüğünü doğrular.
+        @Test
+        void get_hedges_to_next_replica_when_leader_is_slow()
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            ClusterClient hedging = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    new HedgedReadPolicy(true, 10, 0, 1000, 100), NodeHealthTracker.disabled(), metrics);
+            leader.delayGets(500);
+            replica1.preset("value");
+
+            long start = System.nanoTime();
+            assertEquals("value", hedging.get("clientKey"));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 400);
+            assertEquals(1L, metrics.counter("cluster_hedged_reads_total").get());
+            assertEquals(1L, metrics.counter("cluster_hedged_read_wins_total").get());
+        }
+
+        // Bu test kapatılan istemcinin okuma executor'ını bırakıp yeni okumaları hemen reddettiğini doğrular.
+        @Test
+        void closed_client_rejects_hedged_reads()
+        {
+            ClusterClient hedging = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    new HedgedReadPolicy(true, 10, 0, 1000, 100), NodeHealthTracker.disabled(), null);
+            leader.preset("value");
+            assertEquals("value", hedging.get("clientKey"));
+
+            hedging.close();
+
+            assertThrows(RejectedExecutionException.class, () -> hedging.get("clientKey"));
+        }
+
+        // Bu test bütçe tükendiğinde spekülatif istek gönderilmeden sıralı okumaya dönüldüğünü gösterir.
+        @Test
+        void get_waits_for_leader_when_budget_is_exhausted()
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            ClusterClient hedging = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    new HedgedReadPolicy(true, 10, 0, 1000, 1), NodeHealthTracker.disabled(), metrics);
+            leader.delayGets(50);
+            replica1.preset("value");
+
+            assertEquals("value", hedging.get("clientKey"));
+            assertEquals(0L, metrics.counter("cluster_hedged_reads_total").get());
+            assertEquals(1L, metrics.counter("cluster_hedge_budget_exhausted_total").get());
+        }
+    }
+
+    @Nested
+    class HealthAwareRouting
+    {
+        // Bu test devresi açılan düğüme yazma gönderilmeden doğrudan ipucu kaydedildiğini doğrular.
+        @Test
+        void open_circuit_fast_fails_writes_into_hints()
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            NodeHealthTracker health = new NodeHealthTracker(true, 0.2, 1, 0.5, 60_000, metrics);
+            ClusterClient guarded = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), health, metrics);
+            replica1.throwNextSet();
+
+            assertTrue(guarded.set("clientKey", "v1", null));
+            assertTrue(health.isOpen(replica1.id()));
+            int callsAfterFailure = replica1.setCalls;
+
+            assertTrue(guarded.set("clientKey", "v2", null));
+            assertEquals(callsAfterFailure, replica1.setCalls);
+            // Aynı anahtara yapılan iki yazma tek bir ipucunda birleşir.
+            assertEquals(1, handoff.pendingFor(replica1.id()));
+            assertEquals(1L, metrics.counter("cluster_circuit_opened_total").get());
+            assertEquals(1L, metrics.counter("cluster_circuit_fast_fail_total").get());
+        }
+
+        // Bu test okumaların sağlık skoru daha iyi olan replikadan başladığını gösterir.
+        @Test
+        void get_prefers_replica_with_lower_latency()
+        {
+            NodeHealthTracker health = new NodeHealthTracker(true, 0.5, 5, 0.5, 1_000, null);
+            ClusterClient guarded = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), health, null);
+            leader.preset("from-leader");
+            replica1.preset("from-replica1");
+            health.onSuccess(leader.id(), System.nanoTime() - Duration.ofMillis(50).toNanos());
+            health.onSuccess(replica1.id(), System.nanoTime() - Duration.ofMillis(1).toNanos());
+            health.onSuccess(replica2.id(), System.nanoTime() - Duration.ofMillis(20).toNanos());
+
+            assertEquals("from-replica1", guarded.get("clientKey"));
+        }
+
+        // Bu test şüpheli düğüme yazma gönderilmediğini ve yeni kalp atışıyla yönlendirmenin geri geldiğini doğrular.
+        @Test
+        void suspected_replica_is_skipped_until_next_heartbeat() throws InterruptedException
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(true, 1.0, 50.0, 10, 1, 0, 1, metrics);
+            NodeHealthTracker health = new NodeHealthTracker(false, 0.2, 5, 0.5, 1_000, detector, metrics);
+            ClusterClient guarded = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), health, metrics);
+            detector.heartbeat(replica1.id());
+            Thread.sleep(30L);
+            assertTrue(detector.isSuspected(replica1.id()));
+
+            assertTrue(guarded.set("clientKey", "v1", null));
+            assertEquals(0, replica1.setCalls);
+            assertEquals(1, handoff.pendingFor(replica1.id()));
+            assertEquals(1L, metrics.gauges().get("cluster_suspected_nodes").get());
+
+            detector.heartbeat(replica1.id());
+            assertTrue(guarded.set("clientKey", "v2", null));
+            assertEquals(1, replica1.setCalls);
+        }
+    }
+
     @Nested
     class DeleteOperations
     {
@@ -140,6 +262,257 @@ class ClusterClientTest
         }
     }
 
+    @Nested
+    class AsyncReplication
+    {
+        // Bu test asenkron modda yalnızca birincilin beklendiğini ve yedeklerin günlüğe alındığını doğrular.
+        @Test
+        void async_set_acks_after_primary_and_queues_backups()
+        {
+            try (AsyncReplicator replicator = unreachableReplicator(16))
+            {
+                ClusterClient asyncClient = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                        HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, replicator);
+                assertTrue(asyncClient.set("clientKey", "value", null));
+                assertEquals(1, leader.setCalls);
+                assertEquals(0, replica1.setCalls);
+                assertEquals(0, replica2.setCalls);
+                assertEquals(2, replicator.lag().entries());
+            }
+        }
+
+        // Bu test birincile ulaşılamadığında sıradaki replikanın birincil olduğunu ve dolan günlüğün ipucuna düştüğünü gösterir.
+        @Test
+        void async_set_fails_over_primary_and_hints_on_overflow()
+        {
+            try (AsyncReplicator replicator = unreachableReplicator(1))
+            {
+                ClusterClient asyncClient = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                        HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, replicator);
+                assertTrue(asyncClient.set("clientKey", "first", null));
+                leader.throwNextSet();
+                assertTrue(asyncClient.set("clientKey", "second", null));
+                assertEquals("second", replica1.storedValue);
+                assertEquals(1, handoff.pendingFor(leader.id()));
+                assertEquals(1, handoff.pendingFor(replica2.id()));
+            }
+        }
+
+        // Bu test aynı anahtara eşzamanlı asenkron yazmaların yedeklere birincildeki sırayla ulaştığını doğrular.
+        @Test
+        void concurrent_async_writes_reach_backups_in_primary_order() throws Exception
+        {
+            try (AsyncReplicator replicator = applyingReplicator())
+            {
+                ClusterClient asyncClient = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                        HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, replicator);
+                for (int round = 0; round < 30; round++)
+                {
+                    List<Thread> writers = new ArrayList<>();
+                    for (int t = 0; t < 4; t++)
+                    {
+                        String writer = round + "-" + t;
+                        writers.add(Thread.ofPlatform().start(() -> {
+                            for (int i = 0; i < 50; i++)
+                            {
+                                asyncClient.set("clientKey", writer + "-" + i, null);
+                            }
+                        }));
+                    }
+                    for (Thread writer : writers)
+                    {
+                        writer.join();
+                    }
+                    long deadline = System.currentTimeMillis() + 10_000L;
+                    while (replicator.lag().entries() > 0 && System.currentTimeMillis() < deadline)
+                    {
+                        Thread.sleep(1L);
+                    }
+                    assertEquals(leader.storedValue, replica1.storedValue);
+                    assertEquals(leader.storedValue, replica2.storedValue);
+                }
+            }
+        }
+
+        // Bu test yavaş birincile giden yazmanın aynı sıra diliminde kalan başka bir anahtarı bekletmediğini doğrular.
+        @Test
+        void slow_primary_write_does_not_block_other_keys() throws Exception
+        {
+            assertEquals("Aa".hashCode(), "BB".hashCode());
+            try (AsyncReplicator replicator = applyingReplicator())
+            {
+                ClusterClient asyncClient = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                        HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, replicator);
+                leader.delaySets(400);
+
+                long start = System.nanoTime();
+                Thread first = Thread.ofPlatform().start(() -> asyncClient.set("Aa", "1", null));
+                Thread second = Thread.ofPlatform().start(() -> asyncClient.set("BB", "2", null));
+                first.join();
+                second.join();
+
+                assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 750);
+            }
+        }
+
+        /** Gönderilen partileri hedef düğüme hemen uygulayıp onaylayan replikatör. */
+        private AsyncReplicator applyingReplicator()
+        {
+            return new AsyncReplicator("client", 10_000, 16, 4, (node, primaryId, session) -> new ReplicationStream()
+            {
+                private final BlockingQueue<Long> acks = new LinkedBlockingQueue<>();
+
+                @Override
+                public void send(long firstSeq, List<Mutation<String, String>> mutations)
+                {
+                    node.applyBatch(mutations);
+                    acks.add(firstSeq + mutations.size() - 1);
+                }
+
+                @Override
+                public long readAck() throws IOException
+                {
+                    try
+                    {
+                        Long ack = acks.poll(5, TimeUnit.SECONDS);
+                        if (ack == null)
+                        {
+                            throw new IOException("ack timeout");
+                        }
+                        return ack;
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            }, null);
+        }
+
+        private AsyncReplicator unreachableReplicator(int capacity)
+        {
+            return new AsyncReplicator("client", capacity, 16, 1, (node, primaryId, session) -> {
+                throw new IOException("unreachable");
+            }, null);
+        }
+    }
+
+    @Nested
+    class ConsistencyLevels
+    {
+        // Bu test ALL seviyesinde tek bir replikanın reddi yazmayı başarısız kılarken QUORUM seviyesinin yettiğini doğrular.
+        @Test
+        void all_requires_every_replica_while_quorum_tolerates_one_failure()
+        {
+            replica2.failNextSet();
+            assertFalse(client.set("clientKey", "v1", null, ConsistencyLevel.ALL));
+            assertEquals(1, handoff.pendingFor(replica2.id()));
+
+            replica2.failNextSet();
+            assertTrue(client.set("clientKey", "v2", null, ConsistencyLevel.QUORUM));
+        }
+
+        // Bu test ANY seviyesinde hiçbir replika yanıt vermese de ipucu kaydedilen yazmanın başarılı sayıldığını gösterir.
+        @Test
+        void any_accepts_write_stored_only_as_hints()
+        {
+            leader.throwNextSet();
+            replica1.throwNextSet();
+            replica2.throwNextSet();
+
+            assertTrue(client.set("clientKey", "value", null, ConsistencyLevel.ANY));
+            assertEquals(1, handoff.pendingFor(leader.id()));
+            assertEquals(1, handoff.pendingFor(replica1.id()));
+            assertEquals(1, handoff.pendingFor(replica2.id()));
+        }
+
+        // Bu test paralel dağıtımda ONE seviyesinin yavaş replikaları beklemeden döndüğünü doğrular.
+        @Test
+        void parallel_write_returns_once_level_is_met()
+        {
+            ClusterClient parallel = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, null,
+                    ConsistencyPolicy.defaults(), true);
+            replica1.delaySets(500);
+            replica2.delaySets(500);
+
+            long start = System.nanoTime();
+            assertTrue(parallel.set("clientKey", "value", null, ConsistencyLevel.ONE));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 400);
+        }
+
+        // Bu test önek kuralının okuma seviyesini yükselttiğini ve yeterli replika yanıt vermezse hata fırlatıldığını gösterir.
+        @Test
+        void prefix_rule_selects_quorum_reads()
+        {
+            ConsistencyPolicy policy = ConsistencyPolicy.fromConfig("one", null, ConsistencyLevel.QUORUM,
+                    List.of("client=all/quorum"));
+            ClusterClient strict = new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, null, policy, false);
+            replica2.preset("value");
+            assertEquals(ConsistencyLevel.ALL, policy.readLevel("clientKey"));
+            assertEquals(ConsistencyLevel.ONE, policy.readLevel("other"));
+            assertEquals("value", strict.get("clientKey"));
+
+            replica1.throwNextGet();
+            assertThrows(IllegalStateException.class, () -> strict.get("clientKey"));
+            assertEquals("value", strict.get("clientKey", ConsistencyLevel.ONE));
+        }
+
+        // Bu test ayrışmış replikalarda çoğunluk okumasının en yeni sürümü döndürüp eski replikayı onardığını doğrular.
+        @Test
+        void quorum_read_returns_newest_version_and_repairs_stale_replica()
+        {
+            ClusterClient versioned = versionedClient();
+            leader.preset("1:old");
+            replica1.preset("2:new");
+
+            assertEquals("2:new", versioned.get("clientKey", ConsistencyLevel.QUORUM));
+            assertEquals("2:new", leader.storedValue);
+            assertEquals(1, leader.setCalls);
+            assertEquals(0, replica1.setCalls);
+        }
+
+        // Bu test boş yanıt veren replikanın silinmiş değeri geri getirmemek için onarılmadığını doğrular.
+        @Test
+        void read_repair_skips_replicas_without_value()
+        {
+            ClusterClient versioned = versionedClient();
+            leader.preset("1:value");
+            replica2.preset("1:value");
+
+            assertEquals("1:value", versioned.get("clientKey", ConsistencyLevel.ALL));
+            assertNull(replica1.storedValue);
+            assertEquals(0, replica1.setCalls);
+            assertEquals(0, leader.setCalls);
+        }
+
+        private ClusterClient versionedClient()
+        {
+            return new ClusterClient(ring, 3, StringCodec.UTF8, handoff,
+                    HedgedReadPolicy.disabled(), NodeHealthTracker.disabled(), null, null,
+                    ConsistencyPolicy.defaults(), false, new ValueVersioning<>() {
+                        @Override
+                        public long version(String value)
+                        {
+                            return Long.parseLong(value.substring(0, value.indexOf(':')));
+                        }
+
+                        @Override
+                        public long expireAtMillis(String value)
+                        {
+                            return 0L;
+                        }
+                    });
+        }
+    }
+
     @Nested
     class MaintenanceOperations
     {
@@ -192,8 +565,12 @@ class ClusterClientTest
         private boolean throwDelete;
         private boolean failCas;
         private boolean throwCas;
-        private String storedValue;
+        private volatile String storedValue;
+        private volatile long getDelayMillis;
+        private volatile long setDelayMillis;
+        private volatile boolean throwGet;
         private int clearCalls;
+        private int setCalls;
 
         FakeNode(String id)
         {
@@ -230,9 +607,26 @@ class ClusterClientTest
             this.storedValue = value;
         }
 
+        void delayGets(long millis)
+        {
+            this.getDelayMillis = millis;
+        }
+
+        void delaySets(long millis)
+        {
+            this.setDelayMillis = millis;
+        }
+
+        void throwNextGet()
+        {
+            this.throwGet = true;
+        }
+
         @Override
         public boolean set(String key, String value, Duration ttl)
         {
+            setCalls++;
+            sleep(setDelayMillis);
             if (throwSet)
             {
                 throwSet = false;
@@ -250,9 +644,30 @@ class ClusterClientTest
         @Override
         public String get(String key)
         {
+            sleep(getDelayMillis);
+            if (throwGet)
+            {
+                throwGet = false;
+                throw new RuntimeException("get-fail-" + id);
+            }
             return storedValue;
         }
 
+        private void sleep(long millis)
+        {
+            if (millis > 0)
+            {
+                try
+                {
+                    Thread.sleep(millis);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
         @Override
         public boolean delete(String key)
         {
@@ -75,6 +75,34 @@ class ConsistentHashRingTest
         }
     }
 
+    @Nested
+    class OwnedRanges
+    {
+        // Bu test tek replikada düğümlerin aralıklarının jeton uzayını örtüşmeden paylaştığını doğrular.
+        @Test
+        void owned_ranges_partition_token_space_for_single_replica()
+        {
+            ring.addNode("A", bytes("A"));
+            ring.addNode("B", bytes("B"));
+
+            assertEquals(List.of(new TokenRange(0L, 103L), new TokenRange(203L, TokenRange.TOKEN_SPACE)),
+                    ring.ownedRanges("A", 1));
+            assertEquals(List.of(new TokenRange(103L, 203L)), ring.ownedRanges("B", 1));
+            assertEquals(0, TokenRange.indexOf(ring.ownedRanges("A", 1), ring.token(bytes("key"))));
+        }
+
+        // Bu test replika sayısı düğüm sayısına eşitken her düğümün tüm uzaya sahip olduğunu gösterir.
+        @Test
+        void owned_ranges_cover_full_space_when_every_node_is_replica()
+        {
+            ring.addNode("A", bytes("A"));
+            ring.addNode("B", bytes("B"));
+
+            assertEquals(List.of(TokenRange.full()), ring.ownedRanges("B", 2));
+            assertTrue(ring.ownedRanges("C", 2).isEmpty());
+        }
+    }
+
     private static byte[] bytes(String value)
     {
         return value.getBytes(StandardCharsets.UTF_8);
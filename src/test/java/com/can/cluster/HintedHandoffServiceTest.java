@@ -1,11 +1,21 @@
 package com.can.cluster;
 
+import com.can.cluster.handoff.FileHintStore;
+import com.can.cluster.handoff.MemoryHintStore;
 import com.can.metric.MetricsRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,9 +50,53 @@ class HintedHandoffServiceTest
         void record_delete_and_cas_enqueue_hints()
         {
             service.recordDelete("node", "key");
-            service.recordCas("node", "key", "value", 5L, Duration.ZERO);
+            service.recordCas("node", "other", "value", 5L, Duration.ZERO);
             assertEquals(2, service.pendingFor("node"));
         }
+
+        // Bu test aynı anahtar için gelen ipuçlarının birleştirilip yalnızca sonuncusunun oynatıldığını doğrular.
+        @Test
+        void hints_for_same_key_are_coalesced()
+        {
+            for (int i = 0; i < 1000; i++) {
+                service.recordSet("node", "hot", "v" + i, Duration.ZERO);
+            }
+            service.recordDelete("node", "gone");
+            assertEquals(2, service.pendingFor("node"));
+            assertEquals(999L, metrics.counter("hinted_handoff_coalesced_total").get());
+
+            service.replay("node", node);
+            assertEquals(1, node.setCallCount());
+            assertEquals("v999", node.lastSetValue());
+            assertEquals(1, node.deleteCallCount());
+        }
+
+        // Bu test CAS ipucunun bekleyen set ipucunu ezmediğini ve ipuçlarının yazılma sırasıyla oynatıldığını doğrular.
+        @Test
+        void cas_hints_keep_order_after_pending_set()
+        {
+            service.recordSet("node", "hot", "v1", Duration.ZERO);
+            service.recordCas("node", "hot", "v2", 1L, Duration.ZERO);
+            service.recordCas("node", "hot", "v3", 2L, Duration.ZERO);
+            assertEquals(3, service.pendingFor("node"));
+            assertEquals(0L, metrics.counter("hinted_handoff_coalesced_total").get());
+
+            service.replay("node", node);
+            assertEquals(List.of("set hot=v1", "cas hot=v2", "cas hot=v3"), node.operations());
+        }
+
+        // Bu test CAS ipuçlarından sonra gelen set ipucunun hepsinin yerini aldığını doğrular.
+        @Test
+        void set_after_cas_supersedes_pending_hints()
+        {
+            service.recordSet("node", "hot", "v1", Duration.ZERO);
+            service.recordCas("node", "hot", "v2", 1L, Duration.ZERO);
+            service.recordSet("node", "hot", "v3", Duration.ZERO);
+            assertEquals(1, service.pendingFor("node"));
+
+            service.replay("node", node);
+            assertEquals(List.of("set hot=v3"), node.operations());
+        }
     }
 
     @Nested
@@ -52,9 +106,9 @@ class HintedHandoffServiceTest
         @Test
         void replay_cleans_up_successful_hints()
         {
-            service.recordSet("node", "key", "value", Duration.ofSeconds(1));
-            service.recordDelete("node", "key");
-            service.recordCas("node", "key", "value", 1L, Duration.ofSeconds(1));
+            service.recordSet("node", "a", "value", Duration.ofSeconds(1));
+            service.recordDelete("node", "b");
+            service.recordCas("node", "c", "value", 1L, Duration.ofSeconds(1));
             service.replay("node", node);
             assertEquals(1, node.setCallCount());
             assertEquals(1, node.deleteCallCount());
@@ -76,12 +130,219 @@ class HintedHandoffServiceTest
         }
     }
 
+    @Nested
+    class BatchedReplay
+    {
+        // Bu test ipuçlarının toplu çerçevelerle gönderildiğini ve düğüm ilerlemesinin raporlandığını doğrular.
+        @Test
+        void replay_sends_hints_in_frames()
+        {
+            var batched = new HintedHandoffService(new MemoryHintStore(1 << 20, 0L, metrics),
+                    8, 3, 2, RateLimiter.unlimited(), metrics);
+            for (int i = 0; i < 10; i++) {
+                batched.recordSet("node", "key-" + i, "v", Duration.ZERO);
+            }
+
+            batched.replay("node", node);
+
+            assertEquals(10, node.setCallCount());
+            assertEquals(4, node.batchCallCount());
+            assertEquals(0, batched.pendingFor("node"));
+            var progress = batched.progressFor("node");
+            assertEquals(10L, progress.replayed());
+            assertEquals(0, progress.inFlight());
+            assertEquals(10L, metrics.gauges().get("hinted_handoff_replayed{node=node}").get());
+            batched.close();
+        }
+
+        // Bu test aynı anahtarın SET ve CAS ipuçlarının paralel çerçevelerde de sırayla uygulandığını doğrular.
+        @Test
+        void parallel_frames_keep_set_before_cas_for_same_key()
+        {
+            var parallel = new HintedHandoffService(new MemoryHintStore(1 << 20, 0L, metrics),
+                    8, 1, 4, RateLimiter.unlimited(), metrics);
+            parallel.recordSet("node", "k", "v1", Duration.ZERO);
+            parallel.recordCas("node", "k", "v2", 7L, Duration.ZERO);
+            parallel.recordCas("node", "k", "v3", 8L, Duration.ZERO);
+            node.delaySetBatches(100L);
+
+            parallel.replay("node", node);
+
+            assertEquals(List.of("set k=v1", "cas k=v2", "cas k=v3"), node.operations());
+            assertEquals(0, parallel.pendingFor("node"));
+            parallel.close();
+        }
+
+        // Bu test oynatmanın işlem/sn bütçesini aşmadığını doğrular.
+        @Test
+        void replay_respects_ops_budget()
+        {
+            var throttled = new HintedHandoffService(new MemoryHintStore(1 << 20, 0L, metrics),
+                    20, 20, 1, new RateLimiter(40, 0), metrics);
+            for (int i = 0; i < 60; i++) {
+                throttled.recordSet("node", "key-" + i, "v", Duration.ZERO);
+            }
+
+            long start = System.nanoTime();
+            throttled.replay("node", node);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+            assertEquals(60, node.setCallCount());
+            assertTrue(elapsedMillis >= 400L, "elapsed " + elapsedMillis);
+            throttled.close();
+        }
+    }
+
+    @Nested
+    class DurableStore
+    {
+        @TempDir
+        Path directory;
+
+        private HintedHandoffService open(long segmentBytes, long maxBytesPerNode)
+        {
+            var store = new FileHintStore(directory, segmentBytes, maxBytesPerNode, 0L, metrics);
+            return new HintedHandoffService(store, 2, metrics);
+        }
+
+        // Bu test diske yazılan ipuçlarının yeniden açılışta geri yüklenip partiler halinde oynatıldığını doğrular.
+        @Test
+        void hints_survive_reopen_and_replay_in_batches()
+        {
+            try (var durable = open(1024, 64 * 1024)) {
+                durable.recordSet("node", "a", "1", Duration.ofMinutes(1));
+                durable.recordDelete("node", "b");
+                durable.recordCas("node", "c", "3", 7L, Duration.ZERO);
+                assertEquals(3, durable.pendingFor("node"));
+                assertTrue(metrics.gauges().get("hinted_handoff_queue_bytes").get() > 0L);
+            }
+
+            try (var reopened = open(1024, 64 * 1024)) {
+                assertEquals(3, reopened.pendingFor("node"));
+                reopened.replay("node", node);
+                assertEquals(1, node.setCallCount());
+                assertEquals(1, node.deleteCallCount());
+                assertEquals(1, node.casCallCount());
+                assertEquals(0, reopened.pendingFor("node"));
+                assertEquals(0L, reopened.pendingBytesFor("node"));
+            }
+
+            try (var again = open(1024, 64 * 1024)) {
+                assertEquals(0, again.pendingFor("node"));
+            }
+        }
+
+        // Bu test bayt sınırı aşıldığında en eski segmentlerin düşürüldüğünü ve sayaca yansıdığını doğrular.
+        @Test
+        void size_cap_drops_oldest_segments()
+        {
+            try (var durable = open(256, 1024)) {
+                for (int i = 0; i < 100; i++) {
+                    durable.recordSet("node", "key-" + i, "value-" + i, Duration.ZERO);
+                }
+                int pending = durable.pendingFor("node");
+                assertTrue(pending > 0 && pending < 100);
+                assertTrue(durable.pendingBytesFor("node") <= 1024);
+                assertEquals(100L - pending, metrics.counter("hinted_handoff_dropped_total").get());
+            }
+        }
+
+        // Bu test segment sonunda yarım kalmış kaydın açılışta kesilip geçerli ipuçlarının korunduğunu doğrular.
+        @Test
+        void torn_tail_is_truncated_on_open() throws IOException
+        {
+            try (var durable = open(4096, 64 * 1024)) {
+                durable.recordSet("node", "a", "1", Duration.ZERO);
+                durable.recordSet("node", "b", "2", Duration.ZERO);
+            }
+            try (Stream<Path> files = Files.walk(directory)) {
+                Path segment = files.filter(path -> path.toString().endsWith(".seg")).findFirst().orElseThrow();
+                Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+            }
+
+            try (var reopened = open(4096, 64 * 1024)) {
+                assertEquals(2, reopened.pendingFor("node"));
+                reopened.recordDelete("node", "c");
+                reopened.replay("node", node);
+                assertEquals(2, node.setCallCount());
+                assertEquals(1, node.deleteCallCount());
+            }
+        }
+
+        // Bu test diskteki eski kayıtların atlanıp anahtar başına son yazmanın oynatıldığını doğrular.
+        @Test
+        void superseded_records_are_skipped_after_reopen()
+        {
+            try (var durable = open(256, 64 * 1024)) {
+                for (int i = 0; i < 50; i++) {
+                    durable.recordSet("node", "hot", "v" + i, Duration.ZERO);
+                }
+                durable.recordDelete("node", "hot");
+                durable.recordSet("node", "cold", "c", Duration.ZERO);
+            }
+
+            try (var reopened = open(256, 64 * 1024)) {
+                assertEquals(2, reopened.pendingFor("node"));
+                reopened.replay("node", node);
+                assertEquals(1, node.setCallCount());
+                assertEquals("c", node.lastSetValue());
+                assertEquals(1, node.deleteCallCount());
+                assertEquals(0, reopened.pendingFor("node"));
+            }
+        }
+
+        // Bu test CAS ipuçlarının diskte de birleştirilmeden ve sırasıyla oynatıldığını doğrular.
+        @Test
+        void cas_hints_keep_order_after_reopen()
+        {
+            try (var durable = open(256, 64 * 1024)) {
+                durable.recordSet("node", "hot", "v1", Duration.ZERO);
+                durable.recordCas("node", "hot", "v2", 1L, Duration.ZERO);
+                durable.recordCas("node", "hot", "v3", 2L, Duration.ZERO);
+                durable.recordSet("node", "other", "o1", Duration.ZERO);
+                durable.recordCas("node", "other", "o2", 3L, Duration.ZERO);
+                durable.recordDelete("node", "other");
+                assertEquals(4, durable.pendingFor("node"));
+            }
+
+            try (var reopened = open(256, 64 * 1024)) {
+                assertEquals(4, reopened.pendingFor("node"));
+                reopened.replay("node", node);
+                assertEquals(List.of("set hot=v1", "cas hot=v2", "cas hot=v3", "delete other"), node.operations());
+                assertEquals(0, reopened.pendingFor("node"));
+            }
+        }
+
+        // Bu test süresi dolmuş ipucunun gönderilmeden düşürüldüğünü doğrular.
+        @Test
+        void expired_hint_is_dropped_on_replay() throws InterruptedException
+        {
+            try (var durable = open(4096, 64 * 1024)) {
+                durable.recordSet("node", "a", "1", Duration.ofMillis(1));
+                Thread.sleep(5);
+                durable.replay("node", node);
+                assertEquals(0, node.setCallCount());
+                assertEquals(0, durable.pendingFor("node"));
+                assertEquals(1L, metrics.counter("hinted_handoff_dropped_total").get());
+            }
+        }
+    }
+
     private static final class FakeNode implements Node<String, String>
     {
         private boolean throwSet;
         private int setCalls;
         private int deleteCalls;
         private int casCalls;
+        private String lastSetValue;
+        private int batchCalls;
+        private long setBatchDelayMillis;
+        private final List<String> operations = new ArrayList<>();
+
+        void delaySetBatches(long millis)
+        {
+            this.setBatchDelayMillis = millis;
+        }
 
         void throwNextSet()
         {
@@ -93,6 +354,16 @@ class HintedHandoffServiceTest
             return setCalls;
         }
 
+        synchronized int batchCallCount()
+        {
+            return batchCalls;
+        }
+
+        String lastSetValue()
+        {
+            return lastSetValue;
+        }
+
         int deleteCallCount()
         {
             return deleteCalls;
@@ -103,10 +374,17 @@ class HintedHandoffServiceTest
             return casCalls;
         }
 
+        List<String> operations()
+        {
+            return operations;
+        }
+
         @Override
         public boolean set(String key, String value, Duration ttl)
         {
             setCalls++;
+            lastSetValue = value;
+            operations.add("set " + key + "=" + value);
             if (throwSet)
             {
                 throwSet = false;
@@ -115,6 +393,22 @@ class HintedHandoffServiceTest
             return true;
         }
 
+        @Override
+        public boolean[] applyBatch(List<Mutation<String, String>> mutations)
+        {
+            if (setBatchDelayMillis > 0L && mutations.stream().anyMatch(m -> m.type() == Mutation.Type.SET)) {
+                try {
+                    Thread.sleep(setBatchDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                batchCalls++;
+                return Node.super.applyBatch(mutations);
+            }
+        }
+
         @Override
         public String get(String key)
         {
@@ -125,6 +419,7 @@ class HintedHandoffServiceTest
         public boolean delete(String key)
         {
             deleteCalls++;
+            operations.add("delete " + key);
             return true;
         }
 
@@ -132,6 +427,7 @@ class HintedHandoffServiceTest
         public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
         {
             casCalls++;
+            operations.add("cas " + key + "=" + value);
             return true;
         }
 
@@ -0,0 +1,108 @@
+package com.can.cluster;
+
+import com.can.metric.MetricsRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhiAccrualFailureDetectorTest
+{
+    @Nested
+    class PhiCalculation
+    {
+        // Bu test φ değerinin beklenen aralıkta düşük kalıp gecikme uzadıkça arttığını doğrular.
+        @Test
+        void phi_grows_with_time_since_last_heartbeat()
+        {
+            double onTime = PhiAccrualFailureDetector.phi(1_000L, 1_000.0, 100.0);
+            double late = PhiAccrualFailureDetector.phi(1_300L, 1_000.0, 100.0);
+            double veryLate = PhiAccrualFailureDetector.phi(1_800L, 1_000.0, 100.0);
+
+            assertTrue(onTime < 1.0, "on time phi " + onTime);
+            assertTrue(late > onTime);
+            assertTrue(veryLate > 8.0, "very late phi " + veryLate);
+        }
+
+        // Bu test düzensiz kalp atışlarının aynı gecikme için daha düşük şüphe ürettiğini gösterir.
+        @Test
+        void jittery_heartbeats_tolerate_longer_pauses()
+        {
+            double steady = PhiAccrualFailureDetector.phi(1_500L, 1_000.0, 50.0);
+            double jittery = PhiAccrualFailureDetector.phi(1_500L, 1_000.0, 400.0);
+
+            assertTrue(jittery < steady);
+        }
+    }
+
+    @Nested
+    class Signals
+    {
+        // Bu test yalnızca başarılı yanıtların kalp atışı görülmemiş düğüm için şüphe üretmediğini doğrular.
+        @Test
+        void unknown_node_is_never_suspected()
+        {
+            PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(true, 1.0, 2.0, 10, 1, 0, 1, null);
+            detector.onResponse("node-a");
+
+            assertEquals(0.0, detector.phi("node-a"));
+            assertFalse(detector.isSuspected("node-a"));
+        }
+
+        // Bu test başarılı yanıtın son sinyal zamanını ilerleterek şüpheyi kaldırdığını doğrular.
+        @Test
+        void response_resets_suspicion_without_skewing_intervals() throws InterruptedException
+        {
+            PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(true, 1.0, 50.0, 10, 1, 0, 1, null);
+            detector.heartbeat("node-a");
+            Thread.sleep(30L);
+            assertTrue(detector.isSuspected("node-a"));
+            assertTrue(detector.shouldEvict("node-a"));
+
+            detector.onResponse("node-a");
+            assertFalse(detector.isSuspected("node-a"));
+
+            detector.forget("node-a");
+            assertEquals(0.0, detector.phi("node-a"));
+        }
+
+        // Bu test üyelik protokolünün bildirdiği şüphenin canlılık bildirimine kadar sürdüğünü doğrular.
+        @Test
+        void reported_suspicion_lasts_until_node_is_reported_alive()
+        {
+            PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(true, 3.0, 12.0, 10, 500, 0, 1000, null);
+            detector.reportSuspect("node-a");
+            assertTrue(detector.isSuspected("node-a"));
+            assertFalse(detector.shouldEvict("node-a"));
+
+            detector.reportAlive("node-a");
+            assertFalse(detector.isSuspected("node-a"));
+        }
+
+        // Bu test unutulan düğümün φ göstergesinin kayıttan kaldırıldığını doğrular.
+        @Test
+        void forget_unregisters_phi_gauge()
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(true, 3.0, 12.0, 10, 500, 0, 1000, metrics);
+            detector.heartbeat("node-a");
+            detector.reportSuspect("node-a");
+            assertTrue(metrics.gauges().containsKey("cluster_node_phi_milli{node=node-a}"));
+
+            detector.forget("node-a");
+            assertFalse(metrics.gauges().containsKey("cluster_node_phi_milli{node=node-a}"));
+            assertFalse(detector.isSuspected("node-a"));
+        }
+
+        // Bu test devre dışı dedektörün hiçbir düğümü şüpheli saymadığını doğrular.
+        @Test
+        void disabled_detector_never_suspects()
+        {
+            PhiAccrualFailureDetector detector = PhiAccrualFailureDetector.disabled();
+            detector.heartbeat("node-a");
+
+            assertFalse(detector.isSuspected("node-a"));
+            assertFalse(detector.shouldEvict("node-a"));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.can.cluster.coordination;
+
+import com.can.codec.BlockCodec;
+import com.can.constants.NodeProtocol;
+import com.can.metric.MetricsRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCompressorTest
+{
+    @Nested
+    class Negotiation
+    {
+        // Bu test iki taraf da sıkıştırma istediğinde katılanın tercihinin seçildiğini doğrular.
+        @Test
+        void joiner_preference_wins_when_both_sides_compress()
+        {
+            assertEquals(BlockCodec.DEFLATE,
+                    FrameCompressor.negotiate(BlockCodec.LZ4, BlockCodec.DEFLATE.id(), BlockCodec.supportedMask()));
+        }
+
+        // Bu test taraflardan biri sıkıştırmayı kapattığında sonucun NONE olduğunu gösterir.
+        @Test
+        void disabled_side_forces_uncompressed_frames()
+        {
+            assertEquals(BlockCodec.NONE,
+                    FrameCompressor.negotiate(BlockCodec.NONE, BlockCodec.LZ4.id(), BlockCodec.supportedMask()));
+            assertEquals(BlockCodec.NONE,
+                    FrameCompressor.negotiate(BlockCodec.LZ4, BlockCodec.NONE.id(), BlockCodec.supportedMask()));
+        }
+
+        // Bu test bilinmeyen tercih geldiğinde karşı tarafın maskesindeki yerel kodlayıcıya düşüldüğünü doğrular.
+        @Test
+        void unknown_preference_falls_back_to_shared_codec()
+        {
+            assertEquals(BlockCodec.LZ4, FrameCompressor.negotiate(BlockCodec.LZ4, 7, BlockCodec.LZ4.mask()));
+            assertEquals(BlockCodec.NONE, FrameCompressor.negotiate(BlockCodec.LZ4, 7, BlockCodec.DEFLATE.mask()));
+        }
+    }
+
+    @Nested
+    class Framing
+    {
+        // Bu test eşiği aşan çerçevenin zarflanıp açıldığını ve eş başına oranın yayımlandığını doğrular.
+        @Test
+        void large_frame_is_wrapped_and_ratio_reported() throws IOException
+        {
+            MetricsRegistry metrics = new MetricsRegistry();
+            FrameCompressor compressor = new FrameCompressor("peer", BlockCodec.LZ4, 64, metrics);
+            byte[] frame = "{\"k\":\"value\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+            byte[] wrapped = compressor.wrap(frame);
+            assertNotNull(wrapped);
+            ByteBuffer header = ByteBuffer.wrap(wrapped);
+            assertEquals(NodeProtocol.CMD_COMPRESSED, header.get());
+            int codecId = header.get();
+            int rawLength = header.getInt();
+            int compressedLength = header.getInt();
+            byte[] body = Arrays.copyOfRange(wrapped, header.position(), header.position() + compressedLength);
+            assertArrayEquals(frame, compressor.decompress(codecId, body, rawLength));
+
+            long ratio = metrics.gauges().get("replication_compression_ratio_permille{node=peer}").get();
+            assertTrue(ratio > 0L && ratio < 500L);
+        }
+
+        // Bu test eşiğin altındaki ya da sıkıştırma kapalıyken çerçevenin olduğu gibi bırakıldığını gösterir.
+        @Test
+        void small_or_disabled_frames_are_not_wrapped()
+        {
+            byte[] frame = "x".repeat(32).getBytes(StandardCharsets.UTF_8);
+            assertNull(new FrameCompressor("peer", BlockCodec.LZ4, 64, null).wrap(frame));
+            assertNull(FrameCompressor.none().wrap("y".repeat(4096).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.can.cluster.coordination;
+
+import com.can.cluster.ConsistentHashRing;
+import com.can.cluster.Node;
+import com.can.cluster.TokenRange;
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeDigestsTest
+{
+    private static final int FANOUT = 16;
+
+    private Vertx vertx;
+    private ConsistentHashRing<Node<String, String>> ring;
+    private CacheEngine<String, String> left;
+    private CacheEngine<String, String> right;
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+        ring = new ConsistentHashRing<>(Arrays::hashCode, 8);
+        ring.addNode(new NamedNode("left"), "left".getBytes(StandardCharsets.UTF_8));
+        ring.addNode(new NamedNode("right"), "right".getBytes(StandardCharsets.UTF_8));
+        left = newEngine();
+        right = newEngine();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        left.close();
+        right.close();
+        vertx.close();
+    }
+
+    @Nested
+    class Digests
+    {
+        // Bu test kayıtların farklı sırada yazılmasının özetleri değiştirmediğini doğrular.
+        @Test
+        void digests_are_independent_of_insertion_order()
+        {
+            for (int i = 0; i < 50; i++) {
+                left.set("key-" + i, "value-" + i);
+            }
+            for (int i = 49; i >= 0; i--) {
+                right.set("key-" + i, "value-" + i, Duration.ofMinutes(5));
+            }
+
+            RangeDigests a = digest(left, "left", "right", List.of(TokenRange.full()));
+            RangeDigests b = digest(right, "right", "left", List.of(TokenRange.full()));
+
+            int total = 0;
+            for (int i = 0; i < FANOUT; i++) {
+                assertEquals(a.digest(i), b.digest(i));
+                assertEquals(a.count(i), b.count(i));
+                total += a.count(i);
+            }
+            assertEquals(50, total);
+        }
+
+        // Bu test tek bir anahtardaki farkın yalnızca o anahtarın kovasında görüldüğünü doğrular.
+        @Test
+        void mismatch_is_localised_to_the_owning_bucket()
+        {
+            for (int i = 0; i < 50; i++) {
+                left.set("key-" + i, "value-" + i);
+                right.set("key-" + i, "value-" + i);
+            }
+            right.set("key-7", "changed");
+
+            TokenRange full = TokenRange.full();
+            RangeDigests a = digest(left, "left", "right", List.of(full));
+            RangeDigests b = digest(right, "right", "left", List.of(full));
+
+            int expected = full.bucketOf(ring.token("key-7".getBytes(StandardCharsets.UTF_8)), FANOUT);
+            List<Integer> mismatched = new ArrayList<>();
+            for (int i = 0; i < FANOUT; i++) {
+                if (a.digest(i) != b.digest(i)) {
+                    mismatched.add(i);
+                }
+            }
+            assertEquals(List.of(expected), mismatched);
+            assertTrue(full.split(FANOUT).get(expected).contains(ring.token("key-7".getBytes(StandardCharsets.UTF_8))));
+        }
+
+        // Bu test iki düğümün birlikte replika olmadığı anahtarların özete katılmadığını gösterir.
+        @Test
+        void keys_not_shared_with_peer_are_ignored()
+        {
+            left.set("key-1", "value-1");
+
+            RangeDigests withStranger = digest(left, "left", "stranger", List.of(TokenRange.full()));
+            for (int i = 0; i < FANOUT; i++) {
+                assertEquals(0, withStranger.count(i));
+            }
+        }
+    }
+
+    @Nested
+    class Ranges
+    {
+        // Bu test bölme sınırları ile kova hesaplamasının tutarlı olduğunu doğrular.
+        @Test
+        void split_boundaries_match_bucket_of()
+        {
+            TokenRange range = new TokenRange(1_000L, 1_037L);
+            List<TokenRange> parts = range.split(8);
+            assertEquals(8, parts.size());
+            assertEquals(range.start(), parts.get(0).start());
+            assertEquals(range.end(), parts.get(7).end());
+            for (long token = range.start(); token < range.end(); token++) {
+                int bucket = range.bucketOf(token, 8);
+                assertTrue(parts.get(bucket).contains(token), "token " + token);
+            }
+        }
+
+        // Bu test aralık dışına düşen kayıtların akışa dahil edilmediğini doğrular.
+        @Test
+        void for_each_shared_visits_only_requested_ranges()
+        {
+            for (int i = 0; i < 50; i++) {
+                left.set("key-" + i, "value-" + i);
+            }
+            TokenRange half = new TokenRange(0L, TokenRange.TOKEN_SPACE / 2);
+            List<String> visited = new ArrayList<>();
+            RangeDigests.forEachShared(left, ring, 2, "left", "right", List.of(half),
+                    (key, value, expireAt) -> visited.add(key));
+
+            assertFalse(visited.isEmpty());
+            for (String key : visited) {
+                assertTrue(half.contains(ring.token(key.getBytes(StandardCharsets.UTF_8))));
+            }
+            assertTrue(visited.size() < 50);
+        }
+    }
+
+    private RangeDigests digest(CacheEngine<String, String> engine, String self, String peer, List<TokenRange> ranges)
+    {
+        return RangeDigests.compute(engine, ring, 2, self, peer, ranges, FANOUT);
+    }
+
+    private CacheEngine<String, String> newEngine()
+    {
+        return CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(2)
+                .maxCapacity(128)
+                .cleanerPollMillis(5)
+                .vertx(vertx)
+                .build();
+    }
+
+    private record NamedNode(String id) implements Node<String, String>
+    {
+        @Override
+        public boolean set(String key, String value, Duration ttl)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String get(String key)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delete(String key)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
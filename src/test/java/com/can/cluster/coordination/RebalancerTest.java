@@ -0,0 +1,375 @@
+package com.can.cluster.coordination;
+
+import com.can.cluster.ConsistentHashRing;
+import com.can.cluster.Mutation;
+import com.can.cluster.Node;
+import com.can.cluster.RateLimiter;
+import com.can.cluster.TokenRange;
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RebalancerTest
+{
+    private Vertx vertx;
+    private ConsistentHashRing<Node<String, String>> ring;
+    private CacheEngine<String, String> engine;
+    private NamedNode self;
+    private NamedNode nodeA;
+    private NamedNode nodeB;
+    private final Map<String, List<TokenRange>> fetched = new ConcurrentHashMap<>();
+    private final Map<String, List<TokenRange>> confirmed = new ConcurrentHashMap<>();
+    private CountDownLatch fetches;
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+        ring = new ConsistentHashRing<>(Arrays::hashCode, 16);
+        self = new NamedNode("self");
+        nodeA = new NamedNode("node-a");
+        nodeB = new NamedNode("node-b");
+        engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(2)
+                .maxCapacity(512)
+                .cleanerPollMillis(5)
+                .vertx(vertx)
+                .build();
+        fetches = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        engine.close();
+        vertx.close();
+    }
+
+    @Nested
+    class Transfers
+    {
+        // Bu test katılan düğümün her üyeden yalnızca o üyeden devraldığı aralıkları çektiğini doğrular.
+        @Test
+        void join_pulls_only_ranges_taken_from_each_member()
+        {
+            add(self);
+            add(nodeA);
+            add(nodeB);
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                List<TokenRange> fromA = rebalancer.rangesToPullFrom(nodeA);
+                List<TokenRange> fromB = rebalancer.rangesToPullFrom(nodeB);
+
+                assertTrue(TokenRange.intersect(fromA, fromB).isEmpty());
+                List<TokenRange> union = new ArrayList<>(fromA);
+                union.addAll(fromB);
+                assertFalse(union.isEmpty());
+                assertEquals(ring.ownedRanges(self, 1), TokenRange.coalesce(union));
+            }
+        }
+
+        // Bu test bir üye ayrıldığında yeni sahiplenilen aralıkların hayatta kalan replikadan çekildiğini gösterir.
+        @Test
+        void leave_pulls_gained_ranges_from_surviving_replica() throws Exception
+        {
+            add(self);
+            add(nodeA);
+            add(nodeB);
+            ConsistentHashRing<Node<String, String>> before = ring.copy();
+            ring.removeNode(nodeB, bytes(nodeB.id()));
+
+            try (Rebalancer rebalancer = rebalancer(2)) {
+                rebalancer.onRingChange(before, ring.copy());
+                assertTrue(fetches.await(5, TimeUnit.SECONDS));
+            }
+
+            List<TokenRange> expected = TokenRange.subtract(List.of(TokenRange.full()), before.ownedRanges(self, 2));
+            assertEquals(Map.of(nodeA.id(), expected), fetched);
+        }
+
+        // Bu test çekilen aralıkların aktarım bitince kaynağa onaylandığını doğrular.
+        @Test
+        void pull_confirms_transferred_ranges_to_source() throws Exception
+        {
+            add(self);
+            add(nodeA);
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                List<TokenRange> ranges = rebalancer.rangesToPullFrom(nodeA);
+                rebalancer.pull(nodeA, ranges);
+
+                assertEquals(Map.of(nodeA.id(), ranges), confirmed);
+            }
+        }
+    }
+
+    @Nested
+    class Decommission
+    {
+        // Bu test ayrılan düğümün yalnızca kendi kayıtlarını yeni sahiplerine devrettiğini doğrular.
+        @Test
+        void hand_off_pushes_owned_entries_to_new_owners()
+        {
+            add(self);
+            add(nodeA);
+            add(nodeB);
+            int owned = 0;
+            for (int i = 0; i < 300; i++) {
+                String key = "key-" + i;
+                engine.set(key, "value-" + i);
+                if (ring.getReplicas(bytes(key), 1).get(0).id().equals(self.id())) {
+                    owned++;
+                }
+            }
+
+            assertTrue(owned > 0);
+
+            Rebalancer.HandOffResult result;
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                result = rebalancer.handOff(5_000L);
+            }
+
+            assertTrue(result.complete());
+            assertEquals(owned, result.accepted());
+            assertEquals(owned, nodeA.received().size() + nodeB.received().size());
+            ConsistentHashRing<Node<String, String>> after = ring.copy();
+            after.removeNode(self, bytes(self.id()));
+            for (String key : nodeA.received()) {
+                assertEquals(nodeA.id(), after.getReplicas(bytes(key), 1).get(0).id());
+            }
+        }
+    }
+
+    @Nested
+    class Purging
+    {
+        // Bu test artık yerel düğüme ait olmayan kayıtların silinip sahip olunanların korunduğunu doğrular.
+        @Test
+        void purge_removes_only_entries_no_longer_owned()
+        {
+            add(self);
+            add(nodeA);
+            for (int i = 0; i < 100; i++) {
+                engine.set("key-" + i, "value-" + i, Duration.ofMinutes(5));
+            }
+
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                int purged = rebalancer.purge(List.of(TokenRange.full()));
+                assertTrue(purged > 0);
+                assertEquals(100 - purged, engine.size());
+            }
+            engine.forEachEntry((key, value, expireAt) ->
+                    assertEquals(self.id(), ring.getReplicas(bytes(key), 1).get(0).id()));
+        }
+
+        // Bu test tek kopyada kaybedilen aralıkların süre dolsa da yeni sahip onaylayana kadar silinmediğini gösterir.
+        @Test
+        void lost_ranges_wait_for_new_owner_confirmation() throws Exception
+        {
+            add(self);
+            fill(100);
+            ConsistentHashRing<Node<String, String>> before = ring.copy();
+            add(nodeA);
+            int owned = ownedKeys(1);
+
+            try (Rebalancer rebalancer = rebalancer(1, 20L)) {
+                rebalancer.onRingChange(before, ring.copy());
+                Thread.sleep(200L);
+                assertEquals(100, engine.size());
+
+                rebalancer.onTransferConfirmed(nodeB.id(), List.of(TokenRange.full()));
+                Thread.sleep(100L);
+                assertEquals(100, engine.size());
+
+                rebalancer.onTransferConfirmed(nodeA.id(), ring.ownedRanges(nodeA, 1));
+                awaitSize(owned);
+            }
+        }
+
+        // Bu test yalnızca onaylanan aralıkların silindiğini, onay bekleyenlerin korunduğunu doğrular.
+        @Test
+        void partial_confirmation_purges_only_confirmed_ranges() throws Exception
+        {
+            add(self);
+            fill(100);
+            ConsistentHashRing<Node<String, String>> before = ring.copy();
+            add(nodeA);
+            List<TokenRange> lost = ring.ownedRanges(nodeA, 1);
+            List<TokenRange> first = lost.subList(0, lost.size() / 2);
+            int remaining = 0;
+            for (int i = 0; i < 100; i++) {
+                byte[] key = bytes("key-" + i);
+                if (TokenRange.indexOf(first, ring.token(key)) < 0) {
+                    remaining++;
+                }
+            }
+
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                rebalancer.onRingChange(before, ring.copy());
+                rebalancer.onTransferConfirmed(nodeA.id(), first);
+                awaitSize(remaining);
+
+                rebalancer.onTransferConfirmed(nodeA.id(), lost);
+                awaitSize(ownedKeys(1));
+            }
+        }
+
+        // Bu test başka replikalar varken onay gelmese de bekleme süresinin üst sınır olarak silmeyi tetiklediğini doğrular.
+        @Test
+        void replicated_ranges_are_purged_after_fallback_delay() throws Exception
+        {
+            add(self);
+            add(nodeA);
+            fill(100);
+            ConsistentHashRing<Node<String, String>> before = ring.copy();
+            add(nodeB);
+            int owned = ownedKeys(2);
+            assertTrue(owned < 100);
+
+            try (Rebalancer rebalancer = rebalancer(2, 50L)) {
+                rebalancer.onRingChange(before, ring.copy());
+                assertEquals(100, engine.size());
+                awaitSize(owned);
+            }
+        }
+
+        // Bu test onay beklenirken yeniden sahiplenilen aralıkların silinmediğini doğrular.
+        @Test
+        void regained_ranges_are_not_purged()
+        {
+            add(self);
+            fill(100);
+            ConsistentHashRing<Node<String, String>> alone = ring.copy();
+            add(nodeA);
+            ConsistentHashRing<Node<String, String>> joined = ring.copy();
+            ring.removeNode(nodeA, bytes(nodeA.id()));
+
+            try (Rebalancer rebalancer = rebalancer(1)) {
+                rebalancer.onRingChange(alone, joined);
+                rebalancer.onRingChange(joined, ring.copy());
+                rebalancer.onTransferConfirmed(nodeA.id(), List.of(TokenRange.full()));
+                assertEquals(100, engine.size());
+            }
+        }
+    }
+
+    private void fill(int count)
+    {
+        for (int i = 0; i < count; i++) {
+            engine.set("key-" + i, "value-" + i, Duration.ofMinutes(5));
+        }
+    }
+
+    private int ownedKeys(int replicationFactor)
+    {
+        int owned = 0;
+        for (int i = 0; i < 100; i++) {
+            for (Node<String, String> replica : ring.getReplicas(bytes("key-" + i), replicationFactor)) {
+                if (replica.id().equals(self.id())) {
+                    owned++;
+                }
+            }
+        }
+        return owned;
+    }
+
+    private void awaitSize(int expected) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (engine.size() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(expected, engine.size());
+    }
+
+    private Rebalancer rebalancer(int replicationFactor)
+    {
+        return rebalancer(replicationFactor, 0L);
+    }
+
+    private Rebalancer rebalancer(int replicationFactor, long purgeDelayMillis)
+    {
+        return new Rebalancer(ring, self, engine, replicationFactor, 2, RateLimiter.unlimited(), purgeDelayMillis,
+                (source, ranges, limiter) -> {
+                    fetched.put(source.id(), List.copyOf(ranges));
+                    fetches.countDown();
+                    return 0;
+                },
+                (owner, ranges) -> confirmed.put(owner.id(), List.copyOf(ranges)),
+                vertx, null);
+    }
+
+    private void add(NamedNode node)
+    {
+        ring.addNode(node, bytes(node.id()));
+    }
+
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record NamedNode(String id, List<String> received) implements Node<String, String>
+    {
+        NamedNode(String id)
+        {
+            this(id, new CopyOnWriteArrayList<>());
+        }
+
+        @Override
+        public boolean[] applyBatch(List<Mutation<String, String>> mutations)
+        {
+            boolean[] results = new boolean[mutations.size()];
+            for (int i = 0; i < results.length; i++) {
+                received.add(mutations.get(i).key());
+                results[i] = true;
+            }
+            return results;
+        }
+
+        @Override
+        public boolean set(String key, String value, Duration ttl)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String get(String key)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delete(String key)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean compareAndSwap(String key, String value, long expectedCas, Duration ttl)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.can.cluster.coordination;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwimMembershipTest
+{
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private final List<SwimMembership> started = new ArrayList<>();
+
+    @AfterEach
+    void cleanup()
+    {
+        started.forEach(SwimMembership::close);
+    }
+
+    @Nested
+    class Discovery
+    {
+        // Bu test, tohum adresine katılan düğümlerin gossip ile birbirlerini keşfettiğini doğrular.
+        @Test
+        void nodes_joining_through_seed_discover_each_other() throws Exception
+        {
+            RecordingListener seedEvents = new RecordingListener();
+            SwimMembership seed = start("node-a", List.of(), seedEvents);
+            List<InetSocketAddress> seeds = List.of(new InetSocketAddress(LOOPBACK, seed.port()));
+            RecordingListener bEvents = new RecordingListener();
+            RecordingListener cEvents = new RecordingListener();
+            start("node-b", seeds, bEvents);
+            start("node-c", seeds, cEvents);
+
+            awaitCondition(() -> seedEvents.alive.containsAll(Set.of("node-b", "node-c"))
+                    && bEvents.alive.containsAll(Set.of("node-a", "node-c"))
+                    && cEvents.alive.containsAll(Set.of("node-a", "node-b")));
+            assertEquals(2, seed.memberCount());
+        }
+    }
+
+    @Nested
+    class FailureDetection
+    {
+        // Bu test, kapanan düğümün doğrudan ve dolaylı yoklamalardan sonra ölü ilan edildiğini doğrular.
+        @Test
+        void stopped_node_is_declared_dead()
+        {
+            RecordingListener aEvents = new RecordingListener();
+            SwimMembership seed = start("node-a", List.of(), aEvents);
+            List<InetSocketAddress> seeds = List.of(new InetSocketAddress(LOOPBACK, seed.port()));
+            RecordingListener bEvents = new RecordingListener();
+            start("node-b", seeds, bEvents);
+            SwimMembership nodeC = start("node-c", seeds, new RecordingListener());
+            awaitCondition(() -> aEvents.alive.contains("node-c") && bEvents.alive.contains("node-c"));
+
+            nodeC.close();
+
+            awaitCondition(() -> aEvents.dead.contains("node-c") && bEvents.dead.contains("node-c"));
+            assertTrue(aEvents.suspected.contains("node-c"));
+            assertTrue(bEvents.suspected.contains("node-c"));
+            assertFalse(aEvents.dead.contains("node-b"));
+            assertFalse(bEvents.dead.contains("node-a"));
+        }
+
+        // Bu test, ayrılan düğümün zaman aşımı beklenmeden ayrılma olayıyla bildirildiğini doğrular.
+        @Test
+        void leaving_node_is_reported_as_left()
+        {
+            RecordingListener aEvents = new RecordingListener();
+            SwimMembership seed = start("node-a", List.of(), aEvents);
+            List<InetSocketAddress> seeds = List.of(new InetSocketAddress(LOOPBACK, seed.port()));
+            SwimMembership nodeB = start("node-b", seeds, new RecordingListener());
+            awaitCondition(() -> aEvents.alive.contains("node-b"));
+
+            nodeB.leave();
+
+            awaitCondition(() -> aEvents.left.contains("node-b"));
+            assertFalse(aEvents.dead.contains("node-b"));
+        }
+    }
+
+    private SwimMembership start(String id, List<InetSocketAddress> seeds, RecordingListener listener)
+    {
+        SwimMembership membership = new SwimMembership(id, LOOPBACK, 18080, LOOPBACK, 0, seeds,
+                50L, 20L, 2, 200L, () -> 0L);
+        try {
+            membership.start(listener);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        started.add(membership);
+        return membership;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition)
+    {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted while waiting");
+            }
+        }
+        fail("Condition not met in time");
+    }
+
+    private static final class RecordingListener implements MembershipProtocol.Listener
+    {
+        private final Set<String> alive = ConcurrentHashMap.newKeySet();
+        private final Set<String> left = ConcurrentHashMap.newKeySet();
+        private final Set<String> dead = ConcurrentHashMap.newKeySet();
+        private final Set<String> suspected = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onAlive(String nodeId, String host, int port, long epoch)
+        {
+            alive.add(nodeId);
+        }
+
+        @Override
+        public void onSuspect(String nodeId)
+        {
+            suspected.add(nodeId);
+        }
+
+        @Override
+        public void onLeave(String nodeId)
+        {
+            left.add(nodeId);
+        }
+
+        @Override
+        public void onDead(String nodeId)
+        {
+            dead.add(nodeId);
+        }
+    }
+}
@@ -3,7 +3,13 @@ package com.can.codec;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,5 +65,64 @@ class CodecsTest
         }
     }
 
+    @Nested
+    class BlockCodecBehavior
+    {
+        // Bu test JSON benzeri verinin her kodlayıcıyla küçülüp aynı içerikle geri açıldığını doğrular.
+        @Test
+        void compressible_payload_round_trips_and_shrinks() throws IOException
+        {
+            StringBuilder json = new StringBuilder();
+            for (int i = 0; i < 500; i++)
+            {
+                json.append("{\"id\":").append(i).append(",\"name\":\"user-").append(i % 37)
+                        .append("\",\"active\":true,\"tags\":[\"a\",\"b\"]},");
+            }
+            byte[] raw = json.toString().getBytes(StandardCharsets.UTF_8);
+            for (BlockCodec codec : List.of(BlockCodec.LZ4, BlockCodec.DEFLATE))
+            {
+                byte[] compressed = codec.compress(raw);
+                assertTrue(compressed.length < raw.length / 2, codec + " ratio");
+                assertArrayEquals(raw, codec.decompress(compressed, 0, compressed.length, raw.length));
+            }
+        }
+
+        // Bu test rastgele, kısa ve uzun tekrar içeren girdilerin LZ4 ile kayıpsız döndüğünü gösterir.
+        @Test
+        void lz4_round_trips_edge_cases() throws IOException
+        {
+            Random random = new Random(42);
+            List<byte[]> inputs = new ArrayList<>();
+            for (int length = 0; length < 40; length++)
+            {
+                byte[] small = new byte[length];
+                random.nextBytes(small);
+                inputs.add(small);
+            }
+            byte[] noise = new byte[100_000];
+            random.nextBytes(noise);
+            inputs.add(noise);
+            byte[] run = new byte[70_000];
+            Arrays.fill(run, (byte) 'x');
+            inputs.add(run);
+            for (byte[] input : inputs)
+            {
+                byte[] compressed = BlockCodec.LZ4.compress(input);
+                assertArrayEquals(input, BlockCodec.LZ4.decompress(compressed, 0, compressed.length, input.length));
+            }
+        }
+
+        // Bu test bozuk ya da uzunluğu tutmayan bloğun açılırken hata verdiğini doğrular.
+        @Test
+        void corrupt_block_is_rejected()
+        {
+            byte[] raw = "abcabcabcabcabcabcabcabcabcabc".getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = BlockCodec.LZ4.compress(raw);
+            assertThrows(IOException.class, () -> BlockCodec.LZ4.decompress(compressed, 0, compressed.length, raw.length + 1));
+            assertThrows(IOException.class, () -> BlockCodec.LZ4.decompress(compressed, 0, compressed.length - 1, raw.length));
+            assertThrows(IOException.class, () -> BlockCodec.DEFLATE.decompress(compressed, 0, compressed.length, raw.length));
+        }
+    }
+
     private record Sample(String text, int number) implements Serializable {}
 }
@@ -101,6 +101,20 @@ class CacheEngineTest
             assertEquals("value", engine.get("forever"));
             assertTrue(engine.exists("forever"));
         }
+
+        // Bu test kodlanmış API ile yazılan baytların aynen okunduğunu ve geçmiş son kullanma zamanının kaydı sildiğini doğrular.
+        @Test
+        void encoded_api_round_trips_bytes_and_honours_absolute_expiry()
+        {
+            byte[] value = "çay".getBytes(StandardCharsets.UTF_8);
+            assertTrue(engine.setEncoded("raw", value, 0L));
+            assertArrayEquals(value, engine.getEncoded("raw"));
+            assertEquals("çay", engine.get("raw"));
+
+            assertTrue(engine.setEncoded("raw", value, System.currentTimeMillis() - 1L));
+            assertNull(engine.getEncoded("raw"));
+            assertFalse(engine.exists("raw"));
+        }
     }
 
     @Nested
@@ -176,6 +190,22 @@ class CacheEngineTest
             engine.replay(new byte[]{NodeProtocol.CMD_DELETE}, StringCodec.UTF8.encode("gone"), new byte[0], 0L);
             assertNull(engine.get("gone"));
         }
+
+        // Bu test toplu yazmanın süresi dolmamış kayıtları sakladığını ve dolmuşları atladığını doğrular.
+        @Test
+        void set_all_stores_live_entries_and_skips_expired()
+        {
+            long now = System.currentTimeMillis();
+            int stored = engine.setAll(List.of(
+                    new CacheEngine.BulkEntry<>("a", StringCodec.UTF8.encode("1"), 0L),
+                    new CacheEngine.BulkEntry<>("b", StringCodec.UTF8.encode("2"), now + 60_000L),
+                    new CacheEngine.BulkEntry<>("c", StringCodec.UTF8.encode("3"), now - 1_000L)));
+
+            assertEquals(2, stored);
+            assertEquals("1", engine.get("a"));
+            assertEquals("2", engine.get("b"));
+            assertNull(engine.get("c"));
+        }
     }
 
     @Nested
@@ -8,8 +8,8 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -159,6 +159,103 @@ class CacheSegmentTest
             assertEquals(List.of("a", "b"), keys);
             assertEquals(3, segment.size());
         }
+
+        // Bu test dolaşım sırasında yapılan güncelleme ve silmelerin dolaşımı etkilemediğini, sonrasında ise görünür olduğunu doğrular.
+        @Test
+        void for_each_sees_point_in_time_values_while_writers_continue()
+        {
+            segment = new CacheSegment<>(10, policy, removals::add);
+            assertTrue(segment.put("a", value("1")));
+            assertTrue(segment.put("b", value("2")));
+            assertTrue(segment.put("c", value("3")));
+            List<String> seen = new ArrayList<>();
+            segment.forEach((key, value) -> {
+                seen.add(key + "=" + text(value));
+                if (key.equals("a")) {
+                    segment.put("b", value("20"));
+                    segment.remove("c");
+                    segment.put("d", value("4"));
+                    assertEquals("20", text(segment.get("b")));
+                    assertNull(segment.get("c"));
+                    assertEquals(3, segment.size());
+                }
+            });
+            assertEquals(List.of("a=1", "b=2", "c=3"), seen);
+            assertEquals("20", text(segment.get("b")));
+            assertNull(segment.get("c"));
+            assertEquals("4", text(segment.get("d")));
+            assertEquals(3, segment.size());
+        }
+
+        // Bu test dolaşım bittikten sonra LRU sırasının değişikliklerle birlikte korunduğunu doğrular.
+        @Test
+        void eviction_order_survives_iteration()
+        {
+            segment = new CacheSegment<>(3, policy, removals::add);
+            assertTrue(segment.put("a", value("1")));
+            assertTrue(segment.put("b", value("2")));
+            assertTrue(segment.put("c", value("3")));
+            segment.forEach((key, value) -> {
+                if (key.equals("a")) {
+                    segment.get("a");
+                }
+            });
+            assertTrue(segment.putForce("d", value("4")));
+            assertEquals(List.of("b"), removals);
+            assertNotNull(segment.get("a"));
+        }
+    }
+
+    @Nested
+    class ConcurrentReaders
+    {
+        // Bu test yazmadan sonra başlayan ikinci dolaşımın kendi başlangıç anındaki içeriği gördüğünü doğrular.
+        @Test
+        void overlapping_reader_after_write_sees_its_own_point_in_time()
+        {
+            segment = new CacheSegment<>(10, policy, removals::add);
+            assertTrue(segment.put("a", value("1")));
+            assertTrue(segment.put("b", value("2")));
+            assertTrue(segment.put("c", value("3")));
+            List<String> outer = new ArrayList<>();
+            List<String> inner = new ArrayList<>();
+            segment.forEach((key, value) -> {
+                outer.add(key + "=" + text(value));
+                if (key.equals("a")) {
+                    segment.put("b", value("20"));
+                    segment.remove("c");
+                    segment.put("d", value("4"));
+                    segment.forEach((k, v) -> inner.add(k + "=" + text(v)));
+                    segment.put("e", value("5"));
+                }
+            });
+            assertEquals(List.of("a=1", "b=2", "c=3"), outer);
+            assertEquals(List.of("a=1", "b=20", "d=4"), inner);
+            List<String> after = new ArrayList<>();
+            segment.forEach((key, value) -> after.add(key + "=" + text(value)));
+            assertEquals(List.of("a=1", "b=20", "d=4", "e=5"), after);
+        }
+
+        // Bu test dolaşım sürerken art arda tahliyelerin LRU sırasını izlediğini doğrular.
+        @Test
+        void repeated_evictions_during_iteration_follow_lru_order()
+        {
+            segment = new CacheSegment<>(4, policy, removals::add);
+            for (String key : List.of("a", "b", "c", "d")) {
+                assertTrue(segment.put(key, value(key)));
+            }
+            segment.forEach((key, value) -> {
+                if (key.equals("a")) {
+                    segment.get("b");
+                    segment.putForce("e", value("e"));
+                    segment.putForce("f", value("f"));
+                    segment.putForce("g", value("g"));
+                    segment.putForce("h", value("h"));
+                }
+            });
+            assertEquals(List.of("a", "c", "d", "b"), removals);
+            assertEquals(4, segment.size());
+        }
     }
 
     private static CacheValue value(String text)
@@ -184,7 +281,7 @@ class CacheSegmentTest
         }
 
         @Override
-        public AdmissionDecision<K> admit(K key, LinkedHashMap<K, CacheValue> map, int capacity)
+        public AdmissionDecision<K> admit(K key, int size, int capacity, Supplier<K> eldest)
         {
             AdmissionDecision<K> decision = nextDecision;
             nextDecision = EvictionPolicy.AdmissionDecision.admit();
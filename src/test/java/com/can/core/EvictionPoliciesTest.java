@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.util.LinkedHashMap;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,7 +47,7 @@ class EvictionPoliciesTest
         {
             LruEvictionPolicy<String> policy = new LruEvictionPolicy<>();
             LinkedHashMap<String, CacheValue> map = new LinkedHashMap<>();
-            var decision = policy.admit("candidate", map, 2);
+            var decision = policy.admit("candidate", map.size(), 2, eldest(map));
             assertTrue(decision.shouldAdmit());
             assertNull(decision.evictKey());
         }
@@ -59,7 +60,7 @@ class EvictionPoliciesTest
             LinkedHashMap<String, CacheValue> map = new LinkedHashMap<>();
             map.put("old", new CacheValue(new byte[]{1}, 0L));
             map.put("young", new CacheValue(new byte[]{2}, 0L));
-            var decision = policy.admit("candidate", map, 2);
+            var decision = policy.admit("candidate", map.size(), 2, eldest(map));
             assertTrue(decision.shouldAdmit());
             assertEquals("old", decision.evictKey());
         }
@@ -74,7 +75,7 @@ class EvictionPoliciesTest
         {
             TinyLfuEvictionPolicy<String> policy = new TinyLfuEvictionPolicy<>(2);
             LinkedHashMap<String, CacheValue> map = new LinkedHashMap<>();
-            var decision = policy.admit("candidate", map, 2);
+            var decision = policy.admit("candidate", map.size(), 2, eldest(map));
             assertTrue(decision.shouldAdmit());
             assertNull(decision.evictKey());
         }
@@ -90,7 +91,7 @@ class EvictionPoliciesTest
             policy.recordAccess("candidate");
             policy.recordAccess("candidate");
             policy.recordAccess("candidate");
-            var decision = policy.admit("candidate", map, 1);
+            var decision = policy.admit("candidate", map.size(), 1, eldest(map));
             assertTrue(decision.shouldAdmit());
             assertEquals("victim", decision.evictKey());
         }
@@ -105,8 +106,36 @@ class EvictionPoliciesTest
             policy.recordAccess("victim");
             policy.recordAccess("victim");
             policy.recordAccess("candidate");
-            var decision = policy.admit("candidate", map, 1);
+            var decision = policy.admit("candidate", map.size(), 1, eldest(map));
             assertFalse(decision.shouldAdmit());
         }
+
+        // Bu test kaydedilen frekans durumunun aynı kapasitede geri yüklendiğini, farklı kapasitede reddedildiğini doğrular.
+        @Test
+        void tiny_lfu_state_restores_only_for_matching_capacity()
+        {
+            TinyLfuEvictionPolicy<String> source = new TinyLfuEvictionPolicy<>(1);
+            source.recordAccess("candidate");
+            source.recordAccess("candidate");
+            source.recordAccess("victim");
+            byte[] state = source.saveState();
+
+            TinyLfuEvictionPolicy<String> restored = new TinyLfuEvictionPolicy<>(1);
+            assertTrue(restored.restoreState(state));
+            assertArrayEquals(state, restored.saveState());
+            LinkedHashMap<String, CacheValue> map = new LinkedHashMap<>();
+            map.put("victim", new CacheValue(new byte[]{1}, 0L));
+            assertTrue(restored.admit("candidate", map.size(), 1, eldest(map)).shouldAdmit());
+
+            TinyLfuEvictionPolicy<String> larger = new TinyLfuEvictionPolicy<>(100);
+            byte[] empty = larger.saveState();
+            assertFalse(larger.restoreState(state));
+            assertArrayEquals(empty, larger.saveState());
+        }
+    }
+
+    private static Supplier<String> eldest(LinkedHashMap<String, CacheValue> map)
+    {
+        return () -> map.isEmpty() ? null : map.keySet().iterator().next();
     }
 }
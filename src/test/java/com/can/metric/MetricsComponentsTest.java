@@ -5,6 +5,8 @@ import io.vertx.core.WorkerExecutor;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MetricsComponentsTest
@@ -44,6 +46,23 @@ class MetricsComponentsTest
         }
     }
 
+    @Nested
+    class GaugeBehavior
+    {
+        // Bu test göstergenin değeri her okumada tedarikçiden aldığını ve son kaydın geçerli olduğunu doğrular.
+        @Test
+        void gauge_reads_current_value_from_supplier()
+        {
+            MetricsRegistry registry = new MetricsRegistry();
+            AtomicLong depth = new AtomicLong(3);
+            Gauge gauge = registry.gauge("queue_depth", depth::get);
+            depth.set(7);
+            assertEquals(7, gauge.get());
+            registry.gauge("queue_depth", () -> 42);
+            assertEquals(42, registry.gauges().get("queue_depth").get());
+        }
+    }
+
     @Nested
     class RegistryBehavior
     {
@@ -0,0 +1,185 @@
+package com.can.net;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class CanCachedServerTest
+{
+    @Inject
+    CanCachedServer server;
+
+    private Socket socket;
+    private BufferedReader in;
+    private OutputStream out;
+
+    @BeforeEach
+    void connect() throws IOException
+    {
+        socket = new Socket("127.0.0.1", server.port());
+        socket.setSoTimeout(5_000);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        out = socket.getOutputStream();
+    }
+
+    @AfterEach
+    void disconnect() throws IOException
+    {
+        socket.close();
+    }
+
+    @Nested
+    class MetaNoop
+    {
+        // Bu test mn komutunun MN ile yanıtlandığını doğrular.
+        @Test
+        void noop_replies_mn() throws IOException
+        {
+            assertEquals("MN", command("mn"));
+        }
+    }
+
+    @Nested
+    class MetaGet
+    {
+        // Bu test mg isabetinde istenen bayrakların ve değerin döndüğünü, ıskalamada EN döndüğünü doğrular.
+        @Test
+        void returns_value_with_requested_flags() throws IOException
+        {
+            String key = key();
+            assertEquals("EN", command("mg " + key + " v"));
+            assertEquals("HD", store("ms " + key + " 5 F7", "hello"));
+
+            assertEquals("VA 5 f7 s5 k" + key + " O1", command("mg " + key + " v f s k O1"));
+            assertEquals("hello", in.readLine());
+        }
+
+        // Bu test T bayrağının isabet eden kaydın ömrünü güncellediğini doğrular.
+        @Test
+        void ttl_flag_touches_entry() throws IOException
+        {
+            String key = key();
+            assertEquals("HD", store("ms " + key + " 1", "v"));
+            assertEquals("HD t-1", command("mg " + key + " t"));
+
+            assertTrue(command("mg " + key + " t T100").matches("HD t(99|100)"));
+            assertTrue(command("mg " + key + " t").matches("HD t(99|100)"));
+        }
+
+        // Bu test mg için anlamı olmayan bayrağın CLIENT_ERROR ile reddedildiğini doğrular.
+        @Test
+        void unsupported_flag_is_rejected() throws IOException
+        {
+            assertTrue(command("mg " + key() + " v C1").startsWith("CLIENT_ERROR"));
+        }
+    }
+
+    @Nested
+    class MetaSet
+    {
+        // Bu test C bayrağıyla eklemenin yalnızca CAS eşleşirse uygulandığını doğrular.
+        @Test
+        void append_with_cas_requires_matching_cas() throws IOException
+        {
+            String key = key();
+            assertEquals("HD", store("ms " + key + " 1", "a"));
+            long cas = cas(key);
+
+            assertEquals("EX", store("ms " + key + " 1 MA C" + (cas + 1), "b"));
+            assertEquals("HD", store("ms " + key + " 1 MA C" + cas, "b"));
+            assertEquals("VA 2", command("mg " + key + " v"));
+            assertEquals("ab", in.readLine());
+        }
+
+        // Bu test C bayrağıyla replace kipinin CAS karşılaştırmasına dönüştüğünü doğrular.
+        @Test
+        void replace_with_cas_compares_cas() throws IOException
+        {
+            String key = key();
+            assertEquals("NF", store("ms " + key + " 1 MR C1", "x"));
+            assertEquals("HD", store("ms " + key + " 1", "a"));
+            long cas = cas(key);
+
+            assertEquals("EX", store("ms " + key + " 1 MR C" + (cas + 1), "x"));
+            assertEquals("HD", store("ms " + key + " 1 MR C" + cas, "y"));
+            assertEquals("VA 1", command("mg " + key + " v"));
+            assertEquals("y", in.readLine());
+        }
+
+        // Bu test kaydın olmamasını şart koşan add kipinin C bayrağıyla reddedildiğini doğrular.
+        @Test
+        void add_with_cas_is_rejected() throws IOException
+        {
+            assertEquals("CLIENT_ERROR invalid arguments", command("ms " + key() + " 1 ME C1"));
+        }
+    }
+
+    @Nested
+    class MetaDelete
+    {
+        // Bu test C bayrağıyla silmenin yalnızca CAS eşleşirse yapıldığını doğrular.
+        @Test
+        void delete_with_cas_requires_matching_cas() throws IOException
+        {
+            String key = key();
+            assertEquals("HD", store("ms " + key + " 1", "a"));
+            long cas = cas(key);
+
+            assertEquals("EX", command("md " + key + " C" + (cas + 1)));
+            assertEquals("HD", command("mg " + key));
+            assertEquals("HD k" + key, command("md " + key + " C" + cas + " k"));
+            assertEquals("EN", command("mg " + key));
+            assertEquals("NF", command("md " + key + " C" + cas));
+        }
+
+        // Bu test koşulsuz silmeyi ve md için desteklenmeyen bayrağın reddedildiğini doğrular.
+        @Test
+        void delete_without_cas_and_rejects_unknown_flags() throws IOException
+        {
+            String key = key();
+            assertEquals("HD", store("ms " + key + " 1", "a"));
+
+            assertTrue(command("md " + key + " T10").startsWith("CLIENT_ERROR"));
+            assertEquals("HD", command("md " + key));
+            assertEquals("NF", command("md " + key));
+        }
+    }
+
+    private String command(String line) throws IOException
+    {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return in.readLine();
+    }
+
+    private String store(String line, String value) throws IOException
+    {
+        return command(line + "\r\n" + value);
+    }
+
+    private long cas(String key) throws IOException
+    {
+        String line = command("mg " + key + " c");
+        assertTrue(line.startsWith("HD c"), line);
+        return Long.parseLong(line.substring(4));
+    }
+
+    private static String key()
+    {
+        return "meta-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,82 @@
+package com.can.net.protocol;
+
+import com.can.cluster.ConsistencyLevel;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetaFlagsTest
+{
+    @Nested
+    class Parsing
+    {
+        // Bu test dönüş ve değerli bayrakların doğru alanlara çözüldüğünü doğrular.
+        @Test
+        void parses_return_and_value_flags()
+        {
+            MetaFlags meta = MetaFlags.parse(new String[]{"mg", "key", "v", "k", "c", "t", "q", "Oabc", "T30", "Lquorum"}, 2);
+
+            assertTrue(meta.returnValue());
+            assertTrue(meta.returnKey());
+            assertTrue(meta.returnCas());
+            assertTrue(meta.returnTtl());
+            assertTrue(meta.quiet());
+            assertFalse(meta.returnFlags());
+            assertEquals("abc", meta.opaque());
+            assertEquals(30L, meta.ttlSeconds());
+            assertNull(meta.compareCas());
+            assertEquals(ConsistencyLevel.QUORUM, meta.consistency());
+        }
+
+        // Bu test set kipinin ve CAS değerinin çözüldüğünü, kip verilmezse S kabul edildiğini doğrular.
+        @Test
+        void parses_mode_and_compare_cas()
+        {
+            MetaFlags meta = MetaFlags.parse(new String[]{"ms", "key", "3", "F7", "C42", "Ma"}, 3);
+            MetaFlags defaults = MetaFlags.parse(new String[]{"ms", "key", "3"}, 3);
+
+            assertEquals(7, meta.clientFlags());
+            assertEquals(42L, meta.compareCas());
+            assertEquals('A', meta.mode());
+            assertEquals('S', defaults.mode());
+        }
+
+        // Bu test hatalı sayısal değerlerin, bilinmeyen bayrakların ve geçersiz kiplerin reddedildiğini doğrular.
+        @Test
+        void rejects_malformed_flags()
+        {
+            assertThrows(IllegalArgumentException.class, () -> MetaFlags.parse(new String[]{"mg", "key", "Tabc"}, 2));
+            assertThrows(IllegalArgumentException.class, () -> MetaFlags.parse(new String[]{"mg", "key", "x"}, 2));
+            assertThrows(IllegalArgumentException.class, () -> MetaFlags.parse(new String[]{"ms", "key", "1", "MSE"}, 3));
+        }
+
+        // Bu test komutun uygulamadığı bayrakların sessizce yok sayılmak yerine reddedildiğini doğrular.
+        @Test
+        void rejects_flags_outside_command_set()
+        {
+            assertThrows(IllegalArgumentException.class,
+                    () -> MetaFlags.parse(new String[]{"mg", "key", "C1"}, 2, MetaFlags.GET_FLAGS));
+            assertThrows(IllegalArgumentException.class,
+                    () -> MetaFlags.parse(new String[]{"md", "key", "T10"}, 2, MetaFlags.DELETE_FLAGS));
+            assertThrows(IllegalArgumentException.class,
+                    () -> MetaFlags.parse(new String[]{"ms", "key", "1", "v"}, 3, MetaFlags.SET_FLAGS));
+            assertDoesNotThrow(() -> MetaFlags.parse(new String[]{"md", "key", "C1", "q"}, 2, MetaFlags.DELETE_FLAGS));
+        }
+    }
+
+    @Nested
+    class Echo
+    {
+        // Bu test k ve O bayraklarının yanıta geri yansıtıldığını doğrular.
+        @Test
+        void appends_key_and_opaque()
+        {
+            MetaFlags meta = MetaFlags.parse(new String[]{"md", "key", "k", "O9"}, 2);
+            StringBuilder line = new StringBuilder("HD");
+            meta.appendEcho(line, "key");
+
+            assertEquals("HD kkey O9", line.toString());
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.can.rdb;
+
+import com.can.codec.Codec;
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyLogTest
+{
+    @TempDir
+    Path dir;
+
+    private Vertx vertx;
+    private final List<CacheEngine<String, String>> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        engines.forEach(CacheEngine::close);
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private CacheEngine<String, String> newEngine()
+    {
+        CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(4)
+                .maxCapacity(10_000)
+                .vertx(vertx)
+                .build();
+        engines.add(engine);
+        return engine;
+    }
+
+    private AppendOnlyLog<String> newLog(File file, int rewritePercentage)
+    {
+        return new AppendOnlyLog<>(file, StringCodec.UTF8, FsyncPolicy.ALWAYS, rewritePercentage, 0L);
+    }
+
+    /** Yazıcıyı yavaşlatmak ya da hata vermeye zorlamak için anahtar kodlamasını denetler. */
+    private static final class ControlledCodec implements Codec<String>
+    {
+        volatile String slowKey;
+        volatile String failOnce;
+        volatile boolean failRewrite;
+        volatile long rewriteDelayMillis;
+        final AtomicInteger rewriteFailures = new AtomicInteger();
+
+        @Override
+        public byte[] encode(String key)
+        {
+            boolean rewriting = Thread.currentThread().getName().equals("aof-rewrite");
+            if (rewriting && failRewrite) {
+                rewriteFailures.incrementAndGet();
+                throw new UncheckedIOException(new IOException("rewrite failure"));
+            }
+            if (rewriting && rewriteDelayMillis > 0L) {
+                sleep(rewriteDelayMillis);
+            }
+            if (!rewriting && key.equals(slowKey)) {
+                sleep(300L);
+            }
+            if (!rewriting && key.equals(failOnce)) {
+                failOnce = null;
+                throw new UncheckedIOException(new IOException("write failure"));
+            }
+            return StringCodec.UTF8.encode(key);
+        }
+
+        @Override
+        public String decode(byte[] bytes)
+        {
+            return StringCodec.UTF8.decode(bytes);
+        }
+
+        private static void sleep(long millis)
+        {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nested
+    class Replay
+    {
+        // Bu test set, delete ve clear değişikliklerinin günlükten aynı sırayla geri oynatıldığını doğrular.
+        @Test
+        void mutations_are_replayed_after_restart()
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            AppendOnlyLog<String> log = newLog(file, 0);
+            log.start(source);
+            source.set("gone", "x");
+            source.clear();
+            source.set("a", "1");
+            source.set("b", "2", Duration.ofHours(1));
+            source.set("c", "3");
+            source.delete("c");
+            source.set("a", "4");
+            log.close();
+
+            CacheEngine<String, String> target = newEngine();
+            long applied = newLog(file, 0).replay(target);
+
+            assertEquals(7L, applied);
+            assertEquals("4", target.get("a"));
+            assertEquals("2", target.get("b"));
+            assertNull(target.get("c"));
+            assertNull(target.get("gone"));
+        }
+
+        // Bu test yarım kalmış son bloğun atılıp önceki kayıtların korunduğunu doğrular.
+        @Test
+        void truncated_tail_is_discarded() throws IOException
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            AppendOnlyLog<String> log = newLog(file, 0);
+            log.start(source);
+            source.set("kept", "yes");
+            log.close();
+            long intact = Files.size(file.toPath());
+
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            byte[] damaged = Arrays.copyOf(bytes, bytes.length + 5);
+            Files.write(file.toPath(), damaged);
+
+            CacheEngine<String, String> target = newEngine();
+            newLog(file, 0).replay(target);
+
+            assertEquals("yes", target.get("kept"));
+            assertEquals(intact, Files.size(file.toPath()));
+        }
+
+        // Bu test aynı anahtara eşzamanlı yazmaların günlüğe uygulandıkları sırayla düştüğünü doğrular.
+        @Test
+        void concurrent_writes_to_same_key_replay_to_final_value() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            // Uygulama ile günlük kaydı arasındaki pencereyi genişletir.
+            source.onMutation((op, key, value, expireAt) -> Thread.yield());
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, StringCodec.UTF8, FsyncPolicy.NO, 0, 0L);
+            log.start(source);
+            int rounds = 20;
+            for (int round = 0; round < rounds; round++) {
+                String key = "hot-" + round;
+                List<Thread> writers = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    String writer = "w" + t;
+                    writers.add(Thread.ofPlatform().start(() -> {
+                        for (int i = 0; i < 200; i++) {
+                            source.set(key, writer + "-" + i);
+                            if (i % 50 == 0) {
+                                source.delete(key);
+                            }
+                        }
+                    }));
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+            }
+            log.close();
+
+            CacheEngine<String, String> target = newEngine();
+            new AppendOnlyLog<>(file, StringCodec.UTF8, FsyncPolicy.NO, 0, 0L).replay(target);
+
+            for (int round = 0; round < rounds; round++) {
+                assertEquals(source.get("hot-" + round), target.get("hot-" + round), "hot-" + round);
+            }
+        }
+    }
+
+    @Nested
+    class Durability
+    {
+        // Bu test always politikasında yazma döndüğünde kaydın günlük dosyasında olduğunu doğrular.
+        @Test
+        void always_policy_returns_after_record_is_synced() throws IOException
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            AppendOnlyLog<String> log = newLog(file, 0);
+            log.start(source);
+            try {
+                for (int i = 0; i < 20; i++) {
+                    source.set("key-" + i, "value-" + i);
+                    Path copy = dir.resolve("copy-" + i + ".aof");
+                    Files.copy(file.toPath(), copy);
+
+                    CacheEngine<String, String> target = newEngine();
+                    newLog(copy.toFile(), 0).replay(target);
+                    assertEquals("value-" + i, target.get("key-" + i));
+                }
+            } finally {
+                log.close();
+            }
+        }
+
+        // Bu test kuyruk sınırı çok küçükken eşzamanlı yazanların bekleyip hiçbir kaydı kaybetmediğini doğrular.
+        @Test
+        void bounded_queue_applies_backpressure_without_losing_records() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, StringCodec.UTF8, FsyncPolicy.NO, 0, 0L, 1);
+            // Yazıcı başlamadan yakalanan kayıtlar için yazan thread'ler bekletilmez.
+            log.capture(source);
+            source.set("early", "captured");
+            source.set("early-2", "captured");
+            log.start(source);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int writer = t;
+                writers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        source.set("key-" + writer + "-" + i, "v");
+                    }
+                }));
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            log.close();
+
+            CacheEngine<String, String> target = newEngine();
+            long applied = newLog(file, 0).replay(target);
+            assertEquals(8_002L, applied);
+            assertEquals("captured", target.get("early"));
+            assertEquals(source.size(), target.size());
+        }
+    }
+
+    @Nested
+    class EventLoop
+    {
+        // Bu test event-loop'ta yazan thread'in fsync beklenmeden döndüğünü ve bekleme aşamasının kayıt kalıcı olunca tamamlandığını doğrular.
+        @Test
+        void event_loop_writer_gets_commit_stage_instead_of_parking() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            ControlledCodec codec = new ControlledCodec();
+            codec.slowKey = "slow";
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, codec, FsyncPolicy.ALWAYS, 0, 0L);
+            log.start(source);
+            try {
+                long[] elapsedNanos = new long[1];
+                CompletableFuture<CompletionStage<Void>> onLoop = new CompletableFuture<>();
+                vertx.runOnContext(v -> {
+                    long started = System.nanoTime();
+                    source.set("slow", "1");
+                    elapsedNanos[0] = System.nanoTime() - started;
+                    onLoop.complete(source.takePendingCommit());
+                });
+                CompletionStage<Void> commit = onLoop.get(5, TimeUnit.SECONDS);
+
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(elapsedNanos[0]) < 200L);
+                assertNotNull(commit);
+                assertFalse(commit.toCompletableFuture().isDone());
+                commit.toCompletableFuture().get(5, TimeUnit.SECONDS);
+                assertNull(source.takePendingCommit());
+
+                Path copy = dir.resolve("copy.aof");
+                Files.copy(file.toPath(), copy);
+                CacheEngine<String, String> target = newEngine();
+                newLog(copy.toFile(), 0).replay(target);
+                assertEquals("1", target.get("slow"));
+            } finally {
+                log.close();
+            }
+        }
+    }
+
+    @Nested
+    class Failures
+    {
+        // Bu test yazma hatasının bekleyen yazara iletildiğini ve günlüğün bellekten yeniden yazılarak devam ettiğini doğrular.
+        @Test
+        void write_failure_reaches_waiter_and_log_recovers()
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            ControlledCodec codec = new ControlledCodec();
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, codec, FsyncPolicy.ALWAYS, 0, 0L);
+            log.start(source);
+            source.set("before", "0");
+            codec.failOnce = "bad";
+
+            assertThrows(UncheckedIOException.class, () -> source.set("bad", "1"));
+            source.set("good", "2");
+            log.close();
+
+            CacheEngine<String, String> target = newEngine();
+            newLog(file, 0).replay(target);
+            assertEquals("0", target.get("before"));
+            assertEquals("1", target.get("bad"));
+            assertEquals("2", target.get("good"));
+        }
+
+        // Bu test başarısız bir yeniden yazımdan sonra eski günlüğe yazmaya devam edildiğini doğrular.
+        @Test
+        void failed_rewrite_keeps_appending_to_current_log() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            ControlledCodec codec = new ControlledCodec();
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, codec, FsyncPolicy.ALWAYS, 0, 0L);
+            log.start(source);
+            source.set("before", "0");
+            codec.failRewrite = true;
+
+            log.requestRewrite();
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (codec.rewriteFailures.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            assertTrue(codec.rewriteFailures.get() > 0);
+            Thread.sleep(300L);
+            source.set("after", "1");
+            log.close();
+
+            assertFalse(Files.exists(dir.resolve("data.aof.rewrite")));
+            CacheEngine<String, String> target = newEngine();
+            newLog(file, 0).replay(target);
+            assertEquals("0", target.get("before"));
+            assertEquals("1", target.get("after"));
+        }
+    }
+
+    @Nested
+    class Rewrite
+    {
+        // Bu test yeniden yazım sürerken yazmaların beklemeden kalıcı olduğunu ve sonuca eklendiğini doğrular.
+        @Test
+        void writes_are_not_stalled_by_a_running_rewrite() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            ControlledCodec codec = new ControlledCodec();
+            AppendOnlyLog<String> log = new AppendOnlyLog<>(file, codec, FsyncPolicy.ALWAYS, 0, 0L);
+            log.start(source);
+            for (int i = 0; i < 200; i++) {
+                source.set("key-" + i, "v");
+            }
+            for (int i = 0; i < 300; i++) {
+                source.set("hot", "value-" + i);
+            }
+            long before = log.size();
+            codec.rewriteDelayMillis = 5L;
+            log.requestRewrite();
+            Thread.sleep(100L);
+
+            long started = System.nanoTime();
+            source.set("during", "rewrite");
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 500L);
+
+            long deadline = System.currentTimeMillis() + 10_000L;
+            while (log.size() >= before && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            assertTrue(log.size() < before);
+            log.close();
+
+            CacheEngine<String, String> target = newEngine();
+            newLog(file, 0).replay(target);
+            assertEquals("rewrite", target.get("during"));
+            assertEquals("value-299", target.get("hot"));
+            assertEquals(source.size(), target.size());
+        }
+
+        // Bu test yeniden yazımın günlüğü küçülttüğünü ve son durumu koruduğunu doğrular.
+        @Test
+        void rewrite_compacts_log_to_current_state() throws Exception
+        {
+            File file = dir.resolve("data.aof").toFile();
+            CacheEngine<String, String> source = newEngine();
+            AppendOnlyLog<String> log = newLog(file, 0);
+            log.start(source);
+            for (int i = 0; i < 500; i++) {
+                source.set("hot", "value-" + i);
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (log.size() < 500L * 20 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            long before = log.size();
+            log.requestRewrite();
+            while (log.size() >= before && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            source.set("after", "rewrite");
+            log.close();
+
+            assertTrue(Files.size(file.toPath()) < before);
+            CacheEngine<String, String> target = newEngine();
+            newLog(file, 0).replay(target);
+            assertEquals("value-499", target.get("hot"));
+            assertEquals("rewrite", target.get("after"));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.can.rdb;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveRuleTest
+{
+    @Nested
+    class Parsing
+    {
+        // Bu test Redis biçimindeki saniye/değişiklik çiftlerinin sırayla çözüldüğünü doğrular.
+        @Test
+        void parses_redis_style_pairs()
+        {
+            assertEquals(List.of(new SaveRule(3600, 1), new SaveRule(300, 100), new SaveRule(60, 10_000)),
+                    SaveRule.parse(" 3600 1 300 100  60 10000 "));
+            assertEquals(List.of(), SaveRule.parse(""));
+            assertEquals(List.of(), SaveRule.parse(null));
+        }
+
+        // Bu test eksik, sayısal olmayan ya da pozitif olmayan değerlerin reddedildiğini doğrular.
+        @Test
+        void rejects_invalid_rules()
+        {
+            assertThrows(IllegalArgumentException.class, () -> SaveRule.parse("3600"));
+            assertThrows(IllegalArgumentException.class, () -> SaveRule.parse("3600 many"));
+            assertThrows(IllegalArgumentException.class, () -> SaveRule.parse("0 1"));
+        }
+    }
+
+    @Nested
+    class Matching
+    {
+        // Bu test kuralın hem süre hem değişiklik eşiği aşıldığında sağlandığını doğrular.
+        @Test
+        void requires_both_elapsed_time_and_changes()
+        {
+            SaveRule rule = new SaveRule(60, 100);
+
+            assertTrue(rule.matches(60, 100));
+            assertFalse(rule.matches(59, 1_000));
+            assertFalse(rule.matches(3600, 99));
+        }
+    }
+}
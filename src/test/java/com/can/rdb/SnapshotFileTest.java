@@ -0,0 +1,403 @@
+package com.can.rdb;
+
+import com.can.codec.BlockCodec;
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import com.can.core.EvictionPolicyType;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest
+{
+    @TempDir
+    Path dir;
+
+    private Vertx vertx;
+    private final List<CacheEngine<String, String>> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        engines.forEach(CacheEngine::close);
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private CacheEngine<String, String> newEngine()
+    {
+        CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(4)
+                .maxCapacity(10_000)
+                .vertx(vertx)
+                .build();
+        engines.add(engine);
+        return engine;
+    }
+
+    @Nested
+    class BinaryFormat
+    {
+        // Bu test ikili snapshot dosyasının tüm kayıtları ve süreleri geri yüklediğini doğrular.
+        @Test
+        void write_and_load_round_trip_entries()
+        {
+            CacheEngine<String, String> source = newEngine();
+            for (int i = 0; i < 2_000; i++) {
+                source.set("key-" + i, "value-" + i);
+            }
+            source.set("ttl", "soon", Duration.ofHours(1));
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            snapshot.write(source);
+
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+
+            assertEquals(source.size(), target.size());
+            assertEquals("value-1234", target.get("key-1234"));
+            assertEquals("soon", target.get("ttl"));
+        }
+
+        // Bu test farklı segment sayısıyla yazılmış bölümlerin de doğru segmentlere yüklendiğini doğrular.
+        @Test
+        void sections_load_into_engine_with_different_segment_count()
+        {
+            CacheEngine<String, String> source = newEngine();
+            for (int i = 0; i < 500; i++) {
+                source.set("key-" + i, "value-" + i);
+            }
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8, 3);
+            snapshot.write(source);
+
+            CacheEngine<String, String> target = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                    .segments(7)
+                    .maxCapacity(10_000)
+                    .vertx(vertx)
+                    .build();
+            engines.add(target);
+            snapshot.load(target);
+
+            assertEquals(500, target.size());
+            for (int i = 0; i < 500; i++) {
+                assertEquals("value-" + i, target.get("key-" + i));
+            }
+        }
+
+        // Bu test büyük ve boş değerlerin bellek eşlemeli okumada baytı baytına korunduğunu doğrular.
+        @Test
+        void mapped_load_preserves_large_and_empty_values()
+        {
+            CacheEngine<String, String> source = newEngine();
+            String large = "x".repeat(SnapshotFormat.DEFAULT_BLOCK_BYTES + 1024);
+            source.set("large", large);
+            source.set("empty", "");
+            source.set("small", "v");
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            snapshot.write(source);
+
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+
+            assertEquals(large, target.get("large"));
+            assertEquals("", target.get("empty"));
+            assertEquals("v", target.get("small"));
+        }
+
+        // Bu test hız sınırlı yazımın aynı dosyayı ürettiğini ve yazılan bayt ile kayıt sayısını raporladığını doğrular.
+        @Test
+        void throttled_write_reports_bytes_and_entries() throws IOException
+        {
+            CacheEngine<String, String> source = newEngine();
+            for (int i = 0; i < 1_000; i++) {
+                source.set("key-" + i, "value-" + i);
+            }
+            File file = dir.resolve("data.rdb").toFile();
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(file, StringCodec.UTF8, 2, 10L * 1024 * 1024);
+
+            SnapshotFile.WriteResult result = snapshot.write(source);
+
+            assertEquals(1_000, result.entries());
+            assertEquals(Files.size(file.toPath()), result.bytes());
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+            assertEquals("value-999", target.get("key-999"));
+        }
+
+        // Bu test sıkıştırılmış bloklarla yazılan dosyanın küçüldüğünü ve farklı kodlayıcılı deltayla birlikte yüklendiğini doğrular.
+        @Test
+        void compressed_snapshot_loads_with_mixed_codec_generations() throws IOException
+        {
+            CacheEngine<String, String> source = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                    .segments(4)
+                    .maxCapacity(10_000)
+                    .trackChanges(true)
+                    .vertx(vertx)
+                    .build();
+            engines.add(source);
+            for (int i = 0; i < 2_000; i++) {
+                source.set("key-" + i, "{\"id\":" + i + ",\"name\":\"customer\",\"active\":true}");
+            }
+            File file = dir.resolve("data.rdb").toFile();
+            new SnapshotFile<String, String>(file, StringCodec.UTF8).write(source);
+            long plainSize = Files.size(file.toPath());
+
+            for (BlockCodec codec : new BlockCodec[]{BlockCodec.LZ4, BlockCodec.DEFLATE}) {
+                SnapshotFile<String, String> compressed = new SnapshotFile<>(file, StringCodec.UTF8, 0, 0L, codec);
+                long baseId = compressed.write(source).createdAtMillis();
+                assertTrue(Files.size(file.toPath()) < plainSize / 2, codec + " should shrink the snapshot");
+
+                source.set("key-7", "changed-" + codec);
+                assertNotNull(new SnapshotFile<String, String>(file, StringCodec.UTF8).writeDelta(source, baseId, 1));
+
+                CacheEngine<String, String> target = newEngine();
+                compressed.load(target);
+                assertEquals(2_000, target.size());
+                assertEquals("changed-" + codec, target.get("key-7"));
+                assertEquals(source.get("key-1999"), target.get("key-1999"));
+            }
+        }
+
+        // Bu test bozulmuş bir bloğun CRC32C kontrolüyle reddedildiğini doğrular.
+        @Test
+        void corrupted_block_is_rejected() throws IOException
+        {
+            CacheEngine<String, String> source = newEngine();
+            source.set("alpha", "beta");
+            File file = dir.resolve("data.rdb").toFile();
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(file, StringCodec.UTF8);
+            snapshot.write(source);
+
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            assertEquals(SnapshotFormat.MAGIC, ByteBuffer.wrap(bytes).getInt());
+            int keyOffset = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("alpha");
+            assertTrue(keyOffset > 0);
+            bytes[keyOffset] ^= 0x01;
+            Files.write(file.toPath(), bytes);
+
+            RuntimeException error = assertThrows(RuntimeException.class, () -> snapshot.load(newEngine()));
+            assertTrue(error.getCause().getMessage().contains("checksum"));
+        }
+
+        // Bu test bilinmeyen sürümlü bir dosyanın yüklenmeden reddedildiğini doğrular.
+        @Test
+        void unknown_version_is_rejected() throws IOException
+        {
+            CacheEngine<String, String> source = newEngine();
+            source.set("alpha", "beta");
+            File file = dir.resolve("data.rdb").toFile();
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(file, StringCodec.UTF8);
+            snapshot.write(source);
+
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            assertEquals(SnapshotFormat.VERSION, ByteBuffer.wrap(bytes).getInt(4));
+            ByteBuffer.wrap(bytes).putInt(4, SnapshotFormat.VERSION + 1);
+            Files.write(file.toPath(), bytes);
+
+            RuntimeException error = assertThrows(RuntimeException.class, () -> snapshot.load(newEngine()));
+            assertTrue(error.getCause().getMessage().contains("Unsupported snapshot version"));
+        }
+    }
+
+    @Nested
+    class DeltaFiles
+    {
+        private CacheEngine<String, String> trackingEngine()
+        {
+            CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                    .segments(4)
+                    .maxCapacity(10_000)
+                    .trackChanges(true)
+                    .vertx(vertx)
+                    .build();
+            engines.add(engine);
+            return engine;
+        }
+
+        // Bu test tabanın ardından yazılan deltaların güncelleme ve silmeleri sırayla uyguladığını doğrular.
+        @Test
+        void base_and_deltas_restore_latest_state()
+        {
+            CacheEngine<String, String> source = trackingEngine();
+            for (int i = 0; i < 100; i++) {
+                source.set("key-" + i, "value-" + i);
+            }
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            long baseId = snapshot.write(source).createdAtMillis();
+
+            source.set("key-1", "updated");
+            source.delete("key-2");
+            assertNotNull(snapshot.writeDelta(source, baseId, 1));
+            source.set("key-100", "added");
+            source.set("key-2", "revived");
+            assertNotNull(snapshot.writeDelta(source, baseId, 2));
+
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+
+            assertEquals(101, target.size());
+            assertEquals("updated", target.get("key-1"));
+            assertEquals("revived", target.get("key-2"));
+            assertEquals("added", target.get("key-100"));
+            assertEquals("value-50", target.get("key-50"));
+
+            snapshot.write(source);
+            assertFalse(Files.exists(snapshot.deltaFile(1)));
+        }
+
+        // Bu test temizlenen bir segmentten sonra deltanın reddedildiğini ve eski tabana ait deltaların yok sayıldığını doğrular.
+        @Test
+        void clear_requires_full_snapshot_and_stale_deltas_are_ignored() throws IOException
+        {
+            CacheEngine<String, String> source = trackingEngine();
+            source.set("alpha", "1");
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            long baseId = snapshot.write(source).createdAtMillis();
+
+            source.clear();
+            assertNull(snapshot.writeDelta(source, baseId, 1));
+            assertFalse(Files.exists(snapshot.deltaFile(1)));
+
+            source.set("beta", "2");
+            assertNotNull(snapshot.writeDelta(source, baseId - 1, 1));
+
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+
+            assertEquals("1", target.get("alpha"));
+            assertNull(target.get("beta"));
+        }
+    }
+
+    @Nested
+    class EvictionState
+    {
+        private CacheEngine<String, String> singleSegment(EvictionPolicyType policy)
+        {
+            CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                    .segments(1)
+                    .maxCapacity(3)
+                    .evictionPolicy(policy)
+                    .vertx(vertx)
+                    .build();
+            engines.add(engine);
+            return engine;
+        }
+
+        // Bu test TinyLFU sıklık skecinin snapshot ile saklanıp aynen geri yüklendiğini doğrular.
+        @Test
+        void tiny_lfu_sketch_survives_restart()
+        {
+            CacheEngine<String, String> source = singleSegment(EvictionPolicyType.TINY_LFU);
+            source.set("hot", "1");
+            source.set("cold", "2");
+            for (int i = 0; i < 20; i++) {
+                source.get("hot");
+            }
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            snapshot.write(source);
+
+            CacheEngine<String, String> target = singleSegment(EvictionPolicyType.TINY_LFU);
+            snapshot.load(target);
+
+            assertArrayEquals(source.policyState(0), target.policyState(0));
+            assertEquals(2, target.size());
+        }
+
+        // Bu test politika durumu kaydının yazılan ve yüklenen girdi sayılarına katılmadığını doğrular.
+        @Test
+        void policy_state_is_not_counted_as_entry()
+        {
+            CacheEngine<String, String> source = singleSegment(EvictionPolicyType.TINY_LFU);
+            source.set("hot", "1");
+            source.set("cold", "2");
+            assertNotNull(source.policyState(0));
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+
+            assertEquals(2L, snapshot.write(source).entries());
+
+            long[] counts = new long[2];
+            snapshot.load(singleSegment(EvictionPolicyType.TINY_LFU), new SnapshotFile.LoadProgress()
+            {
+                @Override
+                public void expected(long entries)
+                {
+                    counts[0] += entries;
+                }
+
+                @Override
+                public void loaded(long entries)
+                {
+                    counts[1] += entries;
+                }
+            });
+            assertArrayEquals(new long[]{2L, 2L}, counts);
+        }
+
+        // Bu test LRU erişim sırasının yüklemeden sonra korunduğunu ve en eski girdinin tahliye edildiğini doğrular.
+        @Test
+        void lru_order_survives_restart()
+        {
+            CacheEngine<String, String> source = singleSegment(EvictionPolicyType.LRU);
+            source.set("a", "1");
+            source.set("b", "2");
+            source.set("c", "3");
+            source.get("a");
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+            snapshot.write(source);
+
+            CacheEngine<String, String> target = singleSegment(EvictionPolicyType.LRU);
+            snapshot.load(target);
+            target.set("d", "4");
+
+            assertNull(target.get("b"));
+            assertEquals("1", target.get("a"));
+            assertEquals("3", target.get("c"));
+        }
+    }
+
+    @Nested
+    class LegacyFormat
+    {
+        // Bu test eski Base64 satır formatındaki dosyanın hâlâ yüklenebildiğini doğrular.
+        @Test
+        void text_snapshot_is_still_loaded() throws IOException
+        {
+            Base64.Encoder base64 = Base64.getEncoder();
+            CacheEngine<String, String> encoder = newEngine();
+            encoder.set("legacy", "value");
+            List<String> lines = new ArrayList<>();
+            encoder.forEachEntry((key, value, expireAt) -> lines.add(String.join("\t", "S",
+                    base64.encodeToString(key.getBytes(StandardCharsets.UTF_8)),
+                    base64.encodeToString(value),
+                    Long.toString(expireAt))));
+            File file = dir.resolve("legacy.rdb").toFile();
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+            CacheEngine<String, String> target = newEngine();
+            new SnapshotFile<String, String>(file, StringCodec.UTF8).load(target);
+
+            assertEquals("value", target.get("legacy"));
+        }
+    }
+}
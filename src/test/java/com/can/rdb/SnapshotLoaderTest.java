@@ -0,0 +1,131 @@
+package com.can.rdb;
+
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotLoaderTest
+{
+    @TempDir
+    Path dir;
+
+    private Vertx vertx;
+    private final List<CacheEngine<String, String>> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        engines.forEach(CacheEngine::close);
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private CacheEngine<String, String> newEngine()
+    {
+        CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(4)
+                .maxCapacity(10_000)
+                .vertx(vertx)
+                .build();
+        engines.add(engine);
+        return engine;
+    }
+
+    private SnapshotFile<String, String> snapshotWith(int entries)
+    {
+        CacheEngine<String, String> source = newEngine();
+        for (int i = 0; i < entries; i++) {
+            source.set("key-" + i, "value-" + i);
+        }
+        SnapshotFile<String, String> snapshot = new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+        snapshot.write(source);
+        return snapshot;
+    }
+
+    @Nested
+    class WarmStart
+    {
+        // Bu test arka plan yüklemesinin tamamlandığında hazır sinyalini ve ilerlemeyi doğru raporladığını doğrular.
+        @Test
+        void async_load_reports_progress_and_readiness() throws Exception
+        {
+            SnapshotLoader<String, String> loader = new SnapshotLoader<>(snapshotWith(1_000), null);
+            CacheEngine<String, String> target = newEngine();
+            List<CacheEngine<String, String>> afterLoad = new ArrayList<>();
+
+            loader.loadAsync(target, afterLoad::add).get(10, TimeUnit.SECONDS);
+
+            assertTrue(loader.isReady());
+            assertEquals(100, loader.progressPercent());
+            assertEquals(1_000, loader.expectedEntries());
+            assertEquals(1_000, loader.loadedEntries());
+            assertEquals(List.of(target), afterLoad);
+            assertFalse(target.isWarmLoading());
+            assertEquals("value-500", target.get("key-500"));
+        }
+
+        // Bu test yükleme sürerken yazılan ya da silinen anahtarların snapshot kayıtlarıyla ezilmediğini doğrular.
+        @Test
+        void keys_written_during_warm_load_are_not_overwritten()
+        {
+            SnapshotFile<String, String> snapshot = snapshotWith(100);
+            CacheEngine<String, String> target = newEngine();
+
+            target.beginWarmLoad();
+            target.set("key-1", "fresh");
+            target.set("key-2", "doomed");
+            target.delete("key-2");
+            snapshot.load(target);
+            target.endWarmLoad();
+
+            assertEquals("fresh", target.get("key-1"));
+            assertNull(target.get("key-2"));
+            assertEquals("value-3", target.get("key-3"));
+            assertEquals(99, target.size());
+        }
+
+        // Bu test okunamayan snapshot'ın kenara taşındığını ve sonraki adımların yine çalıştığını doğrular.
+        @Test
+        void unreadable_snapshot_is_moved_aside_and_startup_continues() throws Exception
+        {
+            SnapshotFile<String, String> snapshot = snapshotWith(1_000);
+            Path file = snapshot.file().toPath();
+            byte[] original = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(original, original.length / 2));
+            SnapshotLoader<String, String> loader = new SnapshotLoader<>(snapshot, null);
+            CacheEngine<String, String> target = newEngine();
+            List<CacheEngine<String, String>> afterLoad = new ArrayList<>();
+
+            loader.loadAsync(target, afterLoad::add).get(10, TimeUnit.SECONDS);
+
+            assertEquals(List.of(target), afterLoad);
+            assertFalse(target.isWarmLoading());
+            assertFalse(Files.exists(file));
+            try (Stream<Path> files = Files.list(dir)) {
+                List<Path> aside = files.filter(p -> p.getFileName().toString().startsWith("data.rdb.corrupt-")).toList();
+                assertEquals(1, aside.size());
+                assertEquals(original.length / 2, Files.size(aside.get(0)));
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.can.rdb;
+
+import com.can.codec.StringCodec;
+import com.can.core.CacheEngine;
+import com.can.metric.MetricsRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotSchedulerTest
+{
+    @TempDir
+    Path dir;
+
+    private Vertx vertx;
+    private WorkerExecutor worker;
+    private MetricsRegistry metrics;
+    private final List<CacheEngine<String, String>> engines = new ArrayList<>();
+    private final List<SnapshotScheduler> schedulers = new ArrayList<>();
+
+    @BeforeEach
+    void setup()
+    {
+        vertx = Vertx.vertx();
+        worker = vertx.createSharedWorkerExecutor("snapshot-test");
+        metrics = new MetricsRegistry();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        schedulers.forEach(SnapshotScheduler::close);
+        engines.forEach(CacheEngine::close);
+        worker.close();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private CacheEngine<String, String> newEngine()
+    {
+        CacheEngine<String, String> engine = CacheEngine.<String, String>builder(StringCodec.UTF8, StringCodec.UTF8)
+                .segments(4)
+                .maxCapacity(10_000)
+                .trackChanges(true)
+                .vertx(vertx)
+                .build();
+        engines.add(engine);
+        return engine;
+    }
+
+    private SnapshotScheduler newScheduler(CacheEngine<String, String> engine, SnapshotFile<String, String> snapshot,
+                                           int fullEvery)
+    {
+        return newScheduler(engine, snapshot, fullEvery, CompletableFuture.completedFuture(null), List.of(),
+                System::nanoTime);
+    }
+
+    private SnapshotScheduler newScheduler(CacheEngine<String, String> engine, SnapshotFile<String, String> snapshot,
+                                           int fullEvery, CompletionStage<?> loaded, List<SaveRule> rules,
+                                           AtomicLong clock)
+    {
+        return newScheduler(engine, snapshot, fullEvery, loaded, rules, clock::get);
+    }
+
+    private SnapshotScheduler newScheduler(CacheEngine<String, String> engine, SnapshotFile<String, String> snapshot,
+                                           int fullEvery, CompletionStage<?> loaded, List<SaveRule> rules,
+                                           LongSupplier clock)
+    {
+        SnapshotScheduler scheduler = new SnapshotScheduler(engine, snapshot, 0L, true, fullEvery, vertx, worker,
+                loaded, rules, metrics, clock);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private SnapshotFile<String, String> newSnapshot()
+    {
+        return new SnapshotFile<>(dir.resolve("data.rdb").toFile(), StringCodec.UTF8);
+    }
+
+    @Nested
+    class Triggers
+    {
+        // Bu test kuralın hem süre hem değişiklik eşiği aşıldığında snapshot istediğini doğrular.
+        @Test
+        void save_rule_fires_only_after_time_and_changes()
+        {
+            CacheEngine<String, String> engine = newEngine();
+            AtomicLong clock = new AtomicLong();
+            SnapshotScheduler scheduler = newScheduler(engine, newSnapshot(), 1,
+                    CompletableFuture.completedFuture(null), List.of(new SaveRule(60, 3)), clock);
+
+            engine.set("a", "1");
+            engine.set("b", "2");
+            engine.set("c", "3");
+            assertFalse(scheduler.shouldSave());
+
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+            assertFalse(scheduler.shouldSave());
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            assertTrue(scheduler.shouldSave());
+
+            scheduler.safeSnapshot();
+            assertFalse(scheduler.shouldSave());
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(120));
+            engine.set("d", "4");
+            engine.set("e", "5");
+            assertFalse(scheduler.shouldSave());
+            engine.delete("a");
+            assertTrue(scheduler.shouldSave());
+        }
+
+        // Bu test periyodik turun son snapshot'tan beri değişiklik yoksa atlandığını doğrular.
+        @Test
+        void periodic_tick_skips_when_nothing_changed()
+        {
+            CacheEngine<String, String> engine = newEngine();
+            SnapshotScheduler scheduler = newScheduler(engine, newSnapshot(), 1);
+
+            assertTrue(scheduler.periodicDue());
+            scheduler.safeSnapshot();
+            assertFalse(scheduler.periodicDue());
+
+            engine.set("a", "1");
+            assertTrue(scheduler.periodicDue());
+            scheduler.safeSnapshot();
+            assertFalse(scheduler.periodicDue());
+        }
+    }
+
+    @Nested
+    class Loading
+    {
+        // Bu test ilk snapshot'ın yükleme bitene kadar ertelendiğini ve bitince alındığını doğrular.
+        @Test
+        void first_snapshot_waits_for_load() throws Exception
+        {
+            CacheEngine<String, String> engine = newEngine();
+            engine.set("a", "1");
+            SnapshotFile<String, String> snapshot = newSnapshot();
+            CompletableFuture<Void> loaded = new CompletableFuture<>();
+            SnapshotScheduler scheduler = newScheduler(engine, snapshot, 1, loaded, List.of(), System::nanoTime);
+
+            scheduler.start();
+            scheduler.safeSnapshot();
+            assertFalse(snapshot.file().exists());
+
+            loaded.complete(null);
+            long deadline = System.currentTimeMillis() + 10_000L;
+            while (!snapshot.file().exists() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            assertTrue(snapshot.file().exists());
+        }
+
+        // Bu test yükleme hatayla bittiğinde mevcut dosyanın üzerine snapshot yazılmadığını doğrular.
+        @Test
+        void failed_load_disables_snapshots()
+        {
+            CacheEngine<String, String> engine = newEngine();
+            engine.set("a", "1");
+            SnapshotFile<String, String> snapshot = newSnapshot();
+            SnapshotScheduler scheduler = newScheduler(engine, snapshot, 1,
+                    CompletableFuture.failedFuture(new IllegalStateException("unreadable")), List.of(),
+                    System::nanoTime);
+
+            scheduler.start();
+            scheduler.safeSnapshot();
+
+            assertFalse(snapshot.file().exists());
+        }
+    }
+
+    @Nested
+    class DeltaChain
+    {
+        // Bu test fullEvery uzunluğundaki zincirin deltalarla dolup yeniden tam snapshot ile başladığını doğrular.
+        @Test
+        void deltas_alternate_with_full_snapshots_by_full_every()
+        {
+            CacheEngine<String, String> engine = newEngine();
+            SnapshotFile<String, String> snapshot = newSnapshot();
+            SnapshotScheduler scheduler = newScheduler(engine, snapshot, 3);
+
+            engine.set("a", "1");
+            scheduler.safeSnapshot();
+            long firstFull = snapshot.file().lastModified();
+            assertFalse(Files.exists(snapshot.deltaFile(1)));
+
+            engine.set("b", "2");
+            scheduler.safeSnapshot();
+            engine.set("c", "3");
+            scheduler.safeSnapshot();
+            assertTrue(Files.exists(snapshot.deltaFile(1)));
+            assertTrue(Files.exists(snapshot.deltaFile(2)));
+            assertEquals(firstFull, snapshot.file().lastModified());
+
+            engine.set("d", "4");
+            scheduler.safeSnapshot();
+            assertFalse(Files.exists(snapshot.deltaFile(1)));
+            assertFalse(Files.exists(snapshot.deltaFile(2)));
+
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+            assertEquals(4, target.size());
+            assertEquals("4", target.get("d"));
+        }
+
+        // Bu test başarısız bir delta yazımından sonra kaybolan anahtarların bir sonraki tam snapshot'a girdiğini doğrular.
+        @Test
+        void failed_write_forces_full_snapshot_next() throws IOException
+        {
+            CacheEngine<String, String> engine = newEngine();
+            for (int i = 0; i < 100; i++) {
+                engine.set("key-" + i, "value-" + i);
+            }
+            File file = dir.resolve("data.rdb").toFile();
+            SnapshotFile<String, String> snapshot = new SnapshotFile<>(file, StringCodec.UTF8);
+            SnapshotScheduler scheduler = newScheduler(engine, snapshot, 10);
+            scheduler.safeSnapshot();
+
+            engine.set("lost", "1");
+            // Delta dosyasının yerindeki dolu dizin yeni dosyanın taşınmasını engeller.
+            Path blocker = snapshot.deltaFile(1);
+            Files.createDirectories(blocker.resolve("occupied"));
+            scheduler.safeSnapshot();
+            assertEquals(1L, metrics.counter("snapshot_failures").get());
+            Files.delete(blocker.resolve("occupied"));
+            Files.delete(blocker);
+
+            engine.set("kept", "2");
+            scheduler.safeSnapshot();
+
+            assertFalse(Files.exists(snapshot.deltaFile(1)));
+            CacheEngine<String, String> target = newEngine();
+            snapshot.load(target);
+            assertEquals("1", target.get("lost"));
+            assertEquals("2", target.get("kept"));
+            assertEquals(102, target.size());
+        }
+    }
+}